@@ -0,0 +1,121 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe finale implémentant {@link SpatialIndex} en choisissant, à chaque
+ * reconstruction, entre une grille uniforme ({@link UniformGridIndex}) et un
+ * arbre quaternaire lâche ({@link LooseQuadtreeIndex}) d'après l'occupation
+ * observée : les objets sont comptés dans les cellules qu'aurait la grille, et
+ * la part des objets situés dans des cellules surpeuplées (plus de
+ * {@link AdaptiveSpatialIndex#OVERLOAD_FACTOR} fois l'occupation moyenne)
+ * mesure la concentration de la répartition. Au-delà de
+ * {@link AdaptiveSpatialIndex#QUADTREE_SHARE}, l'arbre est retenu ; en deçà de
+ * {@link AdaptiveSpatialIndex#GRID_SHARE}, la grille l'est à nouveau. L'écart
+ * entre les deux seuils évite d'alterner d'une reconstruction à l'autre.
+ */
+final class AdaptiveSpatialIndex implements SpatialIndex {
+	/**
+	 * Multiple de l'occupation moyenne au-delà duquel une cellule est surpeuplée
+	 */
+	static final int OVERLOAD_FACTOR = 4;
+	/**
+	 * Part d'objets surpeuplés à partir de laquelle la grille cède la place à
+	 * l'arbre
+	 */
+	static final double QUADTREE_SHARE = 0.3;
+	/**
+	 * Part d'objets surpeuplés en deçà de laquelle l'arbre cède la place à la
+	 * grille
+	 */
+	static final double GRID_SHARE = 0.15;
+
+	private final UniformGridIndex grid = new UniformGridIndex();
+	private final LooseQuadtreeIndex quadtree = new LooseQuadtreeIndex();
+	private SpatialIndex current = grid;
+	private double overloadedShare;
+	private int[] occupancy = new int[0];
+
+	@Override
+	public void rebuild(List<? extends Positionable> objects, int worldWidth, int worldHeight, double extent) {
+		overloadedShare = measureOverloadedShare(objects, worldWidth, worldHeight);
+		if (current == grid && overloadedShare >= QUADTREE_SHARE) {
+			current = quadtree;
+		} else if (current == quadtree && overloadedShare <= GRID_SHARE) {
+			current = grid;
+		}
+		current.rebuild(objects, worldWidth, worldHeight, extent);
+	}
+
+	@Override
+	public int gatherWithin(double x, double y, double radius) {
+		return current.gatherWithin(x, y, radius);
+	}
+
+	@Override
+	public int[] getGathered() {
+		return current.getGathered();
+	}
+
+	@Override
+	public int size() {
+		return current.size();
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return {@code true} si l'arbre quaternaire est l'index courant,
+	 *         {@code false} si c'est la grille
+	 */
+	boolean usesQuadtree() {
+		return current == quadtree;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la part des objets situés dans des cellules surpeuplées lors de
+	 *         la dernière reconstruction
+	 */
+	double getOverloadedShare() {
+		return overloadedShare;
+	}
+
+	/**
+	 * Compte les objets de {@code objects} dans des cellules dimensionnées
+	 * comme celles de {@link UniformGridIndex}, et retourne la part de ceux
+	 * situés dans une cellule surpeuplée.
+	 */
+	private double measureOverloadedShare(List<? extends Positionable> objects, int worldWidth, int worldHeight) {
+		int size = objects.size();
+		if (size <= UniformGridIndex.MEAN_OCCUPANCY) {
+			return 0.0;
+		}
+		double cellSide = Math.sqrt((double) worldWidth * worldHeight * UniformGridIndex.MEAN_OCCUPANCY / size);
+		int columns = (int) Math.max(1, Math.min(worldWidth, Math.round(worldWidth / cellSide)));
+		int rows = (int) Math.max(1, Math.min(worldHeight, Math.round(worldHeight / cellSide)));
+		int cells = columns * rows;
+		if (occupancy.length < cells) {
+			occupancy = new int[Math.max(cells, 2 * occupancy.length)];
+		}
+		Arrays.fill(occupancy, 0, cells, 0);
+
+		for (int i = 0; i < size; ++i) {
+			ToricPosition position = objects.get(i).getPosition();
+			int column = Math.min(Math.max((int) (position.toVec2d().getX() * columns / worldWidth), 0), columns - 1);
+			int row = Math.min(Math.max((int) (position.toVec2d().getY() * rows / worldHeight), 0), rows - 1);
+			++occupancy[row * columns + column];
+		}
+
+		double overload = OVERLOAD_FACTOR * size / (double) cells;
+		int overloaded = 0;
+		for (int c = 0; c < cells; ++c) {
+			if (occupancy[c] > overload) {
+				overloaded += occupancy[c];
+			}
+		}
+		return overloaded / (double) size;
+	}
+}
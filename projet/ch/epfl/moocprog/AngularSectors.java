@@ -0,0 +1,138 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+
+/**
+ * Classe finale précalculant, pour une table d'angles d'observation (voir
+ * {@link RotationProbability#getAngles()}), le découpage du cercle en secteurs :
+ * le secteur d'un angle est celui de l'angle d'observation le plus proche sur
+ * le cercle. Les frontières entre secteurs, à mi-chemin de deux angles
+ * d'observation consécutifs, sont triées une fois pour toutes, et le secteur
+ * d'un angle est trouvé par recherche dichotomique au lieu d'une comparaison à
+ * chaque angle d'observation. Lorsque deux angles d'observation coïncident sur
+ * le cercle (par exemple {@code -180} et {@code 180} degrés), le premier de la
+ * table est retenu.
+ */
+final class AngularSectors {
+	private static final double TWO_PI = 2 * Math.PI;
+
+	/**
+	 * Copie de la table d'angles d'observation
+	 */
+	private final double[] angles;
+	/**
+	 * Frontières entre secteurs, ramenées dans {@code [0, 2PI[} et triées
+	 */
+	private final double[] bounds;
+	/**
+	 * Secteur débutant à chaque frontière de {@link AngularSectors#bounds}
+	 */
+	private final int[] sectors;
+
+	/**
+	 * Constructeur non vide initialisant un {@link AngularSectors}.
+	 *
+	 * @param angles : table non vide des angles d'observation, en radians
+	 */
+	AngularSectors(double[] angles) {
+		this.angles = angles.clone();
+
+		// Angles distincts ramenés sur le cercle, chacun associé au premier indice
+		// de la table qui lui correspond, triés par angle
+		double[] normalized = new double[angles.length];
+		int[] indices = new int[angles.length];
+		int count = 0;
+		for (int k = 0; k < angles.length; ++k) {
+			double angle = normalize(angles[k]);
+			boolean known = false;
+			for (int j = 0; j < count && !known; ++j) {
+				known = (normalized[j] == angle);
+			}
+			if (!known) {
+				int position = count++;
+				while (position > 0 && normalized[position - 1] > angle) {
+					normalized[position] = normalized[position - 1];
+					indices[position] = indices[position - 1];
+					--position;
+				}
+				normalized[position] = angle;
+				indices[position] = k;
+			}
+		}
+
+		// La frontière j sépare l'angle j de l'angle suivant sur le cercle ; le
+		// secteur qui la suit est celui de l'angle suivant
+		double[] bounds = new double[count];
+		int[] sectors = new int[count];
+		for (int j = 0; j < count; ++j) {
+			int next = (j + 1) % count;
+			double gap = normalized[next] - normalized[j];
+			if (gap <= 0.0) {
+				gap += TWO_PI;
+			}
+			bounds[j] = normalize(normalized[j] + gap / 2);
+			sectors[j] = indices[next];
+		}
+
+		// Tri des frontières, la rotation éventuelle du tableau (frontière au-delà
+		// de 2PI ramenée au début) étant la seule perturbation possible
+		Integer[] order = new Integer[count];
+		for (int j = 0; j < count; ++j) {
+			order[j] = j;
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(bounds[a], bounds[b]));
+		this.bounds = new double[count];
+		this.sectors = new int[count];
+		for (int j = 0; j < count; ++j) {
+			this.bounds[j] = bounds[order[j]];
+			this.sectors[j] = sectors[order[j]];
+		}
+	}
+
+	/**
+	 * Teste si l'instance {@code this} a été construite pour la table
+	 * {@code angles}.
+	 *
+	 * @param angles : table d'angles d'observation
+	 * @return {@code true} si les tables sont égales
+	 */
+	boolean matches(double[] angles) {
+		return Arrays.equals(this.angles, angles);
+	}
+
+	/**
+	 * Retourne l'indice, dans la table d'angles d'observation, de l'angle le plus
+	 * proche de {@code angle} sur le cercle.
+	 *
+	 * @param angle : {@code double}, angle en radians, quelconque
+	 * @return l'indice du secteur contenant {@code angle}
+	 */
+	int sectorOf(double angle) {
+		double a = normalize(angle);
+
+		// Dernière frontière inférieure ou égale à a ; avant la première
+		// frontière, on est dans le secteur qui suit la dernière
+		int low = 0, high = bounds.length - 1, found = bounds.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (bounds[middle] <= a) {
+				found = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return sectors[found];
+	}
+
+	/**
+	 * Ramène {@code angle} dans {@code [0, 2PI[}.
+	 */
+	private static double normalize(double angle) {
+		double a = angle % TWO_PI;
+		if (a < 0.0) {
+			a += TWO_PI;
+		}
+		return (a >= TWO_PI) ? 0.0 : a;
+	}
+}
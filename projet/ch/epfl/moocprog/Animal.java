@@ -1,14 +1,14 @@
 package ch.epfl.moocprog;
 
 import static ch.epfl.moocprog.config.Config.ANIMAL_LIFESPAN_DECREASE_FACTOR;
+import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
 import static ch.epfl.moocprog.config.Config.ANIMAL_NEXT_ROTATION_DELAY;
 
-import java.util.List;
-
 import ch.epfl.moocprog.app.Context;
 import ch.epfl.moocprog.random.UniformDistribution;
 import ch.epfl.moocprog.utils.Time;
 import ch.epfl.moocprog.utils.Utils;
+import ch.epfl.moocprog.utils.MutableVec2d;
 import ch.epfl.moocprog.utils.Vec2d;
 
 /**
@@ -25,16 +25,10 @@ public abstract class Animal extends Positionable {
 	 */
 	private double angleDirection;
 	/**
-	 * Durée d'une attaque en cours. La valeur est initialisée à {@link Time#ZERO}
-	 * lors de l'initialisation d'une instance de {@link Animal}
-	 */
-	private Time attackDuration;
-	/**
-	 * Temps écoulé avant la prochaine rotation de l'animal. La valeur est
-	 * initialisée à {@link Time#ZERO} lors de l'initialisation d'une instance de
-	 * {@link Animal}.
+	 * Durée d'une attaque en cours, en millisecondes. La valeur est initialisée à
+	 * zéro lors de l'initialisation d'une instance de {@link Animal}
 	 */
-	private Time rotationDelay;
+	private long attackDuration;
 	/**
 	 * L'état courant de l'animal provenant de {@link State} : IDLE (inactif),
 	 * ESCAPING (en fuite) ou ATTACK (en attaque).
@@ -45,9 +39,38 @@ public abstract class Animal extends Positionable {
 	 */
 	private int hitPoints;
 	/**
-	 * Durée de vie restante de l'animal.
+	 * Durée de vie restante de l'animal, en millisecondes.
+	 */
+	private long lifespan;
+	/**
+	 * Vecteur de travail réutilisé par les calculs de déplacement de l'animal
+	 * (voir {@link Animal#move(AnimalEnvironmentView, Time)}) afin de ne pas
+	 * allouer de vecteur à chaque pas de simulation.
+	 */
+	private final MutableVec2d scratch = new MutableVec2d();
+	/**
+	 * Timer des rotations planifiées de l'animal, annulé lorsque l'animal quitte
+	 * son environnement sans mourir (voir {@link TileExchange})
 	 */
-	private Time lifespan;
+	private Scheduler.Timer rotationTimer;
+	/**
+	 * Position et direction de l'animal au début du pas de simulation courant,
+	 * pour l'interpolation du rendu ; {@code null} tant qu'aucun pas n'a débuté
+	 */
+	private ToricPosition previousPosition;
+	private double previousDirection;
+	/**
+	 * Ennemi le plus proche désigné par la phase de combat de l'environnement
+	 * (voir {@link CombatKernel}), ou {@code null} s'il n'y en a pas, et temps
+	 * simulé du pas au cours duquel il l'a été
+	 */
+	private Animal combatTarget;
+	private long combatTime = Long.MIN_VALUE;
+	/**
+	 * Indice de l'animal dans le stockage de l'environnement au début de la
+	 * dernière mise à jour parallèle (voir {@link ParallelAnimalUpdate})
+	 */
+	private int phaseIndex = -1;
 	
 	/**
 	 * État possible de l'animal : IDLE (inactif), ESCAPING (en fuite) ou ATTACK (en
@@ -60,8 +83,8 @@ public abstract class Animal extends Positionable {
 	 * d'une {@link ToricPosition}. Elle permet aussi de déclarer des valeurs
 	 * initiales pour les attributs {@link Animal#angleDirection} initialisé à une
 	 * valeur aléatoire tirée de manière uniforme entre 0 et 2*{@link Math#PI};
-	 * {@link Animal#attackDuration} et {@link Animal#rotationDelay} initialisés à
-	 * {@link Time#ZERO}; et {@link Animal#etat} initialisé à {@link State#IDLE}. Ce
+	 * {@link Animal#attackDuration} initialisé à zéro; et {@link Animal#etat}
+	 * initialisé à {@link State#IDLE}. Ce
 	 * constructeur fait appel à {@link Positionable#Positionable(ToricPosition)}.
 	 * 
 	 * 
@@ -72,8 +95,7 @@ public abstract class Animal extends Positionable {
 	public Animal(ToricPosition position) {
 		super(position);
 		angleDirection = UniformDistribution.getValue(0.0, (2 * Math.PI));
-		attackDuration = Time.ZERO;
-		rotationDelay = Time.ZERO;
+		attackDuration = 0L;
 		setState(State.IDLE);
 	}
 
@@ -93,7 +115,7 @@ public abstract class Animal extends Positionable {
 	 */
 	public Animal(ToricPosition position, int hitPoints, Time lifespan) {
 		this(position);
-		this.lifespan = lifespan;
+		this.lifespan = lifespan.toMilliseconds();
 		this.hitPoints = hitPoints;
 	}
 	
@@ -151,9 +173,139 @@ public abstract class Animal extends Positionable {
 	 * 
 	 */
 	public final Time getLifespan() {
+		return Time.fromMilliseconds(lifespan);
+	}
+	
+	/**
+	 * Getter
+	 * 
+	 * @return la durée de vie restante, en millisecondes
+	 */
+	final long getLifespanMillis() {
 		return lifespan;
 	}
 	
+	/**
+	 * Setter
+	 * 
+	 * @param lifespan : {@code long}, durée de vie restante en millisecondes
+	 */
+	final void setLifespanMillis(long lifespan) {
+		this.lifespan = lifespan;
+	}
+	
+	/**
+	 * Getter
+	 * 
+	 * @return la durée du combat en cours, en millisecondes
+	 */
+	final long getAttackDurationMillis() {
+		return attackDuration;
+	}
+	
+	/**
+	 * Setter
+	 * 
+	 * @param attackDuration : {@code long}, durée du combat en cours en
+	 *                       millisecondes
+	 */
+	final void setAttackDurationMillis(long attackDuration) {
+		this.attackDuration = attackDuration;
+	}
+	
+	/**
+	 * Getter
+	 * 
+	 * @return le timer des rotations planifiées, ou {@code null}
+	 */
+	final Scheduler.Timer getRotationTimer() {
+		return rotationTimer;
+	}
+	
+	/**
+	 * Setter
+	 * 
+	 * @param rotationTimer : {@link Scheduler.Timer} des rotations planifiées
+	 */
+	final void setRotationTimer(Scheduler.Timer rotationTimer) {
+		this.rotationTimer = rotationTimer;
+	}
+	
+	/**
+	 * Mémorise la position et la direction courantes de l'instance {@code this}
+	 * de {@link Animal} comme état précédent, au début d'un pas de simulation.
+	 */
+	final void savePreviousState() {
+		previousPosition = getPosition();
+		previousDirection = angleDirection;
+	}
+
+	/**
+	 * Remet à l'instance {@code this} de {@link Animal} l'ennemi le plus proche
+	 * désigné par la phase de combat du pas de temps simulé {@code time}.
+	 * 
+	 * @param target : {@link Animal} ennemi le plus proche, ou {@code null}
+	 * @param time   : {@code long}, temps simulé du pas courant
+	 */
+	final void setCombatTarget(Animal target, long time) {
+		combatTarget = target;
+		combatTime = time;
+	}
+
+	/**
+	 * Setter final
+	 * 
+	 * @param index : {@code int}, indice de l'instance {@code this} de
+	 *              {@link Animal} dans l'instantané d'une mise à jour parallèle
+	 */
+	final void setPhaseIndex(int index) {
+		phaseIndex = index;
+	}
+
+	/**
+	 * Getter final
+	 * 
+	 * @return l'indice de l'instance {@code this} de {@link Animal} dans
+	 *         l'instantané de la dernière mise à jour parallèle, ou {@code -1}
+	 */
+	final int getPhaseIndex() {
+		return phaseIndex;
+	}
+
+	/**
+	 * Méthode retournant la position de l'instance {@code this} de
+	 * {@link Animal} interpolée entre le début et la fin du dernier pas de
+	 * simulation, par le plus court chemin torique.
+	 * 
+	 * @param alpha : {@code double}, facteur d'interpolation dans {@code [0, 1]}
+	 *              ({@code 1} pour la position courante)
+	 * @return la position interpolée
+	 */
+	public final Vec2d getInterpolatedPosition(double alpha) {
+		if (previousPosition == null || alpha >= 1.0) {
+			return getPosition().toVec2d();
+		}
+		Vec2d delta = previousPosition.toricVector(getPosition());
+		return previousPosition.add(delta.getX() * alpha, delta.getY() * alpha).toVec2d();
+	}
+
+	/**
+	 * Méthode retournant la direction de l'instance {@code this} de
+	 * {@link Animal} interpolée entre le début et la fin du dernier pas de
+	 * simulation, selon le plus petit angle.
+	 * 
+	 * @param alpha : {@code double}, facteur d'interpolation dans {@code [0, 1]}
+	 *              ({@code 1} pour la direction courante)
+	 * @return la direction interpolée, en radians
+	 */
+	public final double getInterpolatedDirection(double alpha) {
+		if (previousPosition == null || alpha >= 1.0) {
+			return angleDirection;
+		}
+		double delta = Math.IEEEremainder(angleDirection - previousDirection, 2 * Math.PI);
+		return previousDirection + alpha * delta;
+	}
+
 	/**
 	 * Getter final
 	 * 
@@ -218,7 +370,7 @@ public abstract class Animal extends Positionable {
 	 * @return {@code true} si l'animal peut attaquer, {@code false} sinon.
 	 */
 	protected final boolean canAttack() {
-		return (!(getState().equals(State.ESCAPING)) && (attackDuration.compareTo(getMaxAttackDuration()) <= 0));
+		return (!(getState().equals(State.ESCAPING)) && (attackDuration <= getMaxAttackDuration().toMilliseconds()));
 	}
 	
 	/**
@@ -274,7 +426,7 @@ public abstract class Animal extends Positionable {
 		move(env, dt);
 
 			
-		if(!env.isVisibleFromEnemies(this)) {
+		if(!env.anyEnemyWithin(this, Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE))) {
 			setState(State.IDLE);
 		}
 	}
@@ -288,29 +440,20 @@ public abstract class Animal extends Positionable {
 	 *            l'instance {@code env} de {@link AnimalEnvironmentView}
 	 */
 	protected void fight (AnimalEnvironmentView env, Time dt) {
-		List <Animal> ennemies;
-		
-		ennemies = env.getVisibleEnemiesForAnimal(this);
+		Animal nearestEnnemy = nearestEnemy(env);
 		
-		if (!ennemies.isEmpty()) {
-			Animal nearestEnnemy = Utils.closestFromPoint(this, ennemies);
-			
-			nearestEnnemy.setState(State.ATTACK);
-			
+		if (nearestEnnemy != null) {
 			if (!(getState().equals(State.ATTACK))) {
 				setState(State.ATTACK);
 			}
 			
-			int hit = (int) Math.round(UniformDistribution.getValue(getMinAttackStrength(), getMaxAttackStrength()));
-			
-			if (!(nearestEnnemy.isDead())){
-				nearestEnnemy.setHitpoints(nearestEnnemy.getHitpoints() - hit);
-			}
+			// Le coup est tiré et porté par l'environnement, qui modifie l'ennemi
+			env.strike(this, nearestEnnemy);
 				
-			attackDuration = attackDuration.plus(dt);
+			attackDuration += dt.toMilliseconds();
 			
 		} else {
-			attackDuration = Time.ZERO;
+			attackDuration = 0L;
 					
 			if (getState().equals(State.ATTACK)) {
 				setState(State.ESCAPING);
@@ -319,6 +462,25 @@ public abstract class Animal extends Positionable {
 		}
 	}
 	
+	/**
+	 * Retourne l'ennemi le plus proche à portée de vue de l'instance
+	 * {@code this} de {@link Animal} : celui désigné par la phase de combat du
+	 * pas courant (voir {@link CombatKernel}), à moins que {@code env} ne le
+	 * tienne pour mort (voir
+	 * {@link AnimalEnvironmentView#isAliveAtPhaseStart(Animal)}), et sinon
+	 * celui trouvé par {@code env}.
+	 * 
+	 * @param env : instance de {@link AnimalEnvironmentView} dans laquelle
+	 *            {@code this} évolue
+	 * @return l'ennemi le plus proche, ou {@code null} si aucun n'est à portée
+	 */
+	private Animal nearestEnemy(AnimalEnvironmentView env) {
+		if (combatTime == env.getSimulationTime() && (combatTarget == null || env.isAliveAtPhaseStart(combatTarget))) {
+			return combatTarget;
+		}
+		return env.nearestEnemyWithin(this, Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE));
+	}
+	
 	/**
 	 * Méthode abstraite à implémenter par les classes dérivées pour définir la
 	 * force minimale d'attaque de l'instance {@code this} de {@link Animal}
@@ -364,7 +526,7 @@ public abstract class Animal extends Positionable {
 	 *         zéro.
 	 */
 	public final boolean isDead() {
-		return (hitPoints <= 0 || lifespan.compareTo(Time.ZERO) <= 0);
+		return (hitPoints <= 0 || lifespan <= 0L);
 	}
 	
 	/**
@@ -379,6 +541,19 @@ public abstract class Animal extends Positionable {
 	 */
 	public abstract boolean isEnemy (Animal other);
 	
+	/**
+	 * Méthode abstraite à implémenter par les classes dérivées pour définir par
+	 * "double dispatch" si {@code other} est ennemie de l'instance {@code this}
+	 * de {@link Animal} d'après leurs seules espèces et colonies, sans
+	 * considérer si les deux animaux sont vivants (voir
+	 * {@link Animal#isEnemy(Animal)}).
+	 * 
+	 * @param other : autre instance de {@link Animal}
+	 * @return {@code true} si {@code other} est ennemie de {@code this}, ou
+	 *         {@code false} dans le cas inverse
+	 */
+	abstract boolean isHostile (Animal other);
+	
 	/**
 	 * Méthode abstraite à implémenter par les classes dérivées pour définir par
 	 * "double dispatch" qui sont les ennemis de l'instance {@code this} de
@@ -406,9 +581,9 @@ public abstract class Animal extends Positionable {
 	/**
 	 * Méthode permettant à l'instance {@code this} de {@link Animal} de changer sa
 	 * {@link ToricPosition} de {@code dt} fois sa vitesse obtenue via
-	 * {@link Animal#getSpeed()}. Elle prendra en compte et intégrera la notion de
-	 * rotation de vue de direction, conduisant à la conservation ou non de la
-	 * direction de déplacement de l'instance {@code this} de {@link Animal}.
+	 * {@link Animal#getSpeed()}, dans la direction {@link Animal#angleDirection}
+	 * mise à jour par les rotations planifiées
+	 * ({@link Animal#rotate(AnimalEnvironmentView, long)}).
 	 * 
 	 * @param env : instance de {@link AnimalEnvironmentView} en charge d'appeler et
 	 *            d'être exploitée par {@code this}
@@ -420,16 +595,13 @@ public abstract class Animal extends Positionable {
 		double temps = dt.toSeconds();
 		double vitesse = this.getSpeed();
 		
-		// Calcul d'un changement éventuel de direction de déplacement
-		rotate(env, dt);
+		// Calcul du vecteur correspondant au déplacement de l'animal, dans le
+		// vecteur de travail de l'animal
+		MutableVec2d displacement = scratch.setFromAngle(this.getDirection()).scale(temps * vitesse);
 		
-		// Calcul du vecteur Vec2d correspondant au déplacement de l'animal
-		Vec2d vecteurAngle = Vec2d.fromAngle(this.getDirection());
-		vecteurAngle = vecteurAngle.scalarProduct(temps * vitesse);
-		
-		// Calcul d'une nouvelle position correspondant à l'ajout de ce vecteur Vec2d
+		// Calcul d'une nouvelle position correspondant à l'ajout de ce vecteur
 		// "déplacement" à la position actuelle de l'animal
-		ToricPosition newPosition = (this.getPosition()).add(vecteurAngle);
+		ToricPosition newPosition = (this.getPosition()).add(displacement.getX(), displacement.getY());
 		
 		// Mise à jour de la position de l'animal
 		this.setPosition(newPosition);
@@ -437,33 +609,53 @@ public abstract class Animal extends Positionable {
 		afterMoveDispatch(env, dt);
 	}
 	
+	/**
+	 * Getter
+	 * 
+	 * @return le vecteur de travail de l'instance {@code this} de {@link Animal},
+	 *         dont le contenu n'est valable que le temps d'un calcul
+	 */
+	final MutableVec2d getScratchVector() {
+		return scratch;
+	}
+	
+	/**
+	 * Retourne le délai constant {@code ANIMAL_NEXT_ROTATION_DELAY} du fichier de
+	 * configuration initial séparant deux rotations de l'animal.
+	 * 
+	 * @return le délai entre deux rotations, en millisecondes
+	 */
+	final long getRotationDelay() {
+		return Context.getConfig().getTime(ANIMAL_NEXT_ROTATION_DELAY).toMilliseconds();
+	}
+	
 	/**
 	 * Méthode en charge de faire évoluer {@link Animal#angleDirection} de
-	 * l'instance {@code this} de {@link Animal} à chaque pas de temps {@code dt} de
-	 * {@link Time}. Elle s'appuie sur une instance de {@link RotationProbability}
-	 * afin de sélectionner un angle de rotation lié à une probabilité inertielle,
-	 * pour au final l'ajouter à {@link Animal#angleDirection}.
+	 * l'instance {@code this} de {@link Animal}. Elle est appelée par le
+	 * {@link Scheduler} de l'environnement à chaque échéance, espacée de
+	 * {@link Animal#getRotationDelay()}. Elle s'appuie sur une instance de
+	 * {@link RotationProbability} afin de sélectionner un angle de rotation lié à
+	 * une probabilité inertielle, pour au final l'ajouter à
+	 * {@link Animal#angleDirection}.
 	 * 
-	 * @param env : instance de {@link AnimalEnvironmentView} en charge d'appeler et
-	 *            d'être exploitée par {@code this}
-	 * @param dt  : {@link Time}, pas de temps périodique de mise à jour de
-	 *            l'instance {@code this} de {@link Environment}
+	 * @param env  : instance de {@link AnimalEnvironmentView} en charge d'appeler
+	 *             et d'être exploitée par {@code this}
+	 * @param time : {@code long}, échéance (en millisecondes) de la rotation
+	 * @return l'échéance de la rotation suivante, ou {@link Scheduler#NEVER} si
+	 *         l'animal est mort
 	 */
-	private void rotate(AnimalEnvironmentView env, Time dt) {
-		Time delay = Context.getConfig().getTime(ANIMAL_NEXT_ROTATION_DELAY);
+	final long rotate(AnimalEnvironmentView env, long time) {
+		if (isDead()) {
+			return Scheduler.NEVER;
+		}
 		
-		rotationDelay = rotationDelay.plus(dt);
+		RotationProbability reference = this.computeRotationProbsDispatch(env);
 		
-		while (rotationDelay.compareTo(delay) >= 0) {
-			
-			rotationDelay = rotationDelay.minus(delay);
-			
-			RotationProbability reference = this.computeRotationProbsDispatch(env);
-			
-			double newAngleDirection = this.getDirection();
-			newAngleDirection += Utils.pickValue(reference.getAngles(), reference.getProbabilities());
-			this.setDirection(newAngleDirection);
-		}
+		double newAngleDirection = this.getDirection();
+		newAngleDirection += Utils.pickValue(reference.getAngles(), reference.getProbabilities());
+		this.setDirection(newAngleDirection);
+		
+		return time + getRotationDelay();
 	}
 	
 	/**
@@ -488,7 +680,7 @@ public abstract class Animal extends Positionable {
 		s += "\n";
 		s += String.format("Speed :  %.1f\n", getSpeed()); 
 		s += "HitPoints : " + hitPoints + "\n";
-		s += "LifeSpan : " + lifespan + "\n";
+		s += "LifeSpan : " + lifespan + " ms\n";
 		s += "State : " + state + "\n";
 		return s;
 		
@@ -510,7 +702,7 @@ public abstract class Animal extends Positionable {
 	public final void update(AnimalEnvironmentView env, Time dt) {
 		double factor = Context.getConfig().getDouble(ANIMAL_LIFESPAN_DECREASE_FACTOR);
 		
-		lifespan = lifespan.minus(dt.times(factor));
+		lifespan -= (long) (dt.toMilliseconds() * factor);
 		
 		if (isDead()) {
 			return;
@@ -521,7 +713,7 @@ public abstract class Animal extends Positionable {
 				fight(env, dt);
 			} else {
 				setState(State.ESCAPING);
-				attackDuration = Time.ZERO;
+				attackDuration = 0L;
 			}
 		} else if (getState().equals(State.ESCAPING)) {
 			escape(env, dt);
@@ -9,12 +9,22 @@ import ch.epfl.moocprog.utils.Time;
  * instances des animaux {@link AntWorker}, {@link AntSoldier} et
  * {@link Termite} de l'environnement {@link Environment}
  */
-public interface AnimalEnvironmentView {
+public interface AnimalEnvironmentView extends TimedEnvironmentView {
 
 	public List<Animal> getVisibleEnemiesForAnimal(Animal from);
 	
 	public boolean isVisibleFromEnemies(Animal from);
 	
+	public boolean anyEnemyWithin(Animal from, double radius);
+	
+	public Animal nearestEnemyWithin(Animal from, double radius);
+	
+	public boolean isAliveAtPhaseStart(Animal animal);
+	
+	public void notifyFight(Animal attacker, Animal target);
+	
+	public void strike(Animal attacker, Animal target);
+	
 	public void selectAfterMoveDispatch(Ant ant, Time dt);
 	
 	public void selectAfterMoveDispatch(Termite termite, Time dt);
@@ -4,7 +4,7 @@ import ch.epfl.moocprog.app.Context;
 import ch.epfl.moocprog.config.Config;
 import ch.epfl.moocprog.utils.Time;
 import ch.epfl.moocprog.utils.Utils;
-import ch.epfl.moocprog.utils.Vec2d;
+import ch.epfl.moocprog.utils.MutableVec2d;
 
 /**
  * Classe abstraite représentant le concept d'une fourmi. Cette classe hérite de
@@ -94,6 +94,25 @@ public abstract class Ant extends Animal {
 	public final Uid getAnthillId() {
 		return anthillID;
 	}
+
+	/**
+	 * Getter
+	 * 
+	 * @return la dernière position de dépôt de phéromones {@link Ant#lastPos}
+	 */
+	final ToricPosition getLastPosition() {
+		return lastPos;
+	}
+
+	/**
+	 * Setter
+	 * 
+	 * @param lastPos : {@link ToricPosition}, dernière position de dépôt de
+	 *                phéromones
+	 */
+	final void setLastPosition(ToricPosition lastPos) {
+		this.lastPos = lastPos;
+	}
 	
 	/**
 	 * Méthode appelée après le déplacement de l'instance {@code this} de
@@ -170,7 +189,22 @@ public abstract class Ant extends Animal {
 	@Override
 	public final boolean isEnemy(Animal other) throws IllegalArgumentException {
 		Utils.requireNonNull(other);
-		return !this.isDead() && !other.isDead() && other.isEnemyDispatch(this);
+		return !this.isDead() && !other.isDead() && isHostile(other);
+	}
+	
+	/**
+	 * Méthode finale redéfinie définissant si {@code other} est ennemie de
+	 * l'instance {@code this} de {@link Ant}, par l'appel à
+	 * {@link Animal#isEnemyDispatch(Ant)}, indépendamment de l'état des deux
+	 * animaux
+	 * 
+	 * @param other : autre instance de {@link Animal}
+	 * @return {@code true} si {@code other} est ennemie de {@code this}, ou
+	 *         {@code false} dans le cas inverse
+	 */
+	@Override
+	final boolean isHostile(Animal other) {
+		return other.isEnemyDispatch(this);
 	}
 	
 	/**
@@ -214,20 +248,23 @@ public abstract class Ant extends Animal {
 		double densityPheromone = Context.getConfig().getDouble(Config.ANT_PHEROMONE_DENSITY);
 		double initQuantityPheromones = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
 
-		double toricDistance = getPosition().toricDistance(lastPos);
-
-		int numberOfPheromones = (int) Math.round(toricDistance * densityPheromone);
+		// Le vecteur torique du dernier dépôt à la position courante, calculé une
+		// seule fois dans le vecteur de travail de la fourmi, fournit à la fois la
+		// distance parcourue et, divisé par le nombre de dépôts, le pas entre deux
+		// dépôts
+		MutableVec2d step = lastPos.toricVector(getPosition(), getScratchVector());
 
-		// Vecteur de déplacement normalisé
-		Vec2d direction = lastPos.toricVector(getPosition()).normalized();
-
-		// Déplacement à chaque étape
-		Vec2d step = direction.scalarProduct(toricDistance / numberOfPheromones);
+		int numberOfPheromones = (int) Math.round(step.length() * densityPheromone);
+		if (numberOfPheromones == 0) {
+			return;
+		}
+		step.scale(1.0 / numberOfPheromones);
 
-		// Déposer les phéromones à intervalles réguliers
+		// Déposer les phéromones à intervalles réguliers (phéromones recyclées
+		// par l'environnement)
 		for (int i = 0; i < numberOfPheromones; ++i) {
-			lastPos = lastPos.add(step);
-			env.addPheromone(new Pheromone(lastPos, initQuantityPheromones));
+			lastPos = lastPos.add(step.getX(), step.getY());
+			env.addPheromone(lastPos, initQuantityPheromones);
 		}
 	}
 }
@@ -9,5 +9,7 @@ public interface AntEnvironmentView extends AnimalEnvironmentView {
 
 	public void addPheromone(Pheromone pheromone) throws IllegalArgumentException;
 	
+	public void addPheromone(ToricPosition position, double quantity) throws IllegalArgumentException;
+	
 	double[] getPheromoneQuantitiesPerIntervalForAnt(ToricPosition position, double directionAngleRad, double[] angles);
 }
@@ -158,14 +158,19 @@ public final class AntWorker extends Ant{
 	 * Méthode permettant à l'instance {@code this} de {@link AntWorker} de bouger
 	 * (via l'appel à {@link AntWorker#move(AnimalEnvironmentView, Time)}), puis de
 	 * chercher si il existe de la nourriture proche de {@code this} (via l'appel à
-	 * {@link AntWorkerEnvironmentView#getClosestFoodForAnt(AntWorker)}. Si
-	 * l'instance {@code this} ne porte pas de nourriture et trouve une source de
+	 * {@link AntWorkerEnvironmentView#getClosestFoodAlongPathForAnt(AntWorker, ToricPosition)}.
+	 * Si l'instance {@code this} ne porte pas de nourriture et trouve une source de
 	 * nourriture, alors elle se charge en nourriture à hauteur de la valeur
 	 * constante {@code ANT_MAX_FOOD} provenant du fichier de configuration initial.
 	 * Si l'instance {@code this} porte de la nourriture et se trouve à proximité de
 	 * sa fourmilière de rattachement, alors elle y dépose la totalité de son stock
 	 * de nourriture. Dans ces 2 cas - et uniquement ces 2 cas, l'instance
 	 * {@code this} fera demi-tour via l'appel à {@link AntWorker#animalTurnBack()}.
+	 * Les perceptions portent sur tout le segment parcouru au cours du
+	 * déplacement : un grand pas de temps ne fait pas passer la fourmi à côté
+	 * d'une source ou de sa fourmilière. La nourriture prise au cours du
+	 * déplacement n'est déposée que dans une fourmilière perceptible depuis le
+	 * point où la source l'est devenue.
 	 * 
 	 * @param env : instance de {@link AntWorkerEnvironmentView} en charge d'appeler
 	 *            et d'être exploitée par {@code this}
@@ -176,17 +181,23 @@ public final class AntWorker extends Ant{
 		
 		double maxFood = Context.getConfig().getDouble(ANT_MAX_FOOD);
 		
+		ToricPosition from = getPosition();
 		move(env, dt);
 		
-		Food nearestFood = env.getClosestFoodForAnt(this);
+		Food nearestFood = env.getClosestFoodAlongPathForAnt(this, from);
 		
+		// La fourmilière n'est cherchée que sur la partie du segment parcourue en
+		// portant la nourriture : depuis le point où la source prise au cours de
+		// ce déplacement est devenue perceptible
+		ToricPosition dropFrom = from;
 		if ((getFoodQuantity() == 0.0) && (nearestFood != null)) {
-			double aQuantity = nearestFood.takeQuantity(maxFood);
+			double aQuantity = env.takeFood(nearestFood, maxFood);
 			setFoodQuantity(aQuantity);
 			animalTurnBack();
+			dropFrom = env.getFoodEntryPointAlongPath(this, from, nearestFood);
 		}
 		
-		if ((getFoodQuantity() > 0.0) && (env.dropFood(this) == true)) {
+		if ((getFoodQuantity() > 0.0) && (env.dropFoodAlongPath(this, dropFrom) == true)) {
 			setFoodQuantity(0.0);
 			animalTurnBack();
 		}
@@ -10,5 +10,13 @@ public interface AntWorkerEnvironmentView extends AntEnvironmentView {
 
 	public boolean dropFood(AntWorker antWorker) throws IllegalArgumentException;
 
+	public boolean dropFoodAlongPath(AntWorker antWorker, ToricPosition from) throws IllegalArgumentException;
+
 	public Food getClosestFoodForAnt(AntWorker antWorker);
+
+	public Food getClosestFoodAlongPathForAnt(AntWorker antWorker, ToricPosition from);
+
+	public ToricPosition getFoodEntryPointAlongPath(AntWorker antWorker, ToricPosition from, Food food);
+	
+	public double takeFood(Food food, double aQuantity) throws IllegalArgumentException;
 }
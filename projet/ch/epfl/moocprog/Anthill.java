@@ -5,7 +5,6 @@ import static ch.epfl.moocprog.config.Config.ANTHILL_WORKER_PROB_DEFAULT;
 
 import ch.epfl.moocprog.app.Context;
 import ch.epfl.moocprog.random.UniformDistribution;
-import ch.epfl.moocprog.utils.Time;
 import ch.epfl.moocprog.utils.Utils;
 
 /**
@@ -29,21 +28,13 @@ public final class Anthill extends Positionable {
 	 * {@link AntWorker} par l'instance {@code this} de fourmilière {@link Anthill}
 	 */
 	private double antWorkerExitProb;
-
-	/**
-	 * Temps écoulé entre deux générations d'une nouvelle instance de fourmi
-	 * (ouvrière {@link AntWorker} ou soldate {@link AntSoldier}) par l'instance
-	 * {@code this} de fourmilière {@link Anthill}
-	 */
-	private Time generationAntDelay ;
 	
 	/**
 	 * Constructeur non vide initialisant une instance de {@link Anthill} à partir
 	 * d'une {@link ToricPosition}. Il permet aussi de déclarer des valeurs
 	 * initiales pour les attributs {@code foodQuantity} (0.0), {@code anthillID}
 	 * (créé par {@link Uid#createUid()}), {@code antWorkerExitProb} (extrait de la
-	 * valeur {@code ANTHILL_WORKER_PROB_DEFAULT} présente dans la configuration) et
-	 * {@code generationAntDelay} ({@link Time#ZERO}).
+	 * valeur {@code ANTHILL_WORKER_PROB_DEFAULT} présente dans la configuration).
 	 * 
 	 * @param position: {@link ToricPosition}, position torique initiale de
 	 *                  l'instance {@code this} de la fourmilière {@link Anthill}
@@ -53,7 +44,6 @@ public final class Anthill extends Positionable {
 		foodQuantity = 0.0;
 		anthillID = Uid.createUid();
 		antWorkerExitProb = Context.getConfig().getDouble(ANTHILL_WORKER_PROB_DEFAULT);
-		generationAntDelay = Time.ZERO;
 	}
 	
 	/**
@@ -135,36 +125,38 @@ public final class Anthill extends Positionable {
 	}
 	
 	/**
-	 * Méthode en charge d'ajouter une ou plusieurs instances de {@link Ant} dans
-	 * l'instance {@code env} de {@link AnthillEnvironmentView} à chaque pas de
-	 * temps {@code dt} de {@link Time}. Elle s'appuie sur l'usage d'une valeur
-	 * constante {@code ANTHILL_SPAWN_DELAY} issue du fichier de configuration
-	 * initial. Elle repose aussi sur {@link Anthill#antWorkerExitProb} pour
-	 * déterminer si elle va générer une instance de {@link AntWorker} ou plutôt de
-	 * {@link AntSoldier}.
+	 * Retourne le délai constant {@code ANTHILL_SPAWN_DELAY} du fichier de
+	 * configuration initial séparant deux générations de fourmis.
+	 * 
+	 * @return le délai entre deux générations, en millisecondes
+	 */
+	public long getSpawnDelay() {
+		return Context.getConfig().getTime(ANTHILL_SPAWN_DELAY).toMilliseconds();
+	}
+	
+	/**
+	 * Méthode en charge d'ajouter une instance de {@link Ant} dans l'instance
+	 * {@code env} de {@link AnthillEnvironmentView}. Elle est appelée par le
+	 * {@link Scheduler} de l'environnement à chaque échéance, espacée de
+	 * {@link Anthill#getSpawnDelay()}. Elle repose sur
+	 * {@link Anthill#antWorkerExitProb} pour déterminer si elle va générer une
+	 * instance de {@link AntWorker} ou plutôt de {@link AntSoldier}.
 	 * 
-	 * @param env : instance de {@link AnthillEnvironmentView} en charge d'appeler
-	 *            et d'être exploitée par {@code this}
-	 * @param dt  : {@link Time}, pas de temps périodique de mise à jour de
-	 *            l'instance {@code this} de {@link AnthillEnvironmentView}
+	 * @param env  : instance de {@link AnthillEnvironmentView} en charge d'appeler
+	 *             et d'être exploitée par {@code this}
+	 * @param time : {@code long}, échéance (en millisecondes) de la génération
+	 * @return l'échéance de la génération suivante, en millisecondes
 	 */
-	public void update(AnthillEnvironmentView env, Time dt) {
+	public long spawnAnt(AnthillEnvironmentView env, long time) {
 		
-		Time delay = Context.getConfig().getTime(ANTHILL_SPAWN_DELAY);
+		double randomValue = UniformDistribution.getValue(0.0,  1.0);
 		
-		generationAntDelay = generationAntDelay.plus(dt);
+		if (randomValue <= this.getAntWorkerExitProb()) {
+			env.addAnt(new AntWorker(this.getPosition(), this.getAnthillId()));
+		} else {
+			env.addAnt(new AntSoldier(this.getPosition(), this.getAnthillId()));
+		}
 		
-		while (generationAntDelay.compareTo(delay) >= 0) {
-			
-			generationAntDelay = generationAntDelay.minus(delay);
-			
-			double randomValue = UniformDistribution.getValue(0.0,  1.0);
-			
-			if (randomValue <= this.getAntWorkerExitProb()) {
-				env.addAnt(new AntWorker(this.getPosition(), this.getAnthillId()));
-			} else {
-				env.addAnt(new AntSoldier(this.getPosition(), this.getAnthillId()));
-			}
-		} 
+		return time + getSpawnDelay();
 	}
 }
@@ -5,7 +5,7 @@ package ch.epfl.moocprog;
  * instances des fourmilières {@link Anthill} de l'environnement
  * {@link Environment}
  */
-public interface AnthillEnvironmentView {
+public interface AnthillEnvironmentView extends TimedEnvironmentView {
 
 	public void addAnt(Ant ant) throws IllegalArgumentException;
 }
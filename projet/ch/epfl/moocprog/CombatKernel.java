@@ -0,0 +1,265 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe finale désignant, en une passe par pas de simulation, l'ennemi le
+ * plus proche de chaque animal vivant d'un {@link Environment} (phase de
+ * combat). Les animaux sont rangés dans une liste de cellules (grille torique
+ * de cellules de côté au moins égal au rayon de vue) et chaque paire de
+ * candidats n'est examinée qu'une fois, parmi les animaux de la même cellule
+ * ou de deux cellules voisines : le coût est proportionnel au nombre d'animaux
+ * et à leur densité locale, et non plus au carré de la population.
+ * <p>
+ * Les coordonnées sont copiées dans des tableaux primitifs, parcourus dans
+ * l'ordre de stockage : rangé selon l'ordre de Morton, ce stockage rend les
+ * accès de chaque cellule contigus.
+ * <p>
+ * La relation d'hostilité ({@link Animal#isHostile(Animal)}) étant
+ * symétrique, elle n'est évaluée qu'une fois par paire à portée, et la
+ * distance torique de la paire sert aux deux animaux. Les résultats sont ceux
+ * de {@link Environment#nearestEnemyWithin(Animal, double)} sur les positions
+ * du début du pas : à distance égale, le premier ennemi stocké est retenu. Ils
+ * sont remis à chaque animal (voir {@link Animal#setCombatTarget(Animal, long)})
+ * et utilisés par {@link Animal#fight(AnimalEnvironmentView, Time)}.
+ */
+final class CombatKernel {
+	/**
+	 * Nombre maximal de cellules par animal vivant : au-delà, les cellules
+	 * sont agrandies afin que la grille reste proportionnelle à la population
+	 */
+	private static final int CELLS_PER_ANIMAL = 2;
+	private static final int MIN_CELLS = 16;
+
+	// Animaux vivants et coordonnées de leurs positions au début du pas, dans
+	// l'ordre de stockage de l'environnement (voir MortonOrder)
+	private Animal[] animals = new Animal[0];
+	private double[] xs = new double[0];
+	private double[] ys = new double[0];
+	// Ennemi le plus proche de chaque animal (indice, ou -1) et sa distance
+	private int[] nearest = new int[0];
+	private double[] nearestDistances = new double[0];
+	// Liste de cellules : premier animal de chaque cellule et animal suivant
+	// dans la même cellule, -1 terminant chaque liste
+	private int[] cellHeads = new int[0];
+	private int[] nextInCell = new int[0];
+	// Cellules voisines d'indice supérieur de la cellule parcourue, sans
+	// doublon lorsque la grille a moins de trois colonnes ou lignes
+	private final int[] neighbours = new int[8];
+	private long examinedPairs;
+	private int worldWidth;
+	private int worldHeight;
+
+	/**
+	 * Désigne l'ennemi vivant le plus proche, à une distance torique inférieure
+	 * ou égale à {@code radius}, de chaque animal vivant de {@code animalList},
+	 * et le remet à l'animal avec le temps simulé {@code time}.
+	 *
+	 * @param animalList  : animaux de l'environnement
+	 * @param radius      : {@code double}, rayon de vue
+	 * @param worldWidth  : {@code int}, largeur du monde
+	 * @param worldHeight : {@code int}, hauteur du monde
+	 * @param time        : {@code long}, temps simulé du pas courant
+	 */
+	void sweep(List<Animal> animalList, double radius, int worldWidth, int worldHeight, long time) {
+		int count = collect(animalList);
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+
+		int columns = cellCount(worldWidth, radius);
+		int rows = cellCount(worldHeight, radius);
+		long limit = Math.max(MIN_CELLS, (long) CELLS_PER_ANIMAL * count);
+		if ((long) columns * rows > limit) {
+			// Des cellules plus grandes que le rayon restent correctes
+			double shrink = Math.sqrt(limit / ((double) columns * rows));
+			columns = Math.max(1, (int) (columns * shrink));
+			rows = Math.max(1, (int) (rows * shrink));
+		}
+		bin(count, columns, rows);
+
+		examinedPairs = 0;
+		for (int cy = 0; cy < rows; ++cy) {
+			for (int cx = 0; cx < columns; ++cx) {
+				int cell = cy * columns + cx;
+				if (cellHeads[cell] < 0) {
+					continue;
+				}
+				for (int i = cellHeads[cell]; i >= 0; i = nextInCell[i]) {
+					for (int j = nextInCell[i]; j >= 0; j = nextInCell[j]) {
+						examine(i, j, radius);
+					}
+				}
+				int neighbourCount = upperNeighbours(cx, cy, columns, rows);
+				for (int k = 0; k < neighbourCount; ++k) {
+					int head = cellHeads[neighbours[k]];
+					for (int i = cellHeads[cell]; i >= 0; i = nextInCell[i]) {
+						for (int j = head; j >= 0; j = nextInCell[j]) {
+							examine(i, j, radius);
+						}
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < count; ++i) {
+			animals[i].setCombatTarget((nearest[i] < 0) ? null : animals[nearest[i]], time);
+		}
+		// Les animaux ne sont pas retenus d'un pas à l'autre
+		Arrays.fill(animals, 0, count, null);
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de paires de candidats examinées lors du dernier
+	 *         {@link CombatKernel#sweep(List, double, int, int, long)}
+	 */
+	long getExaminedPairs() {
+		return examinedPairs;
+	}
+
+	/**
+	 * Copie les animaux vivants de {@code animalList} et leurs positions.
+	 *
+	 * @return le nombre d'animaux vivants
+	 */
+	private int collect(List<Animal> animalList) {
+		int size = animalList.size();
+		if (animals.length < size) {
+			int length = Math.max(size, 2 * animals.length);
+			animals = new Animal[length];
+			xs = new double[length];
+			ys = new double[length];
+			nearest = new int[length];
+			nearestDistances = new double[length];
+			nextInCell = new int[length];
+		}
+
+		int count = 0;
+		for (int i = 0; i < size; ++i) {
+			Animal animal = animalList.get(i);
+			if (!animal.isDead()) {
+				animals[count] = animal;
+				xs[count] = animal.getPosition().toVec2d().getX();
+				ys[count] = animal.getPosition().toVec2d().getY();
+				nearest[count] = -1;
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Range les {@code count} animaux dans une grille de
+	 * {@code columns x rows} cellules, chaque liste de cellule gardant l'ordre
+	 * de stockage des animaux.
+	 */
+	private void bin(int count, int columns, int rows) {
+		int cells = columns * rows;
+		if (cellHeads.length < cells) {
+			cellHeads = new int[cells];
+		}
+		Arrays.fill(cellHeads, 0, cells, -1);
+
+		// Parcours à rebours : l'insertion en tête conserve l'ordre de stockage
+		for (int i = count - 1; i >= 0; --i) {
+			int cx = Math.min((int) (xs[i] * columns / worldWidth), columns - 1);
+			int cy = Math.min((int) (ys[i] * rows / worldHeight), rows - 1);
+			int cell = Math.max(cy, 0) * columns + Math.max(cx, 0);
+			nextInCell[i] = cellHeads[cell];
+			cellHeads[cell] = i;
+		}
+	}
+
+	/**
+	 * Remplit {@link CombatKernel#neighbours} avec les cellules voisines
+	 * (toriques) de la cellule {@code (cx, cy)} d'indice supérieur au sien,
+	 * chacune une seule fois : chaque paire de cellules voisines est ainsi
+	 * parcourue depuis une seule de ses deux cellules.
+	 *
+	 * @return le nombre de cellules voisines retenues
+	 */
+	private int upperNeighbours(int cx, int cy, int columns, int rows) {
+		int cell = cy * columns + cx;
+		int count = 0;
+		for (int dy = -1; dy <= 1; ++dy) {
+			int ny = (cy + dy + rows) % rows;
+			for (int dx = -1; dx <= 1; ++dx) {
+				int neighbour = ny * columns + (cx + dx + columns) % columns;
+				if (neighbour > cell && !contains(neighbours, count, neighbour)) {
+					neighbours[count++] = neighbour;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static boolean contains(int[] values, int count, int value) {
+		for (int k = 0; k < count; ++k) {
+			if (values[k] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Examine la paire {@code (i, j)} : si les deux animaux sont ennemis et à
+	 * portée, chacun devient l'ennemi le plus proche de l'autre s'il est plus
+	 * proche que le précédent, ou aussi proche mais stocké avant lui.
+	 */
+	private void examine(int i, int j, double radius) {
+		++examinedPairs;
+		double dx = shortestDelta(xs[j] - xs[i], worldWidth);
+		double dy = shortestDelta(ys[j] - ys[i], worldHeight);
+		double distance = Math.sqrt(dx * dx + dy * dy);
+		if (distance > radius || !closerThan(i, j, distance) && !closerThan(j, i, distance)) {
+			return;
+		}
+		if (animals[i].isHostile(animals[j])) {
+			if (closerThan(i, j, distance)) {
+				nearest[i] = j;
+				nearestDistances[i] = distance;
+			}
+			if (closerThan(j, i, distance)) {
+				nearest[j] = i;
+				nearestDistances[j] = distance;
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} si l'animal {@code candidate}, à la distance
+	 *         {@code distance} de l'animal {@code i}, est préférable à
+	 *         l'ennemi le plus proche déjà désigné pour {@code i}
+	 */
+	private boolean closerThan(int i, int candidate, double distance) {
+		int current = nearest[i];
+		return current < 0 || distance < nearestDistances[i] || (distance == nearestDistances[i] && candidate < current);
+	}
+
+	/**
+	 * Plus court écart torique, calculé exactement comme par
+	 * {@link ToricPosition#toricDistance(ToricPosition)}
+	 */
+	private static double shortestDelta(double delta, int size) {
+		if (delta > size / 2.0) {
+			return delta - size;
+		} else if (delta < -size / 2.0) {
+			return delta + size;
+		}
+		return delta;
+	}
+
+	/**
+	 * @return le nombre de cellules de côté au moins {@code radius} le long
+	 *         d'un axe de longueur {@code length}
+	 */
+	private static int cellCount(int length, double radius) {
+		if (!(radius > 0.0)) {
+			return Math.max(1, length);
+		}
+		return (int) Math.max(1, Math.min(length, Math.floor(length / radius)));
+	}
+}
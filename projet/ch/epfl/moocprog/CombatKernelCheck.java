@@ -0,0 +1,215 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.app.Context.getConfig;
+import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.utils.Time;
+
+/**
+ * Vérification de {@link CombatKernel} : pour chaque animal, l'ennemi remis
+ * par {@link CombatKernel#sweep(List, double, int, int, long)} doit être celui
+ * de {@link Environment#nearestEnemyWithin(Animal, double)} sur les mêmes
+ * positions, y compris à distance égale (premier ennemi stocké). L'ennemi remis
+ * est relevé en faisant combattre l'animal dans une vue qui enregistre le coup
+ * porté ({@link Animal#fight(AnimalEnvironmentView, Time)}). Les populations
+ * mêlent des soldats de deux colonies et des termites, répartis uniformément,
+ * en amas, en points confondus et le long des bords du tore.
+ * <p>
+ * La classe est dans le paquetage de {@link CombatKernel} afin que celui-ci
+ * reste interne.
+ */
+final class CombatKernelCheck {
+	private static final int TRIALS = 4;
+	private static final long SWEEP_TIME = 0L;
+
+	private CombatKernelCheck() {}
+
+	public static void main(String[] args) {
+		ApplicationInitializer.initializeApplication(
+			new ImmutableConfigManager(
+				new File("res/app.cfg")
+			)
+		);
+		double sight = getConfig().getDouble(ANIMAL_SIGHT_DISTANCE);
+		double[] radii = {sight, 3 * sight, 400};
+		String[] layouts = {"uniform", "clustered", "stacked", "edges"};
+		Random random = new Random(2024);
+
+		long animals = 0;
+		long mismatches = 0;
+		for (String layout : layouts) {
+			for (double radius : radii) {
+				long layoutAnimals = 0;
+				long layoutMismatches = 0;
+				for (int trial = 0; trial < TRIALS; ++trial) {
+					Environment env = new Environment();
+					List<Animal> population = populate(env, layout, 300 + random.nextInt(700), random);
+
+					new CombatKernel().sweep(population, radius, env.getWidth(), env.getHeight(), SWEEP_TIME);
+					StrikeRecorder recorder = new StrikeRecorder();
+					for (Animal animal : population) {
+						if (recorder.targetOf(animal) != env.nearestEnemyWithin(animal, radius)) {
+							++layoutMismatches;
+						}
+					}
+					layoutAnimals += population.size();
+				}
+				System.out.printf("%-9s radius %5.1f : %d animals, %d mismatches%n", layout, radius, layoutAnimals,
+						layoutMismatches);
+				animals += layoutAnimals;
+				mismatches += layoutMismatches;
+			}
+		}
+
+		System.out.println(mismatches == 0 ? "CombatKernel matches nearestEnemyWithin for all " + animals + " animals"
+				: mismatches + " mismatches over " + animals + " animals");
+		if (mismatches > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Ajoute à {@code env} {@code count} animaux disposés selon
+	 * {@code layout} et les retourne dans l'ordre de stockage de
+	 * l'environnement.
+	 */
+	private static List<Animal> populate(Environment env, String layout, int count, Random random) {
+		int width = env.getWidth();
+		int height = env.getHeight();
+		Uid red = Uid.createUid();
+		Uid black = Uid.createUid();
+		double[][] centers = new double[4][];
+		for (int c = 0; c < centers.length; ++c) {
+			centers[c] = new double[] {random.nextDouble() * width, random.nextDouble() * height};
+		}
+
+		List<Animal> population = new ArrayList<Animal>(count);
+		for (int i = 0; i < count; ++i) {
+			double x;
+			double y;
+			if (layout.equals("clustered")) {
+				double[] center = centers[random.nextInt(centers.length)];
+				x = center[0] + random.nextGaussian() * 25;
+				y = center[1] + random.nextGaussian() * 25;
+			} else if (layout.equals("stacked")) {
+				// Points confondus et grille entière : nombreuses distances égales
+				double[] center = centers[random.nextInt(centers.length)];
+				x = Math.floor(center[0]) + 5 * random.nextInt(3);
+				y = Math.floor(center[1]) + 5 * random.nextInt(3);
+			} else if (layout.equals("edges")) {
+				x = random.nextBoolean() ? random.nextDouble() * 6 - 3 : random.nextDouble() * width;
+				y = random.nextBoolean() ? random.nextDouble() * 6 - 3 : random.nextDouble() * height;
+			} else {
+				x = random.nextDouble() * width;
+				y = random.nextDouble() * height;
+			}
+			ToricPosition position = new ToricPosition(x, y);
+			int kind = random.nextInt(3);
+			Animal animal = (kind == 0) ? new AntSoldier(position, red)
+					: (kind == 1) ? new AntSoldier(position, black) : new Termite(position);
+			env.addAnimal(animal);
+			population.add(animal);
+		}
+		return population;
+	}
+
+	/**
+	 * Vue au temps simulé du balayage, relevant l'ennemi frappé par un animal
+	 * qui combat. Un animal qui ne tiendrait pas son ennemi de la phase de
+	 * combat interrogerait {@link StrikeRecorder#nearestEnemyWithin(Animal, double)},
+	 * ce qui est signalé comme une erreur.
+	 */
+	private static final class StrikeRecorder implements AnimalEnvironmentView {
+		private Animal target;
+
+		/**
+		 * @return l'ennemi frappé par {@code animal}, ou {@code null} s'il
+		 *         n'en a frappé aucun
+		 */
+		Animal targetOf(Animal animal) {
+			target = null;
+			animal.fight(this, Time.ZERO);
+			return target;
+		}
+
+		@Override
+		public long getSimulationTime() {
+			return SWEEP_TIME;
+		}
+
+		@Override
+		public Animal nearestEnemyWithin(Animal from, double radius) {
+			throw new IllegalStateException("Aucun ennemi n'a été remis par la phase de combat.");
+		}
+
+		@Override
+		public void strike(Animal attacker, Animal target) {
+			this.target = target;
+		}
+
+		@Override
+		public boolean isAliveAtPhaseStart(Animal animal) {
+			return !animal.isDead();
+		}
+
+		@Override
+		public void notifyFight(Animal attacker, Animal target) {}
+
+		@Override
+		public List<Animal> getVisibleEnemiesForAnimal(Animal from) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isVisibleFromEnemies(Animal from) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean anyEnemyWithin(Animal from, double radius) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void selectAfterMoveDispatch(Ant ant, Time dt) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void selectAfterMoveDispatch(Termite termite, Time dt) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public RotationProbability selectComputeRotationProbsDispatch(Ant ant) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public RotationProbability selectComputeRotationProbsDispatch(Termite termite) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void selectSpecificBehaviorDispatch(AntWorker antWorker, Time dt) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void selectSpecificBehaviorDispatch(AntSoldier antSoldier, Time dt) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void selectSpecificBehaviorDispatch(Termite termite, Time dt) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
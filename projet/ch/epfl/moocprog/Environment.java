@@ -3,16 +3,45 @@ package ch.epfl.moocprog;
 import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
 import static ch.epfl.moocprog.config.Config.ANT_MAX_PERCEPTION_DISTANCE;
 import static ch.epfl.moocprog.config.Config.ANT_SMELL_MAX_DISTANCE;
+import static ch.epfl.moocprog.config.Config.PHEROMONE_EVAPORATION_RATE;
+import static ch.epfl.moocprog.config.Config.PHEROMONE_MAX_CELL_QUANTITY;
+import static ch.epfl.moocprog.config.Config.PHEROMONE_MERGE_RADIUS;
+import static ch.epfl.moocprog.config.Config.PHEROMONE_THRESHOLD;
+import static ch.epfl.moocprog.config.Config.SPATIAL_SORT_DISORDER;
+import static ch.epfl.moocprog.config.Config.SPATIAL_SORT_PERIOD;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import ch.epfl.moocprog.app.Context;
 import ch.epfl.moocprog.config.Config;
+import ch.epfl.moocprog.config.ConfigChanges;
+import ch.epfl.moocprog.config.ConfigManager;
 import ch.epfl.moocprog.gfx.EnvironmentGraphicRenderer;
 import ch.epfl.moocprog.gfx.EnvironmentRenderer;
+import ch.epfl.moocprog.gfx.PheromoneLayer;
+import ch.epfl.moocprog.gfx.SoftwareEnvironmentRenderer;
+import ch.epfl.moocprog.random.UniformDistribution;
+import ch.epfl.moocprog.stats.AllocationCounter;
+import ch.epfl.moocprog.stats.MemoryFootprint;
+import ch.epfl.moocprog.stats.MemoryFootprint.EntityType;
+import ch.epfl.moocprog.stats.StatisticsSample;
+import ch.epfl.moocprog.stats.StatisticsSink;
+import ch.epfl.moocprog.utils.MutableVec2d;
+import ch.epfl.moocprog.utils.ObjectPool;
+import ch.epfl.moocprog.utils.ObjectSizes;
 import ch.epfl.moocprog.utils.Time;
 import ch.epfl.moocprog.utils.Utils;
 import ch.epfl.moocprog.utils.Vec2d;
@@ -29,6 +58,20 @@ import ch.epfl.moocprog.utils.Vec2d;
  */
 public final class Environment implements AnimalEnvironmentView, AntEnvironmentView, AntWorkerEnvironmentView, AnthillEnvironmentView, FoodGeneratorEnvironmentView, TermiteEnvironmentView {
 
+	/**
+	 * Nombre maximal de phéromones évaporées conservées pour être recyclées
+	 */
+		private static final int PHEROMONE_POOL_CAPACITY = 1 << 16;
+	/**
+	 * Nombre d'instances de chaque liste mesurées par
+	 * {@link Environment#getMemoryFootprint()}
+	 */
+		private static final int FOOTPRINT_SAMPLES = 64;
+	/**
+	 * Nombre de pas entre deux mesures du désordre des animaux par
+	 * {@link Environment#sortSpatially()}
+	 */
+		private static final int SPATIAL_SORT_CHECK_PERIOD = 16;
 	/**
 	 * Instance de {@link FoodGenerator} : générateur de nourriture plaçant des
 	 * sources de nourriture aléatoirement dans l'environnement
@@ -38,33 +81,193 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 	 * Liste d'instances de {@link Food} : sources de nourriture présentes dans
 	 * l'environnement.
 	 */
-		private List <Food> listFood;
+		private ArrayList <Food> listFood;
 		/**
 		 * Liste d'instances de {@link Anthill} : fourmilières présentes dans
 		 * l'environnement.
 		 */
-		private List<Anthill> listAnthill;
+		private ArrayList<Anthill> listAnthill;
 		/**
 		 * Liste d'instances de {@link Animal} : animaux présents dans l'environnement.
 		 */
-		private List <Animal> listAnimal;
+		private ArrayList <Animal> listAnimal;
 		/**
 		 * Liste d'instances de {@link Pheromone} : phéromones déposées dans
 		 * l'environnement.
 		 */
-		private List <Pheromone> listPheromone;
+		private ArrayList <Pheromone> listPheromone;
+		/**
+		 * Position et dépôt des phéromones de {@link Environment#listPheromone}, en
+		 * types primitifs tenus à jour à chaque ajout ou retrait : colonnes du tas,
+		 * ou fichier projeté en mémoire après
+		 * {@link Environment#mapPheromones(File)}.
+		 */
+		private PheromoneStore pheromoneColumns;
+		/**
+		 * Carte de chaleur des phéromones du dernier rendu qui en tient une (voir
+		 * {@link EnvironmentRenderer#getPheromoneLayer()}), à laquelle chaque dépôt
+		 * est transmis ; {@code null} sinon.
+		 */
+		private PheromoneLayer pheromoneLayer;
+		/**
+		 * Découpage en secteurs de la dernière table d'angles d'observation reçue
+		 * par {@link Environment#getPheromoneQuantitiesPerIntervalForAnt(ToricPosition, double, double[])},
+		 * reconstruit lorsque la table change.
+		 */
+		private AngularSectors angularSectors;
+		/**
+		 * Instance de {@link SimulationClock} : horloge de la simulation fournissant
+		 * le pas courant et le temps simulé sous forme de valeurs primitives.
+		 */
+		private final SimulationClock clock;
+		/**
+		 * Instance de {@link Scheduler} : ordonnanceur déclenchant les actions
+		 * périodiques (naissances, générations de nourriture, rotations des animaux,
+		 * retrait des phéromones évaporées) à leur échéance.
+		 */
+		private final Scheduler scheduler;
+		/**
+		 * Réserve de phéromones recyclées : les phéromones évaporées déposées par
+		 * les fourmis y sont rendues puis réutilisées par
+		 * {@link Environment#addPheromone(ToricPosition, double)}.
+		 */
+		private final ObjectPool<Pheromone> pheromonePool;
+		/**
+		 * Grille de fusion des dépôts de phéromones, de cellules carrées de côté
+		 * {@code PHEROMONE_MERGE_RADIUS} : chaque cellule référence la dernière
+		 * phéromone déposée en son sein, dans laquelle les dépôts suivants sont
+		 * fusionnés. {@code null} lorsque la fusion est désactivée (rayon nul).
+		 */
+		private Pheromone[] pheromoneCells;
+		/**
+		 * Nombre de colonnes et côté des cellules de {@link Environment#pheromoneCells}
+		 */
+		private int pheromoneCellColumns;
+		private double pheromoneCellSize;
+		/**
+		 * Quantité maximale d'une phéromone de {@link Environment#pheromoneCells}
+		 */
+		private double pheromoneCellCap;
+		/**
+		 * Configuration dont sont dérivées les valeurs ci-dessous, mises en cache
+		 * pour les requêtes fréquentes et recalculées par
+		 * {@link Environment#refreshConfig()} lorsque leurs paramètres changent
+		 */
+		private ConfigManager config;
+		private int worldWidth;
+		private int worldHeight;
+		private double smellMaxDistance;
+		private double evaporationRate;
+		private double pheromoneThreshold;
+		private int spatialSortPeriod;
+		private double spatialSortDisorder;
+		/**
+		 * Instance de {@link EnvironmentStatistics} : compteurs agrégés tenus à jour
+		 * de manière incrémentale par l'environnement.
+		 */
+		private final EnvironmentStatistics statistics;
+		/**
+		 * Liste des destinations de statistiques abonnées à l'échantillonnage
+		 * périodique de l'environnement.
+		 */
+		private final List<StatisticsSubscription> statisticsSubscriptions;
+		/**
+		 * Prédicat définissant la portion du monde détenue par l'instance
+		 * {@code this} de {@link Environment} dans une simulation répartie (voir
+		 * {@link TileExchange}), ou {@code null} si le monde entier est détenu.
+		 */
+		private Predicate<ToricPosition> ownership;
+		/**
+		 * Mode de mise à jour des animaux de l'instance {@code this} de
+		 * {@link Environment} (voir {@link UpdateMode}).
+		 */
+		private UpdateMode updateMode;
+		/**
+		 * Réserve de fils à vol de tâches exécutant les groupes d'animaux des
+		 * modes de mise à jour parallèles, ou {@code null} en mode séquentiel.
+		 */
+		private ForkJoinPool updatePool;
+		/**
+		 * Positions et états (vivant ou non) des animaux au début de la phase
+		 * parallèle de mise à jour, réutilisés d'un pas à l'autre.
+		 */
+		private ToricPosition[] updatePositions;
+		private boolean[] updateAlive;
+		/**
+		 * Grille des animaux au début de la phase parallèle, interrogée par toutes
+		 * les tâches via leur propre {@link UniformGridIndex.Gatherer}.
+		 */
+		private final UniformGridIndex updateIndex;
+		/**
+		 * Phase de combat : désigne en une passe par pas l'ennemi le plus proche
+		 * de chaque animal vivant (voir {@link CombatKernel}).
+		 */
+		private final CombatKernel combatKernel;
+		/**
+		 * Rangement des animaux et des phéromones selon l'ordre de Morton de leur
+		 * position (voir {@link Environment#sortSpatially()}), et pas du dernier
+		 * rangement.
+		 */
+		private final MortonOrder mortonOrder;
+		private long lastSpatialSortTick;
+		/**
+		 * Index spatial des sources de nourriture (voir
+		 * {@link AdaptiveSpatialIndex}), reconstruit à la première requête suivant
+		 * une modification de {@link Environment#listFood}, et vecteur de travail
+		 * des requêtes indexées le long d'un déplacement.
+		 */
+		private final AdaptiveSpatialIndex foodIndex;
+		private boolean foodIndexStale;
+		private final MutableVec2d foodScratch;
+		/**
+		 * Index spatial des animaux, reconstruit au début de la mise à jour
+		 * séquentielle des animaux et utilisé par les requêtes d'ennemis jusqu'à
+		 * sa fin, ou jusqu'à l'ajout ou au retrait d'un animal ; indices des
+		 * animaux sélectionnés par la dernière requête, ou {@code null} lorsque
+		 * tous les animaux l'ont été (voir
+		 * {@link Environment#gatherAnimalsNear(ToricPosition, double)}).
+		 */
+		private final AdaptiveSpatialIndex animalIndex;
+		private boolean animalIndexValid;
+		private int[] animalCandidates;
 		
 		/**
 		 * Constructeur vide, initialisant une instance de {@link Environment}.
 		 */
 		public Environment() {
 			theFoodGenerator = new FoodGenerator();
+			clock = new SimulationClock();
+			scheduler = new Scheduler();
+			pheromonePool = new ObjectPool<Pheromone>(Pheromone::new, PHEROMONE_POOL_CAPACITY);
+			statistics = new EnvironmentStatistics();
+			statisticsSubscriptions = new ArrayList<StatisticsSubscription>();
+			updateMode = UpdateMode.SEQUENTIAL;
+			updatePositions = new ToricPosition[0];
+			updateAlive = new boolean[0];
+			updateIndex = new UniformGridIndex();
+			combatKernel = new CombatKernel();
+			mortonOrder = new MortonOrder();
+			foodIndex = new AdaptiveSpatialIndex();
+			foodIndexStale = true;
+			foodScratch = new MutableVec2d();
+			animalIndex = new AdaptiveSpatialIndex();
 
-			// Utilisation de LinkedList pour optimiser les opérations d'ajout/suppression.
-			listFood = new LinkedList <Food> ();
-			listAnthill = new LinkedList<Anthill>();
-			listAnimal = new LinkedList <Animal> ();
-			listPheromone = new LinkedList<Pheromone>();
+			// Valeurs dérivées de la configuration, dont la grille de fusion des
+			// phéromones
+			refreshConfig();
+
+			// Utilisation d'ArrayList : les retraits sont groupés en une passe par pas
+			// (removeIf) et le stockage peut être pré-dimensionné lors d'un chargement
+			// en masse (Environment#ensureCapacity).
+			listFood = new ArrayList <Food> ();
+			listAnthill = new ArrayList<Anthill>();
+			listAnimal = new ArrayList <Animal> ();
+			// Les phéromones sont retirées par échange avec la dernière case
+			// (Environment#expirePheromone), d'où un ArrayList.
+			listPheromone = new ArrayList<Pheromone>();
+			pheromoneColumns = new PheromoneColumns();
+
+			scheduler.schedule(theFoodGenerator.getDelay(), time -> theFoodGenerator.generateFood(this, time));
 		}
 		
 		/**
@@ -76,7 +279,7 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 * @return la hauteur de l'environnement
 		 */
 		public int getHeight() {
-			return Context.getConfig().getInt(Config.WORLD_HEIGHT);
+			return worldHeight;
 		}
 
 		/**
@@ -88,7 +291,154 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 * @return la largeur de l'environnement
 		 */
 		public int getWidth() {
-			return Context.getConfig().getInt(Config.WORLD_WIDTH);
+			return worldWidth;
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return l'horloge {@link SimulationClock} de l'instance {@code this} de
+		 *         {@link Environment}
+		 */
+		public SimulationClock getClock() {
+			return clock;
+		}
+
+		/**
+		 * Méthode redéfinie retournant le temps simulé écoulé à la fin du pas de
+		 * simulation courant, tel que fourni par {@link Environment#clock}
+		 * 
+		 * @return le temps simulé en millisecondes
+		 */
+		@Override
+		public long getSimulationTime() {
+			return clock.getTimeMillis();
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return les compteurs agrégés {@link EnvironmentStatistics} de l'instance
+		 *         {@code this} de {@link Environment}
+		 */
+		public EnvironmentStatistics getStatistics() {
+			return statistics;
+		}
+
+		/**
+		 * Méthode déplaçant les données des phéromones de l'instance {@code this}
+		 * de {@link Environment} hors du tas, dans le fichier {@code file} projeté
+		 * en mémoire (voir {@link MappedPheromoneColumns} pour son format) : les
+		 * dépôts et les retraits s'y appliquent en place, et d'autres processus
+		 * peuvent le projeter en lecture pendant la simulation. Les phéromones
+		 * déjà déposées y sont recopiées.
+		 * 
+		 * @param file : {@link File} de stockage, créé ou écrasé
+		 * @throws IllegalArgumentException si {@code file} est {@code null}
+		 * @throws UncheckedIOException     si le fichier ne peut être créé
+		 */
+		public void mapPheromones(File file) throws IllegalArgumentException {
+			Utils.requireNonNull(file);
+			pheromoneColumns = new MappedPheromoneColumns(file, worldWidth, worldHeight, evaporationRate, pheromoneThreshold);
+			pheromoneColumns.rebuild(listPheromone);
+		}
+
+		/**
+		 * Méthode écrivant sur le disque l'état courant des phéromones de
+		 * l'instance {@code this} de {@link Environment}, lorsqu'elles sont
+		 * stockées dans un fichier (voir {@link Environment#mapPheromones(File)}),
+		 * avec l'instant courant de la simulation. Sans effet sinon. Doit être
+		 * appelée entre deux pas de simulation.
+		 */
+		public void snapshotPheromones() {
+			if (pheromoneColumns instanceof MappedPheromoneColumns) {
+				((MappedPheromoneColumns) pheromoneColumns).snapshot(clock.getTimeMillis());
+			}
+		}
+
+		/**
+		 * Méthode estimant l'empreinte mémoire des entités détenues par l'instance
+		 * {@code this} de {@link Environment}. La place retenue par une entité
+		 * comprend l'entité et les objets de la simulation qu'elle est seule à
+		 * référencer (position, modèle de rotation, timer) ; les autres entités,
+		 * l'horloge, l'ordonnanceur et les identifiants de fourmilière (comptés avec
+		 * la fourmilière) en sont exclus. Au plus {@code FOOTPRINT_SAMPLES}
+		 * instances de chaque liste sont mesurées, à intervalles réguliers, et la
+		 * moyenne par type est étendue à toutes les instances vivantes.
+		 * 
+		 * @return un relevé {@link MemoryFootprint} de l'instance {@code this} de
+		 *         {@link Environment}
+		 */
+		public MemoryFootprint getMemoryFootprint() {
+			EntityType[] types = EntityType.values();
+			int[] counts = new int[types.length];
+			counts[EntityType.ANT_WORKER.ordinal()] = statistics.getWorkers();
+			counts[EntityType.ANT_SOLDIER.ordinal()] = statistics.getSoldiers();
+			counts[EntityType.TERMITE.ordinal()] = statistics.getTermites();
+			counts[EntityType.PHEROMONE.ordinal()] = statistics.getPheromones();
+			counts[EntityType.ANTHILL.ordinal()] = listAnthill.size();
+			for (int i = 0; i < listFood.size(); ++i) {
+				if (!listFood.get(i).isGhost()) {
+					++counts[EntityType.FOOD.ordinal()];
+				}
+			}
+
+			long[] sampledBytes = new long[types.length];
+			int[] sampled = new int[types.length];
+			sampleFootprint(listAnimal, new EntityType[] {EntityType.ANT_WORKER, EntityType.ANT_SOLDIER, EntityType.TERMITE},
+					counts, sampledBytes, sampled);
+			sampleFootprint(listPheromone, new EntityType[] {EntityType.PHEROMONE}, counts, sampledBytes, sampled);
+			sampleFootprint(listFood, new EntityType[] {EntityType.FOOD}, counts, sampledBytes, sampled);
+			sampleFootprint(listAnthill, new EntityType[] {EntityType.ANTHILL}, counts, sampledBytes, sampled);
+
+			long[] retainedBytes = new long[types.length];
+			for (int t = 0; t < types.length; ++t) {
+				if (sampled[t] > 0) {
+					retainedBytes[t] = Math.round((double) sampledBytes[t] / sampled[t] * counts[t]);
+				}
+			}
+			return new MemoryFootprint(counts, retainedBytes);
+		}
+
+		/**
+		 * Abonne {@code sink} à l'échantillonnage périodique des statistiques de
+		 * l'instance {@code this} de {@link Environment}, avec la période constante
+		 * {@code STATISTICS_SAMPLE_PERIOD} du fichier de configuration initial.
+		 * 
+		 * @param sink : {@link StatisticsSink} recevant les échantillons
+		 * @throws IllegalArgumentException si {@code sink} est {@code null}
+		 */
+		public void addStatisticsSink(StatisticsSink sink) throws IllegalArgumentException {
+			addStatisticsSink(sink, Context.getConfig().getTime(Config.STATISTICS_SAMPLE_PERIOD).toMilliseconds());
+		}
+
+		/**
+		 * Abonne {@code sink} à l'échantillonnage périodique des statistiques de
+		 * l'instance {@code this} de {@link Environment}. Un échantillon est produit
+		 * à la fin de chaque appel à {@link Environment#update(Time)} au cours duquel
+		 * une échéance d'échantillonnage est atteinte.
+		 * 
+		 * @param sink         : {@link StatisticsSink} recevant les échantillons
+		 * @param periodMillis : {@code long}, période d'échantillonnage en
+		 *                     millisecondes de temps simulé
+		 * @throws IllegalArgumentException si {@code sink} est {@code null} ou si
+		 *                                  {@code periodMillis} n'est pas
+		 *                                  strictement positive
+		 */
+		public void addStatisticsSink(StatisticsSink sink, long periodMillis) throws IllegalArgumentException {
+			Utils.requireNonNull(sink);
+			Utils.require("La période d'échantillonnage doit être strictement positive.", periodMillis > 0);
+			statisticsSubscriptions.add(new StatisticsSubscription(sink, periodMillis, clock.getTimeMillis(), statistics));
+		}
+
+		/**
+		 * Désabonne {@code sink} de l'échantillonnage périodique. La destination
+		 * n'est pas fermée.
+		 * 
+		 * @param sink : {@link StatisticsSink} à désabonner
+		 */
+		public void removeStatisticsSink(StatisticsSink sink) {
+			statisticsSubscriptions.removeIf(subscription -> subscription.sink == sink);
 		}
 
 		/**
@@ -155,7 +505,14 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		@Override
 		public void addFood(Food food) throws IllegalArgumentException {
 			Utils.require("addFood() avec un objet null en argument n'a pas de sens.", (food != null));
+			if (!isOwned(food.getPosition())) {
+				// Nourriture placée hors de la tuile détenue : elle relève d'une autre
+				// tuile, dont le générateur place lui-même sa propre nourriture
+				return;
+			}
 			listFood.add(food);
+			foodIndexStale = true;
+			statistics.countFoodOnMap(food.getQuantity());
 		}
 		
 		/**
@@ -170,6 +527,28 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		public void addAnthill(Anthill anthill) throws IllegalArgumentException {
 			Utils.require("addAnthill() avec un objet null en argument n'a pas de sens.", (anthill != null));
 			listAnthill.add(anthill);
+			// Une fourmilière hors de la tuile détenue est une réplique : elle reçoit
+			// la nourriture rapportée mais ne fait naître aucune fourmi
+			if (isOwned(anthill.getPosition())) {
+				scheduler.schedule(clock.getTimeMillis() + anthill.getSpawnDelay(), time -> anthill.spawnAnt(this, time));
+			}
+		}
+		
+		/**
+		 * Pré-dimensionne le stockage de l'instance {@code this} de
+		 * {@link Environment} avant l'ajout en masse d'objets (voir
+		 * {@link ch.epfl.moocprog.scenario.ScenarioLoader}).
+		 * 
+		 * @param animals  : {@code int}, nombre d'animaux supplémentaires attendus
+		 * @param anthills : {@code int}, nombre de fourmilières supplémentaires
+		 *                 attendues
+		 * @param food     : {@code int}, nombre de sources de nourriture
+		 *                 supplémentaires attendues
+		 */
+		public void ensureCapacity(int animals, int anthills, int food) {
+			listAnimal.ensureCapacity(listAnimal.size() + animals);
+			listAnthill.ensureCapacity(listAnthill.size() + anthills);
+			listFood.ensureCapacity(listFood.size() + food);
 		}
 		
 		/**
@@ -183,7 +562,15 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 */
 		public void addAnimal(Animal animal) throws IllegalArgumentException {
 			Utils.require("addAnimal () avec un objet null en argument n'a pas de sens.", (animal != null));
+			if (!isOwned(animal.getPosition())) {
+				return;
+			}
 			listAnimal.add(animal);
+			animalIndexValid = false;
+			statistics.countAnimal(animal, 1);
+			Scheduler.Timer timer = scheduler.newTimer(time -> animal.rotate(this, time));
+			animal.setRotationTimer(timer);
+			scheduler.schedule(timer, clock.getTimeMillis() + animal.getRotationDelay());
 		}
 		
 		/**
@@ -213,31 +600,138 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		@Override
 		public void addPheromone(Pheromone pheromone) throws IllegalArgumentException {
 			Utils.require("addPheromone() avec un objet null en argument n'a pas de sens.", (pheromone != null));
+			pheromone.deposit(clock);
+			pheromone.setStorageIndex(listPheromone.size());
 			listPheromone.add(pheromone);
+			pheromoneColumns.append(pheromone);
+			statistics.countPheromone(pheromone, 1);
+			depositOnLayer(pheromone, pheromone.getQuantity());
+
+			long expiryTime = pheromone.getExpiryTime();
+			if (expiryTime != Scheduler.NEVER) {
+				if (pheromone.isRecyclable()) {
+					// Une phéromone recyclée conserve son timer d'une vie à l'autre
+					Scheduler.Timer timer = pheromone.getExpiryTimer();
+					if (timer == null) {
+						timer = scheduler.newTimer(time -> expirePheromone(pheromone, time));
+						pheromone.setExpiryTimer(timer);
+					}
+					scheduler.schedule(timer, expiryTime);
+				} else {
+					pheromone.setExpiryTimer(scheduler.schedule(expiryTime, time -> expirePheromone(pheromone, time)));
+				}
+			}
 		}
 
 		/**
-		 * Calcule l'angle le plus proche entre un angle donné et un angle cible, en
-		 * prenant en compte la circularité des angles (dans le cadre de [0, 2π]).
-		 * Retourne la différence d'angle minimale, qu'elle soit dans le sens horaire ou
-		 * antihoraire.
-		 * 
-		 * @param angle  : L'angle initial en radians
-		 * @param target : L'angle cible en radians
+		 * Méthode redéfinie servant à déposer dans l'instance {@code this}
+		 * d'{@link Environment} une phéromone de position {@code position} et de
+		 * quantité {@code quantity}. La phéromone est tirée de
+		 * {@link Environment#pheromonePool}, aucune instance n'étant construite
+		 * lorsqu'une phéromone évaporée est disponible. Lorsque la fusion est
+		 * activée ({@code PHEROMONE_MERGE_RADIUS} strictement positif), le dépôt est
+		 * fusionné dans la phéromone de sa cellule si elle existe, dans la limite
+		 * de {@code PHEROMONE_MAX_CELL_QUANTITY} (voir
+		 * {@link Pheromone#merge(double, double)}).
+		 *
+		 * @param position : {@link ToricPosition}, position de la phéromone
+		 * @param quantity : {@code double}, quantité initiale de la phéromone
+		 * @throws IllegalArgumentException : exception lancée si {@code position}
+		 *                                  est {@code null}
+		 */
+		@Override
+		public void addPheromone(ToricPosition position, double quantity) throws IllegalArgumentException {
+			Utils.requireNonNull(position);
+			int cell = -1;
+
+			if (pheromoneCells != null) {
+				cell = pheromoneCellOf(position);
+				Pheromone existing = pheromoneCells[cell];
+				// La cellule peut référencer une phéromone retirée, voire recyclée
+				// ailleurs : seule une phéromone encore stockée dans la cellule est
+				// renforcée
+				if (existing != null && existing.getStorageIndex() >= 0 && !existing.isGhost() && pheromoneCellOf(existing.getPosition()) == cell) {
+					statistics.countPheromone(existing, -1);
+					double before = existing.getQuantity();
+					existing.merge(quantity, pheromoneCellCap);
+					depositOnLayer(existing, existing.getQuantity() - before);
+					pheromoneColumns.set(existing.getStorageIndex(), existing);
+					statistics.countPheromone(existing, 1);
+					return;
+				}
+				quantity = Math.min(quantity, pheromoneCellCap);
+			}
+
+			Pheromone pheromone = pheromonePool.obtain();
+			pheromone.reset(position, quantity);
+			addPheromone(pheromone);
+
+			if (cell >= 0) {
+				pheromoneCells[cell] = pheromone;
+			}
+		}
+
+		/**
+		 * Reporte sur {@link Environment#pheromoneLayer}, s'il existe, le dépôt de
+		 * {@code quantity} à la position de {@code pheromone}.
+		 */
+		private void depositOnLayer(Pheromone pheromone, double quantity) {
+			if (pheromoneLayer != null) {
+				Vec2d position = pheromone.getPosition().toVec2d();
+				pheromoneLayer.deposit(position.getX(), position.getY(), quantity);
+			}
+		}
+
+		/**
+		 * @return l'indice de la cellule de {@link Environment#pheromoneCells}
+		 *         contenant {@code position}
+		 */
+		private int pheromoneCellOf(ToricPosition position) {
+			Vec2d v = position.toVec2d();
+			int column = Math.min((int) (v.getX() / pheromoneCellSize), pheromoneCellColumns - 1);
+			int row = Math.min((int) (v.getY() / pheromoneCellSize), pheromoneCells.length / pheromoneCellColumns - 1);
+			return row * pheromoneCellColumns + column;
+		}
+
+		/**
+		 * Méthode déclenchée par {@link Environment#scheduler} à l'échéance
+		 * d'évaporation de {@code pheromone} : la phéromone devenue négligeable est
+		 * retirée en temps constant en la remplaçant par la dernière phéromone
+		 * stockée. Les phéromones recyclables sont ensuite rendues à
+		 * {@link Environment#pheromonePool}. Une phéromone renforcée par fusion
+		 * depuis la planification de son retrait est replanifiée à sa nouvelle
+		 * échéance.
 		 * 
-		 * @return La différence minimale entre l'angle et la cible, en radians,
-		 *         toujours positive.
+		 * @param pheromone : {@link Pheromone} arrivée à échéance
+		 * @param time      : {@code long}, échéance (en millisecondes)
+		 * @return la nouvelle échéance d'une phéromone renforcée, sinon
+		 *         {@link Scheduler#NEVER}, la phéromone n'ayant plus à être suivie
 		 */
-		private static double closestAngleFrom (double angle, double target) {
-			// Calcul de la différence entre les deux angles
-			double diff = angle - target;
-			diff = normalizedAngle(diff);
-			
-			// Calcul de la différence alternative en tenant compte de la circularité
-			double autreDiff = (2 * Math.PI) - diff;
-			
-			// Retourne la plus petite des deux différences d'angles
-			return (diff <= autreDiff) ? diff : autreDiff;
+		private long expirePheromone(Pheromone pheromone, long time) {
+			int index = pheromone.getStorageIndex();
+			int lastIndex = listPheromone.size() - 1;
+
+			if (index >= 0) {
+				long expiryTime = pheromone.getExpiryTime();
+				if (expiryTime > time) {
+					return expiryTime;
+				}
+
+				Pheromone last = listPheromone.remove(lastIndex);
+				pheromoneColumns.removeLast();
+				if (index != lastIndex) {
+					listPheromone.set(index, last);
+					pheromoneColumns.set(index, last);
+					last.setStorageIndex(index);
+				}
+				statistics.countPheromone(pheromone, -1);
+				pheromone.detach();
+
+				if (pheromone.isRecyclable()) {
+					pheromonePool.release(pheromone);
+				}
+			}
+			return Scheduler.NEVER;
 		}
 
 		/**
@@ -263,16 +757,57 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 */
 		@Override
 		public boolean dropFood(AntWorker antWorker) throws IllegalArgumentException {
+			return dropFoodAlongPath(antWorker, null);
+		}
+
+		/**
+		 * Méthode redéfinie qui, comme {@link Environment#dropFood(AntWorker)},
+		 * dépose la nourriture de {@code antWorker} dans sa fourmilière
+		 * d'appartenance, celle-ci pouvant aussi avoir été perceptible en un point
+		 * du segment parcouru depuis {@code from} (voir
+		 * {@link Environment#anthillInReachOf(AntWorker, ToricPosition)}).
+		 * 
+		 * @param antWorker : {@link AntWorker}, fourmi ouvrière déposant sa
+		 *                  nourriture
+		 * @param from      : {@link ToricPosition}, position de {@code antWorker}
+		 *                  avant son déplacement, ou {@code null}
+		 * @return {@code true} si la nourriture est déposée avec succès,
+		 *         {@code false} sinon
+		 * @throws IllegalArgumentException dans les cas de
+		 *                                  {@link Environment#dropFood(AntWorker)}
+		 */
+		@Override
+		public boolean dropFoodAlongPath(AntWorker antWorker, ToricPosition from) throws IllegalArgumentException {
 			Utils.requireNonNull(antWorker);
 			Utils.require(antWorker.getFoodQuantity() >= 0.0);
 			Utils.requireNonNull(listAnthill);
 			
-			if (listAnthill.isEmpty()) {
+			Anthill anthill = anthillInReachOf(antWorker, from);
+			if (anthill == null) {
 				return false;
 			}
-			
+			storeFood(anthill, antWorker.getFoodQuantity());
+			return true;
+		}
+
+		/**
+		 * Méthode retournant la fourmilière de rattachement de {@code antWorker}
+		 * si elle est perceptible par celle-ci (voir
+		 * {@link Environment#seeByAnt(double)}) à sa position courante ou, si
+		 * {@code from} n'est pas {@code null}, en un point du segment allant de
+		 * {@code from} à cette position : une fourmi rapide ne passe pas sa
+		 * fourmilière sans la voir.
+		 * 
+		 * @param antWorker : {@link AntWorker}, fourmi ouvrière
+		 * @param from      : {@link ToricPosition}, position de {@code antWorker}
+		 *                  avant son déplacement, ou {@code null}
+		 * @return la fourmilière de {@code antWorker} à sa portée, ou {@code null}
+		 */
+		Anthill anthillInReachOf(AntWorker antWorker, ToricPosition from) {
 			// Vec2d positionAnt = antWorker.getPosition().toVec2d();
 			ToricPosition positionAnt = antWorker.getPosition();
+			double perception = Context.getConfig().getDouble(ANT_MAX_PERCEPTION_DISTANCE);
+			Vec2d path = (from == null) ? null : from.toricVector(positionAnt);
 			
 			Uid anthillID = antWorker.getAnthillId();
 
@@ -284,13 +819,106 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 				if (a.getAnthillId().equals(anthillID)) {
 					ToricPosition positionAnthill = a.getPosition();
 
-					if (positionAnthill != null && seeByAnt(positionAnt.toricDistance(positionAnthill))) {
-						a.dropFood(antWorker.getFoodQuantity());
-						return true;
+					if (positionAnthill == null) {
+						continue;
+					}
+					if (seeByAnt(positionAnt.toricDistance(positionAnthill))) {
+						return a;
+					}
+					// Les fourmilières, peu nombreuses et filtrées par identifiant, ne
+					// sont pas indexées
+					if (path != null) {
+						Vec2d toAnthill = from.toricVector(positionAnthill);
+						if (entryAlongPath(toAnthill.getX(), toAnthill.getY(), path.getX(), path.getY(), perception) >= 0.0) {
+							return a;
+						}
 					}
 				}
 			}
-			return false;
+			return null;
+		}
+
+		/**
+		 * Dépose {@code quantity} de nourriture dans {@code anthill}, en tenant à
+		 * jour les statistiques de l'environnement.
+		 * 
+		 * @param anthill  : {@link Anthill} recevant la nourriture
+		 * @param quantity : {@code double}, quantité de nourriture déposée
+		 */
+		void storeFood(Anthill anthill, double quantity) {
+			anthill.dropFood(quantity);
+			statistics.countFoodStored(quantity);
+		}
+
+		/**
+		 * Méthode redéfinie permettant à une instance de {@link AntWorker} de
+		 * prélever une quantité de nourriture dans {@code food}, via
+		 * {@link Food#takeQuantity(double)}, en tenant à jour les statistiques de
+		 * l'environnement.
+		 * 
+		 * @param food      : {@link Food}, source de nourriture
+		 * @param aQuantity : {@code double}, quantité désirée de nourriture
+		 * @return la quantité de nourriture réellement prélevée
+		 * @throws IllegalArgumentException si {@code food} est {@code null} ou si
+		 *                                  {@code aQuantity} est négative
+		 */
+		@Override
+		public double takeFood(Food food, double aQuantity) throws IllegalArgumentException {
+			Utils.requireNonNull(food);
+			double taken = food.takeQuantity(aQuantity);
+			// La nourriture prélevée sur un fantôme est comptée par sa tuile détentrice
+			if (!food.isGhost()) {
+				statistics.countFoodOnMap(-taken);
+			}
+			return taken;
+		}
+
+		/**
+		 * Méthode redéfinie notifiant l'instance {@code this} de {@link Environment}
+		 * d'un coup porté par {@code attacker} à {@code target}, comptabilisé dans
+		 * ses statistiques.
+		 * 
+		 * @param attacker : {@link Animal} portant le coup
+		 * @param target   : {@link Animal} recevant le coup
+		 */
+		@Override
+		public void notifyFight(Animal attacker, Animal target) {
+			statistics.countFight();
+		}
+
+		/**
+		 * Méthode redéfinie portant un coup de {@code attacker} à {@code target} :
+		 * la cible passe en état d'attaque et, si elle est encore vivante, perd un
+		 * nombre de points de vie tiré uniformément entre les forces d'attaque
+		 * minimale et maximale de {@code attacker}, le coup étant notifié via
+		 * {@link Environment#notifyFight(Animal, Animal)}. Le tirage a lieu ici
+		 * afin que les coups différés d'une mise à jour parallèle (voir
+		 * {@link ParallelAnimalUpdate#commit()}) soient tirés dans un ordre fixe.
+		 * 
+		 * @param attacker : {@link Animal} portant le coup
+		 * @param target   : {@link Animal} recevant le coup
+		 */
+		@Override
+		public void strike(Animal attacker, Animal target) {
+			int hit = (int) Math.round(UniformDistribution.getValue(attacker.getMinAttackStrength(), attacker.getMaxAttackStrength()));
+			target.setState(Animal.State.ATTACK);
+
+			if (!target.isDead()) {
+				target.setHitpoints(target.getHitpoints() - hit);
+				notifyFight(attacker, target);
+			}
+		}
+
+		/**
+		 * Méthode redéfinie : hors d'une mise à jour parallèle, la vivacité
+		 * d'un animal est son état courant.
+		 * 
+		 * @param animal : {@link Animal} dont on veut savoir s'il est vivant
+		 * @return {@code true} si {@code animal} n'est pas mort
+		 */
+		@Override
+		public boolean isAliveAtPhaseStart(Animal animal) {
+			return !animal.isDead();
 		}
 
 		/**
@@ -312,22 +940,172 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 */
 		@Override
 		public Food getClosestFoodForAnt(AntWorker antWorker) throws IllegalArgumentException {
+			return closestFoodForAnt(antWorker, null, true);
+		}
+
+		/**
+		 * Méthode redéfinie retournant la source de nourriture perceptible la plus
+		 * proche de {@code antWorker} (voir
+		 * {@link Environment#getClosestFoodForAnt(AntWorker)}) ou, à défaut, la
+		 * première source perceptible le long du segment parcouru depuis
+		 * {@code from} : une fourmi dont le déplacement d'un pas dépasse le rayon
+		 * de perception ne passe pas une source sans la voir.
+		 * 
+		 * @param antWorker : {@link AntWorker}, fourmi cherchant de la nourriture
+		 * @param from      : {@link ToricPosition}, position de {@code antWorker}
+		 *                  avant son déplacement, ou {@code null}
+		 * @return la source de nourriture retenue, ou {@code null} si aucune n'a
+		 *         été perceptible
+		 * @throws IllegalArgumentException si {@code antWorker} est {@code null}
+		 */
+		@Override
+		public Food getClosestFoodAlongPathForAnt(AntWorker antWorker, ToricPosition from) throws IllegalArgumentException {
+			return closestFoodForAnt(antWorker, from, true);
+		}
+
+		/**
+		 * Retourne, comme {@link Environment#getClosestFoodForAnt(AntWorker)}, la
+		 * source de nourriture perceptible la plus proche de {@code antWorker}, la
+		 * première stockée à distance égale. Si aucune ne l'est et que
+		 * {@code from} n'est pas {@code null}, retourne la source dans le rayon de
+		 * perception de laquelle le segment allant de {@code from} à la position
+		 * de {@code antWorker} entre en premier (voir
+		 * {@link Environment#entryAlongPath(double, double, double, double, double)}).
+		 * <p>
+		 * Avec {@code indexed}, seules les sources sélectionnées par
+		 * {@link Environment#foodIndex} autour du milieu du segment, dans sa
+		 * demi-longueur augmentée du rayon de perception, sont examinées ; sans,
+		 * toutes le sont, sans toucher aux tampons de l'index ni au vecteur de
+		 * travail (requêtes de plusieurs fils, voir {@link ParallelAnimalUpdate}).
+		 * 
+		 * @param antWorker : {@link AntWorker}, fourmi cherchant de la nourriture
+		 * @param from      : {@link ToricPosition}, position de {@code antWorker}
+		 *                  avant son déplacement, ou {@code null}
+		 * @param indexed   : {@code boolean}, {@code true} pour utiliser l'index
+		 * @return la source retenue, ou {@code null} si aucune n'est perceptible
+		 * @throws IllegalArgumentException si {@code antWorker} est {@code null}
+		 */
+		Food closestFoodForAnt(AntWorker antWorker, ToricPosition from, boolean indexed) throws IllegalArgumentException {
 			Utils.requireNonNull(antWorker);
 			Utils.requireNonNull(listFood);
 
 			if (listFood.isEmpty()) {
 				return null;
 			}
-			
-			Food nearestFood = Utils.closestFromPoint(antWorker, listFood);
-			Utils.requireNonNull(nearestFood);
 
-			if (!seeByAnt(antWorker.getPosition().toricDistance(nearestFood.getPosition()))) {
-				nearestFood = null;
+			ToricPosition position = antWorker.getPosition();
+			double perception = Context.getConfig().getDouble(ANT_MAX_PERCEPTION_DISTANCE);
+			Vec2d path = (from == null) ? null : from.toricVector(position);
+			// Les requêtes de plusieurs fils (sans index) ne partagent pas le
+			// vecteur de travail
+			MutableVec2d toFood = (path == null) ? null : indexed ? foodScratch : new MutableVec2d();
+
+			int count = listFood.size();
+			int[] candidates = null;
+			if (indexed) {
+				if (foodIndexStale || foodIndex.size() != listFood.size()) {
+					foodIndex.rebuild(listFood, worldWidth, worldHeight, 0.0);
+					foodIndexStale = false;
+				}
+				if (path == null) {
+					count = foodIndex.gatherWithin(position.toVec2d().getX(), position.toVec2d().getY(), perception);
+				} else {
+					// Toute source à portée d'un point du segment est à portée de la
+					// boîte centrée sur son milieu
+					Vec2d middle = from.add(path.getX() / 2, path.getY() / 2).toVec2d();
+					count = foodIndex.gatherWithin(middle.getX(), middle.getY(), path.length() / 2 + perception);
+				}
+				candidates = foodIndex.getGathered();
+				Arrays.sort(candidates, 0, count);
+			}
+
+			// La plus proche de toutes les sources n'est retenue que si elle est
+			// perceptible : l'index sélectionne toutes celles à portée
+			Food nearestFood = null;
+			double nearestDistance = 0.0;
+			Food firstFood = null;
+			double firstEntry = 0.0;
+			for (int k = 0; k < count; ++k) {
+				Food food = listFood.get((candidates == null) ? k : candidates[k]);
+				double distance = position.toricDistance(food.getPosition());
+				if (nearestFood == null || distance < nearestDistance) {
+					nearestFood = food;
+					nearestDistance = distance;
+				}
+				if (path != null) {
+					from.toricVector(food.getPosition(), toFood);
+					double entry = entryAlongPath(toFood.getX(), toFood.getY(), path.getX(), path.getY(), perception);
+					if (entry >= 0.0 && (firstFood == null || entry < firstEntry)) {
+						firstFood = food;
+						firstEntry = entry;
+					}
+				}
+			}
+
+			if (nearestFood != null && !seeByAnt(nearestDistance)) {
+				nearestFood = firstFood;
 			}
 
 			return nearestFood;
 		}
+
+		/**
+		 * Retourne la fraction du segment allant de l'origine au vecteur
+		 * {@code (pathX, pathY)} parcourue lorsque ce segment entre dans le disque
+		 * de rayon {@code radius} centré en {@code (x, y)} (point relatif à
+		 * l'origine du segment).
+		 * 
+		 * @return la plus petite fraction {@code t} de {@code [0, 1]} telle que le
+		 *         point {@code t * (pathX, pathY)} soit à une distance inférieure
+		 *         ou égale à {@code radius} de {@code (x, y)}, ou {@code -1} si le
+		 *         segment n'approche pas ce point à cette distance
+		 */
+		private static double entryAlongPath(double x, double y, double pathX, double pathY, double radius) {
+			double outside = x * x + y * y - radius * radius;
+			if (outside <= 0.0) {
+				return 0.0;
+			}
+			// Racine la plus petite de |t * path - (x, y)|^2 = radius^2, le segment
+			// partant hors du disque
+			double along = x * pathX + y * pathY;
+			double squaredLength = pathX * pathX + pathY * pathY;
+			double discriminant = along * along - squaredLength * outside;
+			if (along <= 0.0 || discriminant < 0.0) {
+				return -1.0;
+			}
+			double entry = (along - Math.sqrt(discriminant)) / squaredLength;
+			return (entry <= 1.0) ? entry : -1.0;
+		}
+
+		/**
+		 * Méthode redéfinie retournant le point du segment allant de {@code from}
+		 * à la position de {@code antWorker} (plus court chemin torique) où
+		 * {@code food} devient perceptible par celle-ci (voir
+		 * {@link Environment#entryAlongPath(double, double, double, double, double)}).
+		 * 
+		 * @param antWorker : {@link AntWorker}, fourmi ouvrière
+		 * @param from      : {@link ToricPosition}, position de {@code antWorker}
+		 *                  avant son déplacement
+		 * @param food      : {@link Food}, source de nourriture
+		 * @return le point d'entrée, ou {@code null} si le segment n'approche pas
+		 *         {@code food} à portée de perception
+		 * @throws IllegalArgumentException si l'un des arguments est {@code null}
+		 */
+		@Override
+		public ToricPosition getFoodEntryPointAlongPath(AntWorker antWorker, ToricPosition from, Food food) throws IllegalArgumentException {
+			Utils.requireNonNull(antWorker);
+			Utils.requireNonNull(from);
+			Utils.requireNonNull(food);
+
+			Vec2d path = from.toricVector(antWorker.getPosition());
+			Vec2d toFood = from.toricVector(food.getPosition());
+			double perception = Context.getConfig().getDouble(ANT_MAX_PERCEPTION_DISTANCE);
+			double entry = entryAlongPath(toFood.getX(), toFood.getY(), path.getX(), path.getY(), perception);
+			if (entry < 0.0) {
+				return null;
+			}
+			return from.add(path.getX() * entry, path.getY() * entry);
+		}
 		
 		/**
 		 * Méthode retournant une liste de quantité de {@link Pheromone#getQuantity()}
@@ -352,33 +1130,31 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 			Utils.requireNonNull(position);
 			Utils.requireNonNull(angles);
 			
-			double smellMaxDistance = Context.getConfig().getDouble(ANT_SMELL_MAX_DISTANCE);
 			double [] perceptiblePheromoneQuantities = new double[angles.length];
+			if (angles.length == 0) {
+				return perceptiblePheromoneQuantities;
+			}
 
-			for (Pheromone p : listPheromone) {
-				// Déterminer l'ensemble des phéromones non négligeables existantes dans le
-				// rayon olfactif de la fourmi et les ajouter dans un tableau
-				if (!p.isNegligible() && position.toricDistance(p.getPosition()) <= smellMaxDistance) {
-					// Recherche l'angle beta que fait cette pheromone p avec la fourmi
-					Vec2d v = position.toricVector(p.getPosition());
-					double beta = v.angle() - directionAngleRad;
-
-					// Recherche l'angle parmi les angles d'observation de la liste double [] angles
-					// le plus proche de beta
-					double nearest = Double.MAX_VALUE;
-					int indexAngle = 0;
-					for (int k = 0; k < angles.length; ++k) {
-						double distance = closestAngleFrom(angles[k], beta);
-						if (distance < nearest) {
-							nearest = distance;
-							indexAngle = k;
-						}
-					}
+			// Sélection, sur les colonnes primitives, des phéromones non négligeables
+			// dans le rayon olfactif de la fourmi, avec leur vecteur depuis la fourmi
+			Vec2d origin = position.toVec2d();
+			int count = pheromoneColumns.gatherWithin(origin.getX(), origin.getY(), smellMaxDistance, clock.getTimeMillis(),
+					evaporationRate, pheromoneThreshold, worldWidth, worldHeight);
+			double[] dx = pheromoneColumns.getGatheredDx();
+			double[] dy = pheromoneColumns.getGatheredDy();
+			double[] quantities = pheromoneColumns.getGatheredQuantities();
 
-					// Ajout de la quantité de phéromone dans le secteur d'angles le plus proche de
-					// beta
-					perceptiblePheromoneQuantities[indexAngle] += p.getQuantity();
-				}
+			// Le secteur d'angle le plus proche de chaque phéromone est trouvé par
+			// recherche dichotomique dans le découpage précalculé de la table angles
+			AngularSectors sectors = angularSectors;
+			if (sectors == null || !sectors.matches(angles)) {
+				sectors = new AngularSectors(angles);
+				angularSectors = sectors;
+			}
+
+			for (int i = 0; i < count; ++i) {
+				double beta = Utils.fastAtan2(dy[i], dx[i]) - directionAngleRad;
+				perceptiblePheromoneQuantities[sectors.sectorOf(beta)] += quantities[i];
 			}
 
 			return perceptiblePheromoneQuantities;
@@ -405,7 +1181,9 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 			double visionAnimalDistance = Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE);
 			List<Animal> visibleAnimals = new ArrayList<Animal>();
 			
-			for (Animal animal : listAnimal) {
+			int count = gatherAnimalsNear(from.getPosition(), visionAnimalDistance);
+			for (int k = 0; k < count; ++k) {
+				Animal animal = listAnimal.get((animalCandidates == null) ? k : animalCandidates[k]);
 				if (animal != null && !(animal.equals(from))) {
 					double interAnimalDistance = animal.getPosition().toricDistance(from.getPosition());
 					
@@ -422,7 +1200,8 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 * Méthode renvoyant {@code true} l'instance {@code from} de {@link Animal} est
 		 * visible d'ennemis proches, et {@code false} dans le cas contraire. Elle
 		 * s'appuie sur la méthode
-		 * {@link Environment#getVisibleEnemiesForAnimal(Animal)}
+		 * {@link Environment#anyEnemyWithin(Animal, double)}, appelée avec la
+		 * distance de vue {@code ANIMAL_SIGHT_DISTANCE} du fichier de configuration
 		 * 
 		 * @param from : {@link Animal} dont on veut savoir si il est visble d'ennemis
 		 *             proches ou non
@@ -432,28 +1211,106 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 */
 		@Override
 		public boolean isVisibleFromEnemies(Animal from) throws IllegalArgumentException {
+			return anyEnemyWithin(from, Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE));
+		}
+
+		/**
+		 * Méthode redéfinie renvoyant {@code true} dès qu'un ennemi de l'instance
+		 * {@code from} de {@link Animal} se trouve à une distance torique inférieure
+		 * ou égale à {@code radius}. Le parcours s'arrête au premier ennemi trouvé et
+		 * n'alloue aucun objet.
+		 * 
+		 * @param from   : {@link Animal} dont on cherche les ennemis
+		 * @param radius : {@code double}, distance maximale de recherche
+		 * @return {@code true} si un ennemi est à portée, {@code false} sinon
+		 * @throws IllegalArgumentException : exception lancée si {@code from} est
+		 *                                  {@code null}
+		 */
+		@Override
+		public boolean anyEnemyWithin(Animal from, double radius) throws IllegalArgumentException {
 			Utils.requireNonNull(from);
-			
-			List<Animal> reponse = new ArrayList <Animal> ();
-			
-			reponse = getVisibleEnemiesForAnimal(from);
-			
-			return reponse.isEmpty() ? false : true;
+			ToricPosition position = from.getPosition();
+
+			int count = gatherAnimalsNear(position, radius);
+			for (int k = 0; k < count; ++k) {
+				Animal animal = listAnimal.get((animalCandidates == null) ? k : animalCandidates[k]);
+				if (animal != from && position.toricDistance(animal.getPosition()) <= radius && animal.isEnemy(from)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Méthode redéfinie renvoyant l'ennemi de l'instance {@code from} de
+		 * {@link Animal} le plus proche parmi ceux situés à une distance torique
+		 * inférieure ou égale à {@code radius}. Chaque distance n'est calculée
+		 * qu'une fois et aucun objet n'est alloué ; à distance égale, le premier
+		 * ennemi stocké est retenu.
+		 * 
+		 * @param from   : {@link Animal} dont on cherche l'ennemi le plus proche
+		 * @param radius : {@code double}, distance maximale de recherche
+		 * @return l'ennemi le plus proche, ou {@code null} si aucun n'est à portée
+		 * @throws IllegalArgumentException : exception lancée si {@code from} est
+		 *                                  {@code null}
+		 */
+		@Override
+		public Animal nearestEnemyWithin(Animal from, double radius) throws IllegalArgumentException {
+			Utils.requireNonNull(from);
+			ToricPosition position = from.getPosition();
+			Animal nearest = null;
+			double nearestDistance = radius;
+
+			int count = gatherAnimalsNear(position, radius);
+			for (int k = 0; k < count; ++k) {
+				Animal animal = listAnimal.get((animalCandidates == null) ? k : animalCandidates[k]);
+				if (animal != from) {
+					double distance = position.toricDistance(animal.getPosition());
+					if ((distance < nearestDistance || (nearest == null && distance <= radius)) && animal.isEnemy(from)) {
+						nearest = animal;
+						nearestDistance = distance;
+					}
+				}
+			}
+			return nearest;
 		}
 		
 		/**
-		 * Normalise un angle pour qu'il soit compris entre 0 et 2π radians.
+		 * Sélectionne les animaux susceptibles de se trouver à une distance torique
+		 * inférieure ou égale à {@code radius} de {@code position} : pendant la
+		 * mise à jour séquentielle des animaux, ceux retenus par
+		 * {@link Environment#animalIndex}, dont les indices sont rangés par ordre
+		 * croissant dans {@link Environment#animalCandidates} ; sinon tous, et
+		 * {@link Environment#animalCandidates} vaut {@code null}. Les requêtes
+		 * parcourent ainsi les animaux dans l'ordre de stockage dans les deux cas.
 		 * 
-		 * @param angle : L'angle à normaliser, en radians.
-		 * @return Un angle normalisé compris dans l'intervalle [0, 2π].
+		 * @param position : {@link ToricPosition}, centre de la requête
+		 * @param radius   : {@code double}, distance maximale
+		 * @return le nombre d'animaux sélectionnés
+		 */
+		private int gatherAnimalsNear(ToricPosition position, double radius) {
+			if (!animalIndexValid) {
+				animalCandidates = null;
+				return listAnimal.size();
+			}
+			int count = animalIndex.gatherWithin(position.toVec2d().getX(), position.toVec2d().getY(), radius);
+			animalCandidates = animalIndex.getGathered();
+			Arrays.sort(animalCandidates, 0, count);
+			return count;
+		}
+
+		/**
+		 * @return la plus grande distance que parcourt un animal en un déplacement
+		 *         de durée {@code dt} (voir
+		 *         {@link Animal#move(AnimalEnvironmentView, Time)}), majorée des
+		 *         erreurs d'arrondi
 		 */
-		private static double normalizedAngle (double angle) {
-			if (angle < 0.0) {
-				angle += 2 * Math.PI;
-			} else if (angle > (2 * Math.PI)) {
-				angle -= 2 * Math.PI;
+		private double maxDisplacement(Time dt) {
+			double speed = 0.0;
+			for (int i = 0; i < listAnimal.size(); ++i) {
+				speed = Math.max(speed, listAnimal.get(i).getSpeed());
 			}
-			return angle;
+			return speed * dt.toSeconds() * (1.0 + 1e-9) + 1e-9;
 		}
 		
 		/**
@@ -461,18 +1318,40 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		 * {@link Environment}. Les constituants sont composés d'instances de
 		 * {@link Food}, {@link Anthill}, {@link Animal} (comprenant des
 		 * {@link AntWorker}, {@link AntSoldier} et {@link Termite}) et de
-		 * {@link Pheromone}.
+		 * {@link Pheromone}. Si le rendu tient une {@link PheromoneLayer}, les
+		 * phéromones ne sont pas dessinées une à une : la carte, alimentée par les
+		 * dépôts, est dessinée sous les autres entités.
 		 * 
 		 * @param environmentRenderer : {@link EnvironmentRenderer} interface de rendu
-		 *                            graphique de l'environnement simulé par JavaFX,
-		 *                            qui est actuellement implémentée par la classe
-		 *                            {@link EnvironmentGraphicRenderer}
+		 *                            graphique de l'environnement simulé, qui est
+		 *                            actuellement implémentée par les classes
+		 *                            {@link EnvironmentGraphicRenderer} (JavaFX) et
+		 *                            {@link SoftwareEnvironmentRenderer} (sans
+		 *                            interface graphique)
 		 */
 		public void renderEntities(EnvironmentRenderer environmentRenderer) {
+			// Une carte de chaleur des phéromones est tenue à jour par les dépôts et
+			// recalculée périodiquement, puis dessinée sous les autres entités. Un
+			// rendu sans carte (un export, par exemple) ne détache pas celle du
+			// rendu principal.
+			PheromoneLayer layer = environmentRenderer.getPheromoneLayer();
+			if (layer != null) {
+				pheromoneLayer = layer;
+				long time = clock.getTimeMillis();
+				if (layer.needsRefresh(time)) {
+					layer.refresh(listPheromone, time);
+				}
+				environmentRenderer.renderPheromoneLayer(time);
+			}
 			listFood.forEach(environmentRenderer::renderFood);
 			listAnimal.forEach(environmentRenderer::renderAnimal);
+			// Les animaux peuvent être dessinés par lots : leur rendu est achevé avant
+			// celui des entités suivantes
+			environmentRenderer.flush();
 			listAnthill.forEach(environmentRenderer::renderAnthill);
-			listPheromone.forEach(environmentRenderer::renderPheromone);
+			if (layer == null) {
+				listPheromone.forEach(environmentRenderer::renderPheromone);
+			}
 		}
 		
 		/**
@@ -618,9 +1497,9 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 		}
 		
 		/**
-		 * Méthode principale de la simulation, en charge d'appeler périodiquement
-		 * toutes les méthodes {@link update()} de chaque instance d'objet injecté dans
-		 * l'instance {@code this} de {@link Environment}
+		 * Méthode principale de la simulation, en charge de faire avancer l'horloge et
+		 * l'ordonnanceur de l'instance {@code this} de {@link Environment}, puis
+		 * d'appeler la méthode {@link update()} de chaque animal vivant.
 		 * 
 		 * @param dt : {@link Time}, pas de temps périodique de mise à jour de
 		 *           l'instance {@code this} de {@link Environment}
@@ -628,57 +1507,661 @@ public final class Environment implements AnimalEnvironmentView, AntEnvironmentV
 
 		public void update(Time dt) {
 
-			// Le FoodGenerator instancie des Food et les place dans l'environnement
-			// ...(suite en fin de méthode)
-			theFoodGenerator.update(this, dt);
+			// Une configuration rechargée n'est installée qu'entre deux pas, et seules
+			// les valeurs dérivées de paramètres modifiés sont recalculées
+			Context.getApplication().applyPendingConfig();
+			refreshConfig();
 
-			// Même logique que ci-dessus pour le FoodGenerator
-			// appliquée à la gestion des phéromones.
-			// Ici l'environnement retire de la simulation les phéromones en quantité
-			// négligeable.
-			Iterator <Pheromone> pheromoneIterator = listPheromone.iterator();
-			
-			while(pheromoneIterator.hasNext()) {
-				Pheromone p = pheromoneIterator.next();
-				
-				if (p.isNegligible()) {
-					pheromoneIterator.remove();
-				} else {
-					p.update(dt);
-				}
-			}
-			
-			
-			// Même logique que ci-dessus pour le FoodGenerator
-			// appliquée à la gestion des fourmilières.
-			// Ici l'environnement ne retire jamais les fourmilières.
-			Iterator <Anthill> anthillIterator = listAnthill.iterator();
-			
-			while (anthillIterator.hasNext()) {
-				Anthill a = anthillIterator.next();
-				
-				a.update(this, dt);
+			// Octets alloués par le fil de simulation au cours du pas, mesurés hors
+			// échantillonnage des statistiques
+			long allocatedBefore = AllocationCounter.currentThreadAllocatedBytes();
+
+			// L'horloge avance en premier : les échéances (rotations, naissances,
+			// générations de nourriture, évaporation des phéromones) sont comparées
+			// au temps de fin du pas courant
+			clock.advance(dt.toMilliseconds());
+
+			// État des animaux en début de pas, pour l'interpolation du rendu entre
+			// deux pas (voir Animal#getInterpolatedPosition(double))
+			for (int i = 0; i < listAnimal.size(); ++i) {
+				listAnimal.get(i).savePreviousState();
 			}
-			
 
-			// Même logique que ci-dessus pour le FoodGenerator
-			// appliquée à la gestion des animaux.
+			// Seules les actions périodiques arrivées à échéance sont déclenchées :
+			// le FoodGenerator place des Food, les fourmilières font naître des
+			// fourmis, les animaux tournent et les phéromones négligeables sont
+			// retirées de la simulation ...(suite en fin de méthode)
+			scheduler.advanceTo(clock.getTimeMillis());
+
+			// Phase de combat : les paires d'animaux voisins sont énumérées une fois,
+			// sur les positions du début du pas, et chaque animal reçoit son ennemi
+			// le plus proche, dont Animal#fight se sert au cours de sa mise à jour
+			combatKernel.sweep(listAnimal, Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE), worldWidth, worldHeight,
+					clock.getTimeMillis());
+
 			// Ici l'environnement retire de la simulation les animaux morts.
-			Iterator <Animal> animalIterator = listAnimal.iterator();
-			
-			while(animalIterator.hasNext()) {
-				Animal a = animalIterator.next();
-				
-				if (a.isDead()) {
-					animalIterator.remove();
-				} else {
-					a.update(this, dt);
+			// Les animaux morts (y compris ceux tués au cours de ce pas) ne sont plus
+			// mis à jour et sont retirés en une seule passe.
+			// Une tuile d'une simulation répartie est toujours mise à jour
+			// séquentiellement
+			if (updatePool == null || ownership != null) {
+				// Les requêtes d'ennemis du pas sont servies par l'index des animaux,
+				// chaque animal ne se déplaçant qu'une fois au cours de sa mise à jour
+				animalIndex.rebuild(listAnimal, worldWidth, worldHeight, maxDisplacement(dt));
+				animalIndexValid = true;
+				try {
+					for (int i = 0; i < listAnimal.size(); ++i) {
+						Animal a = listAnimal.get(i);
+						
+						if (!a.isDead() && !a.isGhost()) {
+							a.update(this, dt);
+						}
+					}
+				} finally {
+					animalIndexValid = false;
 				}
+			} else {
+				updateAnimalsInParallel(dt);
 			}
+			listAnimal.removeIf(a -> {
+				if (a.isDead()) {
+					if (!a.isGhost()) {
+						statistics.countAnimal(a, -1);
+					}
+					return true;
+				}
+				return false;
+			});
 
 			// ... mais c'est bien l'environnement (et non le FoodGenerator) qui se charge
 			// de supprimer les instances de Food dont la quantité de nourriture disponible
 			// est inférieur ou égale à zéro
-			listFood.removeIf(food -> food.getQuantity() <= 0.0);
+			if (listFood.removeIf(food -> food.getQuantity() <= 0.0)) {
+				foodIndexStale = true;
+			}
+
+			// Rangement périodique du stockage, une fois les retraits du pas faits
+			sortSpatially();
+
+			if (allocatedBefore >= 0) {
+				statistics.countAllocatedBytes(AllocationCounter.currentThreadAllocatedBytes() - allocatedBefore);
+			}
+
+			// Échantillonnage des statistiques, une fois l'état du pas complet
+			sampleStatistics();
+		}
+
+		/**
+		 * Choisit le mode de mise à jour des animaux de l'instance {@code this} de
+		 * {@link Environment}. Dans les modes parallèles, les groupes d'animaux
+		 * sont exécutés par une réserve de {@code parallelism} fils à vol de
+		 * tâches ; le mode séquentiel (par défaut) libère la réserve existante.
+		 * 
+		 * @param mode        : {@link UpdateMode}, mode de mise à jour
+		 * @param parallelism : {@code int}, nombre de fils des modes parallèles
+		 * @throws IllegalArgumentException si {@code mode} est {@code null} ou si
+		 *                                  {@code parallelism} n'est pas
+		 *                                  strictement positif
+		 */
+		public void setUpdateMode(UpdateMode mode, int parallelism) throws IllegalArgumentException {
+			Utils.requireNonNull(mode);
+			Utils.require("Le nombre de fils doit être strictement positif.", parallelism > 0);
+
+			if (updatePool != null) {
+				updatePool.shutdown();
+				updatePool = null;
+			}
+			updateMode = mode;
+			if (mode != UpdateMode.SEQUENTIAL) {
+				updatePool = new ForkJoinPool(parallelism);
+			}
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return le mode de mise à jour des animaux de l'instance {@code this} de
+		 *         {@link Environment}
+		 */
+		public UpdateMode getUpdateMode() {
+			return updateMode;
+		}
+
+		/**
+		 * Met à jour les animaux vivants en deux phases : les groupes d'animaux
+		 * (voir {@link UpdateMode}) sont d'abord mis à jour en parallèle, chacun
+		 * via sa propre vue {@link ParallelAnimalUpdate}, puis leurs interactions
+		 * différées sont appliquées sur le fil de simulation, groupe après groupe
+		 * dans l'ordre de leur création.
+		 * 
+		 * @param dt : {@link Time}, pas de temps de la mise à jour
+		 */
+		private void updateAnimalsInParallel(Time dt) {
+			int size = listAnimal.size();
+			if (updatePositions.length < size) {
+				int length = Math.max(size, 2 * updatePositions.length);
+				updatePositions = new ToricPosition[length];
+				updateAlive = new boolean[length];
+			}
+			for (int i = 0; i < size; ++i) {
+				Animal a = listAnimal.get(i);
+				updatePositions[i] = a.getPosition();
+				updateAlive[i] = !a.isDead();
+				a.setPhaseIndex(i);
+			}
+			// Les requêtes de la phase portent sur les positions du début de celle-ci,
+			// indexées sans étendue de déplacement
+			updateIndex.rebuild(listAnimal, worldWidth, worldHeight, 0.0);
+
+			List<ParallelAnimalUpdate> groups = (updateMode == UpdateMode.PER_COLONY) ? groupByColony(dt, size) : groupBySpace(dt, size);
+
+			try {
+				for (Future<Void> result : updatePool.invokeAll(groups)) {
+					result.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+
+			for (ParallelAnimalUpdate group : groups) {
+				group.commit();
+			}
+		}
+
+		/**
+		 * Regroupe les animaux vivants par colonie, dans l'ordre des
+		 * fourmilières, les termites étant répartis en autant de groupes
+		 * contigus que de fils de {@link Environment#updatePool}.
+		 */
+		private List<ParallelAnimalUpdate> groupByColony(Time dt, int size) {
+			Map<Uid, ParallelAnimalUpdate> colonies = new LinkedHashMap<Uid, ParallelAnimalUpdate>();
+			for (Anthill anthill : listAnthill) {
+				colonies.put(anthill.getAnthillId(), newUpdateGroup(dt, size));
+			}
+
+			List<Animal> termites = new ArrayList<Animal>();
+			for (int i = 0; i < size; ++i) {
+				Animal a = listAnimal.get(i);
+				if (!updateAlive[i]) {
+					continue;
+				}
+				if (a instanceof Ant) {
+					colonies.computeIfAbsent(((Ant) a).getAnthillId(), id -> newUpdateGroup(dt, size)).add(a);
+				} else {
+					termites.add(a);
+				}
+			}
+
+			List<ParallelAnimalUpdate> groups = new ArrayList<ParallelAnimalUpdate>();
+			for (ParallelAnimalUpdate colony : colonies.values()) {
+				if (colony.size() > 0) {
+					groups.add(colony);
+				}
+			}
+
+			int chunks = Math.min(termites.size(), updatePool.getParallelism());
+			for (int c = 0; c < chunks; ++c) {
+				ParallelAnimalUpdate group = newUpdateGroup(dt, size);
+				for (int i = c * termites.size() / chunks; i < (c + 1) * termites.size() / chunks; ++i) {
+					group.add(termites.get(i));
+				}
+				groups.add(group);
+			}
+			return groups;
+		}
+
+		/**
+		 * Regroupe les animaux vivants par bande verticale du monde, en quatre
+		 * bandes par fil de {@link Environment#updatePool} afin que le vol de
+		 * tâches équilibre les bandes les plus peuplées.
+		 */
+		private List<ParallelAnimalUpdate> groupBySpace(Time dt, int size) {
+			int strips = 4 * updatePool.getParallelism();
+			List<ParallelAnimalUpdate> groups = new ArrayList<ParallelAnimalUpdate>(strips);
+			for (int s = 0; s < strips; ++s) {
+				groups.add(newUpdateGroup(dt, size));
+			}
+
+			for (int i = 0; i < size; ++i) {
+				if (updateAlive[i]) {
+					int strip = (int) (updatePositions[i].toVec2d().getX() * strips / worldWidth);
+					groups.get(Math.min(Math.max(strip, 0), strips - 1)).add(listAnimal.get(i));
+				}
+			}
+
+			groups.removeIf(group -> group.size() == 0);
+			return groups;
+		}
+
+		private ParallelAnimalUpdate newUpdateGroup(Time dt, int size) {
+			return new ParallelAnimalUpdate(this, dt, listAnimal, updatePositions, updateAlive, size, updateIndex.newGatherer());
+		}
+
+		/**
+		 * Restreint l'instance {@code this} de {@link Environment} à la portion du
+		 * monde vérifiant {@code ownership} (voir {@link TileExchange}) : les
+		 * animaux et la nourriture ajoutés hors de cette portion sont ignorés et les
+		 * fourmilières hors de cette portion ne font naître aucune fourmi. Doit être
+		 * appelée avant de peupler l'environnement.
+		 * 
+		 * @param ownership : prédicat des positions détenues, ou {@code null} pour
+		 *                  détenir le monde entier
+		 */
+		void setOwnership(Predicate<ToricPosition> ownership) {
+			this.ownership = ownership;
+		}
+
+		/**
+		 * @return {@code true} si {@code position} appartient à la portion du monde
+		 *         détenue par l'instance {@code this} de {@link Environment}
+		 */
+		boolean isOwned(ToricPosition position) {
+			return ownership == null || ownership.test(position);
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return la liste (non copiée) des animaux de l'environnement, fantômes
+		 *         compris
+		 */
+		List<Animal> getAnimals() {
+			return listAnimal;
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return la liste (non copiée) des sources de nourriture de
+		 *         l'environnement, fantômes comprises
+		 */
+		List<Food> getFoods() {
+			return listFood;
+		}
+
+		/**
+		 * Getter
+		 * 
+		 * @return la liste (non copiée) des phéromones de l'environnement, fantômes
+		 *         comprises
+		 */
+		List<Pheromone> getPheromones() {
+			return listPheromone;
+		}
+
+		/**
+		 * Ajoute à l'instance {@code this} de {@link Environment} la copie fantôme
+		 * {@code animal} d'un animal détenu par une autre tuile : l'animal est
+		 * visible de ses voisins mais n'est ni mis à jour, ni planifié, ni compté
+		 * dans les statistiques.
+		 * 
+		 * @param animal : {@link Animal} fantôme
+		 */
+		void addGhost(Animal animal) {
+			animal.setGhost(true);
+			listAnimal.add(animal);
+			animalIndexValid = false;
+		}
+
+		/**
+		 * Ajoute à l'instance {@code this} de {@link Environment} la copie fantôme
+		 * {@code food} d'une source de nourriture détenue par une autre tuile.
+		 * 
+		 * @param food : {@link Food} fantôme
+		 */
+		void addGhost(Food food) {
+			food.setGhost(true);
+			listFood.add(food);
+			foodIndexStale = true;
+		}
+
+		/**
+		 * Ajoute à l'instance {@code this} de {@link Environment} la copie fantôme
+		 * {@code pheromone} d'une phéromone détenue par une autre tuile. Elle
+		 * s'évapore comme les autres mais aucun retrait n'est planifié.
+		 * 
+		 * @param pheromone : {@link Pheromone} fantôme (non recyclable)
+		 */
+		void addGhost(Pheromone pheromone) {
+			pheromone.setGhost(true);
+			pheromone.deposit(clock);
+			pheromone.setStorageIndex(listPheromone.size());
+			listPheromone.add(pheromone);
+			pheromoneColumns.append(pheromone);
+		}
+
+		/**
+		 * Retire toutes les copies fantômes de l'instance {@code this} de
+		 * {@link Environment}, avant la réception des nouvelles.
+		 */
+		void removeGhosts() {
+			listAnimal.removeIf(Positionable::isGhost);
+			listFood.removeIf(Positionable::isGhost);
+			animalIndexValid = false;
+			foodIndexStale = true;
+			if (listPheromone.removeIf(Positionable::isGhost)) {
+				reindexPheromones();
+			}
+		}
+
+		/**
+		 * Retire de l'instance {@code this} de {@link Environment} les animaux
+		 * détenus et vivants vérifiant {@code filter} : leurs rotations sont
+		 * annulées et ils sont décomptés des statistiques, afin d'être transférés
+		 * vers une autre tuile.
+		 * 
+		 * @param filter : prédicat des animaux à retirer
+		 * @param out    : liste recevant les animaux retirés
+		 */
+		void extractAnimals(Predicate<Animal> filter, List<Animal> out) {
+			animalIndexValid = false;
+			listAnimal.removeIf(a -> {
+				if (!a.isGhost() && !a.isDead() && filter.test(a)) {
+					if (a.getRotationTimer() != null) {
+						a.getRotationTimer().cancel();
+					}
+					statistics.countAnimal(a, -1);
+					out.add(a);
+					return true;
+				}
+				return false;
+			});
+		}
+
+		/**
+		 * Retire de l'instance {@code this} de {@link Environment} les phéromones
+		 * détenues vérifiant {@code filter}, afin de les transférer vers une autre
+		 * tuile. Leur retrait planifié est annulé ; leur quantité courante doit être
+		 * lue avant le retrait, la phéromone étant détachée de l'horloge.
+		 * 
+		 * @param filter   : prédicat des phéromones à retirer
+		 * @param out      : liste recevant les positions des phéromones retirées
+		 * @param quantity : liste recevant leurs quantités courantes
+		 */
+		void extractPheromones(Predicate<Pheromone> filter, List<ToricPosition> out, List<Double> quantity) {
+			boolean removed = listPheromone.removeIf(p -> {
+				if (!p.isGhost() && filter.test(p)) {
+					out.add(p.getPosition());
+					quantity.add(p.getQuantity());
+					if (p.getExpiryTimer() != null) {
+						p.getExpiryTimer().cancel();
+					}
+					statistics.countPheromone(p, -1);
+					p.detach();
+					return true;
+				}
+				return false;
+			});
+			if (removed) {
+				reindexPheromones();
+			}
+		}
+
+		/**
+		 * Range les animaux et les phéromones selon l'ordre de Morton de leur
+		 * position torique (voir {@link MortonOrder}), afin que les objets voisins
+		 * dans le monde le soient aussi dans le stockage. Le rangement a lieu
+		 * lorsque {@code SPATIAL_SORT_PERIOD} pas se sont écoulés depuis le
+		 * précédent, ou plus tôt lorsque le désordre des animaux, mesuré tous les
+		 * {@link Environment#SPATIAL_SORT_CHECK_PERIOD} pas, atteint
+		 * {@code SPATIAL_SORT_DISORDER} ; son coût (un tri de clés primitives)
+		 * est ainsi amorti sur de nombreux pas. Une période nulle le désactive.
+		 */
+		private void sortSpatially() {
+			if (spatialSortPeriod <= 0) {
+				return;
+			}
+			long elapsed = clock.getTick() - lastSpatialSortTick;
+			boolean due = elapsed >= spatialSortPeriod;
+			if (!due && elapsed % SPATIAL_SORT_CHECK_PERIOD == 0) {
+				due = mortonOrder.disorder(listAnimal, worldWidth, worldHeight) >= spatialSortDisorder;
+			}
+			if (!due) {
+				return;
+			}
+
+			lastSpatialSortTick = clock.getTick();
+			mortonOrder.sort(listAnimal, worldWidth, worldHeight);
+			mortonOrder.sort(listPheromone, worldWidth, worldHeight);
+			reindexPheromones();
+		}
+
+		/**
+		 * Rétablit l'indice de stockage de chaque phéromone, et
+		 * {@link Environment#pheromoneColumns}, après un retrait groupé.
+		 */
+		private void reindexPheromones() {
+			for (int i = 0; i < listPheromone.size(); ++i) {
+				listPheromone.get(i).setStorageIndex(i);
+			}
+			pheromoneColumns.rebuild(listPheromone);
+		}
+
+		/**
+		 * Recalcule les valeurs dérivées de la configuration courante dont les
+		 * paramètres ont changé depuis le dernier appel (toutes lors du premier
+		 * appel). Un changement de {@code PHEROMONE_MERGE_RADIUS},
+		 * {@code PHEROMONE_MAX_CELL_QUANTITY} ou des dimensions du monde vide la
+		 * grille de fusion : les phéromones existantes continuent de s'évaporer et
+		 * les dépôts suivants forment de nouvelles cellules.
+		 */
+		private void refreshConfig() {
+			ConfigManager current = Context.getConfig();
+			if (current == config) {
+				return;
+			}
+			Set<String> changed = (config == null) ? null : ConfigChanges.between(config, current);
+			config = current;
+
+			boolean worldChanged = isChanged(changed, Config.WORLD_WIDTH.first, Config.WORLD_HEIGHT.first);
+			if (worldChanged) {
+				worldWidth = current.getInt(Config.WORLD_WIDTH);
+				worldHeight = current.getInt(Config.WORLD_HEIGHT);
+			}
+			if (isChanged(changed, ANT_SMELL_MAX_DISTANCE.first)) {
+				smellMaxDistance = current.getDouble(ANT_SMELL_MAX_DISTANCE);
+			}
+			if (isChanged(changed, PHEROMONE_EVAPORATION_RATE.first, PHEROMONE_THRESHOLD.first)) {
+				evaporationRate = current.getDouble(PHEROMONE_EVAPORATION_RATE);
+				pheromoneThreshold = current.getDouble(PHEROMONE_THRESHOLD);
+				if (pheromoneColumns instanceof MappedPheromoneColumns) {
+					((MappedPheromoneColumns) pheromoneColumns).setParameters(evaporationRate, pheromoneThreshold);
+				}
+			}
+
+			if (isChanged(changed, SPATIAL_SORT_PERIOD.first, SPATIAL_SORT_DISORDER.first)) {
+				spatialSortPeriod = current.getInt(SPATIAL_SORT_PERIOD);
+				spatialSortDisorder = current.getDouble(SPATIAL_SORT_DISORDER);
+			}
+
+			// La population de phéromones est bornée par la surface du monde lorsque
+			// les dépôts voisins sont fusionnés
+			if (worldChanged || isChanged(changed, PHEROMONE_MERGE_RADIUS.first, PHEROMONE_MAX_CELL_QUANTITY.first)) {
+				pheromoneCellSize = current.getDouble(PHEROMONE_MERGE_RADIUS);
+				pheromoneCellCap = current.getDouble(PHEROMONE_MAX_CELL_QUANTITY);
+				if (pheromoneCellSize > 0.0) {
+					pheromoneCellColumns = (int) Math.ceil(worldWidth / pheromoneCellSize);
+					pheromoneCells = new Pheromone[pheromoneCellColumns * (int) Math.ceil(worldHeight / pheromoneCellSize)];
+				} else {
+					pheromoneCellColumns = 0;
+					pheromoneCells = null;
+				}
+			}
+		}
+
+		/**
+		 * @return {@code true} si {@code changed} vaut {@code null} (tout est à
+		 *         calculer) ou contient l'un des paramètres {@code names}
+		 */
+		private static boolean isChanged(Set<String> changed, String... names) {
+			if (changed == null) {
+				return true;
+			}
+			for (String name : names) {
+				if (changed.contains(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Mesure, à intervalles réguliers de {@code list}, la place retenue par au
+		 * plus {@code FOOTPRINT_SAMPLES} entités détenues, cumulée par type dans
+		 * {@code sampledBytes} et {@code sampled}. Un type de {@code types}
+		 * présent mais absent des entités mesurées (rare parmi les animaux) est
+		 * mesuré sur sa première instance.
+		 */
+		private void sampleFootprint(List<? extends Positionable> list, EntityType[] types, int[] counts, long[] sampledBytes, int[] sampled) {
+			int stride = Math.max(1, list.size() / FOOTPRINT_SAMPLES);
+			for (int i = 0; i < list.size(); i += stride) {
+				measureFootprint(list.get(i), sampledBytes, sampled);
+			}
+			boolean missing = false;
+			for (EntityType type : types) {
+				missing |= (sampled[type.ordinal()] == 0 && counts[type.ordinal()] > 0);
+			}
+			for (int i = 0; missing && i < list.size(); ++i) {
+				Positionable entity = list.get(i);
+				EntityType type = footprintTypeOf(entity);
+				if (sampled[type.ordinal()] == 0 && counts[type.ordinal()] > 0) {
+					measureFootprint(entity, sampledBytes, sampled);
+				}
+			}
+		}
+
+		private static void measureFootprint(Positionable entity, long[] sampledBytes, int[] sampled) {
+			if (entity.isGhost() || (entity instanceof Animal && ((Animal) entity).isDead())) {
+				return;
+			}
+			boolean ownsUid = (entity instanceof Anthill);
+			// Les timers sont comptés sans suivre l'action ni la roue de l'ordonnanceur
+			long bytes = ObjectSizes.deepSize(entity,
+					object -> isRetainedByEntity(object, ownsUid),
+					object -> !(object instanceof Scheduler.Timer));
+			int type = footprintTypeOf(entity).ordinal();
+			sampledBytes[type] += bytes;
+			++sampled[type];
+		}
+
+		/**
+		 * @return {@code true} si {@code object}, atteint depuis une entité, fait
+		 *         partie de la place qu'elle retient
+		 */
+		private static boolean isRetainedByEntity(Object object, boolean ownsUid) {
+			Class<?> type = object.getClass();
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+			if (!type.isPrimitive() && !type.getName().startsWith("ch.epfl.moocprog.")) {
+				return false;
+			}
+			return !(object instanceof Positionable || object instanceof Enum || object instanceof Environment
+					|| object instanceof SimulationClock || object instanceof Scheduler
+					|| (object instanceof Uid && !ownsUid));
+		}
+
+		private static EntityType footprintTypeOf(Positionable entity) {
+			if (entity instanceof AntWorker) {
+				return EntityType.ANT_WORKER;
+			} else if (entity instanceof AntSoldier) {
+				return EntityType.ANT_SOLDIER;
+			} else if (entity instanceof Termite) {
+				return EntityType.TERMITE;
+			} else if (entity instanceof Pheromone) {
+				return EntityType.PHEROMONE;
+			} else if (entity instanceof Food) {
+				return EntityType.FOOD;
+			}
+			return EntityType.ANTHILL;
+		}
+
+		/**
+		 * Transmet un échantillon de {@link Environment#statistics} à chaque
+		 * destination abonnée dont l'échéance d'échantillonnage est atteinte.
+		 */
+		private void sampleStatistics() {
+			long now = clock.getTimeMillis();
+			// Relevé commun aux destinations échantillonnées lors de ce pas
+			MemoryFootprint footprint = null;
+
+			for (StatisticsSubscription subscription : statisticsSubscriptions) {
+				if (now >= subscription.nextSampleTime) {
+					if (footprint == null) {
+						footprint = getMemoryFootprint();
+					}
+					StatisticsSample sample = statistics.sample(clock, listAnthill, subscription.lastFights, subscription.lastSampleTime,
+							subscription.lastAllocatedBytes, subscription.lastAllocationSteps, footprint);
+					try {
+						subscription.sink.accept(sample);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+
+					subscription.lastFights = sample.getFights();
+					subscription.lastSampleTime = now;
+					subscription.lastAllocatedBytes = statistics.getAllocatedBytes();
+					subscription.lastAllocationSteps = statistics.getAllocationSteps();
+					while (subscription.nextSampleTime <= now) {
+						subscription.nextSampleTime += subscription.periodMillis;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Modes de mise à jour des animaux d'un {@link Environment} (voir
+		 * {@link Environment#setUpdateMode(UpdateMode, int)}). Dans les modes
+		 * parallèles, les animaux perçoivent les positions de leurs ennemis au
+		 * début de la mise à jour, et leurs interactions (coups, nourriture,
+		 * phéromones) ne sont appliquées qu'à la fin de celle-ci, dans un ordre
+		 * qui ne dépend pas de l'exécution des fils (voir
+		 * {@link ParallelAnimalUpdate}).
+		 */
+		public enum UpdateMode {
+			/**
+			 * Animaux mis à jour un à un sur le fil de simulation
+			 */
+			SEQUENTIAL,
+			/**
+			 * Une tâche par colonie de fourmis, les termites étant réparties en
+			 * tâches de taille égale
+			 */
+			PER_COLONY,
+			/**
+			 * Une tâche par bande verticale du monde
+			 */
+			SPATIAL
+		}
+
+		/**
+		 * Abonnement d'une {@link StatisticsSink} à l'échantillonnage périodique
+		 */
+		private static final class StatisticsSubscription {
+			private final StatisticsSink sink;
+			private final long periodMillis;
+			private long nextSampleTime;
+			private long lastSampleTime;
+			private long lastFights;
+			private long lastAllocatedBytes;
+			private long lastAllocationSteps;
+
+			private StatisticsSubscription(StatisticsSink sink, long periodMillis, long now, EnvironmentStatistics statistics) {
+				this.sink = sink;
+				this.periodMillis = periodMillis;
+				this.nextSampleTime = now + periodMillis;
+				this.lastSampleTime = now;
+				this.lastFights = statistics.getFights();
+				this.lastAllocatedBytes = statistics.getAllocatedBytes();
+				this.lastAllocationSteps = statistics.getAllocationSteps();
+			}
 		}
 }
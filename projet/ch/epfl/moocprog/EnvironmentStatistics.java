@@ -0,0 +1,252 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.config.Config.PHEROMONE_EVAPORATION_RATE;
+
+import java.util.List;
+
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.stats.MemoryFootprint;
+import ch.epfl.moocprog.stats.StatisticsSample;
+
+/**
+ * Classe finale regroupant les compteurs agrégés d'un {@link Environment}. Les
+ * compteurs sont tenus à jour de manière incrémentale par l'environnement à
+ * chaque ajout, retrait ou modification d'un objet de la simulation : la prise
+ * d'un échantillon ({@link EnvironmentStatistics#sample(SimulationClock, List, long, long, long, long, MemoryFootprint)})
+ * ne parcourt donc que les fourmilières, jamais les animaux, les phéromones ou
+ * les sources de nourriture.
+ */
+public final class EnvironmentStatistics {
+
+	/**
+	 * Nombre de fourmis ouvrières vivantes
+	 */
+	private int workers;
+	/**
+	 * Nombre de fourmis soldates vivantes
+	 */
+	private int soldiers;
+	/**
+	 * Nombre de termites vivants
+	 */
+	private int termites;
+	/**
+	 * Nombre de phéromones déposées
+	 */
+	private int pheromones;
+	/**
+	 * Somme des quantités des phéromones déposées, à leurs instants de dépôt
+	 */
+	private double pheromoneDepositedQuantity;
+	/**
+	 * Somme des instants de dépôt (en millisecondes) des phéromones déposées
+	 */
+	private long pheromoneDepositTimeSum;
+	/**
+	 * Quantité totale de nourriture disponible sur la carte
+	 */
+	private double foodOnMap;
+	/**
+	 * Quantité totale de nourriture stockée dans les fourmilières
+	 */
+	private double foodStored;
+	/**
+	 * Nombre total de coups portés lors des combats
+	 */
+	private long fights;
+	/**
+	 * Nombre total d'octets alloués au cours des pas mesurés (voir
+	 * {@link ch.epfl.moocprog.stats.AllocationCounter}), et nombre de ces pas
+	 */
+	private long allocatedBytes;
+	private long allocationSteps;
+
+	/**
+	 * Constructeur vide, réservé à {@link Environment}.
+	 */
+	EnvironmentStatistics() {
+		super();
+	}
+
+	/**
+	 * Comptabilise l'arrivée ({@code delta = 1}) ou le retrait ({@code delta = -1})
+	 * de {@code animal}.
+	 *
+	 * @param animal : {@link Animal} ajouté ou retiré
+	 * @param delta  : {@code int}, variation du nombre d'animaux
+	 */
+	void countAnimal(Animal animal, int delta) {
+		if (animal instanceof AntWorker) {
+			workers += delta;
+		} else if (animal instanceof AntSoldier) {
+			soldiers += delta;
+		} else if (animal instanceof Termite) {
+			termites += delta;
+		}
+	}
+
+	/**
+	 * Comptabilise le dépôt ({@code delta = 1}) ou le retrait ({@code delta = -1})
+	 * de {@code pheromone}. La masse de phéromones évoluant linéairement, la somme
+	 * des quantités et des instants de dépôt suffit à la calculer à tout instant.
+	 *
+	 * @param pheromone : {@link Pheromone} déposée ou retirée
+	 * @param delta     : {@code int}, variation du nombre de phéromones
+	 */
+	void countPheromone(Pheromone pheromone, int delta) {
+		pheromones += delta;
+		pheromoneDepositedQuantity += delta * pheromone.getDepositQuantity();
+		pheromoneDepositTimeSum += delta * pheromone.getDepositTime();
+	}
+
+	/**
+	 * Comptabilise la variation {@code delta} de la nourriture disponible sur la
+	 * carte.
+	 *
+	 * @param delta : {@code double}, variation de la quantité de nourriture
+	 */
+	void countFoodOnMap(double delta) {
+		foodOnMap += delta;
+	}
+
+	/**
+	 * Comptabilise la variation {@code delta} de la nourriture stockée dans les
+	 * fourmilières.
+	 *
+	 * @param delta : {@code double}, variation de la quantité de nourriture
+	 */
+	void countFoodStored(double delta) {
+		foodStored += delta;
+	}
+
+	/**
+	 * Comptabilise un coup porté lors d'un combat.
+	 */
+	void countFight() {
+		++fights;
+	}
+
+	/**
+	 * Comptabilise les {@code bytes} octets alloués au cours d'un pas de
+	 * simulation.
+	 *
+	 * @param bytes : {@code long}, octets alloués par le pas
+	 */
+	void countAllocatedBytes(long bytes) {
+		allocatedBytes += bytes;
+		++allocationSteps;
+	}
+
+	/**
+	 * @return le nombre de fourmis ouvrières vivantes
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * @return le nombre de fourmis soldates vivantes
+	 */
+	public int getSoldiers() {
+		return soldiers;
+	}
+
+	/**
+	 * @return le nombre de termites vivants
+	 */
+	public int getTermites() {
+		return termites;
+	}
+
+	/**
+	 * @return le nombre de phéromones déposées
+	 */
+	public int getPheromones() {
+		return pheromones;
+	}
+
+	/**
+	 * Calcule la quantité totale de phéromones à l'instant {@code time}.
+	 *
+	 * @param time : {@code long}, instant (en millisecondes) considéré
+	 * @return la somme des quantités des phéromones déposées
+	 */
+	public double getPheromoneMass(long time) {
+		double evaporationRate = Context.getConfig().getDouble(PHEROMONE_EVAPORATION_RATE);
+		double elapsed = ((double) pheromones * time - pheromoneDepositTimeSum) / 1000d;
+		double mass = pheromoneDepositedQuantity - evaporationRate * elapsed;
+
+		return (mass < 0.0) ? 0.0 : mass;
+	}
+
+	/**
+	 * @return la quantité totale de nourriture disponible sur la carte
+	 */
+	public double getFoodOnMap() {
+		return foodOnMap;
+	}
+
+	/**
+	 * @return la quantité totale de nourriture stockée dans les fourmilières
+	 */
+	public double getFoodStored() {
+		return foodStored;
+	}
+
+	/**
+	 * @return le nombre total de coups portés lors des combats
+	 */
+	public long getFights() {
+		return fights;
+	}
+
+	/**
+	 * @return le nombre total d'octets alloués au cours des pas mesurés
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return le nombre de pas dont les allocations ont été mesurées
+	 */
+	public long getAllocationSteps() {
+		return allocationSteps;
+	}
+
+	/**
+	 * Construit un échantillon des compteurs à l'instant courant de
+	 * {@code clock}.
+	 *
+	 * @param clock       : {@link SimulationClock} de l'environnement
+	 * @param anthills    : liste des {@link Anthill} de l'environnement
+	 * @param fightsSince : {@code long}, nombre total de coups lors de
+	 *                    l'échantillon précédent
+	 * @param timeSince   : {@code long}, instant (en millisecondes) de
+	 *                    l'échantillon précédent
+	 * @param bytesSince  : {@code long}, nombre total d'octets alloués lors de
+	 *                    l'échantillon précédent
+	 * @param stepsSince  : {@code long}, nombre de pas mesurés lors de
+	 *                    l'échantillon précédent
+	 * @param footprint   : {@link MemoryFootprint} courante des entités
+	 * @return un nouvel échantillon immuable
+	 */
+	StatisticsSample sample(SimulationClock clock, List<Anthill> anthills, long fightsSince, long timeSince,
+			long bytesSince, long stepsSince, MemoryFootprint footprint) {
+		long time = clock.getTimeMillis();
+		double[] anthillFood = new double[anthills.size()];
+		int i = 0;
+		for (Anthill anthill : anthills) {
+			anthillFood[i++] = anthill.getFoodQuantity();
+		}
+
+		double fightsPerSecond = (time > timeSince) ? (fights - fightsSince) * 1000d / (time - timeSince) : 0.0;
+
+		double allocatedBytesPerStep = (allocationSteps > stepsSince)
+				? (double) (allocatedBytes - bytesSince) / (allocationSteps - stepsSince) : Double.NaN;
+
+		return new StatisticsSample(clock.getTick(), time, workers, soldiers, termites, pheromones,
+				getPheromoneMass(time), foodOnMap, foodStored, fights, fightsPerSecond, allocatedBytesPerStep,
+				anthillFood, footprint);
+	}
+}
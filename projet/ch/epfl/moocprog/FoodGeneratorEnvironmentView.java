@@ -5,7 +5,7 @@ package ch.epfl.moocprog;
  * générateurs de nourriture {@link FoodGenerator} de l'environnement
  * {@link Environment}
  */
-public interface FoodGeneratorEnvironmentView {
+public interface FoodGeneratorEnvironmentView extends TimedEnvironmentView {
 	/**
 	 * Méthode publique abstraite par défaut servant à ajouter une instance de
 	 * {@link Food} dans une instance d'{@link Environment}
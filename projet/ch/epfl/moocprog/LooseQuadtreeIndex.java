@@ -0,0 +1,222 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe finale implémentant {@link SpatialIndex} par un arbre quaternaire
+ * lâche couvrant le tore : chaque nœud est découpé en quatre tant qu'il
+ * contient plus de {@link LooseQuadtreeIndex#LEAF_CAPACITY} objets, de sorte
+ * que les régions denses sont découpées finement et les régions vides pas du
+ * tout. Les bornes de chaque nœud sont relâchées de l'étendue de déplacement
+ * des objets : un objet reste dans les bornes lâches de sa feuille tant qu'il
+ * ne s'est pas éloigné de plus de cette étendue de sa position indexée.
+ * <p>
+ * Les nœuds et les boîtes demandées sont comparés par distance torique entre
+ * leurs centres : un nœud touchant un bord du monde est atteint depuis le bord
+ * opposé, sans dupliquer de nœud.
+ */
+final class LooseQuadtreeIndex implements SpatialIndex {
+	/**
+	 * Nombre maximal d'objets d'une feuille, sauf à la profondeur maximale
+	 */
+	static final int LEAF_CAPACITY = 8;
+	/**
+	 * Profondeur maximale : des objets confondus en un point ne sont pas
+	 * découpés indéfiniment
+	 */
+	private static final int MAX_DEPTH = 16;
+
+	private int worldWidth;
+	private int worldHeight;
+	private double extent;
+	private int size;
+	// Positions indexées et indices des objets, rangés feuille par feuille
+	private double[] xs = new double[0];
+	private double[] ys = new double[0];
+	private int[] items = new int[0];
+	// Nœuds : centre et demi-côtés des bornes strictes, premier des quatre
+	// enfants consécutifs (-1 pour une feuille) et objets du sous-arbre,
+	// contigus dans items
+	private int nodeCount;
+	private double[] centerXs = new double[64];
+	private double[] centerYs = new double[64];
+	private double[] halfWidths = new double[64];
+	private double[] halfHeights = new double[64];
+	private int[] firstChildren = new int[64];
+	private int[] itemStarts = new int[64];
+	private int[] itemEnds = new int[64];
+	private final int[] stack = new int[3 * MAX_DEPTH + 4];
+	private int[] gathered = new int[16];
+
+	@Override
+	public void rebuild(List<? extends Positionable> objects, int worldWidth, int worldHeight, double extent) {
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+		this.extent = extent;
+		this.size = objects.size();
+		if (items.length < size) {
+			int length = Math.max(size, 2 * items.length);
+			xs = new double[length];
+			ys = new double[length];
+			items = new int[length];
+		}
+		for (int i = 0; i < size; ++i) {
+			ToricPosition position = objects.get(i).getPosition();
+			xs[i] = position.toVec2d().getX();
+			ys[i] = position.toVec2d().getY();
+			items[i] = i;
+		}
+
+		nodeCount = 0;
+		int root = newNode(worldWidth / 2.0, worldHeight / 2.0, worldWidth / 2.0, worldHeight / 2.0);
+		split(root, 0, size, 0);
+	}
+
+	@Override
+	public int gatherWithin(double x, double y, double radius) {
+		double reach = radius + extent;
+		int count = 0;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			double dx = Math.abs(shortestDelta(centerXs[node] - x, worldWidth));
+			double dy = Math.abs(shortestDelta(centerYs[node] - y, worldHeight));
+			if (dx > reach + halfWidths[node] || dy > reach + halfHeights[node]) {
+				continue;
+			}
+			int start = itemStarts[node];
+			int end = itemEnds[node];
+			if (dx + halfWidths[node] <= reach && dy + halfHeights[node] <= reach) {
+				// Nœud entièrement dans la boîte : ses objets, contigus, sont tous
+				// retenus sans être examinés
+				if (count + end - start > gathered.length) {
+					gathered = Arrays.copyOf(gathered, Math.max(2 * gathered.length, count + end - start));
+				}
+				System.arraycopy(items, start, gathered, count, end - start);
+				count += end - start;
+				continue;
+			}
+			int child = firstChildren[node];
+			if (child >= 0) {
+				for (int k = 0; k < 4; ++k) {
+					stack[top++] = child + k;
+				}
+				continue;
+			}
+			for (int k = start; k < end; ++k) {
+				int item = items[k];
+				if (Math.abs(shortestDelta(xs[item] - x, worldWidth)) <= reach
+						&& Math.abs(shortestDelta(ys[item] - y, worldHeight)) <= reach) {
+					if (count == gathered.length) {
+						gathered = Arrays.copyOf(gathered, 2 * gathered.length);
+					}
+					gathered[count++] = item;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int[] getGathered() {
+		return gathered;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de nœuds de l'arbre
+	 */
+	int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Range les objets {@code items[start]} à {@code items[end - 1]} dans le
+	 * nœud {@code node}, en le découpant s'il en contient trop.
+	 */
+	private void split(int node, int start, int end, int depth) {
+		itemStarts[node] = start;
+		itemEnds[node] = end;
+		firstChildren[node] = -1;
+		if (end - start <= LEAF_CAPACITY || depth == MAX_DEPTH) {
+			return;
+		}
+
+		double cx = centerXs[node];
+		double cy = centerYs[node];
+		double hw = halfWidths[node] / 2;
+		double hh = halfHeights[node] / 2;
+		// Quadrants dans l'ordre : bas-gauche, bas-droite, haut-gauche, haut-droite
+		int middle = partition(start, end, cy, false);
+		int lowerMiddle = partition(start, middle, cx, true);
+		int upperMiddle = partition(middle, end, cx, true);
+
+		int child = newNode(cx - hw, cy - hh, hw, hh);
+		newNode(cx + hw, cy - hh, hw, hh);
+		newNode(cx - hw, cy + hh, hw, hh);
+		newNode(cx + hw, cy + hh, hw, hh);
+		firstChildren[node] = child;
+		split(child, start, lowerMiddle, depth + 1);
+		split(child + 1, lowerMiddle, middle, depth + 1);
+		split(child + 2, middle, upperMiddle, depth + 1);
+		split(child + 3, upperMiddle, end, depth + 1);
+	}
+
+	/**
+	 * Range en tête de {@code items[start..end[} les objets dont la coordonnée
+	 * ({@code x} si {@code onX}, {@code y} sinon) est inférieure à
+	 * {@code pivot}.
+	 *
+	 * @return l'indice du premier objet de coordonnée supérieure ou égale
+	 */
+	private int partition(int start, int end, double pivot, boolean onX) {
+		int low = start;
+		for (int k = start; k < end; ++k) {
+			int item = items[k];
+			if ((onX ? xs[item] : ys[item]) < pivot) {
+				items[k] = items[low];
+				items[low++] = item;
+			}
+		}
+		return low;
+	}
+
+	private int newNode(double centerX, double centerY, double halfWidth, double halfHeight) {
+		if (nodeCount == firstChildren.length) {
+			int length = 2 * nodeCount;
+			centerXs = Arrays.copyOf(centerXs, length);
+			centerYs = Arrays.copyOf(centerYs, length);
+			halfWidths = Arrays.copyOf(halfWidths, length);
+			halfHeights = Arrays.copyOf(halfHeights, length);
+			firstChildren = Arrays.copyOf(firstChildren, length);
+			itemStarts = Arrays.copyOf(itemStarts, length);
+			itemEnds = Arrays.copyOf(itemEnds, length);
+		}
+		centerXs[nodeCount] = centerX;
+		centerYs[nodeCount] = centerY;
+		halfWidths[nodeCount] = halfWidth;
+		halfHeights[nodeCount] = halfHeight;
+		return nodeCount++;
+	}
+
+	/**
+	 * @return l'écart de plus petite valeur absolue parmi {@code delta} et
+	 *         {@code delta +/- size}
+	 */
+	private static double shortestDelta(double delta, int size) {
+		if (delta > size / 2.0) {
+			return delta - size;
+		} else if (delta < -size / 2.0) {
+			return delta + size;
+		}
+		return delta;
+	}
+}
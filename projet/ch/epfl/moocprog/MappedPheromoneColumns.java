@@ -0,0 +1,234 @@
+package ch.epfl.moocprog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Classe finale conservant les données des phéromones d'un {@link Environment}
+ * hors du tas, dans un fichier projeté en mémoire : les dépôts et les retraits
+ * modifient le fichier en place, et un instantané de la carte des phéromones se
+ * résume à {@link MappedPheromoneColumns#snapshot(long)}. D'autres processus
+ * peuvent projeter le même fichier en lecture pendant la simulation ; ils
+ * voient les écritures au fil de l'eau, un état cohérent n'étant garanti
+ * qu'entre deux pas de simulation.
+ * <p>
+ * Format du fichier (octets de poids faible en premier) : un en-tête de
+ * {@code 64} octets
+ * <ul>
+ * <li>{@code int} : {@link MappedPheromoneColumns#MAGIC}</li>
+ * <li>{@code int} : {@link MappedPheromoneColumns#VERSION}</li>
+ * <li>{@code int} : nombre {@code n} de phéromones stockées</li>
+ * <li>{@code int} : capacité, en enregistrements</li>
+ * <li>{@code int}, {@code int} : largeur et hauteur du monde</li>
+ * <li>{@code long} : instant (en millisecondes) du dernier instantané</li>
+ * <li>{@code double} : taux d'évaporation par seconde</li>
+ * <li>{@code double} : seuil de quantité négligeable</li>
+ * </ul>
+ * suivi de {@code n} enregistrements de {@code 32} octets : abscisse, ordonnée
+ * et quantité déposée ({@code double}), instant de dépôt en millisecondes
+ * ({@code long}). La quantité d'une phéromone à l'instant {@code t} vaut
+ * {@code max(0, quantité - (t - dépôt) / 1000 * taux)}.
+ */
+final class MappedPheromoneColumns implements PheromoneStore {
+	/**
+	 * Nombre magique en tête du fichier ({@code "PHER"})
+	 */
+	static final int MAGIC = 0x50484552;
+	/**
+	 * Version du format du fichier
+	 */
+	static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 64;
+	private static final int RECORD_BYTES = 32;
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	// Positions des champs de l'en-tête
+	private static final int SIZE_OFFSET = 8;
+	private static final int CAPACITY_OFFSET = 12;
+	private static final int TIME_OFFSET = 24;
+	private static final int RATE_OFFSET = 32;
+	private static final int THRESHOLD_OFFSET = 40;
+
+	private final File file;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int size;
+
+	// Résultats de la dernière requête MappedPheromoneColumns#gatherWithin
+	private double[] gatheredDx = new double[1024];
+	private double[] gatheredDy = new double[1024];
+	private double[] gatheredQuantities = new double[1024];
+
+	/**
+	 * Constructeur créant (ou écrasant) le fichier {@code file} et le projetant
+	 * en mémoire.
+	 *
+	 * @param file      : {@link File} de stockage
+	 * @param width     : {@code int}, largeur du monde
+	 * @param height    : {@code int}, hauteur du monde
+	 * @param rate      : {@code double}, taux d'évaporation par seconde
+	 * @param threshold : {@code double}, seuil de quantité négligeable
+	 * @throws UncheckedIOException si le fichier ne peut être créé
+	 */
+	MappedPheromoneColumns(File file, int width, int height, double rate, double threshold) {
+		this.file = file;
+		map(INITIAL_CAPACITY, true);
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(SIZE_OFFSET, 0);
+		buffer.putInt(16, width);
+		buffer.putInt(20, height);
+		buffer.putLong(TIME_OFFSET, 0L);
+		setParameters(rate, threshold);
+	}
+
+	/**
+	 * Projette les {@code capacity} premiers enregistrements du fichier,
+	 * agrandi si nécessaire. La projection précédente reste valide jusqu'à sa
+	 * collecte par le ramasse-miettes.
+	 */
+	private void map(int capacity, boolean truncate) {
+		long length = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			if (truncate) {
+				raf.setLength(0);
+			}
+			raf.setLength(length);
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(CAPACITY_OFFSET, capacity);
+		this.capacity = capacity;
+	}
+
+	@Override
+	public void append(Pheromone pheromone) {
+		if (size == capacity) {
+			map(2 * capacity, false);
+		}
+		set(size++, pheromone);
+		buffer.putInt(SIZE_OFFSET, size);
+	}
+
+	@Override
+	public void set(int index, Pheromone pheromone) {
+		Vec2d position = pheromone.getPosition().toVec2d();
+		int offset = HEADER_BYTES + index * RECORD_BYTES;
+		buffer.putDouble(offset, position.getX());
+		buffer.putDouble(offset + 8, position.getY());
+		buffer.putDouble(offset + 16, pheromone.getDepositQuantity());
+		buffer.putLong(offset + 24, pheromone.getDepositTime());
+	}
+
+	@Override
+	public void removeLast() {
+		buffer.putInt(SIZE_OFFSET, --size);
+	}
+
+	@Override
+	public void rebuild(List<Pheromone> pheromones) {
+		size = 0;
+		for (Pheromone pheromone : pheromones) {
+			append(pheromone);
+		}
+		buffer.putInt(SIZE_OFFSET, size);
+	}
+
+	/**
+	 * Inscrit dans l'en-tête les paramètres d'évaporation, après un changement
+	 * de configuration.
+	 *
+	 * @param rate      : {@code double}, taux d'évaporation par seconde
+	 * @param threshold : {@code double}, seuil de quantité négligeable
+	 */
+	void setParameters(double rate, double threshold) {
+		buffer.putDouble(RATE_OFFSET, rate);
+		buffer.putDouble(THRESHOLD_OFFSET, threshold);
+	}
+
+	/**
+	 * Inscrit l'instant {@code time} dans l'en-tête puis écrit sur le disque
+	 * les pages modifiées du fichier.
+	 *
+	 * @param time : {@code long}, instant courant en millisecondes
+	 */
+	void snapshot(long time) {
+		buffer.putLong(TIME_OFFSET, time);
+		buffer.force();
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le fichier de stockage
+	 */
+	File getFile() {
+		return file;
+	}
+
+	@Override
+	public int gatherWithin(double x, double y, double radius, long time, double rate, double threshold, int width, int height) {
+		if (gatheredDx.length < size) {
+			int length = Math.max(size, 2 * gatheredDx.length);
+			gatheredDx = Arrays.copyOf(gatheredDx, length);
+			gatheredDy = Arrays.copyOf(gatheredDy, length);
+			gatheredQuantities = Arrays.copyOf(gatheredQuantities, length);
+		}
+
+		final double halfWidth = width / 2.0;
+		final double halfHeight = height / 2.0;
+		final MappedByteBuffer buffer = this.buffer;
+		final double[] outDx = gatheredDx, outDy = gatheredDy, outQuantities = gatheredQuantities;
+		int count = 0;
+
+		// Même boucle que PheromoneColumns#gatherWithin, les enregistrements étant
+		// lus par accès absolus dans la projection
+		for (int i = 0, offset = HEADER_BYTES; i < size; ++i, offset += RECORD_BYTES) {
+			double dx = buffer.getDouble(offset) - x;
+			dx = (dx > halfWidth) ? dx - width : (dx < -halfWidth) ? dx + width : dx;
+			double dy = buffer.getDouble(offset + 8) - y;
+			dy = (dy > halfHeight) ? dy - height : (dy < -halfHeight) ? dy + height : dy;
+
+			double quantity = buffer.getDouble(offset + 16) - ((time - buffer.getLong(offset + 24)) / 1000d) * rate;
+			quantity = (quantity < 0.0) ? 0.0 : quantity;
+
+			outDx[count] = dx;
+			outDy[count] = dy;
+			outQuantities[count] = quantity;
+			count += (quantity >= threshold && Math.sqrt(dx * dx + dy * dy) <= radius) ? 1 : 0;
+		}
+		return count;
+	}
+
+	@Override
+	public double[] getGatheredDx() {
+		return gatheredDx;
+	}
+
+	@Override
+	public double[] getGatheredDy() {
+		return gatheredDy;
+	}
+
+	@Override
+	public double[] getGatheredQuantities() {
+		return gatheredQuantities;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,122 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe finale rangeant des objets positionnés selon l'ordre de Morton
+ * (courbe en Z) de leur position torique : les coordonnées, rapportées à
+ * 16 bits sur la taille du monde, sont entrelacées bit à bit, de sorte que des
+ * objets proches dans le monde sont le plus souvent proches dans le stockage.
+ * Les requêtes de voisinage parcourant le stockage (voir {@link CombatKernel})
+ * accèdent alors à la mémoire de manière plus locale, et le ramasse-miettes,
+ * qui déplace les objets dans l'ordre où il les atteint, les regroupe aussi.
+ * <p>
+ * Les tampons sont réutilisés d'un appel à l'autre : une instance ne doit être
+ * utilisée que par un fil à la fois.
+ */
+final class MortonOrder {
+	private static final int COORDINATE_BITS = 16;
+
+	// Clés de tri : code de Morton dans les 32 bits de poids fort, indice de
+	// stockage dans les 32 bits de poids faible (tri stable)
+	private long[] keys = new long[0];
+	private Object[] scratch = new Object[0];
+
+	/**
+	 * Calcule le code de Morton du point {@code (x, y)} d'un monde de taille
+	 * {@code width x height}.
+	 *
+	 * @param x      : {@code double}, abscisse dans {@code [0, width[}
+	 * @param y      : {@code double}, ordonnée dans {@code [0, height[}
+	 * @param width  : {@code int}, largeur du monde
+	 * @param height : {@code int}, hauteur du monde
+	 * @return le code de Morton, entier sans signe de 32 bits
+	 */
+	static long code(double x, double y, int width, int height) {
+		return spread(quantize(x, width)) | (spread(quantize(y, height)) << 1);
+	}
+
+	/**
+	 * Mesure le désordre de {@code objects} : la proportion des paires
+	 * d'objets consécutifs dont les codes de Morton sont décroissants. Elle vaut
+	 * {@code 0} pour un stockage trié et environ {@code 0.5} pour un stockage
+	 * aléatoire.
+	 *
+	 * @param objects : objets positionnés, dans l'ordre de stockage
+	 * @param width   : {@code int}, largeur du monde
+	 * @param height  : {@code int}, hauteur du monde
+	 * @return la proportion de paires décroissantes, {@code 0} pour moins de
+	 *         deux objets
+	 */
+	double disorder(List<? extends Positionable> objects, int width, int height) {
+		int size = objects.size();
+		if (size < 2) {
+			return 0.0;
+		}
+		int descents = 0;
+		long previous = codeOf(objects.get(0), width, height);
+		for (int i = 1; i < size; ++i) {
+			long current = codeOf(objects.get(i), width, height);
+			if (current < previous) {
+				++descents;
+			}
+			previous = current;
+		}
+		return descents / (double) (size - 1);
+	}
+
+	/**
+	 * Range {@code objects} selon l'ordre de Morton de leur position, les
+	 * objets de même code gardant leur ordre relatif.
+	 *
+	 * @param objects : objets positionnés, réordonnés sur place
+	 * @param width   : {@code int}, largeur du monde
+	 * @param height  : {@code int}, hauteur du monde
+	 */
+	@SuppressWarnings("unchecked")
+	<T extends Positionable> void sort(List<T> objects, int width, int height) {
+		int size = objects.size();
+		if (keys.length < size) {
+			int length = Math.max(size, 2 * keys.length);
+			keys = new long[length];
+			scratch = new Object[length];
+		}
+		for (int i = 0; i < size; ++i) {
+			keys[i] = (codeOf(objects.get(i), width, height) << 32) | i;
+		}
+		Arrays.sort(keys, 0, size);
+
+		for (int i = 0; i < size; ++i) {
+			scratch[i] = objects.get((int) keys[i]);
+		}
+		for (int i = 0; i < size; ++i) {
+			objects.set(i, (T) scratch[i]);
+		}
+		// Les objets ne sont pas retenus d'un tri à l'autre
+		Arrays.fill(scratch, 0, size, null);
+	}
+
+	private static long codeOf(Positionable object, int width, int height) {
+		ToricPosition position = object.getPosition();
+		return code(position.toVec2d().getX(), position.toVec2d().getY(), width, height);
+	}
+
+	private static long quantize(double value, int size) {
+		long cell = (long) (value / size * (1 << COORDINATE_BITS));
+		return Math.min(Math.max(cell, 0L), (1L << COORDINATE_BITS) - 1);
+	}
+
+	/**
+	 * Intercale un bit nul entre chacun des 16 bits de poids faible de
+	 * {@code value}.
+	 */
+	private static long spread(long value) {
+		long v = value & 0xFFFFL;
+		v = (v | (v << 8)) & 0x00FF00FFL;
+		v = (v | (v << 4)) & 0x0F0F0F0FL;
+		v = (v | (v << 2)) & 0x33333333L;
+		v = (v | (v << 1)) & 0x55555555L;
+		return v;
+	}
+}
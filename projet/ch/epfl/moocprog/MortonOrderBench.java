@@ -0,0 +1,98 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.app.Context.getConfig;
+import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
+import static ch.epfl.moocprog.config.Config.WORLD_HEIGHT;
+import static ch.epfl.moocprog.config.Config.WORLD_WIDTH;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+
+/**
+ * Mesure de l'effet de l'ordre de Morton sur les requêtes de voisinage : la
+ * phase de combat ({@link CombatKernel#sweep(List, double, int, int, long)})
+ * est chronométrée sur {@code N} animaux stockés dans un ordre aléatoire, puis
+ * après {@link MortonOrder#sort(List, int, int)}, dont le coût est aussi
+ * mesuré. Le monde est agrandi pour garder une densité constante.
+ * <p>
+ * Usage : {@code MortonOrderBench <animaux> [surface par animal]}
+ */
+final class MortonOrderBench {
+	private static final int WARMUP_SWEEPS = 5;
+	private static final int TIMED_SWEEPS = 20;
+
+	private MortonOrderBench() {}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage : MortonOrderBench <animaux> [surface par animal]");
+			return;
+		}
+		int count = Integer.parseInt(args[0]);
+		double areaPerAnimal = (args.length > 1) ? Double.parseDouble(args[1]) : 400.0;
+
+		ImmutableConfigManager base = new ImmutableConfigManager(new File("res/app.cfg"));
+		Map<String, Integer> ints = new HashMap<String, Integer>(base.getIntConfig());
+		int side = (int) Math.ceil(Math.sqrt(count * areaPerAnimal));
+		ints.put(WORLD_WIDTH.first, side);
+		ints.put(WORLD_HEIGHT.first, side);
+		ApplicationInitializer.initializeApplication(
+			new ImmutableConfigManager(base.getDoubleConfig(), ints, base.getTimeConfig())
+		);
+		int width = getConfig().getInt(WORLD_WIDTH);
+		int height = getConfig().getInt(WORLD_HEIGHT);
+		double radius = getConfig().getDouble(ANIMAL_SIGHT_DISTANCE);
+
+		// Animaux créés dans l'ordre du stockage, à des positions aléatoires
+		Random random = new Random(5);
+		Uid colony = Uid.createUid();
+		List<Animal> animals = new ArrayList<Animal>(count);
+		for (int i = 0; i < count; ++i) {
+			ToricPosition position = new ToricPosition(random.nextDouble() * width, random.nextDouble() * height);
+			animals.add(random.nextBoolean() ? new AntSoldier(position, colony) : new Termite(position));
+		}
+
+		CombatKernel kernel = new CombatKernel();
+		MortonOrder order = new MortonOrder();
+		System.out.printf("%d animals in a %d x %d world, sight radius %.1f%n", count, width, height, radius);
+		report("random order", animals, kernel, order, radius, width, height);
+
+		// Tris d'échauffement sur des copies mélangées : seul le tri mesuré
+		// range le stockage chronométré
+		for (int i = 0; i < WARMUP_SWEEPS; ++i) {
+			List<Animal> copy = new ArrayList<Animal>(animals);
+			Collections.shuffle(copy, random);
+			order.sort(copy, width, height);
+		}
+		long start = System.nanoTime();
+		order.sort(animals, width, height);
+		double sortMillis = (System.nanoTime() - start) / 1e6;
+		System.out.printf("Morton sort : %.2f ms%n", sortMillis);
+		report("Morton order", animals, kernel, order, radius, width, height);
+	}
+
+	private static void report(String label, List<Animal> animals, CombatKernel kernel, MortonOrder order, double radius,
+			int width, int height) {
+		System.gc();
+		for (int i = 0; i < WARMUP_SWEEPS; ++i) {
+			kernel.sweep(animals, radius, width, height, i);
+		}
+		long pairs = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < TIMED_SWEEPS; ++i) {
+			kernel.sweep(animals, radius, width, height, i);
+			pairs += kernel.getExaminedPairs();
+		}
+		double millis = (System.nanoTime() - start) / 1e6 / TIMED_SWEEPS;
+		System.out.printf("%-12s : disorder %.3f, %.2f ms/sweep, %.1f M pairs/s%n", label,
+				order.disorder(animals, width, height), millis, pairs / (millis * TIMED_SWEEPS) / 1e3);
+	}
+}
@@ -0,0 +1,457 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale mettant à jour un groupe d'animaux d'un {@link Environment}
+ * (une colonie, ou une portion du monde) en parallèle des autres groupes (voir
+ * {@link Environment.UpdateMode}). Elle est la vue de l'environnement
+ * qu'ont les animaux du groupe pendant leur mise à jour :
+ * <ul>
+ * <li>les ennemis sont recherchés parmi les positions et les animaux vivants
+ * au début de la phase parallèle, qu'aucune tâche ne modifie, via une grille
+ * de ces positions ({@link UniformGridIndex}) ;</li>
+ * <li>les interactions modifiant un objet partagé (coups portés, nourriture
+ * prélevée ou déposée, phéromones déposées, statistiques) sont différées puis
+ * appliquées à l'environnement par {@link ParallelAnimalUpdate#commit()},
+ * appelée pour chaque groupe dans un ordre fixe une fois tous les groupes mis
+ * à jour.</li>
+ * </ul>
+ * Un prélèvement de nourriture retourne une quantité provisoire, bornée par la
+ * quantité disponible au début de la phase parallèle : si d'autres groupes ont
+ * épuisé la source avant lui, la charge de la fourmi est réduite lors de
+ * l'application.
+ */
+final class ParallelAnimalUpdate implements Callable<Void>, AntWorkerEnvironmentView, TermiteEnvironmentView {
+	private final Environment environment;
+	private final List<Animal> animals;
+	private final Time dt;
+
+	// Animaux de l'environnement au début de la phase parallèle, partagés en
+	// lecture seule par toutes les tâches
+	private final List<Animal> snapshotAnimals;
+	private final ToricPosition[] snapshotPositions;
+	private final boolean[] snapshotAlive;
+	private final int snapshotSize;
+	// Requêtes sur la grille des positions du début de la phase parallèle
+	private final UniformGridIndex.Gatherer snapshotIndex;
+
+	// Coups portés et combats notifiés
+	private final List<Animal> strikeAttackers = new ArrayList<Animal>();
+	private final List<Animal> strikeTargets = new ArrayList<Animal>();
+	private final List<Animal> fightAttackers = new ArrayList<Animal>();
+	private final List<Animal> fightTargets = new ArrayList<Animal>();
+
+	// Nourriture prélevée par les fourmis ouvrières ; currentWorker est la
+	// fourmi en cours de recherche de nourriture, à laquelle les prélèvements
+	// sont attribués, et claimedFood cumule les prélèvements du groupe par source
+	private AntWorker currentWorker;
+	private final List<AntWorker> takers = new ArrayList<AntWorker>();
+	private final List<Food> takenFood = new ArrayList<Food>();
+	private double[] takenQuantities = new double[16];
+	private final Map<Food, Double> claimedFood = new IdentityHashMap<Food, Double>();
+
+	// Nourriture déposée
+	private final List<AntWorker> droppers = new ArrayList<AntWorker>();
+	private final List<Anthill> dropAnthills = new ArrayList<Anthill>();
+	private double[] droppedQuantities = new double[16];
+
+	// Phéromones déposées
+	private final List<ToricPosition> depositPositions = new ArrayList<ToricPosition>();
+	private double[] depositQuantities = new double[64];
+	private final List<Pheromone> depositedPheromones = new ArrayList<Pheromone>();
+
+	/**
+	 * Constructeur
+	 *
+	 * @param environment       : {@link Environment} mis à jour
+	 * @param dt                : {@link Time}, pas de temps de la mise à jour
+	 * @param snapshotAnimals   : animaux de l'environnement
+	 * @param snapshotPositions : positions de ces animaux au début de la phase
+	 *                          parallèle
+	 * @param snapshotAlive     : {@code true} pour les animaux vivants au début
+	 *                          de la phase parallèle
+	 * @param snapshotSize      : {@code int}, nombre d'animaux
+	 * @param snapshotIndex     : {@link UniformGridIndex.Gatherer} propre à
+	 *                          l'instance, interrogeant la grille de ces
+	 *                          positions
+	 */
+	ParallelAnimalUpdate(Environment environment, Time dt, List<Animal> snapshotAnimals, ToricPosition[] snapshotPositions,
+			boolean[] snapshotAlive, int snapshotSize, UniformGridIndex.Gatherer snapshotIndex) {
+		this.environment = environment;
+		this.dt = dt;
+		this.snapshotAnimals = snapshotAnimals;
+		this.snapshotPositions = snapshotPositions;
+		this.snapshotAlive = snapshotAlive;
+		this.snapshotSize = snapshotSize;
+		this.snapshotIndex = snapshotIndex;
+		this.animals = new ArrayList<Animal>();
+	}
+
+	/**
+	 * Ajoute {@code animal} au groupe mis à jour par l'instance {@code this}.
+	 *
+	 * @param animal : {@link Animal} du groupe
+	 */
+	void add(Animal animal) {
+		animals.add(animal);
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre d'animaux du groupe
+	 */
+	int size() {
+		return animals.size();
+	}
+
+	/**
+	 * Met à jour les animaux vivants du groupe, dans l'ordre de leur ajout.
+	 */
+	@Override
+	public Void call() {
+		for (int i = 0; i < animals.size(); ++i) {
+			Animal a = animals.get(i);
+			if (!a.isDead()) {
+				a.update(this, dt);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Applique à {@code environment} les interactions différées du groupe, dans
+	 * l'ordre : coups portés et combats notifiés, nourriture prélevée, nourriture
+	 * déposée puis phéromones déposées. Doit être appelée sur le fil de
+	 * simulation, après la mise à jour de tous les groupes.
+	 */
+	void commit() {
+		for (int i = 0; i < strikeAttackers.size(); ++i) {
+			environment.strike(strikeAttackers.get(i), strikeTargets.get(i));
+		}
+		for (int i = 0; i < fightAttackers.size(); ++i) {
+			environment.notifyFight(fightAttackers.get(i), fightTargets.get(i));
+		}
+
+		// Une source épuisée par un groupe précédent ne fournit que son reliquat :
+		// le manque est retiré de la charge de la fourmi, ou de son dépôt si elle
+		// a déjà déposé sa charge au cours du pas
+		Map<AntWorker, Double> shortfalls = null;
+		for (int i = 0; i < takers.size(); ++i) {
+			AntWorker taker = takers.get(i);
+			double shortfall = takenQuantities[i] - environment.takeFood(takenFood.get(i), takenQuantities[i]);
+			if (shortfall > 0.0) {
+				if (shortfalls == null) {
+					shortfalls = new IdentityHashMap<AntWorker, Double>();
+				}
+				shortfalls.merge(taker, shortfall, Double::sum);
+				taker.setFoodQuantity(Math.max(0.0, taker.getFoodQuantity() - shortfall));
+			}
+		}
+		for (int i = 0; i < droppers.size(); ++i) {
+			double quantity = droppedQuantities[i];
+			if (shortfalls != null) {
+				Double shortfall = shortfalls.remove(droppers.get(i));
+				quantity = (shortfall == null) ? quantity : Math.max(0.0, quantity - shortfall);
+			}
+			environment.storeFood(dropAnthills.get(i), quantity);
+		}
+
+		for (int i = 0; i < depositPositions.size(); ++i) {
+			environment.addPheromone(depositPositions.get(i), depositQuantities[i]);
+		}
+		for (int i = 0; i < depositedPheromones.size(); ++i) {
+			environment.addPheromone(depositedPheromones.get(i));
+		}
+	}
+
+	@Override
+	public long getSimulationTime() {
+		return environment.getSimulationTime();
+	}
+
+	/**
+	 * Méthode redéfinie renvoyant la liste des ennemis de {@code from} vivants
+	 * au début de la phase parallèle et situés, à ce moment-là, à portée de vue.
+	 *
+	 * @param from : {@link Animal} dont on cherche les ennemis
+	 * @throws IllegalArgumentException si {@code from} est {@code null}
+	 */
+	@Override
+	public List<Animal> getVisibleEnemiesForAnimal(Animal from) throws IllegalArgumentException {
+		Utils.requireNonNull(from);
+		double radius = Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE);
+		ToricPosition position = from.getPosition();
+		List<Animal> visibleAnimals = new ArrayList<Animal>();
+
+		int count = gatherSorted(position, radius);
+		int[] candidates = snapshotIndex.getGathered();
+		for (int k = 0; k < count; ++k) {
+			int i = candidates[k];
+			if (isEnemyAt(i, from) && position.toricDistance(snapshotPositions[i]) <= radius) {
+				visibleAnimals.add(snapshotAnimals.get(i));
+			}
+		}
+		return visibleAnimals;
+	}
+
+	@Override
+	public boolean isVisibleFromEnemies(Animal from) throws IllegalArgumentException {
+		return anyEnemyWithin(from, Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE));
+	}
+
+	/**
+	 * Méthode redéfinie, analogue à
+	 * {@link Environment#anyEnemyWithin(Animal, double)}, portant sur les
+	 * positions et les animaux vivants au début de la phase parallèle.
+	 */
+	@Override
+	public boolean anyEnemyWithin(Animal from, double radius) throws IllegalArgumentException {
+		Utils.requireNonNull(from);
+		ToricPosition position = from.getPosition();
+
+		int count = snapshotIndex.gatherWithin(position.toVec2d().getX(), position.toVec2d().getY(), radius);
+		int[] candidates = snapshotIndex.getGathered();
+		for (int k = 0; k < count; ++k) {
+			int i = candidates[k];
+			if (position.toricDistance(snapshotPositions[i]) <= radius && isEnemyAt(i, from)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Méthode redéfinie, analogue à
+	 * {@link Environment#nearestEnemyWithin(Animal, double)}, portant sur les
+	 * positions et les animaux vivants au début de la phase parallèle.
+	 */
+	@Override
+	public Animal nearestEnemyWithin(Animal from, double radius) throws IllegalArgumentException {
+		Utils.requireNonNull(from);
+		ToricPosition position = from.getPosition();
+		int nearest = -1;
+		double nearestDistance = radius;
+
+		int count = gatherSorted(position, radius);
+		int[] candidates = snapshotIndex.getGathered();
+		for (int k = 0; k < count; ++k) {
+			int i = candidates[k];
+			double distance = position.toricDistance(snapshotPositions[i]);
+			if ((distance < nearestDistance || (nearest < 0 && distance <= radius)) && isEnemyAt(i, from)) {
+				nearest = i;
+				nearestDistance = distance;
+			}
+		}
+		return (nearest < 0) ? null : snapshotAnimals.get(nearest);
+	}
+
+	/**
+	 * Sélectionne dans la grille les animaux susceptibles d'être à moins de
+	 * {@code radius} de {@code position} et range leurs indices par ordre
+	 * croissant, afin que les requêtes parcourent les animaux dans l'ordre de
+	 * stockage, comme {@link Environment}.
+	 *
+	 * @return le nombre d'indices sélectionnés
+	 */
+	private int gatherSorted(ToricPosition position, double radius) {
+		int count = snapshotIndex.gatherWithin(position.toVec2d().getX(), position.toVec2d().getY(), radius);
+		Arrays.sort(snapshotIndex.getGathered(), 0, count);
+		return count;
+	}
+
+	/**
+	 * @return {@code true} si l'animal d'indice {@code i}, vivant au début de la
+	 *         phase parallèle, est un ennemi de {@code from} vivant
+	 */
+	private boolean isEnemyAt(int i, Animal from) {
+		Animal animal = snapshotAnimals.get(i);
+		return animal != from && snapshotAlive[i] && !from.isDead() && animal.isHostile(from);
+	}
+
+	/**
+	 * Méthode redéfinie répondant d'après l'instantané du début de la phase
+	 * parallèle, que les coups différés des autres groupes ne modifient pas.
+	 * Un animal absent de l'instantané est tenu pour mort.
+	 */
+	@Override
+	public boolean isAliveAtPhaseStart(Animal animal) {
+		int i = animal.getPhaseIndex();
+		return i >= 0 && i < snapshotSize && snapshotAnimals.get(i) == animal && snapshotAlive[i];
+	}
+
+	@Override
+	public void notifyFight(Animal attacker, Animal target) {
+		fightAttackers.add(attacker);
+		fightTargets.add(target);
+	}
+
+	/**
+	 * Méthode redéfinie différant le coup porté par {@code attacker} à
+	 * {@code target} jusqu'à {@link ParallelAnimalUpdate#commit()}, où sa force
+	 * est tirée.
+	 */
+	@Override
+	public void strike(Animal attacker, Animal target) {
+		strikeAttackers.add(attacker);
+		strikeTargets.add(target);
+	}
+
+	@Override
+	public void addPheromone(Pheromone pheromone) throws IllegalArgumentException {
+		Utils.require("addPheromone() avec un objet null en argument n'a pas de sens.", (pheromone != null));
+		depositedPheromones.add(pheromone);
+	}
+
+	@Override
+	public void addPheromone(ToricPosition position, double quantity) throws IllegalArgumentException {
+		Utils.requireNonNull(position);
+		if (depositPositions.size() == depositQuantities.length) {
+			depositQuantities = Arrays.copyOf(depositQuantities, 2 * depositQuantities.length);
+		}
+		depositQuantities[depositPositions.size()] = quantity;
+		depositPositions.add(position);
+	}
+
+	/**
+	 * Méthode redéfinie déléguée à l'environnement : les perceptions de
+	 * phéromones ne sont demandées que par les rotations, déclenchées par
+	 * l'ordonnanceur avant la phase parallèle.
+	 */
+	@Override
+	public double[] getPheromoneQuantitiesPerIntervalForAnt(ToricPosition position, double directionAngleRad, double[] angles) {
+		return environment.getPheromoneQuantitiesPerIntervalForAnt(position, directionAngleRad, angles);
+	}
+
+	/**
+	 * Méthode redéfinie : la fourmilière à portée est déterminée comme par
+	 * {@link Environment#dropFood(AntWorker)}, le dépôt étant différé.
+	 */
+	@Override
+	public boolean dropFood(AntWorker antWorker) throws IllegalArgumentException {
+		return dropFoodAlongPath(antWorker, null);
+	}
+
+	/**
+	 * Méthode redéfinie : la fourmilière à portée du segment parcouru est
+	 * déterminée comme par
+	 * {@link Environment#dropFoodAlongPath(AntWorker, ToricPosition)}, le dépôt
+	 * étant différé.
+	 */
+	@Override
+	public boolean dropFoodAlongPath(AntWorker antWorker, ToricPosition from) throws IllegalArgumentException {
+		Utils.requireNonNull(antWorker);
+		Utils.require(antWorker.getFoodQuantity() >= 0.0);
+
+		Anthill anthill = environment.anthillInReachOf(antWorker, from);
+		if (anthill == null) {
+			return false;
+		}
+		if (droppers.size() == droppedQuantities.length) {
+			droppedQuantities = Arrays.copyOf(droppedQuantities, 2 * droppedQuantities.length);
+		}
+		droppedQuantities[droppers.size()] = antWorker.getFoodQuantity();
+		droppers.add(antWorker);
+		dropAnthills.add(anthill);
+		return true;
+	}
+
+	/**
+	 * Méthode redéfinie déléguée à l'environnement, sans son index de la
+	 * nourriture dont les tampons ne peuvent être partagés entre les tâches.
+	 */
+	@Override
+	public Food getClosestFoodForAnt(AntWorker antWorker) throws IllegalArgumentException {
+		return environment.closestFoodForAnt(antWorker, null, false);
+	}
+
+	/**
+	 * Méthode redéfinie déléguée à l'environnement, sans son index de la
+	 * nourriture (voir {@link ParallelAnimalUpdate#getClosestFoodForAnt(AntWorker)}).
+	 */
+	@Override
+	public Food getClosestFoodAlongPathForAnt(AntWorker antWorker, ToricPosition from) throws IllegalArgumentException {
+		return environment.closestFoodForAnt(antWorker, from, false);
+	}
+
+	/**
+	 * Méthode redéfinie déléguée à l'environnement, dont le calcul ne modifie
+	 * aucun objet partagé.
+	 */
+	@Override
+	public ToricPosition getFoodEntryPointAlongPath(AntWorker antWorker, ToricPosition from, Food food) throws IllegalArgumentException {
+		return environment.getFoodEntryPointAlongPath(antWorker, from, food);
+	}
+
+	/**
+	 * Méthode redéfinie différant le prélèvement : la quantité retournée est
+	 * bornée par la quantité de {@code food} au début de la phase parallèle,
+	 * diminuée des prélèvements précédents du groupe.
+	 */
+	@Override
+	public double takeFood(Food food, double aQuantity) throws IllegalArgumentException {
+		Utils.requireNonNull(food);
+		Utils.require("Le takeQuantity d'une quantité de nourriture négative n'a pas de sens.", aQuantity >= 0.0);
+
+		double claimed = claimedFood.getOrDefault(food, 0.0);
+		double taken = Math.min(aQuantity, Math.max(0.0, food.getQuantity() - claimed));
+		claimedFood.put(food, claimed + taken);
+
+		if (takers.size() == takenQuantities.length) {
+			takenQuantities = Arrays.copyOf(takenQuantities, 2 * takenQuantities.length);
+		}
+		takenQuantities[takers.size()] = taken;
+		takers.add(currentWorker);
+		takenFood.add(food);
+		return taken;
+	}
+
+	@Override
+	public void selectAfterMoveDispatch(Ant ant, Time dt) {
+		ant.afterMoveAnt(this, dt);
+	}
+
+	@Override
+	public void selectAfterMoveDispatch(Termite termite, Time dt) {
+		termite.afterMoveTermite(this, dt);
+	}
+
+	@Override
+	public RotationProbability selectComputeRotationProbsDispatch(Ant ant) {
+		return environment.selectComputeRotationProbsDispatch(ant);
+	}
+
+	@Override
+	public RotationProbability selectComputeRotationProbsDispatch(Termite termite) {
+		return environment.selectComputeRotationProbsDispatch(termite);
+	}
+
+	@Override
+	public void selectSpecificBehaviorDispatch(AntWorker antWorker, Time dt) {
+		currentWorker = antWorker;
+		antWorker.seekForFood(this, dt);
+		currentWorker = null;
+	}
+
+	@Override
+	public void selectSpecificBehaviorDispatch(AntSoldier antSoldier, Time dt) {
+		antSoldier.seekForEnemies(this, dt);
+	}
+
+	@Override
+	public void selectSpecificBehaviorDispatch(Termite termite, Time dt) {
+		termite.seekForEnemies(this, dt);
+	}
+}
@@ -4,23 +4,54 @@ import static ch.epfl.moocprog.config.Config.PHEROMONE_EVAPORATION_RATE;
 import static ch.epfl.moocprog.config.Config.PHEROMONE_THRESHOLD;
 
 import ch.epfl.moocprog.app.Context;
-import ch.epfl.moocprog.utils.Time;
 
 /**
  * Classe finale représentant le concept d'une phéromone. Cette classe hérite de
- * la classe {@link Positionable}.
+ * la classe {@link Positionable}. Une fois déposée dans un {@link Environment},
+ * sa quantité s'évapore linéairement au fil du temps simulé : elle est calculée
+ * à la demande à partir de l'instant de dépôt, et le retrait de la phéromone
+ * devenue négligeable est planifié par le {@link Scheduler} de l'environnement.
  */
 public final class Pheromone extends Positionable{
-	
+
 	/**
-	 * Quantité actuelle de phéromone
+	 * Quantité de phéromone à l'instant {@link Pheromone#depositTime}
 	 */
 	private double quantity;
-	
+
+	/**
+	 * Instant (temps simulé, en millisecondes) du dépôt dans l'environnement
+	 */
+	private long depositTime;
+
+	/**
+	 * Horloge de l'environnement dans lequel la phéromone est déposée, ou
+	 * {@code null} si elle n'est déposée dans aucun environnement
+	 */
+	private SimulationClock clock;
+
+	/**
+	 * Indice de la phéromone dans le stockage de l'environnement, exploité pour
+	 * la retirer en temps constant
+	 */
+	private int storageIndex;
+
+	/**
+	 * {@code true} si la phéromone a été construite par la réserve de
+	 * l'environnement et peut lui être rendue une fois évaporée
+	 */
+	private final boolean recyclable;
+
+	/**
+	 * Timer d'évaporation conservé d'un recyclage à l'autre (phéromones
+	 * recyclables uniquement)
+	 */
+	private Scheduler.Timer expiryTimer;
+
 	/**
 	 * Constructeur non vide initialisant une instance de {@link Pheromone} à partir
 	 * d'une {@link ToricPosition} et d'une valeur initiale de {@code quantity}.
-	 * 
+	 *
 	 * @param position : {@link ToricPosition}, position torique initiale de
 	 *                 l'instance {@code this} de {@link Pheromone} dans
 	 *                 l'environnement
@@ -30,49 +61,192 @@ public final class Pheromone extends Positionable{
 	public Pheromone (ToricPosition position, double quantity) {
 		super(position);
 		this.quantity = quantity;
+		storageIndex = -1;
+		recyclable = false;
+	}
+
+	/**
+	 * Constructeur vide réservé à la réserve de phéromones recyclables de
+	 * {@link Environment} : l'instance doit être initialisée par
+	 * {@link Pheromone#reset(ToricPosition, double)} avant d'être déposée.
+	 */
+	Pheromone() {
+		super();
+		storageIndex = -1;
+		recyclable = true;
+	}
+
+	/**
+	 * Réinitialise une phéromone recyclée avec une nouvelle position et une
+	 * nouvelle quantité.
+	 *
+	 * @param position : {@link ToricPosition}, nouvelle position
+	 * @param quantity : double, nouvelle quantité initiale
+	 */
+	void reset(ToricPosition position, double quantity) {
+		setPosition(position);
+		this.quantity = quantity;
 	}
-	
+
 	/**
 	 * Getter
-	 * 
+	 *
 	 * @return la quantité actuelle de phéromones de l'instance {@code this} de
-	 *         {@link Pheromone}
+	 *         {@link Pheromone}, évaporation comprise
 	 */
 	public double getQuantity() {
-		return quantity;
+		if (clock == null) {
+			return quantity;
+		}
+		return getQuantityAt(clock.getTimeMillis());
 	}
-	
+
+	/**
+	 * Calcule la quantité de phéromone restante à l'instant {@code time}, compte
+	 * tenu du taux d'évaporation {@code PHEROMONE_EVAPORATION_RATE} du fichier de
+	 * configuration initial.
+	 *
+	 * @param time : {@code long}, instant (en millisecondes) considéré
+	 * @return la quantité restante, jamais négative
+	 */
+	double getQuantityAt(long time) {
+		double evaporationRate = Context.getConfig().getDouble(PHEROMONE_EVAPORATION_RATE);
+		double remaining = quantity - ((time - depositTime) / 1000d) * evaporationRate;
+
+		return (remaining < 0.0) ? 0.0 : remaining;
+	}
+
 	/**
 	 * Détermine si la quantité de phéromone est négligeable, c'est-à-dire
 	 * inférieure au seuil de phéromone défini dans le fichier de configuration
 	 * initial avec la valeur {@code PHEROMONE_THRESHOLD}
-	 * 
+	 *
 	 * @return {@code true} si la quantité est inférieure au seuil, sinon
 	 *         {@code false}.
 	 */
 	public boolean isNegligible() {
 		return getQuantity() < Context.getConfig().getDouble(PHEROMONE_THRESHOLD);
 	}
-	
+
 	/**
-	 * Méthode en charge de faire évoluer l'instance {@code this} de
-	 * {@link Pheromone} en fonction du {@code dt} de {@link Time} et du taux
-	 * d'évaporation, en assurant l'évaporation de la quantité de phéromones au
-	 * cours du temps. Le taux d'évaporation correspond à la valeur
-	 * {@code PHEROMONE_EVAPORATION_RATE} du fichier de configuration initial.
-	 * 
-	 * @param dt : {@link Time}, pas de temps périodique de mise à jour de
-	 *           l'instance {@code this} de {@link Pheromone}
+	 * Calcule l'instant à partir duquel la quantité de phéromone devient
+	 * négligeable.
+	 *
+	 * @return l'instant (en millisecondes) à partir duquel
+	 *         {@link Pheromone#isNegligible()} est vrai, ou
+	 *         {@link Scheduler#NEVER} si la phéromone ne s'évapore pas
 	 */
-	public void update  (Time dt) {
+	long getExpiryTime() {
+		double threshold = Context.getConfig().getDouble(PHEROMONE_THRESHOLD);
 		double evaporationRate = Context.getConfig().getDouble(PHEROMONE_EVAPORATION_RATE);
-		
-		if (!isNegligible()) {
-			quantity -= (dt.toSeconds() * evaporationRate);
-			
-			if (quantity < 0.0) {
-				quantity = 0.0;
-			}
+
+		if (quantity < threshold) {
+			return depositTime;
+		}
+		if (evaporationRate <= 0.0) {
+			return Scheduler.NEVER;
 		}
+		return depositTime + (long) ((quantity - threshold) * 1000d / evaporationRate) + 1;
+	}
+
+	/**
+	 * Fusionne un nouveau dépôt de quantité {@code added} dans l'instance
+	 * {@code this} de {@link Pheromone} déjà déposée : sa quantité courante,
+	 * augmentée de {@code added} et plafonnée à {@code cap} (sans jamais
+	 * diminuer), devient sa quantité déposée à l'instant courant.
+	 *
+	 * @param added : {@code double}, quantité du nouveau dépôt
+	 * @param cap   : {@code double}, quantité maximale après fusion
+	 */
+	void merge(double added, double cap) {
+		double current = getQuantity();
+		quantity = Math.max(current, Math.min(cap, current + added));
+		depositTime = clock.getTimeMillis();
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la quantité de phéromone à l'instant de son dépôt
+	 */
+	double getDepositQuantity() {
+		return quantity;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return l'instant (en millisecondes) du dépôt dans l'environnement
+	 */
+	long getDepositTime() {
+		return depositTime;
+	}
+
+	/**
+	 * Dépose l'instance {@code this} de {@link Pheromone} dans l'environnement
+	 * dont l'horloge est {@code clock} : l'évaporation débute à l'instant courant
+	 * de cette horloge.
+	 *
+	 * @param clock : {@link SimulationClock} de l'environnement
+	 */
+	void deposit(SimulationClock clock) {
+		this.clock = clock;
+		depositTime = clock.getTimeMillis();
+	}
+
+	/**
+	 * Retire l'instance {@code this} de {@link Pheromone} de son environnement :
+	 * sa quantité courante est figée.
+	 */
+	void detach() {
+		quantity = getQuantity();
+		clock = null;
+		storageIndex = -1;
+	}
+
+	/**
+	 * @return {@code true} si la phéromone peut être rendue à la réserve de
+	 *         l'environnement une fois évaporée
+	 */
+	boolean isRecyclable() {
+		return recyclable;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le timer d'évaporation conservé, ou {@code null}
+	 */
+	Scheduler.Timer getExpiryTimer() {
+		return expiryTimer;
+	}
+
+	/**
+	 * Setter
+	 *
+	 * @param expiryTimer : {@link Scheduler.Timer}, timer d'évaporation à
+	 *                    conserver
+	 */
+	void setExpiryTimer(Scheduler.Timer expiryTimer) {
+		this.expiryTimer = expiryTimer;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return l'indice de la phéromone dans le stockage de l'environnement
+	 */
+	int getStorageIndex() {
+		return storageIndex;
+	}
+
+	/**
+	 * Setter
+	 *
+	 * @param storageIndex : {@code int}, nouvel indice de la phéromone dans le
+	 *                     stockage de l'environnement
+	 */
+	void setStorageIndex(int storageIndex) {
+		this.storageIndex = storageIndex;
 	}
 }
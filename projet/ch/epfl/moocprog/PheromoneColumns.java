@@ -0,0 +1,166 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Classe finale conservant, en colonnes de types primitifs, la position et le
+ * dépôt (quantité et instant) de chaque phéromone d'un {@link Environment},
+ * rangés selon leur indice de stockage ({@link Pheromone#getStorageIndex()}).
+ * Les requêtes de perception parcourent ainsi des tableaux contigus plutôt que
+ * les objets {@link Pheromone}, {@link ToricPosition} et {@link Vec2d} de
+ * chaque phéromone. Les colonnes résident dans le tas.
+ */
+final class PheromoneColumns implements PheromoneStore {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private double[] xs = new double[INITIAL_CAPACITY];
+	private double[] ys = new double[INITIAL_CAPACITY];
+	private double[] quantities = new double[INITIAL_CAPACITY];
+	private long[] depositTimes = new long[INITIAL_CAPACITY];
+	private int size;
+
+	// Résultats de la dernière requête PheromoneColumns#gatherWithin
+	private double[] gatheredDx = new double[INITIAL_CAPACITY];
+	private double[] gatheredDy = new double[INITIAL_CAPACITY];
+	private double[] gatheredQuantities = new double[INITIAL_CAPACITY];
+
+	/**
+	 * Ajoute les données de {@code pheromone} en fin de colonnes.
+	 *
+	 * @param pheromone : {@link Pheromone} déposée
+	 */
+	@Override
+	public void append(Pheromone pheromone) {
+		if (size == xs.length) {
+			int capacity = 2 * size;
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			quantities = Arrays.copyOf(quantities, capacity);
+			depositTimes = Arrays.copyOf(depositTimes, capacity);
+		}
+		set(size++, pheromone);
+	}
+
+	/**
+	 * Remplace les données d'indice {@code index} par celles de
+	 * {@code pheromone}.
+	 *
+	 * @param index     : {@code int}, indice de stockage
+	 * @param pheromone : {@link Pheromone} stockée à cet indice
+	 */
+	@Override
+	public void set(int index, Pheromone pheromone) {
+		Vec2d position = pheromone.getPosition().toVec2d();
+		xs[index] = position.getX();
+		ys[index] = position.getY();
+		quantities[index] = pheromone.getDepositQuantity();
+		depositTimes[index] = pheromone.getDepositTime();
+	}
+
+	/**
+	 * Retire les données de la dernière phéromone.
+	 */
+	@Override
+	public void removeLast() {
+		--size;
+	}
+
+	/**
+	 * Reconstruit les colonnes d'après {@code pheromones}, après un retrait
+	 * groupé.
+	 *
+	 * @param pheromones : phéromones stockées, dans l'ordre de stockage
+	 */
+	@Override
+	public void rebuild(List<Pheromone> pheromones) {
+		size = 0;
+		for (Pheromone pheromone : pheromones) {
+			append(pheromone);
+		}
+	}
+
+	/**
+	 * Sélectionne les phéromones non négligeables à l'instant {@code time} et
+	 * situées à une distance torique inférieure ou égale à {@code radius} du
+	 * point {@code (x, y)}. Pour chacune, le plus court vecteur torique depuis ce
+	 * point et la quantité courante sont rangés dans les tableaux retournés par
+	 * {@link PheromoneColumns#getGatheredDx()},
+	 * {@link PheromoneColumns#getGatheredDy()} et
+	 * {@link PheromoneColumns#getGatheredQuantities()}. Les calculs reproduisent
+	 * exactement {@link ToricPosition#toricVector(ToricPosition)},
+	 * {@link ToricPosition#toricDistance(ToricPosition)} et
+	 * {@link Pheromone#getQuantity()}.
+	 *
+	 * @param x         : {@code double}, abscisse du point
+	 * @param y         : {@code double}, ordonnée du point
+	 * @param radius    : {@code double}, distance maximale
+	 * @param time      : {@code long}, instant courant en millisecondes
+	 * @param rate      : {@code double}, taux d'évaporation par seconde
+	 * @param threshold : {@code double}, seuil de quantité négligeable
+	 * @param width     : {@code int}, largeur du monde
+	 * @param height    : {@code int}, hauteur du monde
+	 * @return le nombre de phéromones sélectionnées
+	 */
+	@Override
+	public int gatherWithin(double x, double y, double radius, long time, double rate, double threshold, int width, int height) {
+		if (gatheredDx.length < size) {
+			gatheredDx = new double[xs.length];
+			gatheredDy = new double[xs.length];
+			gatheredQuantities = new double[xs.length];
+		}
+
+		final double halfWidth = width / 2.0;
+		final double halfHeight = height / 2.0;
+		final double[] xs = this.xs, ys = this.ys, quantities = this.quantities;
+		final long[] depositTimes = this.depositTimes;
+		final double[] outDx = gatheredDx, outDy = gatheredDy, outQuantities = gatheredQuantities;
+		int count = 0;
+
+		// Boucle sans appel ni allocation sur des tableaux contigus ; les branches
+		// de la réduction torique se compilent en déplacements conditionnels
+		for (int i = 0; i < size; ++i) {
+			double dx = xs[i] - x;
+			dx = (dx > halfWidth) ? dx - width : (dx < -halfWidth) ? dx + width : dx;
+			double dy = ys[i] - y;
+			dy = (dy > halfHeight) ? dy - height : (dy < -halfHeight) ? dy + height : dy;
+
+			double quantity = quantities[i] - ((time - depositTimes[i]) / 1000d) * rate;
+			quantity = (quantity < 0.0) ? 0.0 : quantity;
+
+			outDx[count] = dx;
+			outDy[count] = dy;
+			outQuantities[count] = quantity;
+			// Écriture inconditionnelle : seul le compteur dépend du test
+			count += (quantity >= threshold && Math.sqrt(dx * dx + dy * dy) <= radius) ? 1 : 0;
+		}
+		return count;
+	}
+
+	@Override
+	public double[] getGatheredDx() {
+		return gatheredDx;
+	}
+
+	@Override
+	public double[] getGatheredDy() {
+		return gatheredDy;
+	}
+
+	@Override
+	public double[] getGatheredQuantities() {
+		return gatheredQuantities;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de phéromones stockées
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+}
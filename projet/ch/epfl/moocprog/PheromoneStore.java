@@ -0,0 +1,79 @@
+package ch.epfl.moocprog;
+
+import java.util.List;
+
+/**
+ * Interface décrivant le stockage, en types primitifs, de la position et du
+ * dépôt (quantité et instant) de chaque phéromone d'un {@link Environment},
+ * rangés selon leur indice de stockage ({@link Pheromone#getStorageIndex()}),
+ * ainsi que les requêtes de perception qui le parcourent. Le stockage peut
+ * résider dans le tas ({@link PheromoneColumns}) ou dans un fichier projeté en
+ * mémoire ({@link MappedPheromoneColumns}).
+ */
+interface PheromoneStore {
+
+	/**
+	 * Ajoute les données de {@code pheromone} en fin de stockage.
+	 *
+	 * @param pheromone : {@link Pheromone} déposée
+	 */
+	void append(Pheromone pheromone);
+
+	/**
+	 * Remplace les données d'indice {@code index} par celles de
+	 * {@code pheromone}.
+	 *
+	 * @param index     : {@code int}, indice de stockage
+	 * @param pheromone : {@link Pheromone} stockée à cet indice
+	 */
+	void set(int index, Pheromone pheromone);
+
+	/**
+	 * Retire les données de la dernière phéromone.
+	 */
+	void removeLast();
+
+	/**
+	 * Reconstruit le stockage d'après {@code pheromones}, après un retrait
+	 * groupé.
+	 *
+	 * @param pheromones : phéromones stockées, dans l'ordre de stockage
+	 */
+	void rebuild(List<Pheromone> pheromones);
+
+	/**
+	 * Sélectionne les phéromones non négligeables à l'instant {@code time} et
+	 * situées à une distance torique inférieure ou égale à {@code radius} du
+	 * point {@code (x, y)}. Pour chacune, le plus court vecteur torique depuis ce
+	 * point et la quantité courante sont rangés dans les tableaux retournés par
+	 * {@link PheromoneStore#getGatheredDx()}, {@link PheromoneStore#getGatheredDy()}
+	 * et {@link PheromoneStore#getGatheredQuantities()}. Les calculs reproduisent
+	 * exactement {@link ToricPosition#toricVector(ToricPosition)},
+	 * {@link ToricPosition#toricDistance(ToricPosition)} et
+	 * {@link Pheromone#getQuantity()}.
+	 *
+	 * @param x         : {@code double}, abscisse du point
+	 * @param y         : {@code double}, ordonnée du point
+	 * @param radius    : {@code double}, distance maximale
+	 * @param time      : {@code long}, instant courant en millisecondes
+	 * @param rate      : {@code double}, taux d'évaporation par seconde
+	 * @param threshold : {@code double}, seuil de quantité négligeable
+	 * @param width     : {@code int}, largeur du monde
+	 * @param height    : {@code int}, hauteur du monde
+	 * @return le nombre de phéromones sélectionnées
+	 */
+	int gatherWithin(double x, double y, double radius, long time, double rate, double threshold, int width, int height);
+
+	double[] getGatheredDx();
+
+	double[] getGatheredDy();
+
+	double[] getGatheredQuantities();
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de phéromones stockées
+	 */
+	int size();
+}
@@ -13,6 +13,13 @@ public class Positionable {
 	 */
 	private ToricPosition position;
 
+	/**
+	 * {@code true} si l'objet est une copie fantôme d'un objet détenu par une
+	 * autre tuile de la simulation répartie (voir {@link TileExchange}) : il est
+	 * visible des objets voisins mais n'est pas mis à jour
+	 */
+	private boolean ghost;
+
 	/**
 	 * Constructeur vide, initialisant {@link Positionable} avec une
 	 * {@link ToricPosition} vide
@@ -23,13 +30,14 @@ public class Positionable {
 	
 	/**
 	 * Constructeur non vide, initialisant {@link Positionable} avec une
-	 * {@link ToricPosition} non vide
+	 * {@link ToricPosition} non vide. {@link ToricPosition} étant immuable, la
+	 * position est partagée sans copie.
 	 * 
 	 * @param other: {@link ToricPosition} position torique de l'instance de
 	 *               {@link Positionable}
 	 */
 	public Positionable (ToricPosition other) {
-		position = new ToricPosition(other.toVec2d());
+		position = other;
 	}
 	
 	/**
@@ -51,6 +59,24 @@ public class Positionable {
 		this.position = position;
 	}
 	
+	/**
+	 * Getter
+	 * 
+	 * @return {@code true} si l'objet est une copie fantôme
+	 */
+	final boolean isGhost() {
+		return ghost;
+	}
+	
+	/**
+	 * Setter
+	 * 
+	 * @param ghost : {@code boolean}, {@code true} pour une copie fantôme
+	 */
+	final void setGhost(boolean ghost) {
+		this.ghost = ghost;
+	}
+	
 	/**
 	 * Retourne une représentation en String de l'attribut {@link ToricPosition} de
 	 * la {@link Positionable} {@code this}
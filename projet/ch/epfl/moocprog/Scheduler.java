@@ -0,0 +1,273 @@
+package ch.epfl.moocprog;
+
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale représentant l'ordonnanceur des actions périodiques de la
+ * simulation (naissances de fourmis, génération de nourriture, rotations des
+ * animaux, évaporation complète des phéromones). Elle est détenue par
+ * {@link Environment} et déclenche chaque action uniquement lorsque son
+ * échéance est atteinte, au lieu d'évaluer chaque acteur à chaque pas de
+ * simulation.
+ * <p>
+ * L'implémentation repose sur une roue temporelle hachée ("hashed timing
+ * wheel") d'une résolution d'une milliseconde : chaque {@link Timer} est rangé
+ * dans la case correspondant à son échéance modulo le nombre de cases, ce qui
+ * rend la planification et la replanification en O(1). Les {@link Timer} sont
+ * réutilisés d'une échéance à l'autre, une replanification n'allouant donc
+ * aucun objet.
+ */
+public final class Scheduler {
+
+	/**
+	 * Valeur à retourner par {@link Task#fire(long)} pour ne plus replanifier la
+	 * tâche
+	 */
+	public static final long NEVER = Long.MIN_VALUE;
+
+	/**
+	 * Nombre de cases par défaut de la roue temporelle (environ 4 secondes de
+	 * temps simulé par tour)
+	 */
+	private static final int DEFAULT_SLOT_COUNT = 4096;
+
+	/**
+	 * Interface fonctionnelle représentant une action planifiée
+	 */
+	@FunctionalInterface
+	public interface Task {
+		/**
+		 * Déclenche l'action planifiée.
+		 *
+		 * @param time : {@code long}, échéance (en millisecondes) à laquelle l'action
+		 *             était planifiée
+		 * @return la prochaine échéance de l'action, ou {@link Scheduler#NEVER} si
+		 *         l'action ne doit plus être déclenchée
+		 */
+		long fire(long time);
+	}
+
+	/**
+	 * Classe finale représentant l'inscription d'une {@link Task} dans
+	 * l'ordonnanceur
+	 */
+	public static final class Timer {
+		/**
+		 * Échéance courante, en millisecondes
+		 */
+		private long deadline;
+		/**
+		 * Action à déclencher
+		 */
+		private final Task task;
+		/**
+		 * Timer suivant dans la même case de la roue
+		 */
+		private Timer next;
+		/**
+		 * {@code true} si le timer a été annulé
+		 */
+		private boolean cancelled;
+		/**
+		 * {@code true} si le timer est actuellement rangé dans la roue
+		 */
+		private boolean armed;
+
+		private Timer(Task task) {
+			this.task = task;
+		}
+
+		/**
+		 * Getter
+		 *
+		 * @return l'échéance courante du timer, en millisecondes
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+
+		/**
+		 * Annule le timer : sa tâche ne sera plus déclenchée et il sera retiré de la
+		 * roue lors du prochain passage sur sa case.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * @return {@code true} si le timer est en attente de son échéance (ou,
+		 *         annulé, pas encore retiré de la roue)
+		 */
+		public boolean isArmed() {
+			return armed;
+		}
+	}
+
+	/**
+	 * Cases de la roue temporelle, chacune étant une liste chaînée de
+	 * {@link Timer}
+	 */
+	private final Timer[] slots;
+	/**
+	 * Masque appliqué à une échéance pour obtenir l'indice de sa case
+	 */
+	private final int mask;
+	/**
+	 * Dernier instant (en millisecondes) traité par l'ordonnanceur
+	 */
+	private long currentTime;
+	/**
+	 * Nombre de timers actuellement inscrits
+	 */
+	private int size;
+
+	/**
+	 * Constructeur vide initialisant une instance de {@link Scheduler} avec le
+	 * nombre de cases par défaut.
+	 */
+	public Scheduler() {
+		this(DEFAULT_SLOT_COUNT);
+	}
+
+	/**
+	 * Constructeur non vide initialisant une instance de {@link Scheduler}.
+	 *
+	 * @param slotCount : {@code int}, nombre de cases de la roue temporelle
+	 * @throws IllegalArgumentException si {@code slotCount} n'est pas une
+	 *                                  puissance de deux strictement positive
+	 */
+	public Scheduler(int slotCount) throws IllegalArgumentException {
+		Utils.require("Le nombre de cases doit être une puissance de deux.", slotCount > 0 && Integer.bitCount(slotCount) == 1);
+		slots = new Timer[slotCount];
+		mask = slotCount - 1;
+		currentTime = 0L;
+		size = 0;
+	}
+
+	/**
+	 * Planifie le déclenchement de {@code task} à l'échéance {@code deadline}.
+	 * Une échéance déjà passée est déclenchée lors du prochain appel à
+	 * {@link Scheduler#advanceTo(long)}.
+	 *
+	 * @param deadline : {@code long}, échéance en millisecondes
+	 * @param task     : {@link Task}, action à déclencher
+	 * @return le {@link Timer} permettant d'annuler l'action
+	 * @throws IllegalArgumentException si {@code task} est {@code null}
+	 */
+	public Timer schedule(long deadline, Task task) throws IllegalArgumentException {
+		Timer timer = newTimer(task);
+		schedule(timer, deadline);
+		return timer;
+	}
+
+	/**
+	 * Construit un {@link Timer} non planifié pour {@code task}. Un tel timer peut
+	 * être planifié à nouveau via {@link Scheduler#schedule(Timer, long)} chaque
+	 * fois qu'il a quitté la roue, ce qui permet aux objets recyclés de conserver
+	 * leur timer.
+	 *
+	 * @param task : {@link Task}, action à déclencher
+	 * @return un nouveau {@link Timer} non planifié
+	 * @throws IllegalArgumentException si {@code task} est {@code null}
+	 */
+	public Timer newTimer(Task task) throws IllegalArgumentException {
+		Utils.requireNonNull(task);
+		return new Timer(task);
+	}
+
+	/**
+	 * Planifie le déclenchement de la tâche de {@code timer} à l'échéance
+	 * {@code deadline}.
+	 *
+	 * @param timer    : {@link Timer} obtenu de cet ordonnanceur, non planifié
+	 * @param deadline : {@code long}, échéance en millisecondes
+	 * @throws IllegalArgumentException si {@code timer} est {@code null} ou déjà
+	 *                                  planifié
+	 */
+	public void schedule(Timer timer, long deadline) throws IllegalArgumentException {
+		Utils.requireNonNull(timer);
+		Utils.require("Le timer est déjà planifié.", !timer.armed);
+		timer.deadline = deadline;
+		timer.cancelled = false;
+		timer.armed = true;
+		insert(timer);
+		++size;
+	}
+
+	/**
+	 * Fait avancer l'ordonnanceur jusqu'à l'instant {@code time} en déclenchant,
+	 * dans l'ordre chronologique, toutes les actions dont l'échéance est atteinte.
+	 * Une action replanifiée à une échéance elle aussi atteinte est de nouveau
+	 * déclenchée au cours du même appel.
+	 *
+	 * @param time : {@code long}, instant en millisecondes jusqu'auquel avancer
+	 */
+	public void advanceTo(long time) {
+		while (currentTime < time) {
+			++currentTime;
+			int index = (int) (currentTime & mask);
+
+			// La case est détachée : les timers replanifiés dans cette même case
+			// ne seront examinés qu'au tour suivant
+			Timer timer = slots[index];
+			slots[index] = null;
+
+			while (timer != null) {
+				Timer next = timer.next;
+				timer.next = null;
+
+				if (timer.cancelled) {
+					timer.armed = false;
+					--size;
+				} else if (timer.deadline > currentTime) {
+					// Échéance d'un tour ultérieur de la roue
+					timer.next = slots[index];
+					slots[index] = timer;
+				} else {
+					// Le timer quitte la roue avant le déclenchement : la tâche peut
+					// ainsi le replanifier elle-même
+					timer.armed = false;
+					--size;
+					long nextDeadline = timer.task.fire(timer.deadline);
+
+					if (nextDeadline != NEVER && !timer.cancelled && !timer.armed) {
+						schedule(timer, nextDeadline);
+					}
+				}
+				timer = next;
+			}
+		}
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le dernier instant traité par l'ordonnanceur, en millisecondes
+	 */
+	public long getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de timers actuellement inscrits (y compris ceux annulés
+	 *         qui n'ont pas encore été retirés de la roue)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Range {@code timer} dans la case correspondant à son échéance, ou dans la
+	 * case de l'instant suivant si son échéance est déjà passée.
+	 *
+	 * @param timer : {@link Timer} à ranger
+	 */
+	private void insert(Timer timer) {
+		long slotTime = Math.max(timer.deadline, currentTime + 1);
+		int index = (int) (slotTime & mask);
+		timer.next = slots[index];
+		slots[index] = timer;
+	}
+}
@@ -0,0 +1,82 @@
+package ch.epfl.moocprog;
+
+/**
+ * Classe finale représentant l'horloge de la simulation, détenue par
+ * {@link Environment}. Elle fournit le numéro du pas de simulation courant, le
+ * temps simulé écoulé et le pas de temps {@code dt} sous forme de valeurs
+ * primitives (en millisecondes), afin que les mises à jour des objets de la
+ * simulation n'aient pas à allouer d'instances de
+ * {@link ch.epfl.moocprog.utils.Time} à chaque pas.
+ */
+public final class SimulationClock {
+
+	/**
+	 * Nombre de pas de simulation effectués depuis la création de l'horloge
+	 */
+	private long tick;
+	/**
+	 * Temps simulé écoulé depuis la création de l'horloge, en millisecondes
+	 */
+	private long timeMillis;
+	/**
+	 * Durée du dernier pas de simulation, en millisecondes
+	 */
+	private long dtMillis;
+
+	/**
+	 * Constructeur vide initialisant une instance de {@link SimulationClock} au
+	 * temps zéro.
+	 */
+	public SimulationClock() {
+		tick = 0L;
+		timeMillis = 0L;
+		dtMillis = 0L;
+	}
+
+	/**
+	 * Fait avancer l'horloge d'un pas de simulation de durée {@code dtMillis}.
+	 *
+	 * @param dtMillis : {@code long}, durée du pas de simulation en millisecondes
+	 */
+	void advance(long dtMillis) {
+		this.dtMillis = dtMillis;
+		timeMillis += dtMillis;
+		++tick;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre de pas de simulation effectués
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le temps simulé écoulé à la fin du pas courant, en millisecondes
+	 */
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la durée du pas de simulation courant, en millisecondes
+	 */
+	public long getDtMillis() {
+		return dtMillis;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la durée du pas de simulation courant, en secondes
+	 */
+	public double getDtSeconds() {
+		return dtMillis / 1000d;
+	}
+}
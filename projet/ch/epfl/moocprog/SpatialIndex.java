@@ -0,0 +1,59 @@
+package ch.epfl.moocprog;
+
+import java.util.List;
+
+/**
+ * Interface décrivant un index spatial torique d'objets positionnés, reconstruit
+ * à partir d'une liste et interrogé par boîtes carrées. Les objets sont
+ * désignés par leur indice dans la liste indexée, et les requêtes rangent les
+ * indices des candidats dans le tableau retourné par
+ * {@link SpatialIndex#getGathered()}, sans allouer d'objet : à l'appelant de
+ * vérifier la distance exacte de chaque candidat.
+ * <p>
+ * Un objet peut se déplacer après la reconstruction d'au plus l'étendue
+ * transmise à {@link SpatialIndex#rebuild(List, int, int, double)} (distance
+ * torique) : les requêtes retournent alors encore tout objet dont la position
+ * courante est dans la boîte demandée.
+ */
+interface SpatialIndex {
+
+	/**
+	 * Reconstruit l'index d'après les positions courantes de {@code objects}.
+	 *
+	 * @param objects     : objets indexés, désignés ensuite par leur indice
+	 * @param worldWidth  : {@code int}, largeur du monde
+	 * @param worldHeight : {@code int}, hauteur du monde
+	 * @param extent      : {@code double}, distance maximale dont un objet peut
+	 *                    s'éloigner de sa position indexée
+	 */
+	void rebuild(List<? extends Positionable> objects, int worldWidth, int worldHeight, double extent);
+
+	/**
+	 * Sélectionne les objets susceptibles de se trouver dans la boîte torique
+	 * de centre {@code (x, y)} et de demi-côté {@code radius}, et donc tous
+	 * ceux à une distance torique inférieure ou égale à {@code radius} de ce
+	 * point. D'autres objets peuvent être sélectionnés ; aucun ne l'est deux
+	 * fois.
+	 *
+	 * @param x      : {@code double}, abscisse du centre
+	 * @param y      : {@code double}, ordonnée du centre
+	 * @param radius : {@code double}, demi-côté de la boîte
+	 * @return le nombre d'indices rangés dans {@link SpatialIndex#getGathered()}
+	 */
+	int gatherWithin(double x, double y, double radius);
+
+	/**
+	 * Getter
+	 *
+	 * @return les indices sélectionnés par la dernière requête, dans un ordre
+	 *         quelconque, valides jusqu'à la requête suivante
+	 */
+	int[] getGathered();
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre d'objets indexés
+	 */
+	int size();
+}
@@ -0,0 +1,146 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.app.Context.getConfig;
+import static ch.epfl.moocprog.config.Config.WORLD_HEIGHT;
+import static ch.epfl.moocprog.config.Config.WORLD_WIDTH;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+
+/**
+ * Vérification des index spatiaux ({@link UniformGridIndex},
+ * {@link LooseQuadtreeIndex}, {@link AdaptiveSpatialIndex}) : après une
+ * reconstruction d'étendue {@code e}, chaque objet est déplacé d'au plus
+ * {@code e}, et toute requête doit encore retourner, sans doublon, tous les
+ * objets à une distance torique inférieure ou égale au rayon demandé. Les
+ * répartitions sont uniformes, en amas, en points confondus et le long des
+ * bords du tore ; les rayons vont de zéro à plus que le monde.
+ */
+final class SpatialIndexCheck {
+	private static final int POPULATIONS = 300;
+	private static final int QUERIES = 50;
+	private static final double[] EXTENTS = {0, 1, 5, 30};
+	private static final double[] RADII = {0, 5, 20, 60, 400, 800, 2000};
+	private static final String[] LAYOUTS = {"uniform", "clustered", "stacked", "edges"};
+
+	private SpatialIndexCheck() {}
+
+	public static void main(String[] args) {
+		ApplicationInitializer.initializeApplication(
+			new ImmutableConfigManager(
+				new File("res/app.cfg")
+			)
+		);
+		final int width  = getConfig().getInt(WORLD_WIDTH);
+		final int height = getConfig().getInt(WORLD_HEIGHT);
+		Random random = new Random(11);
+
+		SpatialIndex[] indexes = {new UniformGridIndex(), new LooseQuadtreeIndex(), new AdaptiveSpatialIndex()};
+		long queries = 0;
+		long misses = 0;
+		long duplicates = 0;
+		int[] quadtreeChoices = new int[LAYOUTS.length];
+		for (int t = 0; t < POPULATIONS; ++t) {
+			int layout = t % LAYOUTS.length;
+			double extent = EXTENTS[(t / LAYOUTS.length) % EXTENTS.length];
+			List<MovingObject> objects = populate(LAYOUTS[layout], random.nextInt(2000), width, height, random);
+			for (SpatialIndex index : indexes) {
+				index.rebuild(objects, width, height, extent);
+			}
+			if (((AdaptiveSpatialIndex) indexes[2]).usesQuadtree()) {
+				++quadtreeChoices[layout];
+			}
+
+			// Chaque objet s'éloigne d'au plus l'étendue de sa position indexée
+			for (MovingObject object : objects) {
+				double angle = random.nextDouble() * 2 * Math.PI;
+				double distance = random.nextDouble() * extent;
+				object.moveBy(Math.cos(angle) * distance, Math.sin(angle) * distance);
+			}
+
+			boolean[] gathered = new boolean[objects.size()];
+			for (int q = 0; q < QUERIES; ++q) {
+				ToricPosition center = new ToricPosition(random.nextDouble() * width, random.nextDouble() * height);
+				double radius = RADII[random.nextInt(RADII.length)];
+				for (SpatialIndex index : indexes) {
+					++queries;
+					int count = index.gatherWithin(center.toVec2d().getX(), center.toVec2d().getY(), radius);
+					int[] candidates = index.getGathered();
+					for (int k = 0; k < count; ++k) {
+						if (gathered[candidates[k]]) {
+							++duplicates;
+						}
+						gathered[candidates[k]] = true;
+					}
+					for (int i = 0; i < objects.size(); ++i) {
+						if (!gathered[i] && center.toricDistance(objects.get(i).getPosition()) <= radius) {
+							++misses;
+							if (misses <= 5) {
+								System.out.printf("miss : %s, %s layout, %d objects, extent %.0f, radius %.0f%n",
+										index.getClass().getSimpleName(), LAYOUTS[layout], objects.size(), extent, radius);
+							}
+						}
+					}
+					for (int k = 0; k < count; ++k) {
+						gathered[candidates[k]] = false;
+					}
+				}
+			}
+		}
+
+		for (int layout = 0; layout < LAYOUTS.length; ++layout) {
+			System.out.printf("%-9s : adaptive index chose the quadtree %d times out of %d%n", LAYOUTS[layout],
+					quadtreeChoices[layout], POPULATIONS / LAYOUTS.length);
+		}
+		System.out.println(queries + " queries, " + misses + " misses, " + duplicates + " duplicates");
+		if (misses > 0 || duplicates > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Crée {@code count} objets disposés selon {@code layout}.
+	 */
+	private static List<MovingObject> populate(String layout, int count, int width, int height, Random random) {
+		List<MovingObject> objects = new ArrayList<MovingObject>(count);
+		for (int i = 0; i < count; ++i) {
+			double x;
+			double y;
+			if (layout.equals("clustered")) {
+				x = width / 2 + random.nextGaussian() * 50;
+				y = height / 2 + random.nextGaussian() * 50;
+			} else if (layout.equals("stacked")) {
+				// La moitié des objets en un seul point, au-delà de la profondeur
+				// maximale de l'arbre
+				x = random.nextBoolean() ? 20 : random.nextDouble() * width;
+				y = (x == 20) ? 30 : random.nextDouble() * height;
+			} else if (layout.equals("edges")) {
+				x = random.nextBoolean() ? random.nextDouble() * 3 : width - random.nextDouble() * 3;
+				y = random.nextDouble() * height;
+			} else {
+				x = random.nextDouble() * width;
+				y = random.nextDouble() * height;
+			}
+			objects.add(new MovingObject(new ToricPosition(x, y)));
+		}
+		return objects;
+	}
+
+	/**
+	 * Objet positionné déplaçable, indexé par les index vérifiés
+	 */
+	private static final class MovingObject extends Positionable {
+		private MovingObject(ToricPosition position) {
+			super(position);
+		}
+
+		private void moveBy(double dx, double dy) {
+			setPosition(getPosition().add(dx, dy));
+		}
+	}
+}
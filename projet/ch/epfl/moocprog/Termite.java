@@ -172,7 +172,22 @@ public final class Termite extends Animal {
 	@Override
 	public final boolean isEnemy(Animal otherAnimal) throws IllegalArgumentException {
 		Utils.requireNonNull(otherAnimal);
-		return !this.isDead() && !otherAnimal.isDead() && otherAnimal.isEnemyDispatch(this);
+		return !this.isDead() && !otherAnimal.isDead() && isHostile(otherAnimal);
+	}
+	
+	/**
+	 * Méthode finale redéfinie définissant si {@code other} est ennemie de
+	 * l'instance {@code this} de {@link Termite}, par l'appel à
+	 * {@link Animal#isEnemyDispatch(Termite)}, indépendamment de l'état des deux
+	 * animaux
+	 * 
+	 * @param other : autre instance de {@link Animal}
+	 * @return {@code true} si {@code other} est ennemie de {@code this}, ou
+	 *         {@code false} dans le cas inverse
+	 */
+	@Override
+	final boolean isHostile(Animal other) {
+		return other.isEnemyDispatch(this);
 	}
 	
 	/**
@@ -0,0 +1,500 @@
+package ch.epfl.moocprog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.moocprog.Animal.State;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Classe finale assurant, pour un {@link Environment} restreint à une tuile
+ * d'un {@link TileLayout}, l'échange périodique avec les tuiles voisines d'une
+ * simulation répartie. Après chaque {@link Environment#update(Time)}, un
+ * échange se déroule en trois temps :
+ * <ol>
+ * <li>{@link TileExchange#beginExchange()} prépare pour chaque voisine un
+ * message contenant les effets subis par ses fantômes au cours du pas (points
+ * de vie perdus, attaque, nourriture prélevée), les objets détenus ayant
+ * franchi le bord de la tuile vers elle (migrants), et une copie des objets
+ * détenus situés dans son halo ;</li>
+ * <li>l'appelant transmet chaque message ({@link TileExchange#getOutbound(int)})
+ * et remet ceux reçus ({@link TileExchange#receive(int, byte[])}) ;</li>
+ * <li>{@link TileExchange#endExchange()} applique les effets aux objets
+ * détenus, adopte les migrants et installe les fantômes reçus.</li>
+ * </ol>
+ * Le transport est laissé à l'appelant (voir
+ * {@link ch.epfl.moocprog.distributed.TileWorker}). Les effets subis par un
+ * fantôme parviennent à l'objet détenu avec un pas de retard ; ceux qui visent
+ * un objet ayant entre-temps migré sont perdus.
+ */
+public final class TileExchange {
+
+	// Sortes d'animaux transmises
+	private static final byte WORKER = 0;
+	private static final byte SOLDIER = 1;
+	private static final byte TERMITE = 2;
+
+	private final Environment environment;
+	private final TileLayout layout;
+	private final int tile;
+	private final int[] neighbours;
+
+	/**
+	 * Par voisine : objets détenus envoyés comme fantômes au dernier échange
+	 * (destinataires des effets reçus) et à l'échange en cours
+	 */
+	private final List<List<Animal>> sentAnimals, previousSentAnimals;
+	private final List<List<Food>> sentFood, previousSentFood;
+
+	/**
+	 * Par voisine : fantômes reçus au dernier échange et leur état à la
+	 * réception, pour en déduire les effets subis
+	 */
+	private final List<List<Animal>> ghostAnimals;
+	private final List<int[]> ghostHitpoints;
+	private final List<List<Food>> ghostFood;
+	private final List<double[]> ghostQuantities;
+
+	private final byte[][] outbound;
+	private final byte[][] inbound;
+
+	/**
+	 * Constructeur non vide initialisant un {@link TileExchange} et restreignant
+	 * {@code environment} à la tuile {@code tile}. Doit être appelé avant de
+	 * peupler l'environnement.
+	 *
+	 * @param environment : {@link Environment} simulant la tuile
+	 * @param layout      : {@link TileLayout}, découpage du monde
+	 * @param tile        : {@code int}, numéro de la tuile détenue
+	 * @throws IllegalArgumentException si un argument est {@code null} ou si
+	 *                                  {@code tile} n'existe pas
+	 */
+	public TileExchange(Environment environment, TileLayout layout, int tile) throws IllegalArgumentException {
+		Utils.requireNonNull(environment);
+		Utils.requireNonNull(layout);
+		Utils.require("Tuile inconnue : " + tile, tile >= 0 && tile < layout.getTileCount());
+		this.environment = environment;
+		this.layout = layout;
+		this.tile = tile;
+		this.neighbours = layout.neighbours(tile);
+
+		sentAnimals = newLists();
+		previousSentAnimals = newLists();
+		sentFood = newLists();
+		previousSentFood = newLists();
+		ghostAnimals = newLists();
+		ghostFood = newLists();
+		ghostHitpoints = new ArrayList<int[]>();
+		ghostQuantities = new ArrayList<double[]>();
+		for (int i = 0; i < neighbours.length; ++i) {
+			ghostHitpoints.add(new int[0]);
+			ghostQuantities.add(new double[0]);
+		}
+		outbound = new byte[neighbours.length][];
+		inbound = new byte[neighbours.length][];
+
+		environment.setOwnership(position -> layout.tileOf(position) == tile);
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return les numéros des tuiles voisines, par ordre croissant (l'indice d'une
+	 *         voisine dans ce tableau est celui employé par les autres méthodes)
+	 */
+	public int[] getNeighbours() {
+		return neighbours.clone();
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le numéro de la tuile détenue
+	 */
+	public int getTile() {
+		return tile;
+	}
+
+	/**
+	 * Prépare les messages de l'échange courant à destination de chaque voisine.
+	 *
+	 * @throws IOException en cas d'erreur d'encodage
+	 */
+	public void beginExchange() throws IOException {
+		ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[neighbours.length];
+		DataOutputStream[] outs = new DataOutputStream[neighbours.length];
+		for (int n = 0; n < neighbours.length; ++n) {
+			buffers[n] = new ByteArrayOutputStream();
+			outs[n] = new DataOutputStream(buffers[n]);
+			writeEffects(n, outs[n]);
+		}
+		environment.removeGhosts();
+
+		writeMigrants(outs);
+		writeHalo(outs);
+
+		for (int n = 0; n < neighbours.length; ++n) {
+			outs[n].flush();
+			outbound[n] = buffers[n].toByteArray();
+			inbound[n] = null;
+		}
+	}
+
+	/**
+	 * Retourne le message de l'échange courant destiné à la voisine d'indice
+	 * {@code neighbour}.
+	 *
+	 * @param neighbour : {@code int}, indice de la voisine dans
+	 *                  {@link TileExchange#getNeighbours()}
+	 * @return le message à transmettre
+	 */
+	public byte[] getOutbound(int neighbour) {
+		return outbound[neighbour];
+	}
+
+	/**
+	 * Remet le message de l'échange courant reçu de la voisine d'indice
+	 * {@code neighbour}.
+	 *
+	 * @param neighbour : {@code int}, indice de la voisine dans
+	 *                  {@link TileExchange#getNeighbours()}
+	 * @param message   : message reçu
+	 */
+	public void receive(int neighbour, byte[] message) {
+		Utils.requireNonNull(message);
+		inbound[neighbour] = message;
+	}
+
+	/**
+	 * Applique les messages reçus de toutes les voisines.
+	 *
+	 * @throws IOException              en cas de message tronqué
+	 * @throws IllegalArgumentException si un message manque
+	 */
+	public void endExchange() throws IOException, IllegalArgumentException {
+		for (int n = 0; n < neighbours.length; ++n) {
+			Utils.require("Message manquant de la tuile " + neighbours[n], inbound[n] != null);
+		}
+		for (int n = 0; n < neighbours.length; ++n) {
+			readMessage(n, new DataInputStream(new ByteArrayInputStream(inbound[n])));
+			inbound[n] = null;
+		}
+	}
+
+	/**
+	 * Écrit les effets subis, depuis leur réception, par les fantômes de la
+	 * voisine d'indice {@code n} : seuls les fantômes affectés sont transmis,
+	 * désignés par leur rang dans le message qui les a créés.
+	 */
+	private void writeEffects(int n, DataOutputStream out) throws IOException {
+		List<Animal> animals = ghostAnimals.get(n);
+		int[] hitpoints = ghostHitpoints.get(n);
+		int count = 0;
+		for (int i = 0; i < animals.size(); ++i) {
+			if (isAffected(animals.get(i), hitpoints[i])) {
+				++count;
+			}
+		}
+		out.writeInt(count);
+		for (int i = 0; i < animals.size(); ++i) {
+			Animal animal = animals.get(i);
+			if (isAffected(animal, hitpoints[i])) {
+				out.writeInt(i);
+				out.writeInt(animal.getHitpoints() - hitpoints[i]);
+				out.writeBoolean(animal.getState() == State.ATTACK);
+			}
+		}
+
+		List<Food> foods = ghostFood.get(n);
+		double[] quantities = ghostQuantities.get(n);
+		count = 0;
+		for (int i = 0; i < foods.size(); ++i) {
+			if (foods.get(i).getQuantity() < quantities[i]) {
+				++count;
+			}
+		}
+		out.writeInt(count);
+		for (int i = 0; i < foods.size(); ++i) {
+			double taken = quantities[i] - foods.get(i).getQuantity();
+			if (taken > 0.0) {
+				out.writeInt(i);
+				out.writeDouble(taken);
+			}
+		}
+	}
+
+	/**
+	 * Un fantôme est affecté s'il a perdu des points de vie ou s'il a été
+	 * attaqué (les fantômes étant transmis hors combat, voir
+	 * {@link TileExchange#writeAnimal(DataOutputStream, Animal, boolean)}).
+	 */
+	private static boolean isAffected(Animal ghost, int hitpoints) {
+		return ghost.getHitpoints() != hitpoints || ghost.getState() == State.ATTACK;
+	}
+
+	/**
+	 * Retire de l'environnement les animaux et phéromones détenus situés hors de
+	 * la tuile et les écrit dans le message de la voisine qui les détient
+	 * désormais.
+	 */
+	private void writeMigrants(DataOutputStream[] outs) throws IOException {
+		List<Animal> animals = new ArrayList<Animal>();
+		environment.extractAnimals(a -> !environment.isOwned(a.getPosition()) && indexOf(layout.tileOf(a.getPosition())) >= 0, animals);
+
+		List<ToricPosition> positions = new ArrayList<ToricPosition>();
+		List<Double> quantities = new ArrayList<Double>();
+		environment.extractPheromones(p -> !environment.isOwned(p.getPosition()) && indexOf(layout.tileOf(p.getPosition())) >= 0, positions, quantities);
+
+		List<List<Animal>> animalsByNeighbour = newLists();
+		for (Animal animal : animals) {
+			animalsByNeighbour.get(indexOf(layout.tileOf(animal.getPosition()))).add(animal);
+		}
+		List<List<Integer>> pheromonesByNeighbour = newLists();
+		for (int i = 0; i < positions.size(); ++i) {
+			pheromonesByNeighbour.get(indexOf(layout.tileOf(positions.get(i)))).add(i);
+		}
+
+		for (int n = 0; n < neighbours.length; ++n) {
+			DataOutputStream out = outs[n];
+			out.writeInt(animalsByNeighbour.get(n).size());
+			for (Animal animal : animalsByNeighbour.get(n)) {
+				writeAnimal(out, animal, false);
+			}
+			out.writeInt(pheromonesByNeighbour.get(n).size());
+			for (int i : pheromonesByNeighbour.get(n)) {
+				writePositionable(out, positions.get(i), quantities.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Écrit dans le message de chaque voisine une copie des objets détenus situés
+	 * dans son halo. Un objet éloigné des bords de la tuile de plus que le halo
+	 * n'est proche d'aucune voisine et n'est pas examiné davantage.
+	 */
+	private void writeHalo(DataOutputStream[] outs) throws IOException {
+		// Les envois de l'échange précédent restent les destinataires des effets
+		// reçus au cours de cet échange
+		for (int n = 0; n < neighbours.length; ++n) {
+			previousSentAnimals.get(n).clear();
+			previousSentAnimals.get(n).addAll(sentAnimals.get(n));
+			sentAnimals.get(n).clear();
+			previousSentFood.get(n).clear();
+			previousSentFood.get(n).addAll(sentFood.get(n));
+			sentFood.get(n).clear();
+		}
+
+		List<List<Pheromone>> sentPheromones = newLists();
+		for (Animal animal : environment.getAnimals()) {
+			if (!animal.isDead()) {
+				for (int n : haloNeighbours(animal.getPosition())) {
+					sentAnimals.get(n).add(animal);
+				}
+			}
+		}
+		for (Food food : environment.getFoods()) {
+			if (food.getQuantity() > 0.0) {
+				for (int n : haloNeighbours(food.getPosition())) {
+					sentFood.get(n).add(food);
+				}
+			}
+		}
+		for (Pheromone pheromone : environment.getPheromones()) {
+			if (!pheromone.isNegligible()) {
+				for (int n : haloNeighbours(pheromone.getPosition())) {
+					sentPheromones.get(n).add(pheromone);
+				}
+			}
+		}
+
+		for (int n = 0; n < neighbours.length; ++n) {
+			DataOutputStream out = outs[n];
+			out.writeInt(sentAnimals.get(n).size());
+			for (Animal animal : sentAnimals.get(n)) {
+				writeAnimal(out, animal, true);
+			}
+			out.writeInt(sentFood.get(n).size());
+			for (Food food : sentFood.get(n)) {
+				writePositionable(out, food.getPosition(), food.getQuantity());
+			}
+			out.writeInt(sentPheromones.get(n).size());
+			for (Pheromone pheromone : sentPheromones.get(n)) {
+				writePositionable(out, pheromone.getPosition(), pheromone.getQuantity());
+			}
+		}
+	}
+
+	/**
+	 * Indices des voisines dont le halo contient {@code position}.
+	 */
+	private List<Integer> haloNeighbours(ToricPosition position) {
+		List<Integer> result = new ArrayList<Integer>(2);
+		Vec2d v = position.toVec2d();
+		for (int n = 0; n < neighbours.length; ++n) {
+			if (layout.isWithinHalo(neighbours[n], v.getX(), v.getY())) {
+				result.add(n);
+			}
+		}
+		return result;
+	}
+
+	private void readMessage(int n, DataInputStream in) throws IOException {
+		// Effets subis par nos objets chez la voisine, au dernier échange
+		List<Animal> targets = previousSentAnimals.get(n);
+		for (int count = in.readInt(); count > 0; --count) {
+			int index = in.readInt();
+			int hitpointsDelta = in.readInt();
+			boolean attacked = in.readBoolean();
+			if (index < targets.size()) {
+				Animal animal = targets.get(index);
+				animal.setHitpoints(animal.getHitpoints() + hitpointsDelta);
+				if (attacked) {
+					animal.setState(State.ATTACK);
+				}
+			}
+		}
+		List<Food> foods = previousSentFood.get(n);
+		for (int count = in.readInt(); count > 0; --count) {
+			int index = in.readInt();
+			double taken = in.readDouble();
+			if (index < foods.size()) {
+				environment.takeFood(foods.get(index), taken);
+			}
+		}
+
+		// Migrants
+		for (int count = in.readInt(); count > 0; --count) {
+			environment.addAnimal(readAnimal(in));
+		}
+		for (int count = in.readInt(); count > 0; --count) {
+			ToricPosition position = new ToricPosition(in.readDouble(), in.readDouble());
+			environment.addPheromone(position, in.readDouble());
+		}
+
+		// Fantômes
+		List<Animal> animals = ghostAnimals.get(n);
+		animals.clear();
+		int[] hitpoints = new int[in.readInt()];
+		for (int i = 0; i < hitpoints.length; ++i) {
+			Animal animal = readAnimal(in);
+			hitpoints[i] = animal.getHitpoints();
+			animals.add(animal);
+			environment.addGhost(animal);
+		}
+		ghostHitpoints.set(n, hitpoints);
+
+		List<Food> ghosts = ghostFood.get(n);
+		ghosts.clear();
+		double[] quantities = new double[in.readInt()];
+		for (int i = 0; i < quantities.length; ++i) {
+			Food food = new Food(new ToricPosition(in.readDouble(), in.readDouble()), in.readDouble());
+			quantities[i] = food.getQuantity();
+			ghosts.add(food);
+			environment.addGhost(food);
+		}
+		ghostQuantities.set(n, quantities);
+
+		for (int count = in.readInt(); count > 0; --count) {
+			ToricPosition position = new ToricPosition(in.readDouble(), in.readDouble());
+			environment.addGhost(new Pheromone(position, in.readDouble()));
+		}
+	}
+
+	/**
+	 * Écrit l'état complet de {@code animal}. Un fantôme ({@code ghost}) est
+	 * transmis hors combat ({@link State#ATTACK} devient {@link State#IDLE}) afin
+	 * que toute attaque subie chez la voisine soit détectable.
+	 */
+	private static void writeAnimal(DataOutputStream out, Animal animal, boolean ghost) throws IOException {
+		Vec2d v = animal.getPosition().toVec2d();
+		byte kind = (animal instanceof AntWorker) ? WORKER : (animal instanceof AntSoldier) ? SOLDIER : TERMITE;
+		out.writeByte(kind);
+		out.writeDouble(v.getX());
+		out.writeDouble(v.getY());
+		out.writeDouble(animal.getDirection());
+		out.writeInt(animal.getHitpoints());
+		out.writeLong(animal.getLifespanMillis());
+		State state = animal.getState();
+		out.writeByte((ghost && state == State.ATTACK) ? State.IDLE.ordinal() : state.ordinal());
+		out.writeLong(animal.getAttackDurationMillis());
+
+		if (animal instanceof Ant) {
+			Ant ant = (Ant) animal;
+			out.writeLong(ant.getAnthillId().toLong());
+			ToricPosition lastPos = ant.getLastPosition();
+			out.writeBoolean(lastPos != null);
+			if (lastPos != null) {
+				out.writeDouble(lastPos.toVec2d().getX());
+				out.writeDouble(lastPos.toVec2d().getY());
+			}
+			if (ant instanceof AntWorker) {
+				out.writeDouble(((AntWorker) ant).getFoodQuantity());
+			}
+		}
+	}
+
+	private static Animal readAnimal(DataInputStream in) throws IOException {
+		byte kind = in.readByte();
+		ToricPosition position = new ToricPosition(in.readDouble(), in.readDouble());
+		double direction = in.readDouble();
+		int hitpoints = in.readInt();
+		long lifespan = in.readLong();
+		State state = State.values()[in.readByte()];
+		long attackDuration = in.readLong();
+
+		Animal animal;
+		if (kind == TERMITE) {
+			animal = new Termite(position);
+		} else {
+			Uid anthillId = Uid.fromLong(in.readLong());
+			Ant ant = (kind == WORKER) ? new AntWorker(position, anthillId) : new AntSoldier(position, anthillId);
+			if (in.readBoolean()) {
+				ant.setLastPosition(new ToricPosition(in.readDouble(), in.readDouble()));
+			} else {
+				ant.setLastPosition(null);
+			}
+			if (kind == WORKER) {
+				((AntWorker) ant).setFoodQuantity(in.readDouble());
+			}
+			animal = ant;
+		}
+
+		animal.setDirection(direction);
+		animal.setHitpoints(hitpoints);
+		animal.setLifespanMillis(lifespan);
+		animal.setState(state);
+		animal.setAttackDurationMillis(attackDuration);
+		return animal;
+	}
+
+	private static void writePositionable(DataOutputStream out, ToricPosition position, double quantity) throws IOException {
+		Vec2d v = position.toVec2d();
+		out.writeDouble(v.getX());
+		out.writeDouble(v.getY());
+		out.writeDouble(quantity);
+	}
+
+	private int indexOf(int otherTile) {
+		for (int n = 0; n < neighbours.length; ++n) {
+			if (neighbours[n] == otherTile) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
+	private <T> List<List<T>> newLists() {
+		List<List<T>> lists = new ArrayList<List<T>>(neighbours.length);
+		for (int i = 0; i < neighbours.length; ++i) {
+			lists.add(new ArrayList<T>());
+		}
+		return lists;
+	}
+}
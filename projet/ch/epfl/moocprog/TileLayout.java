@@ -0,0 +1,181 @@
+package ch.epfl.moocprog;
+
+import static ch.epfl.moocprog.config.Config.ANIMAL_SIGHT_DISTANCE;
+import static ch.epfl.moocprog.config.Config.ANT_MAX_PERCEPTION_DISTANCE;
+import static ch.epfl.moocprog.config.Config.ANT_SMELL_MAX_DISTANCE;
+import static ch.epfl.moocprog.config.Config.WORLD_HEIGHT;
+import static ch.epfl.moocprog.config.Config.WORLD_WIDTH;
+
+import java.util.Arrays;
+
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale décrivant le découpage du monde torique en
+ * {@code columns x rows} tuiles rectangulaires de même taille, numérotées
+ * ligne par ligne à partir de zéro. Chaque tuile est simulée par un processus
+ * distinct (voir {@link TileExchange}) ; la largeur du halo, bande bordant une
+ * tuile dont les objets doivent être visibles de ses voisines, est la plus
+ * grande des distances de perception du fichier de configuration initial.
+ */
+public final class TileLayout {
+	private final int columns;
+	private final int rows;
+	private final double worldWidth;
+	private final double worldHeight;
+	private final double tileWidth;
+	private final double tileHeight;
+	private final double halo;
+
+	/**
+	 * Constructeur non vide initialisant un {@link TileLayout}.
+	 *
+	 * @param columns     : {@code int}, nombre de colonnes de tuiles
+	 * @param rows        : {@code int}, nombre de lignes de tuiles
+	 * @param worldWidth  : {@code double}, largeur du monde
+	 * @param worldHeight : {@code double}, hauteur du monde
+	 * @param halo        : {@code double}, largeur du halo
+	 * @throws IllegalArgumentException si un paramètre n'est pas strictement
+	 *                                  positif ou si une tuile est plus étroite
+	 *                                  que le halo (le halo d'une tuile ne doit
+	 *                                  atteindre que ses voisines immédiates)
+	 */
+	public TileLayout(int columns, int rows, double worldWidth, double worldHeight, double halo) throws IllegalArgumentException {
+		Utils.require("Le découpage doit compter au moins une tuile.", columns > 0 && rows > 0);
+		Utils.require("Les dimensions du monde doivent être strictement positives.", worldWidth > 0 && worldHeight > 0);
+		Utils.require("Le halo doit être positif.", halo >= 0);
+		this.columns = columns;
+		this.rows = rows;
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+		this.tileWidth = worldWidth / columns;
+		this.tileHeight = worldHeight / rows;
+		this.halo = halo;
+		Utils.require("Les tuiles doivent être plus larges que le halo (" + halo + ").", (columns == 1 || tileWidth >= halo) && (rows == 1 || tileHeight >= halo));
+	}
+
+	/**
+	 * Construit le découpage en {@code columns x rows} tuiles du monde défini par
+	 * le fichier de configuration initial, le halo valant le maximum de
+	 * {@code ANIMAL_SIGHT_DISTANCE}, {@code ANT_SMELL_MAX_DISTANCE} et
+	 * {@code ANT_MAX_PERCEPTION_DISTANCE}.
+	 *
+	 * @param columns : {@code int}, nombre de colonnes de tuiles
+	 * @param rows    : {@code int}, nombre de lignes de tuiles
+	 * @return le découpage
+	 * @throws IllegalArgumentException si le découpage est incohérent
+	 */
+	public static TileLayout fromConfig(int columns, int rows) throws IllegalArgumentException {
+		double halo = Math.max(Context.getConfig().getDouble(ANIMAL_SIGHT_DISTANCE),
+				Math.max(Context.getConfig().getDouble(ANT_SMELL_MAX_DISTANCE), Context.getConfig().getDouble(ANT_MAX_PERCEPTION_DISTANCE)));
+		return new TileLayout(columns, rows, Context.getConfig().getInt(WORLD_WIDTH), Context.getConfig().getInt(WORLD_HEIGHT), halo);
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le nombre total de tuiles
+	 */
+	public int getTileCount() {
+		return columns * rows;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la largeur du halo
+	 */
+	public double getHalo() {
+		return halo;
+	}
+
+	/**
+	 * Retourne la tuile contenant le point {@code (x, y)}, ramené dans le monde.
+	 *
+	 * @param x : {@code double}, abscisse
+	 * @param y : {@code double}, ordonnée
+	 * @return le numéro de la tuile
+	 */
+	public int tileOf(double x, double y) {
+		int column = Math.min(columns - 1, (int) (wrap(x, worldWidth) / tileWidth));
+		int row = Math.min(rows - 1, (int) (wrap(y, worldHeight) / tileHeight));
+		return row * columns + column;
+	}
+
+	/**
+	 * Retourne la tuile contenant {@code position}.
+	 *
+	 * @param position : {@link ToricPosition}
+	 * @return le numéro de la tuile
+	 */
+	public int tileOf(ToricPosition position) {
+		return tileOf(position.toVec2d().getX(), position.toVec2d().getY());
+	}
+
+	/**
+	 * Teste si le point {@code (x, y)} se trouve à une distance torique de la
+	 * tuile {@code tile} inférieure ou égale au halo.
+	 *
+	 * @param tile : {@code int}, numéro de la tuile
+	 * @param x    : {@code double}, abscisse
+	 * @param y    : {@code double}, ordonnée
+	 * @return {@code true} si le point est dans le halo (ou dans la tuile)
+	 */
+	public boolean isWithinHalo(int tile, double x, double y) {
+		double x0 = (tile % columns) * tileWidth;
+		double y0 = (tile / columns) * tileHeight;
+		double dx = distanceToInterval(wrap(x, worldWidth), x0, x0 + tileWidth, worldWidth);
+		double dy = distanceToInterval(wrap(y, worldHeight), y0, y0 + tileHeight, worldHeight);
+		return dx * dx + dy * dy <= halo * halo;
+	}
+
+	/**
+	 * Retourne les tuiles voisines (bords et coins, sur le tore) de {@code tile},
+	 * sans doublon ni {@code tile} elle-même, par ordre croissant.
+	 *
+	 * @param tile : {@code int}, numéro de la tuile
+	 * @return les numéros des tuiles voisines
+	 */
+	public int[] neighbours(int tile) {
+		int column = tile % columns;
+		int row = tile / columns;
+		int[] result = new int[8];
+		int count = 0;
+
+		for (int dr = -1; dr <= 1; ++dr) {
+			for (int dc = -1; dc <= 1; ++dc) {
+				int other = Math.floorMod(row + dr, rows) * columns + Math.floorMod(column + dc, columns);
+				boolean known = (other == tile);
+				for (int i = 0; i < count && !known; ++i) {
+					known = (result[i] == other);
+				}
+				if (!known) {
+					result[count++] = other;
+				}
+			}
+		}
+
+		int[] neighbours = Arrays.copyOf(result, count);
+		Arrays.sort(neighbours);
+		return neighbours;
+	}
+
+	/**
+	 * Distance sur le cercle de longueur {@code size} entre {@code v} et
+	 * l'intervalle {@code [from, to[}.
+	 */
+	private static double distanceToInterval(double v, double from, double to, double size) {
+		if (v >= from && v < to) {
+			return 0.0;
+		}
+		double toFrom = Math.abs(v - from);
+		double toTo = Math.abs(v - to);
+		return Math.min(Math.min(toFrom, size - toFrom), Math.min(toTo, size - toTo));
+	}
+
+	private static double wrap(double v, double size) {
+		double r = v % size;
+		return (r < 0) ? r + size : r;
+	}
+}
@@ -0,0 +1,16 @@
+package ch.epfl.moocprog;
+
+/**
+ * Interface implémentée par {@link Environment} donnant accès au temps simulé
+ * de son {@link SimulationClock}. Elle est héritée par les vues des objets dont
+ * le comportement est périodique ({@link AnimalEnvironmentView},
+ * {@link AnthillEnvironmentView} et {@link FoodGeneratorEnvironmentView}).
+ */
+public interface TimedEnvironmentView {
+
+	/**
+	 * @return le temps simulé écoulé à la fin du pas de simulation courant, en
+	 *         millisecondes
+	 */
+	public long getSimulationTime();
+}
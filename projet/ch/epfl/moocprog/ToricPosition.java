@@ -4,6 +4,8 @@ import static ch.epfl.moocprog.app.Context.getConfig;
 import static ch.epfl.moocprog.config.Config.WORLD_HEIGHT;
 import static ch.epfl.moocprog.config.Config.WORLD_WIDTH;
 
+import ch.epfl.moocprog.config.ConfigManager;
+import ch.epfl.moocprog.utils.MutableVec2d;
 import ch.epfl.moocprog.utils.Vec2d;
 
 /**
@@ -16,6 +18,15 @@ public final class ToricPosition {
 	 * {@link Vec2d} d'un objet quelconque de l'environnement
 	 */
 	private final Vec2d position;
+
+	/**
+	 * Dimensions du monde lues dans la dernière configuration rencontrée : elles
+	 * ne sont relues que lorsque la configuration est remplacée (voir
+	 * {@link ch.epfl.moocprog.app.Application#applyPendingConfig()}). Une seule
+	 * référence vers un objet immuable, pour qu'un fil d'exécution ne lise
+	 * jamais la largeur d'une configuration et la hauteur d'une autre.
+	 */
+	private static volatile WorldSize worldSize;
 	
 	/**
 	 * Constructeur vide, initialisant {@link ToricPosition} aux origines de
@@ -85,8 +96,9 @@ public final class ToricPosition {
 	 *         et y projetées dans l'environnement torique
 	 */
 	private static Vec2d clampedPosition (double x, double y) {
-		final int WIDTH = getConfig().getInt(WORLD_WIDTH);
-		final int HEIGHT = getConfig().getInt(WORLD_HEIGHT);
+		final WorldSize size = worldSize();
+		final int WIDTH = size.width;
+		final int HEIGHT = size.height;
 		
 		
 		while (x < 0 || x >= WIDTH) {
@@ -134,6 +146,21 @@ public final class ToricPosition {
 		return new ToricPosition((this.toVec2d()).add(vec));
 	}
 	
+	/**
+	 * Construit une nouvelle {@link ToricPosition} correspondant à l'adition
+	 * composant par composant entre {@code this} et le déplacement
+	 * {@code (dx, dy)}, sans construire de {@link Vec2d} intermédiaire.
+	 * 
+	 * @param dx : double, déplacement sur l'axe des abscisses
+	 * @param dy : double, déplacement sur l'axe des ordonnées
+	 * @return une nouvelle instance de {@link ToricPosition} correspondant à
+	 *         l'adition de {@code this} et {@code (dx, dy)}
+	 */
+	public ToricPosition add (double dx, double dy) {
+		
+		return new ToricPosition(position.getX() + dx, position.getY() + dy);
+	}
+	
 	/**
 	 * Renvoie un {@link Vec2d} représentant la plus petite distance entre les
 	 * {@link ToricPosition} {@code this} et {@code that}
@@ -144,71 +171,109 @@ public final class ToricPosition {
 	 *         {@link ToricPosition} {@code that}
 	 */
 	public Vec2d toricVector(ToricPosition that) {
-		final int WIDTH = getConfig().getInt(WORLD_WIDTH);
-		final int HEIGHT = getConfig().getInt(WORLD_HEIGHT);
-		
-		Vec2d reponse = new Vec2d(0.0, 0.0);
-		
-		
-		// Calcul de la plus grande distance possible dans un environnement non torrique
-		// de dimensions x=WIDTH et y=HEIGHT
-		Vec2d min = new Vec2d (0.0, 0.0);
-		Vec2d max = new Vec2d (WIDTH-1, HEIGHT-1);
-		double distanceMin = min.distance(max);
-		
-		double distanceEnCours;
-		
-		
-		// Constitution d'une liste de 9 candidats Vec2d dérivés de la ToricPosition that, 
-		// prenant en compte les dimensions x=WIDTH et y=HEIGHT de l'environnement
-		// torique,
-		// et comprenant :
-		// - that lui même ;
-		// - that augmenté ou décrémenté de Vec2d (0 , HEIGHT) ;
-		// - that augmenté ou décrémenté de Vec2d (WIDTH, 0) ;
-		// - that augmenté de de Vec2d (+/- WIDTH, +/- HEIGHT), dans chacune des 4
-		// combinaisons possibles
-		Vec2d[] candidats = new Vec2d[9];
-		int index = 0;
-		
-		for (int i = -1; i < 2; ++i) {
-			for (int j = -1; j < 2; ++j) {
-				double x = (that.toVec2d().getX() + (i * WIDTH));
-				double y = (that.toVec2d().getY() + (j * HEIGHT));
-				candidats[index] = new Vec2d (x, y);
-				++index;
-			}
-		}
-		
-		// Détermination du candidat Vec2d qui permet d'avoir la plus petite distance
-		// entre lui et le Vec2d issu de la ToricPosition this
-		
-		for (Vec2d candidat : candidats) {
-			distanceEnCours = this.toVec2d().distance(candidat);
-			if (distanceEnCours < distanceMin) {
-				distanceMin = distanceEnCours;
-				reponse = candidat;
-			}
-		}
-
-		// Retourne le calcul du Vec2d correspondant à la différence entre le Vec2d issu
-		// de la ToricPosition this et le Vec2d reponse
-		return reponse.minus(this.toVec2d());
+		return new Vec2d(toricDeltaX(that), toricDeltaY(that));
+	}
+	
+	/**
+	 * Écrit dans {@code out} le vecteur représentant la plus petite distance entre
+	 * les {@link ToricPosition} {@code this} et {@code that}. Cette variante de
+	 * {@link ToricPosition#toricVector(ToricPosition)} n'alloue aucun objet et est
+	 * destinée aux calculs effectués à chaque pas de simulation.
+	 *
+	 * @param that : une autre {@link ToricPosition}
+	 * @param out  : {@link MutableVec2d} recevant le résultat
+	 * @return {@code out}
+	 */
+	public MutableVec2d toricVector(ToricPosition that, MutableVec2d out) {
+		return out.set(toricDeltaX(that), toricDeltaY(that));
 	}
 	
 	/**
 	 * Calcule la distance réelle entre les {@link ToricPosition} {@code this} et
-	 * {@code that}, à partir du {@link Vec2d} retourné par la méthode
-	 * {@link toricVector}
+	 * {@code that}, c'est-à-dire la norme du vecteur retourné par la méthode
+	 * {@link toricVector}, sans construire ce vecteur
 	 *
 	 * @param that : une autre {@link ToricPosition}
 	 * @return un double représentant la distance réelle entre les
 	 *         {@link ToricPosition} {@code this} et {@code that}
 	 */
 	public double toricDistance(ToricPosition that) {
-		Vec2d autreVecteur = this.toricVector(that);
-		return autreVecteur.length();
-		
+		double dx = toricDeltaX(that);
+		double dy = toricDeltaY(that);
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+	
+	/**
+	 * Composante en x du plus court vecteur torique de {@code this} vers
+	 * {@code that}. Les deux axes du tore étant indépendants, le plus proche des
+	 * 9 représentants de {@code that} (décalés de {@code +/- WORLD_WIDTH} et
+	 * {@code +/- WORLD_HEIGHT}) s'obtient en minimisant chaque composante
+	 * séparément.
+	 * 
+	 * @param that : une autre {@link ToricPosition}
+	 * @return la composante en x du plus court vecteur torique
+	 */
+	private double toricDeltaX(ToricPosition that) {
+		final int WIDTH = worldSize().width;
+		return shortestDelta(that.position.getX() - position.getX(), WIDTH);
+	}
+	
+	/**
+	 * Composante en y du plus court vecteur torique de {@code this} vers
+	 * {@code that} (voir {@link ToricPosition#toricDeltaX(ToricPosition)}).
+	 * 
+	 * @param that : une autre {@link ToricPosition}
+	 * @return la composante en y du plus court vecteur torique
+	 */
+	private double toricDeltaY(ToricPosition that) {
+		final int HEIGHT = worldSize().height;
+		return shortestDelta(that.position.getY() - position.getY(), HEIGHT);
+	}
+	
+	/**
+	 * Ramène l'écart {@code delta} entre deux coordonnées projetées dans
+	 * {@code [0, size[} au plus court écart modulo {@code size}.
+	 * 
+	 * @param delta : double, écart dans {@code ]-size, size[}
+	 * @param size  : int, dimension de l'environnement sur l'axe considéré
+	 * @return l'écart de plus petite valeur absolue parmi {@code delta} et
+	 *         {@code delta +/- size}
+	 */
+	private static double shortestDelta(double delta, int size) {
+		if (delta > size / 2.0) {
+			return delta - size;
+		} else if (delta < -size / 2.0) {
+			return delta + size;
+		}
+		return delta;
 	}
 	
-}
\ No newline at end of file
+
+	/**
+	 * @return les dimensions du monde de la configuration courante
+	 */
+	private static WorldSize worldSize() {
+		ConfigManager config = getConfig();
+		WorldSize size = worldSize;
+		if (size == null || size.config != config) {
+			size = new WorldSize(config);
+			worldSize = size;
+		}
+		return size;
+	}
+
+	/**
+	 * Dimensions du monde d'une configuration
+	 */
+	private static final class WorldSize {
+		private final ConfigManager config;
+		private final int width;
+		private final int height;
+
+		private WorldSize(ConfigManager config) {
+			this.config = config;
+			this.width = config.getInt(WORLD_WIDTH);
+			this.height = config.getInt(WORLD_HEIGHT);
+		}
+	}
+}
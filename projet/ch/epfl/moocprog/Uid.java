@@ -34,6 +34,27 @@ public final class Uid {
         return new Uid(counter++);
     }
 
+    /**
+     * Retourne la valeur numérique de l'instance {@code this} de {@link Uid},
+     * exploitée pour la transmettre entre les tuiles d'une simulation répartie.
+     * 
+     * @return la valeur de {@link Uid#ID}
+     */
+    long toLong() {
+        return ID;
+    }
+
+    /**
+     * Reconstruit l'{@link Uid} de valeur {@code id} reçu d'une autre tuile d'une
+     * simulation répartie.
+     * 
+     * @param id : {@code long}, valeur obtenue par {@link Uid#toLong()}
+     * @return un {@link Uid} égal à celui de valeur {@code id}
+     */
+    static Uid fromLong(long id) {
+        return new Uid(id);
+    }
+
 	/**
 	 * Méthode redéfinie testant si l'instance {@code this} de {@link Uid} est égale
 	 * à une instance {@code o} d'un {@link Object}. L'égalité ne sera valable que
@@ -0,0 +1,167 @@
+package ch.epfl.moocprog;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe finale implémentant {@link SpatialIndex} par une grille torique
+ * uniforme : les indices des objets sont rangés cellule par cellule dans un
+ * seul tableau (tri par dénombrement), les cellules étant dimensionnées pour
+ * contenir en moyenne {@link UniformGridIndex#MEAN_OCCUPANCY} objets. Une
+ * requête parcourt les cellules recouvrant la boîte demandée, élargie de
+ * l'étendue de déplacement des objets.
+ * <p>
+ * La grille convient aux objets répartis uniformément ; lorsque les objets se
+ * concentrent en quelques points, les cellules de ces points deviennent très
+ * peuplées et chaque requête voisine les parcourt en entier (voir
+ * {@link LooseQuadtreeIndex} et {@link AdaptiveSpatialIndex}).
+ * <p>
+ * Une fois reconstruite, la grille peut être interrogée par plusieurs fils à
+ * la fois, chacun via son propre {@link UniformGridIndex.Gatherer}.
+ */
+final class UniformGridIndex implements SpatialIndex {
+	/**
+	 * Nombre moyen d'objets par cellule visé
+	 */
+	static final int MEAN_OCCUPANCY = 4;
+
+	private int worldWidth;
+	private int worldHeight;
+	private double extent;
+	private int size;
+	private int columns;
+	private int rows;
+	private double cellWidth;
+	private double cellHeight;
+	// Indices des objets rangés par cellule : ceux de la cellule c occupent
+	// cellItems[cellStarts[c]] à cellItems[cellStarts[c + 1] - 1]
+	private int[] cellStarts = new int[1];
+	private int[] cellItems = new int[0];
+	private int[] itemCells = new int[0];
+	private final Gatherer gatherer = new Gatherer();
+
+	@Override
+	public void rebuild(List<? extends Positionable> objects, int worldWidth, int worldHeight, double extent) {
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+		this.extent = extent;
+		this.size = objects.size();
+
+		// Cellules presque carrées, en nombre proportionnel aux objets
+		double cellSide = Math.sqrt((double) worldWidth * worldHeight * MEAN_OCCUPANCY / Math.max(1, size));
+		columns = (int) Math.max(1, Math.min(worldWidth, Math.round(worldWidth / cellSide)));
+		rows = (int) Math.max(1, Math.min(worldHeight, Math.round(worldHeight / cellSide)));
+		cellWidth = worldWidth / (double) columns;
+		cellHeight = worldHeight / (double) rows;
+
+		int cells = columns * rows;
+		if (cellStarts.length < cells + 1) {
+			cellStarts = new int[cells + 1];
+		}
+		if (cellItems.length < size) {
+			int length = Math.max(size, 2 * cellItems.length);
+			cellItems = new int[length];
+			itemCells = new int[length];
+		}
+
+		Arrays.fill(cellStarts, 0, cells + 1, 0);
+		for (int i = 0; i < size; ++i) {
+			Positionable object = objects.get(i);
+			int cell = cellOf(object.getPosition().toVec2d().getX(), object.getPosition().toVec2d().getY());
+			itemCells[i] = cell;
+			++cellStarts[cell + 1];
+		}
+		for (int c = 0; c < cells; ++c) {
+			cellStarts[c + 1] += cellStarts[c];
+		}
+		// Les indices de chaque cellule restent croissants
+		for (int i = 0; i < size; ++i) {
+			cellItems[cellStarts[itemCells[i]]++] = i;
+		}
+		for (int c = cells; c > 0; --c) {
+			cellStarts[c] = cellStarts[c - 1];
+		}
+		cellStarts[0] = 0;
+	}
+
+	@Override
+	public int gatherWithin(double x, double y, double radius) {
+		return gatherer.gatherWithin(x, y, radius);
+	}
+
+	@Override
+	public int[] getGathered() {
+		return gatherer.getGathered();
+	}
+
+	/**
+	 * Retourne un nouveau {@link UniformGridIndex.Gatherer} de l'instance
+	 * {@code this}, dont les requêtes ne partagent aucun tampon avec celles
+	 * des autres.
+	 *
+	 * @return un {@link UniformGridIndex.Gatherer} de la grille
+	 */
+	Gatherer newGatherer() {
+		return new Gatherer();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private int cellOf(double x, double y) {
+		int column = Math.min(Math.max((int) (x / cellWidth), 0), columns - 1);
+		int row = Math.min(Math.max((int) (y / cellHeight), 0), rows - 1);
+		return row * columns + column;
+	}
+
+	/**
+	 * Requêtes sur la grille englobante, rangeant les indices sélectionnés
+	 * dans un tampon propre : des {@link UniformGridIndex.Gatherer} distincts
+	 * peuvent interroger la grille en parallèle tant qu'elle n'est pas
+	 * reconstruite.
+	 */
+	final class Gatherer {
+		private int[] gathered = new int[16];
+
+		private Gatherer() {}
+
+		/**
+		 * Analogue à {@link SpatialIndex#gatherWithin(double, double, double)}.
+		 */
+		int gatherWithin(double x, double y, double radius) {
+			double reach = radius + extent;
+			int firstColumn = (int) Math.floor((x - reach) / cellWidth);
+			int lastColumn = (int) Math.floor((x + reach) / cellWidth);
+			int firstRow = (int) Math.floor((y - reach) / cellHeight);
+			int lastRow = (int) Math.floor((y + reach) / cellHeight);
+			// Une boîte plus large que le monde ne parcourt chaque cellule qu'une fois
+			lastColumn = Math.min(lastColumn, firstColumn + columns - 1);
+			lastRow = Math.min(lastRow, firstRow + rows - 1);
+
+			int count = 0;
+			for (int row = firstRow; row <= lastRow; ++row) {
+				int rowOffset = Math.floorMod(row, rows) * columns;
+				for (int column = firstColumn; column <= lastColumn; ++column) {
+					int cell = rowOffset + Math.floorMod(column, columns);
+					int start = cellStarts[cell];
+					int end = cellStarts[cell + 1];
+					if (count + end - start > gathered.length) {
+						gathered = Arrays.copyOf(gathered, Math.max(2 * gathered.length, count + end - start));
+					}
+					System.arraycopy(cellItems, start, gathered, count, end - start);
+					count += end - start;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Analogue à {@link SpatialIndex#getGathered()}.
+		 */
+		int[] getGathered() {
+			return gathered;
+		}
+	}
+}
@@ -1,17 +1,23 @@
 package ch.epfl.moocprog.app;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import ch.epfl.moocprog.config.ConfigManager;
 
 /**
  * Classe contenant la configuration de la simulation
  */
 public final class Application {
-    private ConfigManager configManager;
+    // Lue par les pas de simulation, remplacée entre deux pas
+    private volatile ConfigManager configManager;
+    // Configuration rechargée, en attente d'installation
+    private final AtomicReference<ConfigManager> pendingConfigManager;
 
     /*package*/
     Application(ConfigManager configManager) {
         assert configManager != null;
         this.configManager = configManager;
+        this.pendingConfigManager = new AtomicReference<ConfigManager>();
     }
 
     /**
@@ -24,9 +30,27 @@ public final class Application {
     }
     
 	/**
-	 * Retélécharge la configuration de la simulation
+	 * Retélécharge la configuration de la simulation. La lecture du fichier a
+	 * lieu immédiatement, mais la nouvelle configuration n'est installée que par
+	 * {@link Application#applyPendingConfig()}, entre deux pas de simulation :
+	 * un pas ne voit ainsi jamais deux configurations différentes.
 	 */
     public void reload() {
-    	configManager = configManager.reload();
+    	pendingConfigManager.set(configManager.reload());
+    }
+
+    /**
+     * Installe la configuration rechargée en attente, s'il y en a une. Appelée
+     * au début de chaque pas de simulation.
+     *
+     * @return {@code true} si une nouvelle configuration a été installée
+     */
+    public boolean applyPendingConfig() {
+        ConfigManager pending = pendingConfigManager.getAndSet(null);
+        if (pending == null) {
+            return false;
+        }
+        configManager = pending;
+        return true;
     }
 }
@@ -0,0 +1,211 @@
+package ch.epfl.moocprog.app;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.EnvironmentStatistics;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.gfx.FrameExporter;
+import ch.epfl.moocprog.gfx.SoftwareEnvironmentRenderer;
+import ch.epfl.moocprog.scenario.CompiledScenario;
+import ch.epfl.moocprog.scenario.Scenario;
+import ch.epfl.moocprog.scenario.ScenarioLoader;
+import ch.epfl.moocprog.scenario.ScenarioParser;
+import ch.epfl.moocprog.stats.AllocationCounter;
+import ch.epfl.moocprog.stats.AsyncStatisticsSink;
+import ch.epfl.moocprog.telemetry.TelemetryServer;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Porte d'entrée de la simulation sans interface graphique : le scénario est
+ * simulé pendant un nombre donné de pas, les statistiques sont éventuellement
+ * écrites dans un fichier (voir {@link AsyncStatisticsSink#open(File)}), puis
+ * l'empreinte mémoire des entités et les allocations par pas sont affichées.
+ * Avec l'option {@code --pheromones}, les phéromones sont stockées dans le
+ * fichier indiqué (voir {@link Environment#mapPheromones(File)}), dont un
+ * instantané est écrit à la fin de la simulation. Avec l'option
+ * {@code --frames}, une image de l'environnement est dessinée tous les
+ * {@code période} pas par {@link SoftwareEnvironmentRenderer}, sans JavaFX, et
+ * exportée par {@link FrameExporter} : en PNG si la cible est un répertoire
+ * existant, en images brutes sinon. Avec l'option {@code --telemetry}, un
+ * {@link TelemetryServer} écoute sur l'interface locale, au port indiqué pour
+ * HTTP et au suivant pour WebSocket, et reçoit un instantané au plus toutes
+ * les {@value #TELEMETRY_PERIOD_MS} ms. Avec l'option {@code --update-mode},
+ * les animaux sont mis à jour selon le mode indiqué ({@code SEQUENTIAL},
+ * {@code PER_COLONY} ou {@code SPATIAL}, voir {@link Environment.UpdateMode})
+ * avec le nombre de fils indiqué.
+ * <p>
+ * Le scénario peut être un fichier compilé ({@link CompiledScenario}), qui
+ * fournit aussi la configuration ; l'option {@code --compile} écrit la forme
+ * compilée de la configuration et du scénario de l'exécution.
+ * <p>
+ * Usage : {@code HeadlessRunner <scénario> <pas> <dt_ms> [statistiques] [--pheromones <fichier>] [--frames <cible> <période>] [--telemetry <port>] [--update-mode <mode> <fils>] [--compile <fichier>]}
+ */
+public final class HeadlessRunner {
+
+    private static final long TELEMETRY_PERIOD_MS = 50;
+
+    // Empêche l'instanciation de cette classe
+    private HeadlessRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        String usage = "Usage : HeadlessRunner <scénario> <pas> <dt_ms> [statistiques] [--pheromones <fichier>] [--frames <cible> <période>] [--telemetry <port>] [--update-mode <mode> <fils>] [--compile <fichier>]";
+        Utils.require(usage, args.length >= 3);
+        File scenario = new File(args[0]);
+        int steps = Integer.parseInt(args[1]);
+        Time dt = Time.fromMilliseconds(Long.parseLong(args[2]));
+        File statisticsFile = null;
+        File pheromoneFile = null;
+        File frameTarget = null;
+        int framePeriod = 0;
+        int telemetryPort = -1;
+        File compiledFile = null;
+        Environment.UpdateMode updateMode = null;
+        int updateThreads = 1;
+        for (int i = 3; i < args.length; ++i) {
+            if (args[i].equals("--pheromones")) {
+                Utils.require(usage, i + 1 < args.length && pheromoneFile == null);
+                pheromoneFile = new File(args[++i]);
+            } else if (args[i].equals("--frames")) {
+                Utils.require(usage, i + 2 < args.length && frameTarget == null);
+                frameTarget = new File(args[++i]);
+                framePeriod = Integer.parseInt(args[++i]);
+                Utils.require(usage, framePeriod > 0);
+            } else if (args[i].equals("--telemetry")) {
+                Utils.require(usage, i + 1 < args.length && telemetryPort < 0);
+                telemetryPort = Integer.parseInt(args[++i]);
+                Utils.require(usage, telemetryPort > 0 && telemetryPort < 0xFFFF);
+            } else if (args[i].equals("--update-mode")) {
+                Utils.require(usage, i + 2 < args.length && updateMode == null);
+                updateMode = parseUpdateMode(args[++i], usage);
+                updateThreads = Integer.parseInt(args[++i]);
+                Utils.require(usage, updateThreads > 0);
+            } else if (args[i].equals("--compile")) {
+                Utils.require(usage, i + 1 < args.length && compiledFile == null);
+                compiledFile = new File(args[++i]);
+            } else {
+                Utils.require(usage, statisticsFile == null);
+                statisticsFile = new File(args[i]);
+            }
+        }
+
+        long loadStart = System.nanoTime();
+        Scenario parsedScenario;
+        if (CompiledScenario.isCompiled(scenario)) {
+            CompiledScenario compiled = CompiledScenario.map(scenario);
+            ApplicationInitializer.initializeApplication(compiled.getConfig());
+            parsedScenario = compiled.getScenario();
+        } else {
+            ApplicationInitializer.initializeApplication(new ImmutableConfigManager(new File(Context.CONFIG_PATH)));
+            parsedScenario = ScenarioParser.parse(scenario);
+        }
+        double readMillis = (System.nanoTime() - loadStart) * 1e-6;
+        if (compiledFile != null) {
+            CompiledScenario.write(Context.getConfig(), parsedScenario, compiledFile);
+        }
+
+        Environment environment = new Environment();
+        if (pheromoneFile != null) {
+            environment.mapPheromones(pheromoneFile);
+        }
+        if (updateMode != null) {
+            environment.setUpdateMode(updateMode, updateThreads);
+        }
+        long populateStart = System.nanoTime();
+        ScenarioLoader.load(parsedScenario, environment);
+        System.out.printf("scénario lu en %.1f ms, monde peuplé en %.1f ms%n", readMillis, (System.nanoTime() - populateStart) * 1e-6);
+
+        AsyncStatisticsSink sink = null;
+        if (statisticsFile != null) {
+            sink = AsyncStatisticsSink.open(statisticsFile);
+            environment.addStatisticsSink(sink);
+        }
+
+        SoftwareEnvironmentRenderer renderer = null;
+        FrameExporter frames = null;
+        if (frameTarget != null) {
+            renderer = new SoftwareEnvironmentRenderer(environment.getWidth(), environment.getHeight(), 1.0);
+            frames = new FrameExporter(frameTarget, renderer.getFramebuffer().getWidth(), renderer.getFramebuffer().getHeight());
+        }
+
+        TelemetryServer telemetry = null;
+        if (telemetryPort > 0) {
+            telemetry = new TelemetryServer(InetAddress.getLoopbackAddress(), telemetryPort, telemetryPort + 1);
+            environment.addStatisticsSink(telemetry);
+            System.out.printf("télémétrie : http://localhost:%d/%n", telemetry.getHttpPort());
+        }
+
+        long start = System.nanoTime();
+        long lastPublish = start - TimeUnit.MILLISECONDS.toNanos(TELEMETRY_PERIOD_MS);
+        try {
+            for (int step = 0; step < steps; ++step) {
+                environment.update(dt);
+                if (telemetry != null && System.nanoTime() - lastPublish >= TimeUnit.MILLISECONDS.toNanos(TELEMETRY_PERIOD_MS)) {
+                    telemetry.publish(environment);
+                    lastPublish = System.nanoTime();
+                }
+                if (frames != null && step % framePeriod == 0) {
+                    renderer.clear();
+                    environment.renderEntities(renderer);
+                    frames.submit(renderer.getFramebuffer());
+                }
+            }
+        } finally {
+            environment.setUpdateMode(Environment.UpdateMode.SEQUENTIAL, 1);
+            if (telemetry != null) {
+                telemetry.close();
+            }
+            if (frames != null) {
+                frames.close();
+            }
+            if (sink != null) {
+                sink.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) * 1e-9;
+        environment.snapshotPheromones();
+
+        if (updateMode != null) {
+            System.out.printf("mode de mise à jour %s, %d fil(s)%n", updateMode, updateThreads);
+        }
+        System.out.printf("%d pas simulés en %.1f s (%.2f ms/pas)%n", steps, seconds, (steps > 0) ? 1000.0 * seconds / steps : 0.0);
+        if (sink != null && sink.getDroppedCount() > 0) {
+            System.out.printf("%d échantillons de statistiques abandonnés%n", sink.getDroppedCount());
+        }
+        if (frames != null && frames.getDroppedCount() > 0) {
+            System.out.printf("%d images abandonnées%n", frames.getDroppedCount());
+        }
+        System.out.println();
+        System.out.print(environment.getMemoryFootprint().format());
+        System.out.println();
+
+        EnvironmentStatistics statistics = environment.getStatistics();
+        if (AllocationCounter.isSupported() && statistics.getAllocationSteps() > 0) {
+            System.out.printf("allocations : %.0f octets/pas en moyenne (%d octets sur %d pas)%n",
+                    (double) statistics.getAllocatedBytes() / statistics.getAllocationSteps(),
+                    statistics.getAllocatedBytes(), statistics.getAllocationSteps());
+        } else {
+            System.out.println("allocations : mesure indisponible sur cette machine virtuelle");
+        }
+    }
+
+    /**
+     * Retourne le mode de mise à jour nommé {@code name}
+     *
+     * @throws IllegalArgumentException avec le message {@code usage} si aucun
+     *                                  mode ne porte ce nom
+     */
+    private static Environment.UpdateMode parseUpdateMode(String name, String usage) throws IllegalArgumentException {
+        Environment.UpdateMode found = null;
+        for (Environment.UpdateMode mode : Environment.UpdateMode.values()) {
+            if (mode.name().equals(name)) {
+                found = mode;
+            }
+        }
+        Utils.require(usage, found != null);
+        return found;
+    }
+}
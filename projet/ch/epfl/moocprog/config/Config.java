@@ -20,6 +20,12 @@ public final class Config {
 	public static final Pair<String, Class<Double>> TIME_FACTOR =
             new Pair<>("TIME_FACTOR",  Double.class);
 
+    public static final Pair<String, Class<Time>> SIMULATION_STEP =
+            new Pair<>("SIMULATION_STEP", Time.class);
+
+    public static final Pair<String, Class<Integer>> SIMULATION_MAX_STEPS_PER_FRAME =
+            new Pair<>("SIMULATION_MAX_STEPS_PER_FRAME", Integer.class);
+
 
     public static final Pair<String, Class<Double>> ANIMAL_LIFESPAN_DECREASE_FACTOR =
             new Pair<>("ANIMAL_LIFESPAN_DECREASE_FACTOR", Double.class);
@@ -45,6 +51,12 @@ public final class Config {
     public static final Pair<String, Class<Double>> PHEROMONE_THRESHOLD =
             new Pair<>("PHEROMONE_THRESHOLD", Double.class);
 
+    public static final Pair<String, Class<Double>> PHEROMONE_MERGE_RADIUS =
+            new Pair<>("PHEROMONE_MERGE_RADIUS", Double.class);
+
+    public static final Pair<String, Class<Double>> PHEROMONE_MAX_CELL_QUANTITY =
+            new Pair<>("PHEROMONE_MAX_CELL_QUANTITY", Double.class);
+
     public static final Pair<String, Class<Double>> ANT_PHEROMONE_DENSITY =
             new Pair<>("ANT_PHEROMONE_DENSITY", Double.class);
 
@@ -136,6 +148,18 @@ public final class Config {
 
 
 
+    public static final Pair<String, Class<Time>> STATISTICS_SAMPLE_PERIOD =
+            new Pair<>("STATISTICS_SAMPLE_PERIOD", Time.class);
+
+    public static final Pair<String, Class<Integer>> SPATIAL_SORT_PERIOD =
+            new Pair<>("SPATIAL_SORT_PERIOD", Integer.class);
+
+    public static final Pair<String, Class<Double>> SPATIAL_SORT_DISORDER =
+            new Pair<>("SPATIAL_SORT_DISORDER", Double.class);
+
+
+
+
     public static final Pair<String, Class<Double>> BETA_D =
             new Pair<>("BETA_D", Double.class);
 
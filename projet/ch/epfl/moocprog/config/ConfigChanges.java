@@ -0,0 +1,55 @@
+package ch.epfl.moocprog.config;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Comparaison de deux configurations de la simulation, permettant aux valeurs
+ * dérivées de la configuration (mises en cache par les objets de la
+ * simulation) de n'être recalculées que lorsque les paramètres dont elles
+ * dépendent ont changé.
+ */
+public final class ConfigChanges {
+
+    private ConfigChanges() {}
+
+    /**
+     * Retourne les noms des paramètres dont la valeur diffère entre
+     * {@code previous} et {@code current}, y compris ceux présents dans une
+     * seule des deux configurations.
+     *
+     * @param previous La configuration précédente
+     * @param current  La nouvelle configuration
+     * @return L'ensemble des noms de paramètres modifiés
+     * @throws IllegalArgumentException si un argument est {@code null}
+     */
+    public static Set<String> between(ConfigManager previous, ConfigManager current) {
+        Utils.requireNonNull(previous);
+        Utils.requireNonNull(current);
+
+        Set<String> changed = new HashSet<>();
+        if (previous != current) {
+            collect(previous.getDoubleConfig(), current.getDoubleConfig(), changed);
+            collect(previous.getIntConfig(), current.getIntConfig(), changed);
+            collect(previous.getTimeConfig(), current.getTimeConfig(), changed);
+        }
+        return changed;
+    }
+
+    private static <V> void collect(Map<String, V> previous, Map<String, V> current, Set<String> changed) {
+        for (Map.Entry<String, V> entry : current.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+    }
+}
@@ -4,19 +4,17 @@ import ch.epfl.moocprog.utils.Time;
 import ch.epfl.moocprog.utils.Utils;
 
 import java.io.File;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Classe utilitaire permettant d'extraire
  * des informations sur la simulation
- * à partir d'un fichier
+ * à partir d'un fichier. Les lignes sont découpées
+ * par {@link ConfigTokenizer} et les valeurs interprétées
+ * à la main, sans expression régulière.
  */
 class ConfigReader {
     private final Map<String, Double> doubleConfig;
@@ -30,32 +28,12 @@ class ConfigReader {
         Map<String, Double> tmpDoubleConfig = new HashMap<>();
         Map<String, Time> tmpTimeConfig = new HashMap<>();
 
-        try(BufferedReader is = new BufferedReader(new FileReader(file)))
-        {
-            String read;
-            while((read = is.readLine()) != null) {
-                if(read.trim().isEmpty()) {
-                    continue;
-                }
-                Matcher configMatcher = Pattern.compile(
-                        "(?<key>\\w+):(?<type>\\w+):(?<value>.*)"
-                ).matcher(read);
-
-                if(!configMatcher.matches()) {
-                    throw new IllegalArgumentException();
-                }
-
-                String key = configMatcher.group("key");
-                String type = configMatcher.group("type");
-                String value = configMatcher.group("value");
-
-                assert !key.isEmpty();
-
+        try {
+            ConfigTokenizer.tokenize(file, (line, key, type, value) -> {
                 switch (type) {
                     case "int":
                         try {
-                            int valueAsInt = Integer.parseInt(value);
-                            tmpIntConfig.put(key, valueAsInt);
+                            tmpIntConfig.put(key, Integer.parseInt(value));
                         } catch (NumberFormatException nfe) {
                             throw new IllegalArgumentException();
                         }
@@ -63,54 +41,20 @@ class ConfigReader {
 
                     case "double":
                         try {
-                            double valueAsDouble = Double.parseDouble(value);
-                            tmpDoubleConfig.put(key, valueAsDouble);
+                            tmpDoubleConfig.put(key, Double.parseDouble(value));
                         } catch (NumberFormatException nfe) {
                             throw new IllegalArgumentException();
                         }
                         break;
 
                     case "time":
-                        Matcher timeMatcher = Pattern.compile(
-                                "(?<floatingPoint>(\\d+\\.\\d*)|(\\d*\\.\\d+)|(\\d+))"+
-                                        "(?<unit>s|ms|$)"
-                        ).matcher(value);
-
-                        if(timeMatcher.matches()) {
-                            double timeValue = Double.parseDouble(timeMatcher.group("floatingPoint"));
-                            String unit = timeMatcher.group("unit");
-
-                            switch (unit) {
-                                case "ms":
-                                    tmpTimeConfig.put(
-                                            key,
-                                            //On perd p-ê de la précision, mais c'est ok...
-                                            Time.fromMilliseconds((long)timeValue)
-                                    );
-                                    break;
-
-                                case "s":
-                                    //On laisser "couler"
-
-                                case "":
-                                    tmpTimeConfig.put(
-                                            key,
-                                            Time.fromSeconds(timeValue)
-                                    );
-                                    break;
-
-                                default:
-                                    throw new IllegalArgumentException();
-                            }
-                        } else {
-                            throw new IllegalArgumentException();
-                        }
-
+                        tmpTimeConfig.put(key, parseTime(value));
                         break;
+
                     default:
                         throw new IllegalArgumentException();
                 }
-            }
+            });
         } catch (IOException e) {
             e.printStackTrace();
             throw new IllegalArgumentException();
@@ -123,6 +67,50 @@ class ConfigReader {
         this.timeConfig = Collections.unmodifiableMap(tmpTimeConfig);
     }
 
+    /**
+     * Interprète une durée : un nombre décimal positif ({@code 12},
+     * {@code 1.5}, {@code .5} ou {@code 2.}) suivi de l'unité {@code s}
+     * (par défaut) ou {@code ms}.
+     *
+     * @param value La durée à interpréter
+     * @return La durée lue
+     * @throws IllegalArgumentException si la durée est mal formée
+     */
+    private static Time parseTime(String value) {
+        int digits = 0;
+        int dots = 0;
+        int end = 0;
+        for (; end < value.length(); ++end) {
+            char c = value.charAt(end);
+            if (c >= '0' && c <= '9') {
+                ++digits;
+            } else if (c == '.') {
+                ++dots;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || dots > 1) {
+            throw new IllegalArgumentException();
+        }
+
+        double timeValue = Double.parseDouble(value.substring(0, end));
+        switch (value.substring(end)) {
+            case "ms":
+                //On perd p-ê de la précision, mais c'est ok...
+                return Time.fromMilliseconds((long) timeValue);
+
+            case "s":
+                //On laisser "couler"
+
+            case "":
+                return Time.fromSeconds(timeValue);
+
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
     /**
      * Retourne la configuration des {@code double} qui a été
      * lue depuis le fichier sous forme de {@link Map} non-modifiable.
@@ -0,0 +1,108 @@
+package ch.epfl.moocprog.config;
+
+import ch.epfl.moocprog.utils.Utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Analyseur lexical en flux des fichiers de configuration, écrit à la main
+ * (sans expression régulière) : chaque ligne non vide est de la forme
+ * {@code CLÉ:type:valeur}, la clé et le type étant formés de lettres, de
+ * chiffres et de {@code _}, et la valeur étant le reste de la ligne. Les
+ * valeurs ne sont pas interprétées : c'est le rôle du destinataire (voir
+ * {@link ConfigReader} pour les valeurs typées).
+ */
+public final class ConfigTokenizer {
+
+    /**
+     * Destinataire des lignes d'un fichier de configuration, dans l'ordre du
+     * fichier.
+     */
+    public interface Handler {
+        /**
+         * Reçoit une entrée {@code key:type:value}.
+         *
+         * @param line  Le numéro de la ligne, à partir de 1
+         * @param key   La clé
+         * @param type  Le nom du type
+         * @param value La valeur, non interprétée
+         */
+        void entry(int line, String key, String type, String value);
+
+        /**
+         * Reçoit une ligne vide (séparateur). Sans effet par défaut.
+         *
+         * @param line Le numéro de la ligne, à partir de 1
+         */
+        default void blank(int line) {
+        }
+    }
+
+    // Empêche l'instanciation de cette classe
+    private ConfigTokenizer() {}
+
+    /**
+     * Analyse le fichier {@code file}.
+     *
+     * @param file    Le fichier de configuration
+     * @param handler Le destinataire des lignes
+     * @throws IOException              en cas d'erreur de lecture
+     * @throws IllegalArgumentException si une ligne est mal formée
+     */
+    public static void tokenize(File file, Handler handler) throws IOException {
+        Utils.requireNonNull(file);
+        try (Reader reader = new FileReader(file)) {
+            tokenize(reader, handler);
+        }
+    }
+
+    /**
+     * Analyse la configuration lue depuis {@code reader}.
+     *
+     * @param reader  La source de la configuration (non fermée)
+     * @param handler Le destinataire des lignes
+     * @throws IOException              en cas d'erreur de lecture
+     * @throws IllegalArgumentException si une ligne est mal formée
+     */
+    public static void tokenize(Reader reader, Handler handler) throws IOException {
+        Utils.requireNonNull(handler);
+        BufferedReader in = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            ++lineNumber;
+            if (line.trim().isEmpty()) {
+                handler.blank(lineNumber);
+                continue;
+            }
+
+            int keyEnd = wordEnd(line, 0);
+            int typeEnd = (keyEnd > 0 && keyEnd < line.length() && line.charAt(keyEnd) == ':') ? wordEnd(line, keyEnd + 1) : -1;
+            if (typeEnd <= keyEnd + 1 || typeEnd >= line.length() || line.charAt(typeEnd) != ':') {
+                throw new IllegalArgumentException("Ligne " + lineNumber + " invalide : " + line);
+            }
+
+            handler.entry(lineNumber, line.substring(0, keyEnd), line.substring(keyEnd + 1, typeEnd), line.substring(typeEnd + 1));
+        }
+    }
+
+    /**
+     * Retourne l'indice suivant le mot ({@code [A-Za-z0-9_]*}) commençant en
+     * {@code start}.
+     */
+    private static int wordEnd(String line, int start) {
+        int i = start;
+        while (i < line.length() && isWordChar(line.charAt(i))) {
+            ++i;
+        }
+        return i;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,130 @@
+package ch.epfl.moocprog.distributed;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.scenario.ScenarioLoader;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Lance une simulation répartie sur {@code colonnes x lignes} processus
+ * {@link TileWorker} de la machine locale et additionne leurs statistiques
+ * finales. Avec l'option {@code --compare}, la même simulation est ensuite
+ * exécutée dans un seul processus et l'écart relatif de chaque mesure est
+ * affiché : les deux exécutions ne tirant pas les mêmes nombres aléatoires,
+ * elles doivent concorder statistiquement et non exactement.
+ * <p>
+ * Usage : {@code TileLauncher <colonnes> <lignes> <port> <scénario> <pas> <dt_ms> [--compare]}
+ */
+public final class TileLauncher {
+
+	// Empêche l'instanciation de cette classe
+	private TileLauncher() {}
+
+	public static void main(String[] args) throws Exception {
+		Utils.require("Usage : TileLauncher <colonnes> <lignes> <port> <scénario> <pas> <dt_ms> [--compare]", args.length == 6 || args.length == 7);
+		int columns = Integer.parseInt(args[0]);
+		int rows = Integer.parseInt(args[1]);
+		boolean compare = (args.length == 7 && args[6].equals("--compare"));
+
+		long start = System.nanoTime();
+		double[] distributed = runDistributed(columns, rows, args);
+		System.out.printf("réparti (%d tuiles) : %s (%.1f s)%n", columns * rows, format(distributed), (System.nanoTime() - start) * 1e-9);
+
+		if (compare) {
+			ApplicationInitializer.initializeApplication(new ImmutableConfigManager(new File(Context.CONFIG_PATH)));
+			start = System.nanoTime();
+			Environment environment = new Environment();
+			ScenarioLoader.load(new File(args[3]), environment);
+			Time dt = Time.fromMilliseconds(Long.parseLong(args[5]));
+			for (int step = Integer.parseInt(args[4]); step > 0; --step) {
+				environment.update(dt);
+			}
+			double[] single = parse(TileWorker.describe(environment.getStatistics()));
+			System.out.printf("un processus       : %s (%.1f s)%n", format(single), (System.nanoTime() - start) * 1e-9);
+
+			StringBuilder differences = new StringBuilder("écarts relatifs   :");
+			for (int i = 0; i < single.length; ++i) {
+				double reference = Math.max(Math.abs(single[i]), 1.0);
+				differences.append(String.format(" %s=%+.1f%%", TileWorker.KEYS[i], 100.0 * (distributed[i] - single[i]) / reference));
+			}
+			System.out.println(differences);
+		}
+	}
+
+	/**
+	 * Lance un processus par tuile, attend leur fin et additionne les mesures de
+	 * leurs lignes {@code STATS}.
+	 */
+	private static double[] runDistributed(int columns, int rows, String[] args) throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		List<Process> processes = new ArrayList<Process>();
+
+		for (int tile = 0; tile < columns * rows; ++tile) {
+			ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), TileWorker.class.getName(),
+					Integer.toString(tile), args[0], args[1], args[2], args[3], args[4], args[5]);
+			builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+			processes.add(builder.start());
+		}
+
+		double[] total = new double[TileWorker.KEYS.length];
+		for (int tile = 0; tile < processes.size(); ++tile) {
+			Process process = processes.get(tile);
+			boolean reported = false;
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (line.startsWith("STATS ")) {
+						double[] values = parse(line);
+						for (int i = 0; i < total.length; ++i) {
+							total[i] += values[i];
+						}
+						reported = true;
+					}
+				}
+			}
+			if (process.waitFor() != 0 || !reported) {
+				throw new IOException("La tuile " + tile + " a échoué.");
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Extrait les mesures nommées par {@link TileWorker#KEYS} d'une ligne de
+	 * paires {@code nom=valeur}.
+	 */
+	private static double[] parse(String line) {
+		double[] values = new double[TileWorker.KEYS.length];
+		for (String pair : line.split(" ")) {
+			int equals = pair.indexOf('=');
+			if (equals > 0) {
+				String key = pair.substring(0, equals);
+				for (int i = 0; i < values.length; ++i) {
+					if (TileWorker.KEYS[i].equals(key)) {
+						values[i] = Double.parseDouble(pair.substring(equals + 1));
+					}
+				}
+			}
+		}
+		return values;
+	}
+
+	private static String format(double[] values) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < values.length; ++i) {
+			builder.append(String.format("%s%s=%.1f", (i > 0) ? " " : "", TileWorker.KEYS[i], values[i]));
+		}
+		return builder.toString();
+	}
+}
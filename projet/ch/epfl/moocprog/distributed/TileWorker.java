@@ -0,0 +1,228 @@
+package ch.epfl.moocprog.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.EnvironmentStatistics;
+import ch.epfl.moocprog.TileExchange;
+import ch.epfl.moocprog.TileLayout;
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.scenario.ScenarioLoader;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Processus simulant une tuile d'une simulation répartie (voir
+ * {@link TileExchange}). Chaque tuile écoute sur le port {@code port + tuile}
+ * de l'interface locale, se connecte aux voisines de numéro supérieur et
+ * accepte les connexions des autres ; le premier entier transmis sur une
+ * connexion est le numéro de la tuile qui l'ouvre. Chaque message d'échange est
+ * précédé de sa longueur.
+ * <p>
+ * Toutes les tuiles chargent le même scénario dans le même ordre : les
+ * identifiants des fourmilières coïncident donc d'un processus à l'autre, et
+ * chaque tuile ne conserve que les objets qu'elle détient. À la fin, le
+ * processus écrit ses statistiques sur une ligne débutant par {@code STATS}
+ * (voir {@link TileWorker#describe(EnvironmentStatistics)}).
+ * <p>
+ * Usage : {@code TileWorker <tuile> <colonnes> <lignes> <port> <scénario> <pas> <dt_ms>}
+ */
+public final class TileWorker {
+
+	/**
+	 * Noms des mesures écrites sur la ligne {@code STATS}, dans l'ordre
+	 */
+	static final String[] KEYS = {"workers", "soldiers", "termites", "pheromones", "food_on_map", "food_stored", "fights"};
+
+	/**
+	 * Durée maximale d'attente de l'ouverture des tuiles voisines
+	 */
+	private static final long CONNECT_TIMEOUT_MILLIS = 30_000L;
+
+	private final TileExchange exchange;
+	private final DataInputStream[] inputs;
+	private final DataOutputStream[] outputs;
+	private final ExecutorService senders;
+
+	private TileWorker(TileExchange exchange, Socket[] sockets) throws IOException {
+		this.exchange = exchange;
+		this.inputs = new DataInputStream[sockets.length];
+		this.outputs = new DataOutputStream[sockets.length];
+		for (int n = 0; n < sockets.length; ++n) {
+			inputs[n] = new DataInputStream(new BufferedInputStream(sockets[n].getInputStream(), 1 << 16));
+			outputs[n] = new DataOutputStream(new BufferedOutputStream(sockets[n].getOutputStream(), 1 << 16));
+		}
+		// Les envois se font en parallèle des réceptions : deux voisines
+		// s'envoyant simultanément de gros messages ne peuvent se bloquer
+		this.senders = Executors.newFixedThreadPool(Math.max(1, sockets.length), runnable -> {
+			Thread thread = new Thread(runnable, "tile-sender");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static void main(String[] args) throws Exception {
+		Utils.require("Usage : TileWorker <tuile> <colonnes> <lignes> <port> <scénario> <pas> <dt_ms>", args.length == 7);
+		int tile = Integer.parseInt(args[0]);
+		int columns = Integer.parseInt(args[1]);
+		int rows = Integer.parseInt(args[2]);
+		int port = Integer.parseInt(args[3]);
+		File scenario = new File(args[4]);
+		int steps = Integer.parseInt(args[5]);
+		Time dt = Time.fromMilliseconds(Long.parseLong(args[6]));
+
+		ApplicationInitializer.initializeApplication(new ImmutableConfigManager(new File(Context.CONFIG_PATH)));
+
+		Environment environment = new Environment();
+		TileExchange exchange = new TileExchange(environment, TileLayout.fromConfig(columns, rows), tile);
+		ScenarioLoader.load(scenario, environment);
+
+		Socket[] sockets = connect(exchange, port);
+		try {
+			TileWorker worker = new TileWorker(exchange, sockets);
+			// Un premier échange installe les fantômes de l'état initial
+			worker.exchange();
+			for (int step = 0; step < steps; ++step) {
+				environment.update(dt);
+				worker.exchange();
+			}
+			worker.senders.shutdown();
+		} finally {
+			for (Socket socket : sockets) {
+				socket.close();
+			}
+		}
+
+		System.out.println("STATS tile=" + tile + " " + describe(environment.getStatistics()));
+	}
+
+	/**
+	 * Formate les mesures de {@code statistics} nommées par
+	 * {@link TileWorker#KEYS}, sous la forme {@code nom=valeur} séparées par des
+	 * espaces.
+	 *
+	 * @param statistics : {@link EnvironmentStatistics} à formater
+	 * @return la représentation textuelle
+	 */
+	static String describe(EnvironmentStatistics statistics) {
+		double[] values = {statistics.getWorkers(), statistics.getSoldiers(), statistics.getTermites(), statistics.getPheromones(),
+				statistics.getFoodOnMap(), statistics.getFoodStored(), statistics.getFights()};
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < KEYS.length; ++i) {
+			if (i > 0) {
+				builder.append(' ');
+			}
+			builder.append(KEYS[i]).append('=').append(values[i]);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Effectue un échange complet avec les voisines.
+	 */
+	private void exchange() throws IOException, InterruptedException {
+		exchange.beginExchange();
+
+		List<Future<?>> sends = new ArrayList<Future<?>>(outputs.length);
+		for (int n = 0; n < outputs.length; ++n) {
+			DataOutputStream out = outputs[n];
+			byte[] message = exchange.getOutbound(n);
+			sends.add(senders.submit(() -> {
+				out.writeInt(message.length);
+				out.write(message);
+				out.flush();
+				return null;
+			}));
+		}
+		for (int n = 0; n < inputs.length; ++n) {
+			byte[] message = new byte[inputs[n].readInt()];
+			inputs[n].readFully(message);
+			exchange.receive(n, message);
+		}
+		for (Future<?> send : sends) {
+			try {
+				send.get();
+			} catch (ExecutionException e) {
+				throw new IOException("Échec d'envoi vers une tuile voisine", e.getCause());
+			}
+		}
+
+		exchange.endExchange();
+	}
+
+	/**
+	 * Établit une connexion avec chaque voisine de {@code exchange}, rangées dans
+	 * l'ordre de {@link TileExchange#getNeighbours()}.
+	 */
+	private static Socket[] connect(TileExchange exchange, int port) throws IOException, InterruptedException {
+		int tile = exchange.getTile();
+		int[] neighbours = exchange.getNeighbours();
+		Socket[] sockets = new Socket[neighbours.length];
+		InetAddress loopback = InetAddress.getLoopbackAddress();
+
+		try (ServerSocket server = new ServerSocket(port + tile, neighbours.length, loopback)) {
+			int pending = 0;
+			for (int n = 0; n < neighbours.length; ++n) {
+				if (neighbours[n] > tile) {
+					sockets[n] = connectWithRetry(loopback, port + neighbours[n]);
+					new DataOutputStream(sockets[n].getOutputStream()).writeInt(tile);
+				} else {
+					++pending;
+				}
+			}
+			for (; pending > 0; --pending) {
+				Socket socket = server.accept();
+				int other = new DataInputStream(socket.getInputStream()).readInt();
+				int n = indexOf(neighbours, other);
+				Utils.require("Connexion inattendue de la tuile " + other, n >= 0 && sockets[n] == null);
+				sockets[n] = socket;
+			}
+		}
+
+		for (Socket socket : sockets) {
+			socket.setTcpNoDelay(true);
+		}
+		return sockets;
+	}
+
+	private static Socket connectWithRetry(InetAddress address, int port) throws IOException, InterruptedException {
+		long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+		while (true) {
+			try {
+				return new Socket(address, port);
+			} catch (ConnectException e) {
+				// La voisine n'écoute pas encore
+				if (System.currentTimeMillis() > deadline) {
+					throw e;
+				}
+				Thread.sleep(50);
+			}
+		}
+	}
+
+	private static int indexOf(int[] values, int value) {
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -1,12 +1,23 @@
 package ch.epfl.moocprog.gfx;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import ch.epfl.moocprog.*;
 import javafx.scene.canvas.Canvas;
 
+/**
+ * Rendu des animaux par lots : les animaux reçus sont répartis par type puis
+ * dessinés type après type par {@link AnimalsRenderer#flush(JavaFXAntSimulationCanvas)},
+ * de sorte que les dessins successifs portent sur le même atlas de sprites.
+ */
 final class AnimalsRenderer implements AnimalVisitor {
     private final AntWorkerRenderer antWorkerRenderer;
     private final AntSoldierRenderer antSoldierRenderer;
     private final TermiteRenderer termiteRenderer;
+    private final List<AntWorker> antWorkers = new ArrayList<AntWorker>();
+    private final List<AntSoldier> antSoldiers = new ArrayList<AntSoldier>();
+    private final List<Termite> termites = new ArrayList<Termite>();
 
     AnimalsRenderer() {
         this.antWorkerRenderer = new AntWorkerRenderer();
@@ -16,20 +27,40 @@ final class AnimalsRenderer implements AnimalVisitor {
 
     @Override
     public void visit(AntWorker antWorker, RenderingMedia canvas) {
-        antWorkerRenderer.render((JavaFXAntSimulationCanvas)canvas, antWorker);
+        antWorkers.add(antWorker);
     }
 
     @Override
     public void visit(AntSoldier antSoldier, RenderingMedia canvas) {
-        antSoldierRenderer.render((JavaFXAntSimulationCanvas)canvas, antSoldier);
+        antSoldiers.add(antSoldier);
     }
 
     @Override
     public void visit(Termite termite, RenderingMedia canvas) {
-        termiteRenderer.render((JavaFXAntSimulationCanvas)canvas, termite);
+        termites.add(termite);
     }
 
     void render(JavaFXAntSimulationCanvas canvas, Animal animal) {
         animal.accept(this, canvas);
     }
+
+    /**
+     * Dessine les animaux reçus depuis l'appel précédent, type par type.
+     *
+     * @param canvas Le canevas de la simulation
+     */
+    void flush(JavaFXAntSimulationCanvas canvas) {
+        for (int i = 0; i < antWorkers.size(); ++i) {
+            antWorkerRenderer.render(canvas, antWorkers.get(i));
+        }
+        for (int i = 0; i < antSoldiers.size(); ++i) {
+            antSoldierRenderer.render(canvas, antSoldiers.get(i));
+        }
+        for (int i = 0; i < termites.size(); ++i) {
+            termiteRenderer.render(canvas, termites.get(i));
+        }
+        antWorkers.clear();
+        antSoldiers.clear();
+        termites.clear();
+    }
 }
@@ -1,6 +1,7 @@
 package ch.epfl.moocprog.gfx;
 
 import ch.epfl.moocprog.AntSoldier;
+import ch.epfl.moocprog.utils.Vec2d;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
 
@@ -10,9 +11,12 @@ final class AntSoldierRenderer implements SimpleEntitySpriteRenderer<AntSoldier>
     private static final double SIZE_X = 50;
     private static final double SIZE_Y = 50;
     private final Image sprite;
+    private final SpriteAtlas atlas;
+    private final DebugOverlay<AntSoldier> debugOverlay = new DebugOverlay<AntSoldier>(DebugPropertyProvider::readAnimal);
 
     AntSoldierRenderer() {
         sprite = loadSprite(GFXUtil.RES_PATH+"fourmi_rouge.png");
+        atlas = new SpriteAtlas(sprite, SIZE_X, SIZE_Y);
     }
 
     @Override
@@ -36,6 +40,26 @@ final class AntSoldierRenderer implements SimpleEntitySpriteRenderer<AntSoldier>
         return entity.getDirection();
     }
 
+    @Override
+    public Vec2d getPosition(AntSoldier entity, double alpha) {
+        return entity.getInterpolatedPosition(alpha);
+    }
+
+    @Override
+    public double getDirection(AntSoldier entity, double alpha) {
+        return entity.getInterpolatedDirection(alpha);
+    }
+
+    @Override
+    public DebugOverlay<AntSoldier> getDebugOverlay() {
+        return debugOverlay;
+    }
+
+    @Override
+    public SpriteAtlas getSpriteAtlas(AntSoldier entity) {
+        return atlas;
+    }
+
     @Override
     public Image getSprite(AntSoldier entity) {
         return sprite;
@@ -1,6 +1,7 @@
 package ch.epfl.moocprog.gfx;
 
 import ch.epfl.moocprog.AntWorker;
+import ch.epfl.moocprog.utils.Vec2d;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
 
@@ -10,9 +11,15 @@ final class AntWorkerRenderer implements SimpleEntitySpriteRenderer<AntWorker> {
     private static final double SIZE_X = 50;
     private static final double SIZE_Y = 50;
     private final Image sprite;
+    private final SpriteAtlas atlas;
+    private final DebugOverlay<AntWorker> debugOverlay = new DebugOverlay<AntWorker>(
+        (entity, property, out) -> (property == DebugProperty.QUANTITY)
+            ? DebugPropertyProvider.value(out, entity.getFoodQuantity())
+            : DebugPropertyProvider.readAnimal(entity, property, out));
 
     AntWorkerRenderer() {
         sprite = loadSprite(GFXUtil.RES_PATH+"fourmi_noire.png");
+        atlas = new SpriteAtlas(sprite, SIZE_X, SIZE_Y);
     }
 
     @Override
@@ -36,6 +43,26 @@ final class AntWorkerRenderer implements SimpleEntitySpriteRenderer<AntWorker> {
         return entity.getDirection();
     }
 
+    @Override
+    public Vec2d getPosition(AntWorker entity, double alpha) {
+        return entity.getInterpolatedPosition(alpha);
+    }
+
+    @Override
+    public double getDirection(AntWorker entity, double alpha) {
+        return entity.getInterpolatedDirection(alpha);
+    }
+
+    @Override
+    public DebugOverlay<AntWorker> getDebugOverlay() {
+        return debugOverlay;
+    }
+
+    @Override
+    public SpriteAtlas getSpriteAtlas(AntWorker entity) {
+        return atlas;
+    }
+
     @Override
     public Image getSprite(AntWorker entity) {
         return sprite;
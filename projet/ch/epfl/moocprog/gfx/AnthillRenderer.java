@@ -11,9 +11,15 @@ final class AnthillRenderer implements SimpleEntitySpriteRenderer<Anthill> {
     private static final double SIZE_X = 100;
     private static final double SIZE_Y = 100;
     private final Image sprite;
+    private final SpriteAtlas atlas;
+    private final DebugOverlay<Anthill> debugOverlay = new DebugOverlay<Anthill>(
+        (entity, property, out) -> (property == DebugProperty.QUANTITY)
+            ? DebugPropertyProvider.value(out, entity.getFoodQuantity())
+            : DebugPropertyProvider.readPositionable(entity, property, out));
 
     AnthillRenderer() {
         sprite = loadSprite(GFXUtil.RES_PATH+"anthill.png");
+        atlas = new SpriteAtlas(sprite, SIZE_X, SIZE_Y);
     }
 
     @Override
@@ -37,6 +43,16 @@ final class AnthillRenderer implements SimpleEntitySpriteRenderer<Anthill> {
         return entity.hashCode();
     }
 
+    @Override
+    public DebugOverlay<Anthill> getDebugOverlay() {
+        return debugOverlay;
+    }
+
+    @Override
+    public SpriteAtlas getSpriteAtlas(Anthill entity) {
+        return atlas;
+    }
+
     @Override
     public Image getSprite(Anthill entity) {
         return sprite;
@@ -0,0 +1,97 @@
+package ch.epfl.moocprog.gfx;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ch.epfl.moocprog.Positionable;
+import ch.epfl.moocprog.utils.Vec2d;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Surimpression des propriétés de débogage d'un type d'entité. Le texte de
+ * chaque propriété est conservé par entité et n'est formaté à nouveau que
+ * lorsque la valeur lue par le {@link DebugPropertyProvider} change. Seules
+ * les entités visibles sont annotées, et uniquement celles sous le curseur
+ * lorsque celui-ci survole la simulation (voir
+ * {@link JavaFXAntSimulationCanvas#isDebugVisible(double, double, double)}).
+ *
+ * @param <T> Le type d'entité
+ */
+final class DebugOverlay<T extends Positionable> {
+    private static final double LINE_HEIGHT = 15;
+
+    private final DebugPropertyProvider<T> provider;
+    // Textes par entité, libérés avec les entités retirées de la simulation
+    private final Map<T, CachedText> texts = new WeakHashMap<T, CachedText>();
+    private final double[] scratch = new double[2];
+
+    /**
+     * Construit une surimpression lisant les propriétés via {@code provider}.
+     *
+     * @param provider La lecture des propriétés du type d'entité
+     */
+    DebugOverlay(DebugPropertyProvider<T> provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Affiche les propriétés activées de {@code entity}, une par ligne, à
+     * droite de sa position.
+     *
+     * @param canvas  Le canevas de la simulation
+     * @param entity  L'entité annotée
+     * @param xOffset Le décalage horizontal du texte
+     * @param radius  Le rayon de l'entité, pour la sélection sous le curseur
+     */
+    void render(JavaFXAntSimulationCanvas canvas, T entity, double xOffset, double radius) {
+        if (!canvas.isDebugEnabled()) {
+            return;
+        }
+        Vec2d position = entity.getPosition().toVec2d();
+        if (!canvas.isDebugVisible(position.getX(), position.getY(), radius)) {
+            return;
+        }
+
+        CachedText cached = texts.get(entity);
+        if (cached == null) {
+            cached = new CachedText();
+            texts.put(entity, cached);
+        }
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double y = position.getY();
+        for (DebugProperty property : DebugProperty.all()) {
+            if (canvas.isDebugEnabled(property)) {
+                String text = cached.get(entity, property);
+                if (text != null) {
+                    gc.fillText(text, position.getX() + xOffset, y);
+                    y += LINE_HEIGHT;
+                }
+            }
+        }
+    }
+
+    /**
+     * Textes des propriétés d'une entité et valeurs dont ils sont issus.
+     */
+    private final class CachedText {
+        private final double[] values = new double[2 * DebugProperty.all().length];
+        private final String[] texts = new String[DebugProperty.all().length];
+        private final boolean[] read = new boolean[DebugProperty.all().length];
+
+        private String get(T entity, DebugProperty property) {
+            int i = property.ordinal();
+            scratch[1] = 0.0;
+            if (!provider.read(entity, property, scratch)) {
+                return null;
+            }
+            if (!read[i] || Double.compare(values[2 * i], scratch[0]) != 0 || Double.compare(values[2 * i + 1], scratch[1]) != 0) {
+                values[2 * i] = scratch[0];
+                values[2 * i + 1] = scratch[1];
+                texts[i] = property.format(scratch[0], scratch[1]);
+                read[i] = true;
+            }
+            return texts[i];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ch.epfl.moocprog.gfx;
+
+import ch.epfl.moocprog.Animal;
+
+/**
+ * Propriétés affichables en surimpression par le panneau de débogage, chacune
+ * associée au bouton qui la commande (voir {@link JavaFXAntSimulationCanvas})
+ * et à son formateur. Une propriété est lue sous la forme d'au plus deux
+ * {@code double} (voir {@link DebugPropertyProvider}), et son texte n'est
+ * formaté que lorsque ces valeurs changent (voir {@link DebugOverlay}).
+ */
+enum DebugProperty {
+    POSITION("Position: ") {
+        @Override
+        String format(double first, double second) {
+            return String.format("Position : %.1f, %.1f", first, second);
+        }
+    },
+    SPEED("Speed: ") {
+        @Override
+        String format(double first, double second) {
+            return String.format("Speed :  %.1f", first);
+        }
+    },
+    HIT_POINTS("HitPoints: ") {
+        @Override
+        String format(double first, double second) {
+            return "HitPoints : " + (int) first;
+        }
+    },
+    LIFESPAN("LifeSpan: ") {
+        @Override
+        String format(double first, double second) {
+            return "LifeSpan : " + (long) first + " ms";
+        }
+    },
+    STATE("State: ") {
+        @Override
+        String format(double first, double second) {
+            return "State : " + Animal.State.values()[(int) first];
+        }
+    },
+    QUANTITY("Quantity: ") {
+        @Override
+        String format(double first, double second) {
+            return String.format("Quantity : %.2f", first);
+        }
+    };
+
+    private static final DebugProperty[] VALUES = values();
+
+    private final String key;
+
+    private DebugProperty(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Retourne le nom du bouton commandant la propriété.
+     *
+     * @return La clé de la propriété dans la table des propriétés de débogage
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Formate la valeur lue de la propriété.
+     *
+     * @param first  La première valeur lue
+     * @param second La seconde valeur lue (abscisse et ordonnée pour
+     *               {@link DebugProperty#POSITION}), ignorée sinon
+     * @return Le texte affiché
+     */
+    abstract String format(double first, double second);
+
+    /**
+     * Retourne la propriété commandée par le bouton {@code key}.
+     *
+     * @param key Le nom du bouton
+     * @return La propriété, ou {@code null} si aucune ne correspond
+     */
+    static DebugProperty ofKey(String key) {
+        for (DebugProperty property : VALUES) {
+            if (property.key.equals(key)) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne toutes les propriétés, sans copie.
+     *
+     * @return Les propriétés, dans l'ordre de déclaration
+     */
+    static DebugProperty[] all() {
+        return VALUES;
+    }
+}
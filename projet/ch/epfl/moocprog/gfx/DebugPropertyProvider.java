@@ -0,0 +1,67 @@
+package ch.epfl.moocprog.gfx;
+
+import ch.epfl.moocprog.Animal;
+import ch.epfl.moocprog.Positionable;
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Lecture des propriétés de débogage d'un type d'entité directement dans ses
+ * attributs, sans passer par sa représentation textuelle.
+ *
+ * @param <T> Le type d'entité
+ */
+@FunctionalInterface
+interface DebugPropertyProvider<T extends Positionable> {
+
+    /**
+     * Lit la propriété {@code property} de {@code entity} dans {@code out[0]}
+     * (et {@code out[1]} pour {@link DebugProperty#POSITION}).
+     *
+     * @param entity   L'entité
+     * @param property La propriété lue
+     * @param out      Le tableau recevant la valeur, de longueur au moins 2
+     * @return {@code true} si l'entité possède cette propriété
+     */
+    boolean read(T entity, DebugProperty property, double[] out);
+
+    /**
+     * Lecture de la position, seule propriété commune à toutes les entités.
+     */
+    static <T extends Positionable> boolean readPositionable(T entity, DebugProperty property, double[] out) {
+        if (property != DebugProperty.POSITION) {
+            return false;
+        }
+        Vec2d position = entity.getPosition().toVec2d();
+        out[0] = position.getX();
+        out[1] = position.getY();
+        return true;
+    }
+
+    /**
+     * Lecture des propriétés communes aux animaux.
+     */
+    static <T extends Animal> boolean readAnimal(T entity, DebugProperty property, double[] out) {
+        switch (property) {
+            case SPEED:
+                return value(out, entity.getSpeed());
+            case HIT_POINTS:
+                return value(out, entity.getHitpoints());
+            case LIFESPAN:
+                return value(out, entity.getLifespan().toMilliseconds());
+            case STATE:
+                return value(out, entity.getState().ordinal());
+            default:
+                return readPositionable(entity, property, out);
+        }
+    }
+
+    /**
+     * Range {@code value} dans {@code out[0]}.
+     *
+     * @return {@code true}
+     */
+    static boolean value(double[] out, double value) {
+        out[0] = value;
+        return true;
+    }
+}
@@ -14,9 +14,30 @@ interface EntityRenderer<T extends Positionable> {
 
     double getDirection(T entity);
 
+    /**
+     * Retourne la position à laquelle dessiner l'entité, interpolée entre les
+     * deux derniers états simulés selon {@code alpha} pour les entités mobiles.
+     */
+    default Vec2d getPosition(T entity, double alpha) {
+        return entity.getPosition().toVec2d();
+    }
+
+    /**
+     * Retourne la direction selon laquelle dessiner l'entité, interpolée entre
+     * les deux derniers états simulés selon {@code alpha} pour les entités
+     * mobiles.
+     */
+    default double getDirection(T entity, double alpha) {
+        return getDirection(entity);
+    }
+
     default Affine getTransformation(T entity) {
-        Vec2d entityPos = entity.getPosition().toVec2d();
-        double direction = getDirection(entity);
+        return getTransformation(entity, 1.0);
+    }
+
+    default Affine getTransformation(T entity, double alpha) {
+        Vec2d entityPos = getPosition(entity, alpha);
+        double direction = getDirection(entity, alpha);
 
         Affine result = new Affine();
 
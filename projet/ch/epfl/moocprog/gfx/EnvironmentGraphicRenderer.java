@@ -10,11 +10,15 @@ import javafx.scene.Parent;
 import javafx.scene.canvas.Canvas;
 
 public final class EnvironmentGraphicRenderer extends Parent implements EnvironmentRenderer {
+    private static final double PHEROMONE_CELL_SIZE = 4;
+
     private final JavaFXAntSimulationCanvas canvas;
     private final AnthillRenderer anthillRenderer;
     private final AnimalsRenderer animalsRenderer;
     private final FoodRenderer foodRenderer;
     private final PheromoneRenderer pheromoneRenderer;
+    private final PheromoneLayer pheromoneLayer;
+    private final PheromoneLayerRenderer pheromoneLayerRenderer;
     private final int width;
     private final int height;
 
@@ -26,6 +30,8 @@ public final class EnvironmentGraphicRenderer extends Parent implements Environm
         this.animalsRenderer = new AnimalsRenderer();
         this.foodRenderer = new FoodRenderer();
         this.pheromoneRenderer = new PheromoneRenderer();
+        this.pheromoneLayer = new PheromoneLayer(width, height, PHEROMONE_CELL_SIZE);
+        this.pheromoneLayerRenderer = new PheromoneLayerRenderer(pheromoneLayer);
 
         this.getChildren().add(canvas);
     }
@@ -36,11 +42,47 @@ public final class EnvironmentGraphicRenderer extends Parent implements Environm
         canvas.getGraphicsContext2D().clearRect(0, 0, width, height);
     }
 
+    @Override
+    public void setInterpolation(double alpha) {
+        canvas.setInterpolation(alpha);
+    }
+
+    /**
+     * Restreint la surimpression de débogage à la portion visible du rendu,
+     * en coordonnées du rendu.
+     */
+    public void setDebugViewport(double minX, double minY, double maxX, double maxY) {
+        canvas.setDebugViewport(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Restreint la surimpression de débogage aux entités sous le curseur, en
+     * coordonnées du rendu ; {@code NaN} lorsque le curseur quitte le rendu.
+     */
+    public void setDebugCursor(double x, double y) {
+        canvas.setDebugCursor(x, y);
+    }
+
+    @Override
+    public void flush() {
+        animalsRenderer.flush(canvas);
+    }
+
     @Override
     public void renderAnimal(Animal animal) {
         animalsRenderer.render(canvas, animal);
     }
 
+    @Override
+    public PheromoneLayer getPheromoneLayer() {
+        return pheromoneLayer;
+    }
+
+    @Override
+    public void renderPheromoneLayer(long time) {
+        pheromoneLayerRenderer.render(canvas, time);
+    }
+
     @Override
     public void renderPheromone(Pheromone pheromone) {
         pheromoneRenderer.render(canvas, pheromone);
@@ -8,6 +8,44 @@ import ch.epfl.moocprog.Pheromone;
 public interface EnvironmentRenderer {
     void clear();
 
+    /**
+     * Fixe le facteur d'interpolation, dans {@code [0, 1]}, des entités mobiles
+     * entre les deux derniers états simulés pour les rendus suivants.
+     * Sans effet par défaut.
+     *
+     * @param alpha Le facteur d'interpolation ({@code 1} pour l'état courant)
+     */
+    default void setInterpolation(double alpha) {
+    }
+
+    /**
+     * Termine le rendu des entités dont le dessin a été différé pour être
+     * regroupé (par exemple les animaux, dessinés type par type). Sans effet
+     * par défaut.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Retourne la carte de chaleur des phéromones tenue par ce rendu : les
+     * phéromones lui sont alors transmises à leur dépôt et ne sont plus
+     * dessinées une à une. {@code null} par défaut.
+     *
+     * @return La carte de chaleur des phéromones, ou {@code null}
+     */
+    default PheromoneLayer getPheromoneLayer() {
+        return null;
+    }
+
+    /**
+     * Dessine la carte de chaleur des phéromones, à jour à l'instant simulé
+     * {@code time}, sous les entités rendues ensuite. Sans effet par défaut.
+     *
+     * @param time L'instant simulé, en millisecondes
+     */
+    default void renderPheromoneLayer(long time) {
+    }
+
     void renderAnimal(Animal animal);
 
     void renderPheromone(Pheromone pheromone);
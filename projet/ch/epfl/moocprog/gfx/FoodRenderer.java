@@ -10,9 +10,15 @@ class FoodRenderer implements SimpleEntitySpriteRenderer<Food> {
     private static final double SIZE_X = 40;
     private static final double SIZE_Y = 40;
     private final Image sprite;
+    private final SpriteAtlas atlas;
+    private final DebugOverlay<Food> debugOverlay = new DebugOverlay<Food>(
+        (entity, property, out) -> (property == DebugProperty.QUANTITY)
+            ? DebugPropertyProvider.value(out, entity.getQuantity())
+            : DebugPropertyProvider.readPositionable(entity, property, out));
 
     FoodRenderer() {
         sprite = loadSprite(GFXUtil.RES_PATH+"food.png");
+        atlas = new SpriteAtlas(sprite, SIZE_X, SIZE_Y);
     }
 
     @Override
@@ -36,6 +42,16 @@ class FoodRenderer implements SimpleEntitySpriteRenderer<Food> {
         return entity.hashCode();
     }
 
+    @Override
+    public DebugOverlay<Food> getDebugOverlay() {
+        return debugOverlay;
+    }
+
+    @Override
+    public SpriteAtlas getSpriteAtlas(Food entity) {
+        return atlas;
+    }
+
     @Override
     public Image getSprite(Food entity) {
         return sprite;
@@ -0,0 +1,195 @@
+package ch.epfl.moocprog.gfx;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Export asynchrone des images d'un {@link SoftwareFramebuffer} : chaque image
+ * soumise est copiée dans l'un des tampons d'une réserve bornée, puis encodée
+ * et écrite par un fil d'exécution dédié. La méthode
+ * {@link FrameExporter#submit(SoftwareFramebuffer)} ne bloque jamais le pas de
+ * simulation : lorsque aucun tampon n'est libre, l'image est abandonnée et
+ * comptabilisée par {@link FrameExporter#getDroppedCount()}. Une erreur
+ * d'écriture survenue dans le fil dédié est relancée par l'appel suivant à
+ * {@code submit} ou {@code close}.
+ * <p>
+ * Si la cible est un répertoire, chaque image y est écrite au format PNG
+ * ({@code frame-000000.png}, ...). Sinon, les images sont écrites bout à bout
+ * dans le fichier cible, en pixels bruts de 4 octets dans l'ordre B, G, R, A
+ * (format {@code bgra} des encodeurs vidéo).
+ */
+public final class FrameExporter implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFERS = 4;
+
+    // Tampon sentinelle, comparé par identité
+    private static final int[] CLOSE = new int[0];
+
+    private final File target;
+    private final boolean png;
+    private final int width;
+    private final int height;
+    private final BlockingQueue<int[]> free;
+    private final BlockingQueue<int[]> pending;
+    private final Thread writer;
+    private final AtomicLong dropped;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Construit un export d'images de {@code width} x {@code height} pixels
+     * vers {@code target}, avec une réserve de tampons par défaut.
+     *
+     * @param target Le répertoire des images PNG, ou le fichier des images
+     *               brutes, créé ou écrasé
+     * @param width  La largeur des images
+     * @param height La hauteur des images
+     * @throws IOException si le fichier cible ne peut être ouvert
+     */
+    public FrameExporter(File target, int width, int height) throws IOException {
+        this(target, width, height, DEFAULT_BUFFERS);
+    }
+
+    /**
+     * Construit un export d'images de {@code width} x {@code height} pixels
+     * vers {@code target}.
+     *
+     * @param target  Le répertoire des images PNG, ou le fichier des images
+     *                brutes, créé ou écrasé
+     * @param width   La largeur des images
+     * @param height  La hauteur des images
+     * @param buffers Le nombre de tampons d'images
+     * @throws IllegalArgumentException si {@code target} est {@code null} ou si
+     *                                  un nombre n'est pas strictement positif
+     * @throws IOException              si le fichier cible ne peut être ouvert
+     */
+    public FrameExporter(File target, int width, int height, int buffers) throws IOException {
+        if (target == null || width <= 0 || height <= 0 || buffers <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.target = target;
+        this.png = target.isDirectory();
+        this.width = width;
+        this.height = height;
+        this.free = new ArrayBlockingQueue<int[]>(buffers);
+        this.pending = new ArrayBlockingQueue<int[]>(buffers + 1);
+        for (int i = 0; i < buffers; ++i) {
+            free.add(new int[width * height]);
+        }
+        this.dropped = new AtomicLong();
+
+        OutputStream raw = png ? null : new BufferedOutputStream(new FileOutputStream(target), 1 << 16);
+        this.writer = new Thread(() -> drain(raw), "frame-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Soumet une copie de l'image de {@code framebuffer} à l'export.
+     *
+     * @param framebuffer L'image, de la taille de l'export
+     * @return {@code true} si l'image sera écrite, {@code false} si elle est
+     *         abandonnée
+     * @throws IllegalArgumentException si l'image n'a pas la taille de l'export
+     * @throws IOException              si une écriture précédente a échoué
+     */
+    public boolean submit(SoftwareFramebuffer framebuffer) throws IOException {
+        if (framebuffer.getWidth() != width || framebuffer.getHeight() != height) {
+            throw new IllegalArgumentException();
+        }
+        rethrowFailure();
+        int[] buffer = closed ? null : free.poll();
+        if (buffer == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        System.arraycopy(framebuffer.getPixels(), 0, buffer, 0, buffer.length);
+        pending.add(buffer);
+        return true;
+    }
+
+    /**
+     * Écrit toutes les images en attente puis ferme l'export. Cet appel bloque
+     * jusqu'à la fin des écritures.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            while (writer.isAlive() && !pending.offer(CLOSE, 10, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Retourne le nombre d'images abandonnées faute de tampon libre.
+     *
+     * @return Le nombre d'images abandonnées
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void rethrowFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void drain(OutputStream raw) {
+        PngEncoder encoder = new PngEncoder();
+        byte[] bgra = png ? null : new byte[4 * width * height];
+        int frame = 0;
+        try {
+            for (int[] buffer = pending.take(); buffer != CLOSE; buffer = pending.take()) {
+                if (png) {
+                    File file = new File(target, String.format("frame-%06d.png", frame));
+                    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+                        encoder.encode(buffer, width, height, out);
+                    }
+                } else {
+                    for (int i = 0, j = 0; i < buffer.length; ++i, j += 4) {
+                        int pixel = buffer[i];
+                        bgra[j] = (byte) pixel;
+                        bgra[j + 1] = (byte) (pixel >> 8);
+                        bgra[j + 2] = (byte) (pixel >> 16);
+                        bgra[j + 3] = (byte) (pixel >>> 24);
+                    }
+                    raw.write(bgra);
+                }
+                ++frame;
+                free.add(buffer);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (raw != null) {
+                try {
+                    raw.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+}
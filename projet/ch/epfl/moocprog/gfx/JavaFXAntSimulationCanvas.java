@@ -8,6 +8,12 @@ import javafx.scene.canvas.Canvas;
 public final class JavaFXAntSimulationCanvas extends JavaFXCanvasRenderingMedia {
 	
 	private Map<String,Boolean> debugProps;
+	// Facteur d'interpolation du rendu entre les deux derniers pas simulés
+	private double interpolation = 1.0;
+	// Portion visible du monde et position du curseur (en coordonnées du
+	// canevas) restreignant la surimpression de débogage ; NaN si inconnues
+	private double viewMinX = Double.NaN, viewMinY, viewMaxX, viewMaxY;
+	private double cursorX = Double.NaN, cursorY;
 	
 	public JavaFXAntSimulationCanvas(Map<String, Boolean> debugProps, int width, int height){
 		super(width, height);
@@ -15,6 +21,71 @@ public final class JavaFXAntSimulationCanvas extends JavaFXCanvasRenderingMedia
 		
 	}
 	
+	public double getInterpolation() {
+		return interpolation;
+	}
+
+	public void setInterpolation(double interpolation) {
+		this.interpolation = interpolation;
+	}
+
+	/**
+	 * Définit la portion visible du canevas, hors de laquelle aucune entité
+	 * n'est annotée.
+	 */
+	public void setDebugViewport(double minX, double minY, double maxX, double maxY) {
+		viewMinX = minX;
+		viewMinY = minY;
+		viewMaxX = maxX;
+		viewMaxY = maxY;
+	}
+
+	/**
+	 * Définit la position du curseur survolant le canevas, ou la retire si
+	 * {@code x} vaut {@code NaN}.
+	 */
+	public void setDebugCursor(double x, double y) {
+		cursorX = x;
+		cursorY = y;
+	}
+
+	/**
+	 * @return {@code true} si au moins une propriété de débogage est activée
+	 */
+	boolean isDebugEnabled() {
+		if (debugProps != null) {
+			for (Boolean enabled : debugProps.values()) {
+				if (Boolean.TRUE.equals(enabled)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return {@code true} si la propriété de débogage {@code property} est
+	 *         activée
+	 */
+	boolean isDebugEnabled(DebugProperty property) {
+		return Boolean.TRUE.equals(getProperty(property.getKey()));
+	}
+
+	/**
+	 * @return {@code true} si une entité de rayon {@code radius} située en
+	 *         {@code (x, y)} doit être annotée : elle est sous le curseur si
+	 *         celui-ci survole le canevas, et dans la portion visible sinon
+	 */
+	boolean isDebugVisible(double x, double y, double radius) {
+		if (!Double.isNaN(cursorX)) {
+			double dx = x - cursorX;
+			double dy = y - cursorY;
+			return dx * dx + dy * dy <= radius * radius;
+		}
+		return Double.isNaN(viewMinX)
+				|| (x >= viewMinX - radius && x <= viewMaxX + radius && y >= viewMinY - radius && y <= viewMaxY + radius);
+	}
+
 	public Boolean getProperty(String name){
 		if (this.debugProps != null){
 			return this.debugProps.get(name);
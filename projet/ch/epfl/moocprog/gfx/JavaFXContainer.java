@@ -3,31 +3,31 @@ package ch.epfl.moocprog.gfx;
 import static ch.epfl.moocprog.app.Context.getApplication;
 import static ch.epfl.moocprog.config.Config.*;
 import java.math.*;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
-import ch.epfl.moocprog.Anthill;
 import ch.epfl.moocprog.Environment;
-import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.utils.FixedStepAccumulator;
 import ch.epfl.moocprog.utils.Time;
-import ch.epfl.moocprog.ToricPosition;
 import ch.epfl.moocprog.utils.Vec2d;
 import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.ConfigTokenizer;
+import ch.epfl.moocprog.scenario.ScenarioLoader;
+import ch.epfl.moocprog.scenario.ScenarioParser;
 import javafx.animation.AnimationTimer;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -52,6 +52,9 @@ public final class JavaFXContainer extends javafx.application.Application {
 	private boolean bPause;
 	private double curX, dX, curY, dY;
 	private ObjectProperty<Double> zoomScale;
+	// Zone d'affichage de la simulation, dont la portion visible et le curseur
+	// restreignent la surimpression de débogage
+	private Pane simulationView;
 
 	private Map<String, ObjectProperty<String>> properties;
 	private Map<String, ObjectProperty<String>> defaultProperties;
@@ -92,7 +95,13 @@ public final class JavaFXContainer extends javafx.application.Application {
 		defaultProperties = new LinkedHashMap<String, ObjectProperty<String>>();
 		fillPropertyMap(defaultProperties, null);
 
-		root.setCenter(new Pane(rendererContainer));
+		simulationView = new Pane(rendererContainer);
+		simulationView.setOnMouseMoved(e -> {
+			Point2D cursor = renderer.sceneToLocal(e.getSceneX(), e.getSceneY());
+			renderer.setDebugCursor(cursor.getX(), cursor.getY());
+		});
+		simulationView.setOnMouseExited(e -> renderer.setDebugCursor(Double.NaN, Double.NaN));
+		root.setCenter(simulationView);
 
 		root.setTop(controlPanel(root, stage));
 		root.setRight(configPanel(root));
@@ -128,44 +137,35 @@ public final class JavaFXContainer extends javafx.application.Application {
 	
 	
 	private void fillPropertyMap(Map<String, ObjectProperty<String>> propertiesMap,GridPane configPane) {
-		File configFile = new File("res/app.cfg");
-		if (configFile != null) {
-
-			try (BufferedReader br = new BufferedReader(new FileReader(configFile))) {
-				String line;
-				int i = 0;
-				while ((line = br.readLine()) != null) {
-					String[] configProp = line.split(":");
-					if (configProp.length == 3) {
-
-						Label propName = new Label(configProp[0] + ":" + configProp[1]);
-						TextField entry = new TextField(configProp[2]);
-						if (configPane !=null) {
-							configPane.add(propName, 0, i);
-							configPane.add(entry, 1, i);
-						}
-
-						ObjectProperty<String> propertyLink = new SimpleObjectProperty<String>();
-						propertyLink.bind(entry.textProperty());
-						propertiesMap.put(propName.getText(), propertyLink);
-
-					} else {
-						if (configPane != null) {
-							Label propName = new Label("__________________________");
-							configPane.add(propName, 0, i);
-						}
-						propertiesMap.put(String.valueOf(i), null);
+		// Même analyseur que le chargement de la configuration
+		try {
+			ConfigTokenizer.tokenize(new File(Context.CONFIG_PATH), new ConfigTokenizer.Handler() {
+				@Override
+				public void entry(int line, String key, String type, String value) {
+					Label propName = new Label(key + ":" + type);
+					TextField entry = new TextField(value);
+					if (configPane !=null) {
+						configPane.add(propName, 0, line - 1);
+						configPane.add(entry, 1, line - 1);
 					}
 
-					i++;
-
+					ObjectProperty<String> propertyLink = new SimpleObjectProperty<String>();
+					propertyLink.bind(entry.textProperty());
+					propertiesMap.put(propName.getText(), propertyLink);
 				}
 
-			} catch (IOException e) {
-
-				e.printStackTrace();
-			}
+				@Override
+				public void blank(int line) {
+					if (configPane != null) {
+						Label propName = new Label("__________________________");
+						configPane.add(propName, 0, line - 1);
+					}
+					propertiesMap.put(String.valueOf(line - 1), null);
+				}
+			});
+		} catch (IOException | IllegalArgumentException e) {
 
+			e.printStackTrace();
 		}
 	}
 	/**
@@ -327,48 +327,18 @@ public final class JavaFXContainer extends javafx.application.Application {
 	}
 
 	/***
-	 * reads the file config.txt and generates simulation content using this file
+	 * reads the scenario file (see {@link ScenarioParser} for its format) and
+	 * generates simulation content using this file
 	 * 
 	 * @param environment
 	 */
 	private void rendererGenerator(Environment environment) {
 
 		File configFile = new File(Context.INIT_PATH);
-		if (configFile != null) {
-
-			try (BufferedReader br = new BufferedReader(new FileReader(configFile))) {
-				String line;
-				while ((line = br.readLine()) != null) {
-
-					String noSpace = line.replaceAll("\\s+", "");
-					noSpace = noSpace.toLowerCase();
-
-					if (Pattern.matches("\\p{Alpha}+:\\d+,\\d+", noSpace)) {
-						String className = noSpace.split(":")[0];
-						int x = Integer.parseInt(noSpace.split(":")[1].split(",")[0]);
-						int y = Integer.parseInt(noSpace.split(":")[1].split(",")[1]);
-						if (className.equals("anthill")) {
-
-							environment.addAnthill(new Anthill(new ToricPosition(x, y)));
-						} else if (className.equals("termite")) {
-							Termite t = new Termite(new ToricPosition(x, y));
-
-							environment.addAnimal(t);
-
-						} else {
-
-							System.out.println("Couldn't instantiate :" + line);
-							;
-						}
-
-					}
-
-				}
-			} catch (IOException e) {
-
-				e.printStackTrace();
-			}
-
+		try {
+			ScenarioLoader.load(configFile, environment);
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("Couldn't instantiate scenario " + configFile + " : " + e.getMessage());
 		}
 
 	}
@@ -480,26 +450,42 @@ public final class JavaFXContainer extends javafx.application.Application {
 		n.relocate(newX, newY);
 	}
 
+	/**
+	 * Boucle de simulation à pas fixe : le temps écoulé entre deux images,
+	 * multiplié par TIME_FACTOR, est découpé en pas de durée SIMULATION_STEP,
+	 * au plus SIMULATION_MAX_STEPS_PER_FRAME par image. Le rendu interpole les
+	 * animaux entre les deux derniers pas simulés.
+	 */
 	private final class GameLoop extends AnimationTimer {
 		private long before = System.nanoTime();
-		
+		private final FixedStepAccumulator accumulator = new FixedStepAccumulator(
+				getApplication().getConfigManager().getTime(SIMULATION_STEP).toMilliseconds(),
+				getApplication().getConfigManager().getInt(SIMULATION_MAX_STEPS_PER_FRAME));
+		private Time dt = Time.fromMilliseconds(accumulator.getStepMillis());
 
 		@Override
 		public void handle(long now) {
-			long delta = (now - before) / 1_000_000;
+			double delta = (now - before) / 1e6;
 			
-			Time dt;
 			double timeFactor = Math.min(maxDT,getApplication().getConfigManager().getDouble(TIME_FACTOR));
 			
 			if (!bPause) {
-				dt = Time.fromMilliseconds(delta).times(timeFactor);
-
-				environment.update(dt);
+				// La configuration pouvant être rechargée, le pas est relu à chaque image ;
+				// un seul Time par changement de pas
+				accumulator.configure(getApplication().getConfigManager().getTime(SIMULATION_STEP).toMilliseconds(),
+						getApplication().getConfigManager().getInt(SIMULATION_MAX_STEPS_PER_FRAME));
+				if (dt.toMilliseconds() != accumulator.getStepMillis()) {
+					dt = Time.fromMilliseconds(accumulator.getStepMillis());
+				}
 
-			} else {
-				dt = Time.fromMilliseconds(0);
+				for (int steps = accumulator.advance(delta * timeFactor); steps > 0; --steps) {
+					environment.update(dt);
+				}
 			}
 			renderer.clear();
+			renderer.setInterpolation(accumulator.getInterpolation());
+			Bounds view = renderer.sceneToLocal(simulationView.localToScene(simulationView.getLayoutBounds()));
+			renderer.setDebugViewport(view.getMinX(), view.getMinY(), view.getMaxX(), view.getMaxY());
 			environment.renderEntities(renderer);
 
 			before = now;
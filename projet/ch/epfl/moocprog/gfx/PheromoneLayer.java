@@ -0,0 +1,249 @@
+package ch.epfl.moocprog.gfx;
+
+import java.util.Arrays;
+
+import ch.epfl.moocprog.Pheromone;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.Config;
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Carte de chaleur persistante des phéromones, à la résolution d'une grille de
+ * cellules couvrant le monde torique : au lieu de dessiner chaque
+ * {@link Pheromone} à chaque image, le rendu compose une image de la grille
+ * dont seuls les pixels modifiés depuis l'image précédente sont mis à jour.
+ * <p>
+ * Les dépôts ({@link PheromoneLayer#deposit(double, double, double)}) ajoutent
+ * leur quantité aux cellules couvertes et étendent le rectangle modifié de leur
+ * bande de lignes : des dépôts éloignés ne forcent pas la mise à jour de toute
+ * la surface qui les sépare.
+ * L'évaporation, linéaire pour toutes les phéromones, est rendue par une
+ * opacité globale ({@link PheromoneLayer#getFade(long)}) appliquée à toute
+ * l'image ; la grille est recalculée à partir des phéromones de
+ * l'environnement à intervalle régulier de temps simulé, ce qui retire les
+ * phéromones évaporées. Aucune classe JavaFX n'est utilisée ici.
+ */
+public final class PheromoneLayer {
+    private static final int BASE_RGB = 0xADFF2F; // Color.GREENYELLOW
+    private static final double PHEROMONE_RADIUS = 6;
+    private static final long REFRESH_PERIOD = 250; // ms de temps simulé
+    private static final int BAND_ROWS = 16;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final float[] levels;
+    private final int[] pixels;
+
+    private long refreshTime;
+    private boolean refreshed;
+    private double fade = 1.0;
+
+    // Colonnes extrêmes modifiées de chaque bande de lignes (bande intacte si
+    // dirtyMinX > dirtyMaxX)
+    private final int[] dirtyMinX;
+    private final int[] dirtyMaxX;
+    private int nextDirtyBand;
+
+    /**
+     * Construit une carte vide du monde de {@code worldWidth} x
+     * {@code worldHeight}, en cellules de côté {@code cellSize}.
+     *
+     * @param worldWidth  La largeur du monde
+     * @param worldHeight La hauteur du monde
+     * @param cellSize    Le côté des cellules
+     * @throws IllegalArgumentException si une dimension n'est pas strictement
+     *                                  positive
+     */
+    public PheromoneLayer(int worldWidth, int worldHeight, double cellSize) {
+        if (worldWidth <= 0 || worldHeight <= 0 || !(cellSize > 0.0)) {
+            throw new IllegalArgumentException();
+        }
+        this.cellSize = cellSize;
+        this.columns = (int) Math.ceil(worldWidth / cellSize);
+        this.rows = (int) Math.ceil(worldHeight / cellSize);
+        this.levels = new float[columns * rows];
+        this.pixels = new int[columns * rows];
+        int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+        this.dirtyMinX = new int[bands];
+        this.dirtyMaxX = new int[bands];
+        Arrays.fill(dirtyMinX, Integer.MAX_VALUE);
+        Arrays.fill(dirtyMaxX, Integer.MIN_VALUE);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Retourne les pixels de la carte, sans copie : un pixel ARGB non
+     * prémultiplié par cellule, ligne après ligne.
+     *
+     * @return Les pixels de la carte
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Détermine si la grille doit être recalculée à l'instant {@code time}.
+     *
+     * @param time L'instant simulé, en millisecondes
+     * @return {@code true} si la grille n'a jamais été calculée ou date de
+     *         plus d'une période de rafraîchissement
+     */
+    public boolean needsRefresh(long time) {
+        return !refreshed || time < refreshTime || time - refreshTime >= REFRESH_PERIOD;
+    }
+
+    /**
+     * Recalcule toute la grille à partir des phéromones {@code pheromones} à
+     * l'instant {@code time}. Seules les cellules dont la couleur change sont
+     * marquées modifiées.
+     *
+     * @param pheromones Les phéromones de l'environnement
+     * @param time       L'instant simulé, en millisecondes
+     */
+    public void refresh(Iterable<Pheromone> pheromones, long time) {
+        Arrays.fill(levels, 0.0f);
+        refreshTime = time;
+        refreshed = true;
+        fade = 1.0;
+        for (Pheromone pheromone : pheromones) {
+            Vec2d position = pheromone.getPosition().toVec2d();
+            accumulate(position.getX(), position.getY(), pheromone.getQuantity());
+        }
+        double maxEnergy = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
+        for (int row = 0, i = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column, ++i) {
+                int argb = toArgb(levels[i], maxEnergy);
+                if (argb != pixels[i]) {
+                    pixels[i] = argb;
+                    markDirty(column, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajoute à la carte un dépôt de {@code quantity} en {@code (x, y)}.
+     * Le dépôt est majoré de l'évaporation rendue depuis le dernier
+     * rafraîchissement, pour apparaître avec son opacité réelle.
+     *
+     * @param x        L'abscisse du dépôt
+     * @param y        L'ordonnée du dépôt
+     * @param quantity La quantité déposée
+     */
+    public void deposit(double x, double y, double quantity) {
+        if (!refreshed || !(quantity > 0.0) || fade <= 0.0) {
+            // La carte sera entièrement recalculée avant d'être affichée
+            return;
+        }
+        double maxEnergy = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
+        int minX = (int) Math.floor((x - PHEROMONE_RADIUS) / cellSize);
+        int maxX = (int) Math.floor((x + PHEROMONE_RADIUS) / cellSize);
+        int minY = (int) Math.floor((y - PHEROMONE_RADIUS) / cellSize);
+        int maxY = (int) Math.floor((y + PHEROMONE_RADIUS) / cellSize);
+        float added = (float) (quantity / fade);
+        for (int cy = minY; cy <= maxY; ++cy) {
+            for (int cx = minX; cx <= maxX; ++cx) {
+                if (covers(cx, cy, x, y)) {
+                    int column = Math.floorMod(cx, columns);
+                    int row = Math.floorMod(cy, rows);
+                    int index = row * columns + column;
+                    levels[index] += added;
+                    pixels[index] = toArgb(levels[index], maxEnergy);
+                    markDirty(column, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne l'opacité globale de la carte à l'instant {@code time}, qui
+     * rend l'évaporation depuis le dernier rafraîchissement.
+     *
+     * @param time L'instant simulé, en millisecondes
+     * @return L'opacité, dans {@code [0, 1]}
+     */
+    public double getFade(long time) {
+        double evaporationRate = Context.getConfig().getDouble(Config.PHEROMONE_EVAPORATION_RATE);
+        double maxEnergy = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
+        double evaporated = Math.max(0, time - refreshTime) / 1000d * evaporationRate / maxEnergy;
+        fade = Math.max(0.0, 1.0 - evaporated);
+        return fade;
+    }
+
+    /**
+     * Copie dans {@code rect} le prochain rectangle de cellules modifié depuis
+     * son retrait précédent ({@code x}, {@code y}, largeur, hauteur), puis le
+     * retire. Les appels successifs parcourent toutes les bandes modifiées.
+     *
+     * @param rect Le tableau de destination, de taille 4 au moins
+     * @return {@code false} si plus aucune cellule n'est modifiée, le parcours
+     *         reprenant alors à la première bande
+     */
+    public boolean takeDirtyRect(int[] rect) {
+        for (; nextDirtyBand < dirtyMinX.length; ++nextDirtyBand) {
+            int band = nextDirtyBand;
+            if (dirtyMinX[band] <= dirtyMaxX[band]) {
+                int minY = band * BAND_ROWS;
+                rect[0] = dirtyMinX[band];
+                rect[1] = minY;
+                rect[2] = dirtyMaxX[band] - dirtyMinX[band] + 1;
+                rect[3] = Math.min(BAND_ROWS, rows - minY);
+                dirtyMinX[band] = Integer.MAX_VALUE;
+                dirtyMaxX[band] = Integer.MIN_VALUE;
+                ++nextDirtyBand;
+                return true;
+            }
+        }
+        nextDirtyBand = 0;
+        return false;
+    }
+
+    private void accumulate(double x, double y, double quantity) {
+        int minX = (int) Math.floor((x - PHEROMONE_RADIUS) / cellSize);
+        int maxX = (int) Math.floor((x + PHEROMONE_RADIUS) / cellSize);
+        int minY = (int) Math.floor((y - PHEROMONE_RADIUS) / cellSize);
+        int maxY = (int) Math.floor((y + PHEROMONE_RADIUS) / cellSize);
+        for (int cy = minY; cy <= maxY; ++cy) {
+            for (int cx = minX; cx <= maxX; ++cx) {
+                if (covers(cx, cy, x, y)) {
+                    levels[Math.floorMod(cy, rows) * columns + Math.floorMod(cx, columns)] += (float) quantity;
+                }
+            }
+        }
+    }
+
+    /**
+     * Une cellule est couverte par le dépôt si son centre est dans le disque de
+     * la phéromone, ou si elle contient la phéromone
+     */
+    private boolean covers(int cx, int cy, double x, double y) {
+        double dx = (cx + 0.5) * cellSize - x;
+        double dy = (cy + 0.5) * cellSize - y;
+        return dx * dx + dy * dy <= PHEROMONE_RADIUS * PHEROMONE_RADIUS
+                || (cx == (int) Math.floor(x / cellSize) && cy == (int) Math.floor(y / cellSize));
+    }
+
+    private void markDirty(int column, int row) {
+        int band = row / BAND_ROWS;
+        dirtyMinX[band] = Math.min(dirtyMinX[band], column);
+        dirtyMaxX[band] = Math.max(dirtyMaxX[band], column);
+    }
+
+    private static int toArgb(float level, double maxEnergy) {
+        double ratio = Math.min(level / maxEnergy, 1d);
+        int alpha = (int) Math.round(Math.max(ratio, 0d) * 0xFF);
+        return (alpha << 24) | BASE_RGB;
+    }
+}
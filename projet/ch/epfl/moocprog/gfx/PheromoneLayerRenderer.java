@@ -0,0 +1,39 @@
+package ch.epfl.moocprog.gfx;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Composition d'une {@link PheromoneLayer} dans le canevas : l'image de la
+ * carte, d'un pixel par cellule, est étirée sur tout le monde. Seuls les
+ * rectangles modifiés depuis l'image précédente sont recopiés dans l'image, et
+ * l'évaporation est rendue par l'opacité globale du dessin.
+ */
+final class PheromoneLayerRenderer {
+    private final PheromoneLayer layer;
+    private final WritableImage image;
+    private final int[] dirtyRect = new int[4];
+
+    PheromoneLayerRenderer(PheromoneLayer layer) {
+        this.layer = layer;
+        this.image = new WritableImage(layer.getColumns(), layer.getRows());
+    }
+
+    void render(JavaFXAntSimulationCanvas canvas, long time) {
+        int columns = layer.getColumns();
+        while (layer.takeDirtyRect(dirtyRect)) {
+            image.getPixelWriter().setPixels(dirtyRect[0], dirtyRect[1], dirtyRect[2], dirtyRect[3],
+                    PixelFormat.getIntArgbInstance(), layer.getPixels(), dirtyRect[1] * columns + dirtyRect[0], columns);
+        }
+        double fade = layer.getFade(time);
+        if (fade <= 0.0) {
+            return;
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double oldAlpha = gc.getGlobalAlpha();
+        gc.setGlobalAlpha(oldAlpha * fade);
+        gc.drawImage(image, 0, 0, layer.getColumns() * layer.getCellSize(), layer.getRows() * layer.getCellSize());
+        gc.setGlobalAlpha(oldAlpha);
+    }
+}
@@ -0,0 +1,114 @@
+package ch.epfl.moocprog.gfx;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodeur PNG minimal d'images ARGB (un {@code int} par pixel), sans recours
+ * à {@code javax.imageio} ni à AWT : image RGB 8 bits sans transparence, chaque
+ * ligne étant filtrée par différence avec le pixel de gauche (filtre
+ * {@code Sub}), ce qui compresse bien les aplats du rendu. Une instance
+ * réutilise ses tampons d'une image à l'autre et n'est pas partageable entre
+ * fils d'exécution.
+ */
+final class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int FILTER_SUB = 1;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ChunkBuffer chunk = new ChunkBuffer();
+    private final CRC32 crc = new CRC32();
+    private byte[] row = new byte[0];
+
+    /**
+     * Écrit dans {@code out} l'image PNG des pixels {@code argb}.
+     *
+     * @param argb   Les pixels, ligne après ligne
+     * @param width  La largeur de l'image
+     * @param height La hauteur de l'image
+     * @param out    Le flux de destination, laissé ouvert
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    void encode(int[] argb, int width, int height, OutputStream out) throws IOException {
+        out.write(SIGNATURE);
+
+        chunk.reset();
+        writeInt(chunk, width);
+        writeInt(chunk, height);
+        chunk.write(8); // bits par composante
+        chunk.write(2); // RGB
+        chunk.write(0); // compression
+        chunk.write(0); // filtrage
+        chunk.write(0); // sans entrelacement
+        writeChunk(out, "IHDR");
+
+        chunk.reset();
+        deflater.reset();
+        int stride = 1 + 3 * width;
+        if (row.length < stride) {
+            row = new byte[stride];
+        }
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(chunk, deflater, 1 << 16) {
+            @Override
+            public void close() throws IOException {
+                // Le Deflater, réutilisé, ne doit pas être libéré
+                finish();
+            }
+        }) {
+            for (int y = 0; y < height; ++y) {
+                row[0] = FILTER_SUB;
+                int previous = 0;
+                for (int x = 0, i = y * width, j = 1; x < width; ++x, ++i, j += 3) {
+                    int pixel = argb[i];
+                    row[j] = (byte) ((pixel >> 16) - (previous >> 16));
+                    row[j + 1] = (byte) ((pixel >> 8) - (previous >> 8));
+                    row[j + 2] = (byte) (pixel - previous);
+                    previous = pixel;
+                }
+                deflated.write(row, 0, stride);
+            }
+        }
+        writeChunk(out, "IDAT");
+
+        chunk.reset();
+        writeChunk(out, "IEND");
+        out.flush();
+    }
+
+    private void writeChunk(OutputStream out, String type) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        writeInt(out, chunk.size());
+        out.write(typeBytes);
+        chunk.writeTo(out);
+
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(chunk.bytes(), 0, chunk.size());
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Données d'un bloc, dont le tampon est lu sans copie pour le calcul du CRC
+     */
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+        private ChunkBuffer() {
+            super(1 << 16);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
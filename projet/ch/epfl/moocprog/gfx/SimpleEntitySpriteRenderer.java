@@ -6,71 +6,39 @@ import ch.epfl.moocprog.AntWorker;
 import ch.epfl.moocprog.Anthill;
 import ch.epfl.moocprog.Food;
 import ch.epfl.moocprog.ToricPosition;
+import ch.epfl.moocprog.utils.Vec2d;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
-import javafx.scene.transform.Affine;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 interface SimpleEntitySpriteRenderer<T extends Positionable> extends EntityRenderer<T> {
     Image getSprite(T entity);
 
-    default void drawSingleSprite(Canvas canvas, T entity) {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        Affine oldTransform = gc.getTransform();
-        Affine affine = gc.getTransform();
-        affine.prepend(getTransformation(entity));
+    /**
+     * Retourne l'atlas des rotations du sprite de {@code entity} (voir
+     * {@link SpriteAtlas}).
+     */
+    SpriteAtlas getSpriteAtlas(T entity);
 
-        gc.setTransform(affine);
-        gc.drawImage(
-            getSprite(entity),
-            0, 0,
-            getWidth(entity),
-            getHeight(entity)
-        );
-        gc.setTransform(oldTransform);
-    }
-    
-    default void displayEntityInfo(JavaFXAntSimulationCanvas canvas, T entity){
-        int xOffset=25;
-        int yOffset =0;
-        if (entity instanceof Anthill) {
-            xOffset = 50;
-        }
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-            
-        for (String property : canvas.PropertySet()){
-            if  (canvas.getProperty(property)){
-                gc.fillText(
-                    findPropertyData(entity, property),
-                    entity.getPosition().toVec2d().getX()+xOffset,entity.getPosition().toVec2d().getY()+yOffset
-                );
-                yOffset +=15;
-            }      	
-        }		
+    /**
+     * Dessine {@code entity} par un seul {@code drawImage} de la case de son
+     * atlas la plus proche de sa direction, à sa position interpolée.
+     */
+    default void drawSingleSprite(Canvas canvas, T entity) {
+        double alpha = (canvas instanceof JavaFXAntSimulationCanvas)
+            ? ((JavaFXAntSimulationCanvas) canvas).getInterpolation() : 1.0;
+        Vec2d position = getPosition(entity, alpha);
+        getSpriteAtlas(entity).draw(canvas.getGraphicsContext2D(), position.getX(), position.getY(), getDirection(entity, alpha));
     }
-	
-	default String findPropertyData(T entity, String property) {
-		String description = "\n" + entity.toString();
-		String prop = property.replaceAll("[^A-Za-z]+", ""); // remove non alphabetical characters
-		String pattern ="(\\s*"+ prop + "\\s+.\\s+)(.*)";
-		Pattern ptrn = Pattern.compile(pattern);
-		Matcher m = ptrn.matcher(description);
-		 if (m.find()) {
-			 return m.group();
-		 }
-		 else {
-			 return "";
-		 }
-	}
 
+    /**
+     * Retourne la surimpression de débogage propre au type d'entité, qui
+     * conserve le texte de chaque entité d'une image à l'autre.
+     */
+    DebugOverlay<T> getDebugOverlay();
 
-	default void displayProperty(GraphicsContext gc, String property, T entity, int xOffset, int yOffset) {
-		gc.fillText(
-    		property,
-    		entity.getPosition().toVec2d().getX()+xOffset,entity.getPosition().toVec2d().getY()+yOffset
-        );
+    default void displayEntityInfo(JavaFXAntSimulationCanvas canvas, T entity) {
+        int xOffset = (entity instanceof Anthill) ? 50 : 25;
+        getDebugOverlay().render(canvas, entity, xOffset, Math.max(getWidth(entity), getHeight(entity)) / 2);
     }
 }
 
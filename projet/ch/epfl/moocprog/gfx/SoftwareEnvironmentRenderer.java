@@ -0,0 +1,132 @@
+package ch.epfl.moocprog.gfx;
+
+import ch.epfl.moocprog.Animal;
+import ch.epfl.moocprog.AnimalVisitor;
+import ch.epfl.moocprog.AntSoldier;
+import ch.epfl.moocprog.AntWorker;
+import ch.epfl.moocprog.Anthill;
+import ch.epfl.moocprog.Food;
+import ch.epfl.moocprog.Pheromone;
+import ch.epfl.moocprog.RenderingMedia;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.Config;
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Rendu logiciel de l'environnement dans un {@link SoftwareFramebuffer}, pour
+ * les simulations sans interface graphique (voir {@link FrameExporter}) :
+ * aucune classe JavaFX n'est chargée. Les entités sont dessinées par des
+ * disques de couleur, les animaux étant prolongés d'un trait indiquant leur
+ * direction, et les phéromones ont l'opacité de leur rendu JavaFX
+ * ({@link PheromoneRenderer}).
+ */
+public final class SoftwareEnvironmentRenderer implements EnvironmentRenderer {
+    private static final int BACKGROUND = 0xFFADD8E6;
+    private static final int FOOD = 0xFF3CB043;
+    private static final int ANTHILL = 0xFF8B5A2B;
+    private static final int ANT_WORKER = 0xFF101010;
+    private static final int ANT_SOLDIER = 0xFFB22222;
+    private static final int TERMITE = 0xFFC8A165;
+    private static final int PHEROMONE_RGB = 0xADFF2F;
+
+    private static final double FOOD_RADIUS = 12;
+    private static final double ANTHILL_RADIUS = 30;
+    private static final double ANT_RADIUS = 5;
+    private static final double TERMITE_RADIUS = 6;
+    private static final double PHEROMONE_RADIUS = 6;
+
+    private final SoftwareFramebuffer framebuffer;
+    private final double scale;
+    private final AnimalPainter animalPainter = new AnimalPainter();
+    private double interpolation = 1.0;
+
+    /**
+     * Construit un rendu du monde de {@code worldWidth} x {@code worldHeight}
+     * à l'échelle {@code scale} (pixels par unité du monde).
+     *
+     * @param worldWidth  La largeur du monde
+     * @param worldHeight La hauteur du monde
+     * @param scale       L'échelle du rendu
+     * @throws IllegalArgumentException si l'image obtenue est vide
+     */
+    public SoftwareEnvironmentRenderer(int worldWidth, int worldHeight, double scale) {
+        this.framebuffer = new SoftwareFramebuffer((int) Math.round(worldWidth * scale), (int) Math.round(worldHeight * scale));
+        this.scale = scale;
+    }
+
+    /**
+     * Retourne l'image dans laquelle l'environnement est dessiné.
+     *
+     * @return L'image du rendu
+     */
+    public SoftwareFramebuffer getFramebuffer() {
+        return framebuffer;
+    }
+
+    @Override
+    public void clear() {
+        framebuffer.fill(BACKGROUND);
+    }
+
+    @Override
+    public void setInterpolation(double alpha) {
+        interpolation = alpha;
+    }
+
+    @Override
+    public void renderAnimal(Animal animal) {
+        animal.accept(animalPainter, framebuffer);
+    }
+
+    @Override
+    public void renderPheromone(Pheromone pheromone) {
+        double pheromoneMaxEnergy = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
+        double ratio = Math.min(pheromone.getQuantity() / pheromoneMaxEnergy, 1d);
+        int alpha = (int) Math.round(ratio * 0xFF);
+        Vec2d position = pheromone.getPosition().toVec2d();
+        framebuffer.fillDisc(position.getX() * scale, position.getY() * scale, PHEROMONE_RADIUS * scale, (alpha << 24) | PHEROMONE_RGB);
+    }
+
+    @Override
+    public void renderAnthill(Anthill anthill) {
+        Vec2d position = anthill.getPosition().toVec2d();
+        framebuffer.fillDisc(position.getX() * scale, position.getY() * scale, ANTHILL_RADIUS * scale, ANTHILL);
+    }
+
+    @Override
+    public void renderFood(Food food) {
+        Vec2d position = food.getPosition().toVec2d();
+        framebuffer.fillDisc(position.getX() * scale, position.getY() * scale, FOOD_RADIUS * scale, FOOD);
+    }
+
+    private void paintAnimal(Animal animal, double radius, int argb) {
+        Vec2d position = animal.getInterpolatedPosition(interpolation);
+        double direction = animal.getInterpolatedDirection(interpolation);
+        double x = position.getX() * scale;
+        double y = position.getY() * scale;
+        double length = 2 * radius * scale;
+        framebuffer.fillDisc(x, y, radius * scale, argb);
+        framebuffer.drawLine(x, y, x + length * Math.cos(direction), y + length * Math.sin(direction), argb);
+    }
+
+    /**
+     * Dessin des animaux selon leur type, par "double dispatch"
+     */
+    private final class AnimalPainter implements AnimalVisitor {
+        @Override
+        public void visit(AntWorker antWorker, RenderingMedia s) {
+            paintAnimal(antWorker, ANT_RADIUS, ANT_WORKER);
+        }
+
+        @Override
+        public void visit(AntSoldier antSoldier, RenderingMedia s) {
+            paintAnimal(antSoldier, ANT_RADIUS, ANT_SOLDIER);
+        }
+
+        @Override
+        public void visit(Termite termite, RenderingMedia s) {
+            paintAnimal(termite, TERMITE_RADIUS, TERMITE);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ch.epfl.moocprog.gfx;
+
+import java.util.Arrays;
+
+import ch.epfl.moocprog.RenderingMedia;
+
+/**
+ * Image de pixels ARGB (un {@code int} par pixel, ligne après ligne) dans
+ * laquelle dessine {@link SoftwareEnvironmentRenderer}, sans recours à
+ * JavaFX. Les formes sont repliées sur les bords, comme le monde torique, et
+ * composées par-dessus les pixels existants selon leur opacité ; l'image
+ * reste opaque.
+ */
+public final class SoftwareFramebuffer implements RenderingMedia {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    /**
+     * Construit une image de {@code width} x {@code height} pixels.
+     *
+     * @param width  La largeur, en pixels
+     * @param height La hauteur, en pixels
+     * @throws IllegalArgumentException si une dimension n'est pas strictement
+     *                                  positive
+     */
+    public SoftwareFramebuffer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retourne les pixels, sans copie.
+     *
+     * @return Les pixels ARGB, ligne après ligne
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Remplit l'image de la couleur opaque {@code argb}.
+     *
+     * @param argb La couleur
+     */
+    public void fill(int argb) {
+        Arrays.fill(pixels, argb | 0xFF000000);
+    }
+
+    /**
+     * Dessine un disque de centre {@code (x, y)} et de rayon {@code radius}
+     * (en pixels), replié sur les bords de l'image.
+     *
+     * @param x      L'abscisse du centre
+     * @param y      L'ordonnée du centre
+     * @param radius Le rayon
+     * @param argb   La couleur, d'opacité quelconque
+     */
+    public void fillDisc(double x, double y, double radius, int argb) {
+        int alpha = argb >>> 24;
+        if (alpha == 0 || radius <= 0.0) {
+            return;
+        }
+        double r2 = radius * radius;
+        int minY = (int) Math.floor(y - radius);
+        int maxY = (int) Math.ceil(y + radius);
+        for (int py = minY; py <= maxY; ++py) {
+            double dy = py + 0.5 - y;
+            double span = r2 - dy * dy;
+            if (span < 0.0) {
+                continue;
+            }
+            double half = Math.sqrt(span);
+            int row = Math.floorMod(py, height) * width;
+            int minX = (int) Math.ceil(x - half - 0.5);
+            int maxX = (int) Math.floor(x + half - 0.5);
+            for (int px = minX; px <= maxX; ++px) {
+                blend(row + Math.floorMod(px, width), argb, alpha);
+            }
+        }
+    }
+
+    /**
+     * Dessine un segment d'un pixel d'épaisseur de {@code (x0, y0)} à
+     * {@code (x1, y1)}, replié sur les bords de l'image.
+     *
+     * @param x0   L'abscisse de l'origine
+     * @param y0   L'ordonnée de l'origine
+     * @param x1   L'abscisse de l'extrémité
+     * @param y1   L'ordonnée de l'extrémité
+     * @param argb La couleur, d'opacité quelconque
+     */
+    public void drawLine(double x0, double y0, double x1, double y1, int argb) {
+        int alpha = argb >>> 24;
+        int steps = (int) Math.ceil(Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0)));
+        for (int i = 0; i <= steps; ++i) {
+            double t = (steps == 0) ? 0.0 : (double) i / steps;
+            int px = (int) Math.floor(x0 + t * (x1 - x0));
+            int py = (int) Math.floor(y0 + t * (y1 - y0));
+            blend(Math.floorMod(py, height) * width + Math.floorMod(px, width), argb, alpha);
+        }
+    }
+
+    private void blend(int index, int argb, int alpha) {
+        if (alpha == 0xFF) {
+            pixels[index] = argb;
+            return;
+        }
+        int dst = pixels[index];
+        int inverse = 0xFF - alpha;
+        int r = (((argb >> 16) & 0xFF) * alpha + ((dst >> 16) & 0xFF) * inverse + 127) / 0xFF;
+        int g = (((argb >> 8) & 0xFF) * alpha + ((dst >> 8) & 0xFF) * inverse + 127) / 0xFF;
+        int b = ((argb & 0xFF) * alpha + (dst & 0xFF) * inverse + 127) / 0xFF;
+        pixels[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,136 @@
+package ch.epfl.moocprog.gfx;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Atlas des rotations d'un sprite : le sprite, mis à la taille de l'entité,
+ * est pivoté une fois pour toutes selon {@link SpriteAtlas#DIRECTIONS} angles
+ * régulièrement espacés, rangés en cases carrées d'une même image. Une entité
+ * est alors dessinée par un seul {@code drawImage} de la case de l'angle le
+ * plus proche de sa direction, sans transformation du contexte graphique ;
+ * les dessins successifs d'un même atlas portent sur une même texture.
+ */
+final class SpriteAtlas {
+    /**
+     * Nombre d'angles pré-calculés (pas d'environ 5,6 degrés)
+     */
+    static final int DIRECTIONS = 64;
+    private static final int COLUMNS = 8;
+    private static final double STEP = 2 * Math.PI / DIRECTIONS;
+
+    private final Image atlas;
+    private final int cell;
+
+    /**
+     * Construit l'atlas des rotations de {@code sprite} dessiné à la taille
+     * {@code width} x {@code height}.
+     *
+     * @param sprite L'image du sprite
+     * @param width  La largeur de l'entité
+     * @param height La hauteur de l'entité
+     */
+    SpriteAtlas(Image sprite, double width, double height) {
+        // Une case contient le sprite quel que soit l'angle
+        this.cell = (int) Math.ceil(Math.hypot(width, height));
+        this.atlas = rasterize(sprite, width, height, cell);
+    }
+
+    /**
+     * Dessine dans {@code gc} la case de l'angle le plus proche de
+     * {@code direction}, centrée en {@code (x, y)}.
+     *
+     * @param gc        Le contexte graphique
+     * @param x         L'abscisse du centre de l'entité
+     * @param y         L'ordonnée du centre de l'entité
+     * @param direction La direction de l'entité, en radians
+     */
+    void draw(GraphicsContext gc, double x, double y, double direction) {
+        int index = indexOf(direction);
+        double half = cell / 2.0;
+        gc.drawImage(atlas,
+            (index % COLUMNS) * cell, (index / COLUMNS) * cell, cell, cell,
+            x - half, y - half, cell, cell);
+    }
+
+    /**
+     * Retourne la case de l'angle le plus proche de {@code direction}.
+     *
+     * @param direction Un angle quelconque, en radians
+     * @return L'indice de la case, dans {@code [0, DIRECTIONS[}
+     */
+    static int indexOf(double direction) {
+        double turns = direction / STEP;
+        long index = Math.round(turns - DIRECTIONS * Math.floor(turns / DIRECTIONS));
+        return (int) (index % DIRECTIONS);
+    }
+
+    /**
+     * Pivote {@code sprite} selon chacun des angles, par interpolation
+     * bilinéaire de ses pixels (en composantes prémultipliées par l'opacité,
+     * pour ne pas assombrir les bords).
+     */
+    private static Image rasterize(Image sprite, double width, double height, int cell) {
+        PixelReader reader = sprite.getPixelReader();
+        int spriteWidth = (int) sprite.getWidth();
+        int spriteHeight = (int) sprite.getHeight();
+        double scaleX = spriteWidth / width;
+        double scaleY = spriteHeight / height;
+        int rows = (DIRECTIONS + COLUMNS - 1) / COLUMNS;
+
+        WritableImage atlas = new WritableImage(COLUMNS * cell, rows * cell);
+        PixelWriter writer = atlas.getPixelWriter();
+        double center = cell / 2.0;
+
+        for (int index = 0; index < DIRECTIONS; ++index) {
+            double cos = Math.cos(index * STEP);
+            double sin = Math.sin(index * STEP);
+            int originX = (index % COLUMNS) * cell;
+            int originY = (index / COLUMNS) * cell;
+
+            for (int py = 0; py < cell; ++py) {
+                for (int px = 0; px < cell; ++px) {
+                    // Rotation inverse du centre du pixel vers le repère du sprite
+                    double dx = px + 0.5 - center;
+                    double dy = py + 0.5 - center;
+                    double u = (dx * cos + dy * sin + width / 2) * scaleX - 0.5;
+                    double v = (-dx * sin + dy * cos + height / 2) * scaleY - 0.5;
+                    writer.setArgb(originX + px, originY + py, sample(reader, spriteWidth, spriteHeight, u, v));
+                }
+            }
+        }
+        return atlas;
+    }
+
+    private static int sample(PixelReader reader, int width, int height, double u, double v) {
+        int x0 = (int) Math.floor(u);
+        int y0 = (int) Math.floor(v);
+        double fx = u - x0;
+        double fy = v - y0;
+        double a = 0, r = 0, g = 0, b = 0;
+
+        for (int j = 0; j < 2; ++j) {
+            for (int i = 0; i < 2; ++i) {
+                int x = x0 + i;
+                int y = y0 + j;
+                if (x < 0 || y < 0 || x >= width || y >= height) {
+                    continue;
+                }
+                double weight = ((i == 0) ? 1 - fx : fx) * ((j == 0) ? 1 - fy : fy);
+                int argb = reader.getArgb(x, y);
+                double alpha = ((argb >>> 24) & 0xFF) * weight;
+                a += alpha;
+                r += ((argb >> 16) & 0xFF) * alpha;
+                g += ((argb >> 8) & 0xFF) * alpha;
+                b += (argb & 0xFF) * alpha;
+            }
+        }
+        if (a <= 0.0) {
+            return 0;
+        }
+        return ((int) Math.round(a) << 24) | ((int) Math.round(r / a) << 16) | ((int) Math.round(g / a) << 8) | (int) Math.round(b / a);
+    }
+}
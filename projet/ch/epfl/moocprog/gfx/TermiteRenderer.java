@@ -1,6 +1,7 @@
 package ch.epfl.moocprog.gfx;
 
 import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.utils.Vec2d;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
 
@@ -10,9 +11,12 @@ class TermiteRenderer implements SimpleEntitySpriteRenderer<Termite> {
     private static final double SIZE_X = 50;
     private static final double SIZE_Y = 50;
     private final Image sprite;
+    private final SpriteAtlas atlas;
+    private final DebugOverlay<Termite> debugOverlay = new DebugOverlay<Termite>(DebugPropertyProvider::readAnimal);
 
     TermiteRenderer() {
         sprite = loadSprite(GFXUtil.RES_PATH+"termite.png");
+        atlas = new SpriteAtlas(sprite, SIZE_X, SIZE_Y);
     }
 
     @Override
@@ -36,6 +40,26 @@ class TermiteRenderer implements SimpleEntitySpriteRenderer<Termite> {
         return entity.getDirection();
     }
 
+    @Override
+    public Vec2d getPosition(Termite entity, double alpha) {
+        return entity.getInterpolatedPosition(alpha);
+    }
+
+    @Override
+    public double getDirection(Termite entity, double alpha) {
+        return entity.getInterpolatedDirection(alpha);
+    }
+
+    @Override
+    public DebugOverlay<Termite> getDebugOverlay() {
+        return debugOverlay;
+    }
+
+    @Override
+    public SpriteAtlas getSpriteAtlas(Termite entity) {
+        return atlas;
+    }
+
     @Override
     public Image getSprite(Termite entity) {
         return sprite;
@@ -14,6 +14,16 @@ public final class NormalDistribution {
     // Empêche l'instanciation de cette classe
     private NormalDistribution() {}
 
+    /**
+     * Réinitialise le générateur avec la graine {@code seed}, afin de rejouer
+     * une même suite de valeurs d'une exécution à l'autre
+     *
+     * @param seed : long, graine du générateur
+     */
+    public static void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
 	 * Retourne une valeur suivant une distribution gaussienne d'espérence mu et de
 	 * variance sigma2
@@ -13,6 +13,16 @@ public final class UniformDistribution {
     // Empêche l'instanciation de cette classe
     private UniformDistribution() {}
 
+    /**
+     * Réinitialise le générateur avec la graine {@code seed}, afin de rejouer
+     * une même suite de valeurs d'une exécution à l'autre
+     *
+     * @param seed : long, graine du générateur
+     */
+    public static void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
 	 * Retourne une valeur suivant une distribution uniforme comprise entre
 	 * {@code min} et {@code max}
@@ -0,0 +1,242 @@
+package ch.epfl.moocprog.scenario;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ch.epfl.moocprog.config.ConfigManager;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.scenario.Scenario.Directive;
+import ch.epfl.moocprog.scenario.Scenario.Kind;
+import ch.epfl.moocprog.scenario.Scenario.Layout;
+import ch.epfl.moocprog.utils.Time;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale représentant la forme binaire compilée d'une configuration et
+ * d'un {@link Scenario} : le fichier est projeté en mémoire et lu sans analyse
+ * de texte, ce qui réduit le démarrage des grands scénarios (un objet par
+ * ligne) à la seule construction des objets.
+ * <p>
+ * Format (gros-boutiste) :
+ * <pre>
+ * i32 nombre magique "ANTS", i32 version
+ * i32 nombre d'entrées de configuration, puis par entrée :
+ *     u8 type (0 : int, 1 : double, 2 : time), u16 longueur et octets UTF-8
+ *     de la clé, valeur (i32, f64, ou i64 en millisecondes)
+ * i64 graine, i32 nombre de directives, puis par directive :
+ *     u8 sorte, u8 disposition, i32 nombre d'objets, f64 x0, f64 y0 ;
+ *     sauf en un point : f64 x1, f64 y1 ; Poisson : f64 distance minimale
+ * </pre>
+ * Les rectangles de placement par défaut sont résolus à la compilation.
+ */
+public final class CompiledScenario {
+
+	/**
+	 * Nombre magique des fichiers compilés ({@code "ANTS"})
+	 */
+	public static final int MAGIC = 0x414E5453;
+
+	private static final int VERSION = 1;
+	private static final int TYPE_INT = 0;
+	private static final int TYPE_DOUBLE = 1;
+	private static final int TYPE_TIME = 2;
+
+	/**
+	 * Configuration lue
+	 */
+	private final ImmutableConfigManager config;
+
+	/**
+	 * Scénario lu
+	 */
+	private final Scenario scenario;
+
+	private CompiledScenario(ImmutableConfigManager config, Scenario scenario) {
+		this.config = config;
+		this.scenario = scenario;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la configuration compilée, qui ne peut être rechargée depuis un
+	 *         fichier texte
+	 */
+	public ImmutableConfigManager getConfig() {
+		return config;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return le scénario compilé
+	 */
+	public Scenario getScenario() {
+		return scenario;
+	}
+
+	/**
+	 * Détermine si {@code file} est un fichier compilé, d'après son nombre
+	 * magique.
+	 *
+	 * @param file : {@link File}, fichier à examiner
+	 * @return {@code true} si le fichier débute par {@link CompiledScenario#MAGIC}
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	public static boolean isCompiled(File file) throws IOException {
+		Utils.requireNonNull(file);
+		if (file.length() < 4) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		}
+	}
+
+	/**
+	 * Écrit dans {@code file} la forme compilée de {@code config} et de
+	 * {@code scenario}.
+	 *
+	 * @param config   : {@link ConfigManager}, configuration à compiler
+	 * @param scenario : {@link Scenario}, scénario à compiler
+	 * @param file     : {@link File}, fichier de destination, créé ou écrasé
+	 * @throws IOException              en cas d'erreur d'écriture
+	 * @throws IllegalArgumentException si un argument est {@code null}
+	 */
+	public static void write(ConfigManager config, Scenario scenario, File file) throws IOException, IllegalArgumentException {
+		Utils.requireNonNull(config);
+		Utils.requireNonNull(scenario);
+		Utils.requireNonNull(file);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			// Clés triées : une même configuration donne toujours le même fichier
+			Map<String, Integer> ints = new TreeMap<String, Integer>(config.getIntConfig());
+			Map<String, Double> doubles = new TreeMap<String, Double>(config.getDoubleConfig());
+			Map<String, Time> times = new TreeMap<String, Time>(config.getTimeConfig());
+			out.writeInt(ints.size() + doubles.size() + times.size());
+			for (Map.Entry<String, Integer> entry : ints.entrySet()) {
+				writeKey(out, TYPE_INT, entry.getKey());
+				out.writeInt(entry.getValue());
+			}
+			for (Map.Entry<String, Double> entry : doubles.entrySet()) {
+				writeKey(out, TYPE_DOUBLE, entry.getKey());
+				out.writeDouble(entry.getValue());
+			}
+			for (Map.Entry<String, Time> entry : times.entrySet()) {
+				writeKey(out, TYPE_TIME, entry.getKey());
+				out.writeLong(entry.getValue().toMilliseconds());
+			}
+
+			out.writeLong(scenario.getSeed());
+			out.writeInt(scenario.getDirectives().size());
+			for (Directive directive : scenario.getDirectives()) {
+				out.writeByte(directive.getKind().ordinal());
+				out.writeByte(directive.getLayout().ordinal());
+				out.writeInt(directive.getCount());
+				out.writeDouble(directive.getX0());
+				out.writeDouble(directive.getY0());
+				if (directive.getLayout() != Layout.POINT) {
+					out.writeDouble(directive.getX1());
+					out.writeDouble(directive.getY1());
+				}
+				if (directive.getLayout() == Layout.POISSON_DISK) {
+					out.writeDouble(directive.getMinDistance());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lit le fichier compilé {@code file} en le projetant en mémoire.
+	 *
+	 * @param file : {@link File}, fichier compilé
+	 * @return la configuration et le scénario lus
+	 * @throws IOException              en cas d'erreur de lecture
+	 * @throws IllegalArgumentException si le fichier n'est pas un fichier
+	 *                                  compilé valide
+	 */
+	public static CompiledScenario map(File file) throws IOException, IllegalArgumentException {
+		Utils.requireNonNull(file);
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// La projection reste valide après la fermeture du canal
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try {
+			Utils.require("Fichier compilé invalide : " + file, buffer.getInt() == MAGIC);
+			Utils.require("Version de fichier compilé non prise en charge : " + file, buffer.getInt() == VERSION);
+
+			Map<String, Integer> ints = new HashMap<String, Integer>();
+			Map<String, Double> doubles = new HashMap<String, Double>();
+			Map<String, Time> times = new HashMap<String, Time>();
+			int entries = buffer.getInt();
+			for (int i = 0; i < entries; ++i) {
+				int type = buffer.get();
+				byte[] key = new byte[buffer.getShort() & 0xFFFF];
+				buffer.get(key);
+				String name = new String(key, StandardCharsets.UTF_8);
+				switch (type) {
+					case TYPE_INT:
+						ints.put(name, buffer.getInt());
+						break;
+					case TYPE_DOUBLE:
+						doubles.put(name, buffer.getDouble());
+						break;
+					case TYPE_TIME:
+						times.put(name, Time.fromMilliseconds(buffer.getLong()));
+						break;
+					default:
+						throw new IllegalArgumentException("Type de configuration inconnu : " + type);
+				}
+			}
+
+			long seed = buffer.getLong();
+			int count = buffer.getInt();
+			Utils.require("Nombre de directives invalide : " + count, count >= 0);
+			Kind[] kinds = Kind.values();
+			Layout[] layouts = Layout.values();
+			List<Directive> directives = new ArrayList<Directive>(count);
+			for (int i = 0; i < count; ++i) {
+				Kind kind = kinds[buffer.get()];
+				Layout layout = layouts[buffer.get()];
+				int objects = buffer.getInt();
+				double x0 = buffer.getDouble();
+				double y0 = buffer.getDouble();
+				double x1 = (layout == Layout.POINT) ? x0 : buffer.getDouble();
+				double y1 = (layout == Layout.POINT) ? y0 : buffer.getDouble();
+				double minDistance = (layout == Layout.POISSON_DISK) ? buffer.getDouble() : 0.0;
+				directives.add(new Directive(kind, objects, layout, x0, y0, x1, y1, minDistance));
+			}
+
+			return new CompiledScenario(new ImmutableConfigManager(doubles, ints, times), new Scenario(directives, seed));
+		} catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Fichier compilé tronqué ou corrompu : " + file, e);
+		}
+	}
+
+	private static void writeKey(DataOutputStream out, int type, String key) throws IOException {
+		byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(type);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,166 @@
+package ch.epfl.moocprog.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale représentant un scénario de simulation : la liste ordonnée des
+ * directives de peuplement d'un {@link ch.epfl.moocprog.Environment} et la
+ * graine du générateur aléatoire employé pour les placer. Un scénario est
+ * construit par {@link ScenarioParser} et appliqué par {@link ScenarioLoader}.
+ */
+public final class Scenario {
+
+	/**
+	 * Sortes d'objets pouvant être placés par une directive
+	 */
+	public enum Kind {ANTHILL, TERMITE, FOOD};
+
+	/**
+	 * Dispositions possibles des objets d'une directive : en un point, uniforme
+	 * dans un rectangle, ou selon un échantillonnage de Poisson (distance
+	 * minimale entre deux objets) dans un rectangle
+	 */
+	public enum Layout {POINT, UNIFORM, POISSON_DISK};
+
+	/**
+	 * Classe finale représentant une directive de peuplement : {@code count}
+	 * objets de sorte {@code kind} disposés selon {@code layout} dans le rectangle
+	 * {@code [x0, x1[ x [y0, y1[} (réduit au point {@code (x0, y0)} pour
+	 * {@link Layout#POINT}).
+	 */
+	public static final class Directive {
+		private final Kind kind;
+		private final int count;
+		private final Layout layout;
+		private final double x0, y0, x1, y1;
+		private final double minDistance;
+
+		/**
+		 * Constructeur non vide initialisant une {@link Directive}.
+		 *
+		 * @param kind        : {@link Kind}, sorte des objets à placer
+		 * @param count       : {@code int}, nombre d'objets à placer
+		 * @param layout      : {@link Layout}, disposition des objets
+		 * @param x0          : {@code double}, abscisse du coin inférieur du
+		 *                    rectangle
+		 * @param y0          : {@code double}, ordonnée du coin inférieur du
+		 *                    rectangle
+		 * @param x1          : {@code double}, abscisse du coin supérieur du
+		 *                    rectangle
+		 * @param y1          : {@code double}, ordonnée du coin supérieur du
+		 *                    rectangle
+		 * @param minDistance : {@code double}, distance minimale entre deux objets
+		 *                    ({@link Layout#POISSON_DISK} uniquement)
+		 * @throws IllegalArgumentException si un paramètre est incohérent
+		 */
+		public Directive(Kind kind, int count, Layout layout, double x0, double y0, double x1, double y1, double minDistance) throws IllegalArgumentException {
+			Utils.requireNonNull(kind);
+			Utils.requireNonNull(layout);
+			Utils.require("Le nombre d'objets doit être positif.", count >= 0);
+			Utils.require("Le rectangle de placement est vide.", layout == Layout.POINT || (x1 > x0 && y1 > y0));
+			Utils.require("La distance minimale doit être strictement positive.", layout != Layout.POISSON_DISK || minDistance > 0.0);
+			this.kind = kind;
+			this.count = count;
+			this.layout = layout;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.minDistance = minDistance;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public Layout getLayout() {
+			return layout;
+		}
+
+		public double getX0() {
+			return x0;
+		}
+
+		public double getY0() {
+			return y0;
+		}
+
+		public double getX1() {
+			return x1;
+		}
+
+		public double getY1() {
+			return y1;
+		}
+
+		public double getMinDistance() {
+			return minDistance;
+		}
+	}
+
+	/**
+	 * Directives du scénario, dans l'ordre de déclaration
+	 */
+	private final List<Directive> directives;
+
+	/**
+	 * Graine du générateur aléatoire de placement
+	 */
+	private final long seed;
+
+	/**
+	 * Constructeur non vide initialisant un {@link Scenario}.
+	 *
+	 * @param directives : liste des {@link Directive}, copiée
+	 * @param seed       : {@code long}, graine du générateur aléatoire de
+	 *                   placement
+	 */
+	public Scenario(List<Directive> directives, long seed) {
+		Utils.requireNonNull(directives);
+		this.directives = Collections.unmodifiableList(new ArrayList<Directive>(directives));
+		this.seed = seed;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la liste non modifiable des directives du scénario
+	 */
+	public List<Directive> getDirectives() {
+		return directives;
+	}
+
+	/**
+	 * Getter
+	 *
+	 * @return la graine du générateur aléatoire de placement
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Calcule le nombre total d'objets de sorte {@code kind} placés par le
+	 * scénario.
+	 *
+	 * @param kind : {@link Kind}, sorte d'objets
+	 * @return le nombre total d'objets de cette sorte
+	 */
+	public int count(Kind kind) {
+		int total = 0;
+		for (Directive directive : directives) {
+			if (directive.getKind() == kind) {
+				total += directive.getCount();
+			}
+		}
+		return total;
+	}
+}
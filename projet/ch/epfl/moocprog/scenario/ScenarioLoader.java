@@ -0,0 +1,239 @@
+package ch.epfl.moocprog.scenario;
+
+import static ch.epfl.moocprog.config.Config.NEW_FOOD_QUANTITY_MAX;
+import static ch.epfl.moocprog.config.Config.NEW_FOOD_QUANTITY_MIN;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import ch.epfl.moocprog.Anthill;
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.Food;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.ToricPosition;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.scenario.Scenario.Directive;
+import ch.epfl.moocprog.scenario.Scenario.Kind;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale utilitaire peuplant un {@link Environment} à partir d'un
+ * {@link Scenario}. Le stockage de l'environnement est pré-dimensionné d'après
+ * le nombre total d'objets de chaque sorte, puis les objets de chaque
+ * directive sont placés avec un générateur aléatoire initialisé par la graine
+ * du scénario : un même scénario produit donc toujours le même monde.
+ */
+public final class ScenarioLoader {
+
+	/**
+	 * Nombre de tentatives autour d'un point actif de l'échantillonnage de
+	 * Poisson avant de le retirer (valeur usuelle de l'algorithme de Bridson)
+	 */
+	private static final int POISSON_ATTEMPTS = 30;
+
+	// Empêche l'instanciation de cette classe
+	private ScenarioLoader() {}
+
+	/**
+	 * Lit le scénario du fichier {@code file} et en peuple {@code environment}.
+	 *
+	 * @param file        : {@link File}, fichier de scénario
+	 * @param environment : {@link Environment} à peupler
+	 * @throws IOException              en cas d'erreur de lecture
+	 * @throws IllegalArgumentException si le scénario est invalide
+	 */
+	public static void load(File file, Environment environment) throws IOException, IllegalArgumentException {
+		load(ScenarioParser.parse(file), environment);
+	}
+
+	/**
+	 * Peuple {@code environment} selon {@code scenario}.
+	 *
+	 * @param scenario    : {@link Scenario} à appliquer
+	 * @param environment : {@link Environment} à peupler
+	 * @throws IllegalArgumentException si un argument est {@code null} ou si un
+	 *                                  échantillonnage de Poisson ne peut placer
+	 *                                  tous ses objets
+	 */
+	public static void load(Scenario scenario, Environment environment) throws IllegalArgumentException {
+		Utils.requireNonNull(scenario);
+		Utils.requireNonNull(environment);
+
+		environment.ensureCapacity(scenario.count(Kind.TERMITE), scenario.count(Kind.ANTHILL), scenario.count(Kind.FOOD));
+
+		Random random = new Random(scenario.getSeed());
+		double[] xs = new double[0];
+		double[] ys = new double[0];
+
+		for (Directive directive : scenario.getDirectives()) {
+			int count = directive.getCount();
+			if (xs.length < count) {
+				xs = new double[count];
+				ys = new double[count];
+			}
+
+			switch (directive.getLayout()) {
+				case POINT:
+					Arrays.fill(xs, 0, count, directive.getX0());
+					Arrays.fill(ys, 0, count, directive.getY0());
+					break;
+				case UNIFORM:
+					for (int i = 0; i < count; ++i) {
+						xs[i] = directive.getX0() + random.nextDouble() * (directive.getX1() - directive.getX0());
+						ys[i] = directive.getY0() + random.nextDouble() * (directive.getY1() - directive.getY0());
+					}
+					break;
+				case POISSON_DISK:
+					poissonDisk(directive, random, xs, ys);
+					break;
+			}
+
+			for (int i = 0; i < count; ++i) {
+				place(environment, directive.getKind(), new ToricPosition(xs[i], ys[i]), random);
+			}
+		}
+	}
+
+	/**
+	 * Construit et ajoute à {@code environment} un objet de sorte {@code kind}.
+	 */
+	private static void place(Environment environment, Kind kind, ToricPosition position, Random random) {
+		switch (kind) {
+			case ANTHILL:
+				environment.addAnthill(new Anthill(position));
+				break;
+			case TERMITE:
+				environment.addAnimal(new Termite(position));
+				break;
+			case FOOD:
+				double min = Context.getConfig().getDouble(NEW_FOOD_QUANTITY_MIN);
+				double max = Context.getConfig().getDouble(NEW_FOOD_QUANTITY_MAX);
+				environment.addFood(new Food(position, min + random.nextDouble() * (max - min)));
+				break;
+		}
+	}
+
+	/**
+	 * Place les {@code directive.getCount()} premiers points de {@code xs} et
+	 * {@code ys} selon l'algorithme de Bridson : chaque nouveau point est tiré
+	 * dans la couronne {@code [d, 2d]} d'un point actif et accepté s'il est à
+	 * plus de {@code d} de tous les points placés. Les points placés sont rangés
+	 * dans une liste de cellules de côté au moins {@code d / sqrt(2)}, agrandies
+	 * au besoin pour que la grille ait de l'ordre de {@code count} cellules quelle
+	 * que soit la distance {@code d}.
+	 *
+	 * @throws IllegalArgumentException si le rectangle ne peut contenir tous les
+	 *                                  points demandés
+	 */
+	private static void poissonDisk(Directive directive, Random random, double[] xs, double[] ys) {
+		int count = directive.getCount();
+		if (count == 0) {
+			return;
+		}
+
+		double x0 = directive.getX0(), y0 = directive.getY0();
+		double width = directive.getX1() - x0, height = directive.getY1() - y0;
+		double d = directive.getMinDistance();
+
+		// Les disques de rayon d / 2 centrés sur les points sont disjoints et
+		// contenus dans le rectangle élargi de d / 2 de chaque côté
+		double capacity = Math.floor(4 / Math.PI * (width / d + 1) * (height / d + 1));
+		requirePlaced((long) Math.min(capacity, count), count, d);
+
+		double cell = Math.max(d / Math.sqrt(2.0), Math.max(Math.sqrt(width * height / count), Math.max(width, height) / count));
+		int columns = (int) Math.ceil(width / cell);
+		int rows = (int) Math.ceil(height / cell);
+		int reach = (int) Math.ceil(d / cell);
+
+		// Premier point de chaque cellule et point suivant dans la même cellule,
+		// -1 terminant chaque liste
+		int[] cellHeads = new int[columns * rows];
+		Arrays.fill(cellHeads, -1);
+		int[] nextInCell = new int[count];
+		int[] active = new int[count];
+		int activeCount = 0;
+
+		xs[0] = random.nextDouble() * width;
+		ys[0] = random.nextDouble() * height;
+		insert(cellHeads, nextInCell, (int) (ys[0] / cell) * columns + (int) (xs[0] / cell), 0);
+		active[activeCount++] = 0;
+		int placed = 1;
+
+		while (activeCount > 0 && placed < count) {
+			int slot = random.nextInt(activeCount);
+			int origin = active[slot];
+			boolean found = false;
+
+			for (int attempt = 0; attempt < POISSON_ATTEMPTS && !found; ++attempt) {
+				double angle = random.nextDouble() * 2 * Math.PI;
+				double radius = d * (1 + random.nextDouble());
+				double x = xs[origin] + radius * Math.cos(angle);
+				double y = ys[origin] + radius * Math.sin(angle);
+
+				if (x < 0 || x >= width || y < 0 || y >= height) {
+					continue;
+				}
+
+				int cx = Math.min((int) (x / cell), columns - 1);
+				int cy = Math.min((int) (y / cell), rows - 1);
+				if (isFarEnough(cellHeads, nextInCell, columns, rows, cx, cy, reach, x, y, d, xs, ys)) {
+					xs[placed] = x;
+					ys[placed] = y;
+					insert(cellHeads, nextInCell, cy * columns + cx, placed);
+					active[activeCount++] = placed;
+					++placed;
+					found = true;
+				}
+			}
+
+			if (!found) {
+				active[slot] = active[--activeCount];
+			}
+		}
+
+		requirePlaced(placed, count, d);
+
+		for (int i = 0; i < count; ++i) {
+			xs[i] += x0;
+			ys[i] += y0;
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException si seuls {@code placed} objets sur
+	 *                                  {@code count} respectent la distance
+	 *                                  minimale {@code d}
+	 */
+	private static void requirePlaced(long placed, int count, double d) throws IllegalArgumentException {
+		Utils.require("Seuls " + placed + " objets sur " + count + " respectent la distance minimale " + d + ".", placed == count);
+	}
+
+	private static void insert(int[] cellHeads, int[] nextInCell, int cell, int point) {
+		nextInCell[point] = cellHeads[cell];
+		cellHeads[cell] = point;
+	}
+
+	/**
+	 * Vérifie qu'aucun point placé ne se trouve à moins de {@code d} de
+	 * {@code (x, y)}, en examinant les cellules à au plus {@code reach}
+	 * cellules de {@code (cx, cy)}.
+	 */
+	private static boolean isFarEnough(int[] cellHeads, int[] nextInCell, int columns, int rows, int cx, int cy, int reach,
+			double x, double y, double d, double[] xs, double[] ys) {
+		double d2 = d * d;
+		for (int j = Math.max(0, cy - reach); j <= Math.min(rows - 1, cy + reach); ++j) {
+			for (int i = Math.max(0, cx - reach); i <= Math.min(columns - 1, cx + reach); ++i) {
+				for (int other = cellHeads[j * columns + i]; other >= 0; other = nextInCell[other]) {
+					double dx = xs[other] - x;
+					double dy = ys[other] - y;
+					if (dx * dx + dy * dy < d2) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}
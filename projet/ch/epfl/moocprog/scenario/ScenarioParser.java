@@ -0,0 +1,219 @@
+package ch.epfl.moocprog.scenario;
+
+import static ch.epfl.moocprog.config.Config.WORLD_HEIGHT;
+import static ch.epfl.moocprog.config.Config.WORLD_WIDTH;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.scenario.Scenario.Directive;
+import ch.epfl.moocprog.scenario.Scenario.Kind;
+import ch.epfl.moocprog.scenario.Scenario.Layout;
+import ch.epfl.moocprog.utils.Utils;
+
+/**
+ * Classe finale utilitaire lisant un {@link Scenario} depuis un fichier texte.
+ * Le fichier est lu ligne par ligne et chaque ligne est découpée par un
+ * analyseur lexical écrit à la main (les espaces, virgules, deux-points et
+ * points-virgules séparent les mots ; {@code #} débute un commentaire), sans
+ * expression régulière. Les mots-clés ne tiennent pas compte de la casse.
+ * <p>
+ * Lignes reconnues :
+ * <ul>
+ * <li>{@code Anthill: 10, 20} ou {@code Termite: 20, 30} : un objet en un
+ * point (format historique de {@code res/config.cfg}) ;</li>
+ * <li>{@code seed 42} : graine du générateur aléatoire de placement ;</li>
+ * <li>{@code <n> <sorte> [uniform | poisson <d> | at <x> <y>] [in <x0> <y0> <x1> <y1>]}
+ * : {@code n} objets ({@code anthill(s)}, {@code termite(s)} ou
+ * {@code food}) répartis uniformément (par défaut), selon un échantillonnage
+ * de Poisson de distance minimale {@code d}, ou empilés en un point ; le
+ * rectangle de placement vaut par défaut le monde entier.</li>
+ * </ul>
+ * Exemples : {@code 5000 termites uniform in 0, 0, 500, 350} et
+ * {@code 200 anthills poisson 30}.
+ */
+public final class ScenarioParser {
+
+	/**
+	 * Graine employée lorsque le scénario n'en déclare aucune
+	 */
+	public static final long DEFAULT_SEED = 0L;
+
+	// Empêche l'instanciation de cette classe
+	private ScenarioParser() {}
+
+	/**
+	 * Lit le scénario du fichier {@code file}, le rectangle de placement par
+	 * défaut étant le monde défini par le fichier de configuration initial.
+	 *
+	 * @param file : {@link File}, fichier de scénario
+	 * @return le {@link Scenario} lu
+	 * @throws IOException              en cas d'erreur de lecture
+	 * @throws IllegalArgumentException si une ligne est invalide
+	 */
+	public static Scenario parse(File file) throws IOException, IllegalArgumentException {
+		Utils.requireNonNull(file);
+		try (Reader reader = new FileReader(file)) {
+			return parse(reader, Context.getConfig().getInt(WORLD_WIDTH), Context.getConfig().getInt(WORLD_HEIGHT));
+		}
+	}
+
+	/**
+	 * Lit un scénario depuis {@code reader}.
+	 *
+	 * @param reader      : {@link Reader}, source du scénario (non fermée)
+	 * @param worldWidth  : {@code int}, largeur du rectangle de placement par
+	 *                    défaut
+	 * @param worldHeight : {@code int}, hauteur du rectangle de placement par
+	 *                    défaut
+	 * @return le {@link Scenario} lu
+	 * @throws IOException              en cas d'erreur de lecture
+	 * @throws IllegalArgumentException si une ligne est invalide
+	 */
+	public static Scenario parse(Reader reader, int worldWidth, int worldHeight) throws IOException, IllegalArgumentException {
+		BufferedReader in = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+		List<Directive> directives = new ArrayList<Directive>();
+		List<String> tokens = new ArrayList<String>();
+		long seed = DEFAULT_SEED;
+		int lineNumber = 0;
+
+		String line;
+		while ((line = in.readLine()) != null) {
+			++lineNumber;
+			tokenize(line, tokens);
+			if (tokens.isEmpty()) {
+				continue;
+			}
+
+			try {
+				String first = tokens.get(0);
+				if (first.equals("seed")) {
+					expectSize(tokens, 2);
+					seed = Long.parseLong(tokens.get(1));
+				} else if (Character.isDigit(first.charAt(0))) {
+					directives.add(parseBulk(tokens, worldWidth, worldHeight));
+				} else {
+					// Format historique : "Sorte: x, y"
+					expectSize(tokens, 3);
+					double x = Double.parseDouble(tokens.get(1));
+					double y = Double.parseDouble(tokens.get(2));
+					directives.add(new Directive(parseKind(first), 1, Layout.POINT, x, y, x, y, 0.0));
+				}
+			} catch (IllegalArgumentException e) {
+				// NumberFormatException comprise
+				throw new IllegalArgumentException("Ligne " + lineNumber + " invalide (" + e.getMessage() + ") : " + line, e);
+			}
+		}
+
+		return new Scenario(directives, seed);
+	}
+
+	/**
+	 * Analyse une directive de placement en masse.
+	 */
+	private static Directive parseBulk(List<String> tokens, int worldWidth, int worldHeight) {
+		Utils.require("sorte manquante", tokens.size() >= 2);
+		int count = Integer.parseInt(tokens.get(0));
+		Kind kind = parseKind(tokens.get(1));
+
+		Layout layout = Layout.UNIFORM;
+		double minDistance = 0.0;
+		double x0 = 0.0, y0 = 0.0, x1 = worldWidth, y1 = worldHeight;
+
+		int i = 2;
+		if (i < tokens.size()) {
+			switch (tokens.get(i)) {
+				case "uniform":
+					++i;
+					break;
+				case "poisson":
+					Utils.require("distance manquante", i + 1 < tokens.size());
+					layout = Layout.POISSON_DISK;
+					minDistance = Double.parseDouble(tokens.get(i + 1));
+					i += 2;
+					break;
+				case "at":
+					Utils.require("point manquant", i + 2 < tokens.size());
+					layout = Layout.POINT;
+					x0 = x1 = Double.parseDouble(tokens.get(i + 1));
+					y0 = y1 = Double.parseDouble(tokens.get(i + 2));
+					i += 3;
+					break;
+				default:
+					break;
+			}
+		}
+
+		if (i < tokens.size() && tokens.get(i).equals("in")) {
+			Utils.require("rectangle incomplet", i + 4 < tokens.size());
+			x0 = Double.parseDouble(tokens.get(i + 1));
+			y0 = Double.parseDouble(tokens.get(i + 2));
+			x1 = Double.parseDouble(tokens.get(i + 3));
+			y1 = Double.parseDouble(tokens.get(i + 4));
+			i += 5;
+		}
+
+		Utils.require("mot inattendu", i == tokens.size());
+		return new Directive(kind, count, layout, x0, y0, x1, y1, minDistance);
+	}
+
+	/**
+	 * Convertit un nom de sorte (singulier ou pluriel) en {@link Kind}.
+	 */
+	private static Kind parseKind(String name) {
+		switch (name) {
+			case "anthill":
+			case "anthills":
+				return Kind.ANTHILL;
+			case "termite":
+			case "termites":
+				return Kind.TERMITE;
+			case "food":
+			case "foods":
+				return Kind.FOOD;
+			default:
+				throw new IllegalArgumentException("sorte inconnue " + name);
+		}
+	}
+
+	private static void expectSize(List<String> tokens, int size) {
+		Utils.require(size + " mots attendus", tokens.size() == size);
+	}
+
+	/**
+	 * Découpe {@code line} en mots, en minuscules, dans {@code tokens} (vidée au
+	 * préalable).
+	 */
+	private static void tokenize(String line, List<String> tokens) {
+		tokens.clear();
+		int length = line.length();
+		int start = -1;
+
+		for (int i = 0; i <= length; ++i) {
+			char c = (i < length) ? line.charAt(i) : ' ';
+			if (c == '#') {
+				c = ' ';
+				length = i;
+			}
+			boolean separator = Character.isWhitespace(c) || c == ',' || c == ':' || c == ';';
+
+			if (separator) {
+				if (start >= 0) {
+					tokens.add(line.substring(start, i).toLowerCase());
+					start = -1;
+				}
+				if (i >= length) {
+					break;
+				}
+			} else if (start < 0) {
+				start = i;
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package ch.epfl.moocprog.stats;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Accès au compteur d'octets alloués par le fil d'exécution courant, fourni
+ * par l'extension {@code com.sun.management.ThreadMXBean} de la machine
+ * virtuelle HotSpot. Lorsque le compteur n'est pas disponible,
+ * {@link AllocationCounter#isSupported()} retourne {@code false} et
+ * {@link AllocationCounter#currentThreadAllocatedBytes()} retourne {@code -1}.
+ */
+public final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean BEAN = threadBean();
+
+    // Empêche l'instanciation de cette classe
+    private AllocationCounter() {}
+
+    /**
+     * Indique si le compteur d'octets alloués est disponible.
+     *
+     * @return {@code true} si les mesures sont possibles
+     */
+    public static boolean isSupported() {
+        return BEAN != null;
+    }
+
+    /**
+     * Retourne le nombre total d'octets alloués par le fil d'exécution courant
+     * depuis son démarrage. Seule la différence entre deux mesures d'un même fil
+     * a un sens.
+     *
+     * @return Le nombre d'octets, ou {@code -1} si le compteur n'est pas
+     *         disponible
+     */
+    public static long currentThreadAllocatedBytes() {
+        return (BEAN == null) ? -1L : BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // Machine virtuelle sans l'extension : mesures indisponibles
+        }
+        return null;
+    }
+}
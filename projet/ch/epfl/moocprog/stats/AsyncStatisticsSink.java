@@ -0,0 +1,180 @@
+package ch.epfl.moocprog.stats;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Destination asynchrone : les échantillons sont déposés dans une file bornée
+ * et écrits par un fil d'exécution dédié dans la destination déléguée. La
+ * méthode {@link AsyncStatisticsSink#accept(StatisticsSample)} ne bloque
+ * jamais le pas de simulation : lorsque la file est pleine, l'échantillon est
+ * abandonné et comptabilisé par {@link AsyncStatisticsSink#getDroppedCount()}.
+ * Une erreur d'écriture survenue dans le fil dédié est relancée par l'appel
+ * suivant à {@code accept}, {@code flush} ou {@code close}.
+ */
+public final class AsyncStatisticsSink implements StatisticsSink {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    // Échantillons sentinelles, comparés par identité
+    private static final StatisticsSample FLUSH = new StatisticsSample(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, new double[0], MemoryFootprint.EMPTY);
+    private static final StatisticsSample CLOSE = new StatisticsSample(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, new double[0], MemoryFootprint.EMPTY);
+
+    private final StatisticsSink delegate;
+    private final BlockingQueue<StatisticsSample> queue;
+    private final Thread writer;
+    private final AtomicLong dropped;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Construit une destination asynchrone avec une file de capacité par défaut.
+     *
+     * @param delegate La destination synchrone dans laquelle écrire
+     */
+    public AsyncStatisticsSink(StatisticsSink delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construit une destination asynchrone.
+     *
+     * @param delegate La destination synchrone dans laquelle écrire
+     * @param capacity La capacité de la file d'attente
+     * @throws IllegalArgumentException si {@code delegate} est {@code null} ou
+     *                                  si {@code capacity} n'est pas
+     *                                  strictement positive
+     */
+    public AsyncStatisticsSink(StatisticsSink delegate, int capacity) {
+        if (delegate == null || capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<StatisticsSample>(capacity);
+        this.dropped = new AtomicLong();
+        this.writer = new Thread(this::drain, "statistics-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Ouvre une destination asynchrone écrivant dans {@code file} : au format
+     * CSV si le nom du fichier se termine par {@code .csv}, au format binaire en
+     * colonnes ({@link ColumnarStatisticsWriter}) sinon.
+     *
+     * @param file Le fichier de destination, créé ou écrasé
+     * @return Une nouvelle destination asynchrone
+     * @throws IOException si le fichier ne peut être ouvert
+     */
+    public static AsyncStatisticsSink open(File file) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        StatisticsSink sink;
+        if (file.getName().toLowerCase().endsWith(".csv")) {
+            sink = new CsvStatisticsWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } else {
+            sink = new ColumnarStatisticsWriter(out, 256);
+        }
+        return new AsyncStatisticsSink(sink);
+    }
+
+    @Override
+    public void accept(StatisticsSample sample) throws IOException {
+        rethrowFailure();
+        if (closed || !queue.offer(sample)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Demande l'écriture des échantillons mis en tampon, sans attendre qu'elle
+     * soit effectuée.
+     */
+    @Override
+    public void flush() throws IOException {
+        rethrowFailure();
+        if (!closed) {
+            queue.offer(FLUSH);
+        }
+    }
+
+    /**
+     * Écrit tous les échantillons en attente puis ferme la destination
+     * déléguée. Cet appel bloque jusqu'à la fin des écritures.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // Le fil dédié a pu s'arrêter sur une erreur, la file restant pleine
+            while (writer.isAlive() && !queue.offer(CLOSE, 10, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Retourne le nombre d'échantillons abandonnés faute de place dans la file.
+     *
+     * @return Le nombre d'échantillons abandonnés
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void rethrowFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void drain() {
+        List<StatisticsSample> batch = new ArrayList<StatisticsSample>();
+        boolean running = true;
+        try {
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (StatisticsSample sample : batch) {
+                    if (sample == CLOSE) {
+                        running = false;
+                        break;
+                    } else if (sample == FLUSH) {
+                        delegate.flush();
+                    } else {
+                        delegate.accept(sample);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                delegate.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+}
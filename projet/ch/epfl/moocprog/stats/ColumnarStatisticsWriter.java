@@ -0,0 +1,137 @@
+package ch.epfl.moocprog.stats;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Écrivain synchrone d'échantillons dans un fichier binaire en colonnes. Les
+ * échantillons sont regroupés par blocs ; chaque bloc contient, colonne après
+ * colonne, les valeurs de tous ses échantillons, ce qui permet de relire une
+ * seule courbe sans décoder les autres.
+ * <p>
+ * Format (entiers et réels en gros-boutiste, voir {@link DataOutputStream}) :
+ * <ul>
+ * <li>en-tête : l'entier {@link ColumnarStatisticsWriter#MAGIC}, l'entier
+ * {@link ColumnarStatisticsWriter#VERSION}, le nombre {@code n} de colonnes
+ * réelles puis leurs {@code n} noms (UTF modifié) ;</li>
+ * <li>chaque bloc : le nombre {@code r} d'échantillons, {@code r} entiers
+ * longs {@code tick}, {@code r} entiers longs {@code time_ms}, puis pour
+ * chacune des {@code n} colonnes, {@code r} réels doubles.</li>
+ * </ul>
+ * Les colonnes réelles sont les mesures scalaires de {@link StatisticsSample}
+ * suivies d'une colonne {@code anthill_<i>_food} par fourmilière présente dans
+ * le premier échantillon.
+ */
+public final class ColumnarStatisticsWriter implements StatisticsSink {
+
+    /**
+     * Identifiant de format ({@code "ANTS"})
+     */
+    public static final int MAGIC = 0x414E5453;
+
+    /**
+     * Version du format
+     */
+    public static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private long[] ticks;
+    private long[] times;
+    private double[][] columns;
+    private int rows;
+
+    /**
+     * Construit un écrivain en colonnes.
+     *
+     * @param out       La destination, mise en tampon par l'écrivain et fermée
+     *                  avec lui
+     * @param blockSize Le nombre d'échantillons par bloc
+     * @throws IllegalArgumentException si {@code blockSize} n'est pas
+     *                                  strictement positif
+     */
+    public ColumnarStatisticsWriter(OutputStream out, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("La taille de bloc doit être strictement positive.");
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void accept(StatisticsSample sample) throws IOException {
+        if (columns == null) {
+            writeHeader(sample);
+        }
+
+        ticks[rows] = sample.getTick();
+        times[rows] = sample.getTimeMillis();
+        int scalarColumns = StatisticsSample.getColumnCount();
+        for (int i = 0; i < scalarColumns; ++i) {
+            columns[i][rows] = sample.getValue(i);
+        }
+        for (int i = scalarColumns; i < columns.length; ++i) {
+            int anthill = i - scalarColumns;
+            columns[i][rows] = (anthill < sample.getAnthillCount()) ? sample.getAnthillFood(anthill) : Double.NaN;
+        }
+
+        if (++rows == blockSize) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHeader(StatisticsSample first) throws IOException {
+        int scalarColumns = StatisticsSample.getColumnCount();
+        int count = scalarColumns + first.getAnthillCount();
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(count);
+        for (int i = 0; i < scalarColumns; ++i) {
+            out.writeUTF(StatisticsSample.getColumnName(i));
+        }
+        for (int i = scalarColumns; i < count; ++i) {
+            out.writeUTF("anthill_" + (i - scalarColumns) + "_food");
+        }
+
+        ticks = new long[blockSize];
+        times = new long[blockSize];
+        columns = new double[count][blockSize];
+    }
+
+    private void writeBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeInt(rows);
+        for (int r = 0; r < rows; ++r) {
+            out.writeLong(ticks[r]);
+        }
+        for (int r = 0; r < rows; ++r) {
+            out.writeLong(times[r]);
+        }
+        for (double[] column : columns) {
+            for (int r = 0; r < rows; ++r) {
+                out.writeDouble(column[r]);
+            }
+        }
+        rows = 0;
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.moocprog.stats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Écrivain synchrone d'échantillons au format CSV, une ligne par échantillon.
+ * Les colonnes sont {@code tick}, {@code time_ms}, les mesures scalaires de
+ * {@link StatisticsSample} puis une colonne {@code anthill_<i>_food} par
+ * fourmilière. Les colonnes des fourmilières sont fixées par le premier
+ * échantillon : la nourriture des fourmilières ajoutées ensuite n'est comptée
+ * que dans {@code food_stored}.
+ */
+public final class CsvStatisticsWriter implements StatisticsSink {
+    private final Writer out;
+    private int anthillColumns;
+    private boolean headerWritten;
+
+    /**
+     * Construit un écrivain CSV.
+     *
+     * @param out La destination, mise en tampon par l'écrivain et fermée avec
+     *            lui
+     */
+    public CsvStatisticsWriter(Writer out) {
+        this.out = (out instanceof BufferedWriter) ? out : new BufferedWriter(out, 1 << 16);
+        this.headerWritten = false;
+    }
+
+    @Override
+    public void accept(StatisticsSample sample) throws IOException {
+        if (!headerWritten) {
+            writeHeader(sample);
+        }
+
+        StringBuilder line = new StringBuilder(128);
+        line.append(sample.getTick()).append(',').append(sample.getTimeMillis());
+        for (int i = 0; i < StatisticsSample.getColumnCount(); ++i) {
+            line.append(',');
+            appendValue(line, sample.getValue(i));
+        }
+        for (int i = 0; i < anthillColumns; ++i) {
+            line.append(',');
+            if (i < sample.getAnthillCount()) {
+                appendValue(line, sample.getAnthillFood(i));
+            }
+        }
+        line.append('\n');
+        out.write(line.toString());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeHeader(StatisticsSample first) throws IOException {
+        anthillColumns = first.getAnthillCount();
+
+        StringBuilder header = new StringBuilder("tick,time_ms");
+        for (int i = 0; i < StatisticsSample.getColumnCount(); ++i) {
+            header.append(',').append(StatisticsSample.getColumnName(i));
+        }
+        for (int i = 0; i < anthillColumns; ++i) {
+            header.append(",anthill_").append(i).append("_food");
+        }
+        header.append('\n');
+        out.write(header.toString());
+        headerWritten = true;
+    }
+
+    private static void appendValue(StringBuilder line, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            line.append((long) value);
+        } else {
+            line.append(String.format(Locale.ROOT, "%.6g", value));
+        }
+    }
+}
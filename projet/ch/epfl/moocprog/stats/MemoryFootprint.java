@@ -0,0 +1,139 @@
+package ch.epfl.moocprog.stats;
+
+/**
+ * Relevé immuable de l'empreinte mémoire des objets d'un environnement : pour
+ * chaque type d'entité de la simulation, le nombre d'instances vivantes et la
+ * place qu'elles retiennent dans le tas, estimée d'après un échantillon
+ * d'instances.
+ */
+public final class MemoryFootprint {
+
+    /**
+     * Types d'entités de la simulation
+     */
+    public enum EntityType {
+        ANT_WORKER("AntWorker", "ant_worker_bytes"),
+        ANT_SOLDIER("AntSoldier", "ant_soldier_bytes"),
+        TERMITE("Termite", "termite_bytes"),
+        PHEROMONE("Pheromone", "pheromone_bytes"),
+        FOOD("Food", "food_bytes"),
+        ANTHILL("Anthill", "anthill_bytes");
+
+        private final String displayName;
+        private final String columnName;
+
+        private EntityType(String displayName, String columnName) {
+            this.displayName = displayName;
+            this.columnName = columnName;
+        }
+
+        /**
+         * Retourne le nom de la classe d'entités.
+         *
+         * @return Le nom affiché
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * Retourne le nom de la colonne d'échantillon portant la place retenue
+         * par ce type d'entités.
+         *
+         * @return Le nom de colonne
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    /**
+     * Relevé vide, ne comptant aucune entité
+     */
+    public static final MemoryFootprint EMPTY = new MemoryFootprint(new int[TYPES.length], new long[TYPES.length]);
+
+    private final int[] counts;
+    private final long[] retainedBytes;
+
+    /**
+     * Construit un relevé.
+     *
+     * @param counts        Le nombre d'instances vivantes de chaque type, dans
+     *                      l'ordre de {@link EntityType#values()}
+     * @param retainedBytes La place estimée retenue par les instances de chaque
+     *                      type, en octets, dans le même ordre
+     * @throws IllegalArgumentException si les tableaux ne comportent pas une
+     *                                  case par type
+     */
+    public MemoryFootprint(int[] counts, long[] retainedBytes) {
+        if (counts.length != TYPES.length || retainedBytes.length != TYPES.length) {
+            throw new IllegalArgumentException();
+        }
+        this.counts = counts.clone();
+        this.retainedBytes = retainedBytes.clone();
+    }
+
+    /**
+     * Retourne le nombre d'instances vivantes de {@code type}.
+     *
+     * @param type Le type d'entités
+     * @return Le nombre d'instances
+     */
+    public int getCount(EntityType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * Retourne la place estimée retenue par les instances de {@code type}.
+     *
+     * @param type Le type d'entités
+     * @return La place en octets
+     */
+    public long getRetainedBytes(EntityType type) {
+        return retainedBytes[type.ordinal()];
+    }
+
+    /**
+     * Retourne la place estimée retenue par une instance de {@code type}, en
+     * moyenne.
+     *
+     * @param type Le type d'entités
+     * @return La place en octets, ou {@code 0} en l'absence d'instance
+     */
+    public double getBytesPerInstance(EntityType type) {
+        int count = counts[type.ordinal()];
+        return (count == 0) ? 0.0 : (double) retainedBytes[type.ordinal()] / count;
+    }
+
+    /**
+     * Retourne la place estimée retenue par l'ensemble des entités.
+     *
+     * @return La place en octets
+     */
+    public long getTotalRetainedBytes() {
+        long total = 0;
+        for (long bytes : retainedBytes) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Formate le relevé sous forme de tableau, une ligne par type d'entités
+     * suivie d'une ligne de total.
+     *
+     * @return La représentation textuelle
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-12s %10s %12s %14s%n", "entité", "instances", "octets/inst.", "octets retenus"));
+        for (EntityType type : TYPES) {
+            builder.append(String.format("%-12s %10d %12.1f %14d%n", type.getDisplayName(),
+                    getCount(type), getBytesPerInstance(type), getRetainedBytes(type)));
+        }
+        builder.append(String.format("%-12s %10s %12s %14d%n", "total", "", "", getTotalRetainedBytes()));
+        return builder.toString();
+    }
+}
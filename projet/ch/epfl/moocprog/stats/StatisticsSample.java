@@ -0,0 +1,199 @@
+package ch.epfl.moocprog.stats;
+
+/**
+ * Échantillon immuable des statistiques d'un environnement à un instant donné
+ * du temps simulé. Outre le numéro de pas et l'instant, un échantillon
+ * comporte une série de mesures scalaires (accessibles par indice de colonne
+ * pour les écrivains génériques), la nourriture stockée dans chaque
+ * fourmilière, dans l'ordre d'ajout des fourmilières à l'environnement, et
+ * l'empreinte mémoire des entités ({@link MemoryFootprint}).
+ */
+public final class StatisticsSample {
+
+    /**
+     * Noms des colonnes des mesures scalaires, dans l'ordre des indices de
+     * {@link StatisticsSample#getValue(int)}
+     */
+    private static final String[] COLUMNS = {
+        "workers", "soldiers", "termites", "pheromones", "pheromone_mass",
+        "food_on_map", "food_stored", "fights", "fights_per_second",
+        "allocated_bytes_per_step"
+    };
+
+    // Les colonnes de l'empreinte mémoire suivent celles de COLUMNS
+    private static final MemoryFootprint.EntityType[] FOOTPRINT_COLUMNS = MemoryFootprint.EntityType.values();
+
+    private final long tick;
+    private final long timeMillis;
+    private final int workers;
+    private final int soldiers;
+    private final int termites;
+    private final int pheromones;
+    private final double pheromoneMass;
+    private final double foodOnMap;
+    private final double foodStored;
+    private final long fights;
+    private final double fightsPerSecond;
+    private final double allocatedBytesPerStep;
+    private final double[] anthillFood;
+    private final MemoryFootprint footprint;
+
+    /**
+     * Construit un échantillon.
+     *
+     * @param tick            Le numéro du pas de simulation
+     * @param timeMillis      Le temps simulé, en millisecondes
+     * @param workers         Le nombre de fourmis ouvrières vivantes
+     * @param soldiers        Le nombre de fourmis soldates vivantes
+     * @param termites        Le nombre de termites vivants
+     * @param pheromones      Le nombre de phéromones déposées
+     * @param pheromoneMass   La quantité totale de phéromones
+     * @param foodOnMap       La nourriture disponible sur la carte
+     * @param foodStored      La nourriture stockée dans les fourmilières
+     * @param fights          Le nombre total de coups portés
+     * @param fightsPerSecond Le nombre de coups portés par seconde de temps
+     *                        simulé depuis l'échantillon précédent
+     * @param allocatedBytesPerStep Le nombre moyen d'octets alloués par pas
+     *                        depuis l'échantillon précédent, ou {@code NaN} si
+     *                        la mesure n'est pas disponible
+     * @param anthillFood     La nourriture stockée par fourmilière ; le tableau
+     *                        n'est pas copié et ne doit plus être modifié
+     * @param footprint       L'empreinte mémoire des entités
+     */
+    public StatisticsSample(long tick, long timeMillis, int workers, int soldiers, int termites,
+            int pheromones, double pheromoneMass, double foodOnMap, double foodStored,
+            long fights, double fightsPerSecond, double allocatedBytesPerStep,
+            double[] anthillFood, MemoryFootprint footprint) {
+        this.tick = tick;
+        this.timeMillis = timeMillis;
+        this.workers = workers;
+        this.soldiers = soldiers;
+        this.termites = termites;
+        this.pheromones = pheromones;
+        this.pheromoneMass = pheromoneMass;
+        this.foodOnMap = foodOnMap;
+        this.foodStored = foodStored;
+        this.fights = fights;
+        this.fightsPerSecond = fightsPerSecond;
+        this.allocatedBytesPerStep = allocatedBytesPerStep;
+        this.anthillFood = anthillFood;
+        this.footprint = footprint;
+    }
+
+    /**
+     * Retourne le nombre de mesures scalaires d'un échantillon.
+     *
+     * @return Le nombre de colonnes scalaires
+     */
+    public static int getColumnCount() {
+        return COLUMNS.length + FOOTPRINT_COLUMNS.length;
+    }
+
+    /**
+     * Retourne le nom de la mesure scalaire d'indice {@code column}.
+     *
+     * @param column L'indice de la colonne
+     * @return Le nom de la colonne
+     */
+    public static String getColumnName(int column) {
+        return (column < COLUMNS.length) ? COLUMNS[column] : FOOTPRINT_COLUMNS[column - COLUMNS.length].getColumnName();
+    }
+
+    /**
+     * Retourne la valeur de la mesure scalaire d'indice {@code column}.
+     *
+     * @param column L'indice de la colonne
+     * @return La valeur de la mesure
+     */
+    public double getValue(int column) {
+        switch (column) {
+            case 0: return workers;
+            case 1: return soldiers;
+            case 2: return termites;
+            case 3: return pheromones;
+            case 4: return pheromoneMass;
+            case 5: return foodOnMap;
+            case 6: return foodStored;
+            case 7: return fights;
+            case 8: return fightsPerSecond;
+            case 9: return allocatedBytesPerStep;
+            default:
+                if (column >= COLUMNS.length && column < getColumnCount()) {
+                    return footprint.getRetainedBytes(FOOTPRINT_COLUMNS[column - COLUMNS.length]);
+                }
+                throw new IndexOutOfBoundsException("Colonne inconnue : " + column);
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getSoldiers() {
+        return soldiers;
+    }
+
+    public int getTermites() {
+        return termites;
+    }
+
+    public int getPheromones() {
+        return pheromones;
+    }
+
+    public double getPheromoneMass() {
+        return pheromoneMass;
+    }
+
+    public double getFoodOnMap() {
+        return foodOnMap;
+    }
+
+    public double getFoodStored() {
+        return foodStored;
+    }
+
+    public long getFights() {
+        return fights;
+    }
+
+    public double getFightsPerSecond() {
+        return fightsPerSecond;
+    }
+
+    public double getAllocatedBytesPerStep() {
+        return allocatedBytesPerStep;
+    }
+
+    public MemoryFootprint getMemoryFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Retourne le nombre de fourmilières de l'échantillon.
+     *
+     * @return Le nombre de fourmilières
+     */
+    public int getAnthillCount() {
+        return anthillFood.length;
+    }
+
+    /**
+     * Retourne la nourriture stockée dans la fourmilière d'indice
+     * {@code anthill}.
+     *
+     * @param anthill L'indice de la fourmilière, dans l'ordre d'ajout
+     * @return La quantité de nourriture stockée
+     */
+    public double getAnthillFood(int anthill) {
+        return anthillFood[anthill];
+    }
+}
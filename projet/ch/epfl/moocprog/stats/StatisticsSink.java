@@ -0,0 +1,27 @@
+package ch.epfl.moocprog.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination des échantillons de statistiques produits par un
+ * {@link ch.epfl.moocprog.Environment}. Les échantillons sont transmis dans
+ * l'ordre chronologique, depuis le fil d'exécution de la simulation.
+ */
+public interface StatisticsSink extends Closeable {
+
+    /**
+     * Reçoit un échantillon.
+     *
+     * @param sample L'échantillon à enregistrer
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    void accept(StatisticsSample sample) throws IOException;
+
+    /**
+     * Force l'écriture des échantillons mis en tampon.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,138 @@
+package ch.epfl.moocprog.telemetry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodage binaire compact des instantanés envoyés à un client, en
+ * gros-boutiste :
+ * <pre>
+ * u8  sorte (0 : image clé, 1 : delta)
+ * i64 pas, i64 temps simulé (ms)
+ * u16 largeur, u16 hauteur du monde
+ * u16 colonnes, u16 lignes de la grille des phéromones
+ * u32 nombre d'animaux, puis par animal : u8 type, u16 x, u16 y
+ *     (coordonnées rapportées à 65535 sur la taille du monde)
+ * phéromones, image clé : une intensité u8 par cellule, ligne après ligne
+ * phéromones, delta : u32 nombre de cellules modifiées, puis par cellule :
+ *     écart d'indice depuis la cellule modifiée précédente (entier sans signe
+ *     de longueur variable, 7 bits par octet) et nouvelle intensité u8
+ * </pre>
+ * Les deltas sont relatifs au dernier instantané encodé par la même instance :
+ * chaque client a son propre encodeur, et un client qui a manqué des
+ * instantanés reçoit un delta correct. Les animaux n'ayant pas d'identité
+ * stable d'un instantané à l'autre, ils sont toujours envoyés en entier.
+ */
+final class FrameEncoder {
+    static final int KEY_FRAME = 0;
+    static final int DELTA_FRAME = 1;
+
+    private final Buffer buffer = new Buffer();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private byte[] previousGrid;
+    private int previousColumns;
+    private int previousRows;
+
+    /**
+     * Encode {@code snapshot}, en delta du dernier instantané encodé si la
+     * grille des phéromones a gardé ses dimensions.
+     *
+     * @param snapshot L'instantané à encoder
+     * @return Le tampon de l'encodage, valide jusqu'à l'appel suivant ; ses
+     *         {@link FrameEncoder#size()} premiers octets sont significatifs
+     */
+    byte[] encode(TelemetrySnapshot snapshot) {
+        int columns = snapshot.getGridColumns();
+        int rows = snapshot.getGridRows();
+        int cells = columns * rows;
+        boolean key = previousGrid == null || columns != previousColumns || rows != previousRows;
+
+        buffer.reset();
+        try {
+            out.writeByte(key ? KEY_FRAME : DELTA_FRAME);
+            out.writeLong(snapshot.getTick());
+            out.writeLong(snapshot.getTimeMillis());
+            out.writeShort(snapshot.getWorldWidth());
+            out.writeShort(snapshot.getWorldHeight());
+            out.writeShort(columns);
+            out.writeShort(rows);
+
+            double scaleX = 0xFFFF / (double) snapshot.getWorldWidth();
+            double scaleY = 0xFFFF / (double) snapshot.getWorldHeight();
+            out.writeInt(snapshot.getAnimalCount());
+            for (int i = 0; i < snapshot.getAnimalCount(); ++i) {
+                out.writeByte(snapshot.getAnimalType(i));
+                out.writeShort(quantize(snapshot.getAnimalX(i) * scaleX));
+                out.writeShort(quantize(snapshot.getAnimalY(i) * scaleY));
+            }
+
+            if (key) {
+                previousGrid = new byte[cells];
+                previousColumns = columns;
+                previousRows = rows;
+                for (int i = 0; i < cells; ++i) {
+                    int level = snapshot.getPheromoneLevel(i);
+                    out.writeByte(level);
+                    previousGrid[i] = (byte) level;
+                }
+            } else {
+                int changes = 0;
+                for (int i = 0; i < cells; ++i) {
+                    if ((previousGrid[i] & 0xFF) != snapshot.getPheromoneLevel(i)) {
+                        ++changes;
+                    }
+                }
+                out.writeInt(changes);
+                for (int i = 0, last = -1; i < cells; ++i) {
+                    int level = snapshot.getPheromoneLevel(i);
+                    if ((previousGrid[i] & 0xFF) != level) {
+                        writeVarInt(i - last);
+                        out.writeByte(level);
+                        previousGrid[i] = (byte) level;
+                        last = i;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Écriture en mémoire
+            throw new IllegalStateException(e);
+        }
+        return buffer.bytes();
+    }
+
+    /**
+     * Retourne la taille du dernier encodage.
+     *
+     * @return Le nombre d'octets significatifs du tampon de
+     *         {@link FrameEncoder#encode(TelemetrySnapshot)}
+     */
+    int size() {
+        return buffer.size();
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int quantize(double value) {
+        return (int) Math.max(0, Math.min(0xFFFF, Math.round(value)));
+    }
+
+    /**
+     * Tampon d'encodage, lu sans copie
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(1 << 14);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
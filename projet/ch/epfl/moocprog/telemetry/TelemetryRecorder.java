@@ -0,0 +1,136 @@
+package ch.epfl.moocprog.telemetry;
+
+import java.util.Arrays;
+
+import ch.epfl.moocprog.Animal;
+import ch.epfl.moocprog.AnimalVisitor;
+import ch.epfl.moocprog.AntSoldier;
+import ch.epfl.moocprog.AntWorker;
+import ch.epfl.moocprog.Anthill;
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.Food;
+import ch.epfl.moocprog.Pheromone;
+import ch.epfl.moocprog.RenderingMedia;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.app.Context;
+import ch.epfl.moocprog.config.Config;
+import ch.epfl.moocprog.gfx.EnvironmentRenderer;
+import ch.epfl.moocprog.utils.Vec2d;
+
+/**
+ * Relevé d'un {@link TelemetrySnapshot} par le contrat de rendu de
+ * l'environnement ({@link Environment#renderEntities(EnvironmentRenderer)}) :
+ * les animaux sont classés par "double dispatch" et les phéromones cumulées
+ * dans une grille à résolution réduite. Les tampons de relevé sont réutilisés
+ * d'un instantané à l'autre ; une instance n'est utilisée que par le fil de la
+ * simulation.
+ */
+final class TelemetryRecorder implements EnvironmentRenderer, AnimalVisitor {
+    private final double gridCellSize;
+
+    private int animalCount;
+    private byte[] animalTypes = new byte[64];
+    private float[] animalX = new float[64];
+    private float[] animalY = new float[64];
+
+    private int gridColumns;
+    private int gridRows;
+    private float[] pheromoneLevels = new float[0];
+
+    /**
+     * Construit un relevé dont la grille des phéromones a des cellules de côté
+     * {@code gridCellSize}.
+     *
+     * @param gridCellSize Le côté des cellules de la grille des phéromones
+     */
+    TelemetryRecorder(double gridCellSize) {
+        this.gridCellSize = gridCellSize;
+    }
+
+    /**
+     * Relève l'état visible de {@code environment}.
+     *
+     * @param environment L'environnement à relever
+     * @return Un nouvel instantané
+     */
+    TelemetrySnapshot record(Environment environment) {
+        int width = environment.getWidth();
+        int height = environment.getHeight();
+        gridColumns = Math.max(1, (int) Math.ceil(width / gridCellSize));
+        gridRows = Math.max(1, (int) Math.ceil(height / gridCellSize));
+        if (pheromoneLevels.length != gridColumns * gridRows) {
+            pheromoneLevels = new float[gridColumns * gridRows];
+        } else {
+            Arrays.fill(pheromoneLevels, 0.0f);
+        }
+        animalCount = 0;
+
+        environment.renderEntities(this);
+
+        double maxEnergy = Context.getConfig().getDouble(Config.ANT_PHEROMONE_ENERGY);
+        byte[] grid = new byte[pheromoneLevels.length];
+        for (int i = 0; i < grid.length; ++i) {
+            grid[i] = (byte) Math.round(Math.min(pheromoneLevels[i] / maxEnergy, 1d) * 0xFF);
+        }
+        return new TelemetrySnapshot(environment.getClock().getTick(), environment.getClock().getTimeMillis(),
+                width, height, animalCount,
+                Arrays.copyOf(animalTypes, animalCount),
+                Arrays.copyOf(animalX, animalCount),
+                Arrays.copyOf(animalY, animalCount),
+                gridColumns, gridRows, grid);
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void renderAnimal(Animal animal) {
+        animal.accept(this, null);
+    }
+
+    @Override
+    public void renderPheromone(Pheromone pheromone) {
+        Vec2d position = pheromone.getPosition().toVec2d();
+        int column = Math.min((int) (position.getX() / gridCellSize), gridColumns - 1);
+        int row = Math.min((int) (position.getY() / gridCellSize), gridRows - 1);
+        pheromoneLevels[row * gridColumns + column] += (float) pheromone.getQuantity();
+    }
+
+    @Override
+    public void renderAnthill(Anthill anthill) {
+    }
+
+    @Override
+    public void renderFood(Food food) {
+    }
+
+    @Override
+    public void visit(AntWorker antWorker, RenderingMedia s) {
+        add(antWorker, TelemetrySnapshot.ANT_WORKER);
+    }
+
+    @Override
+    public void visit(AntSoldier antSoldier, RenderingMedia s) {
+        add(antSoldier, TelemetrySnapshot.ANT_SOLDIER);
+    }
+
+    @Override
+    public void visit(Termite termite, RenderingMedia s) {
+        add(termite, TelemetrySnapshot.TERMITE);
+    }
+
+    private void add(Animal animal, byte type) {
+        if (animalCount == animalTypes.length) {
+            int capacity = 2 * animalCount;
+            animalTypes = Arrays.copyOf(animalTypes, capacity);
+            animalX = Arrays.copyOf(animalX, capacity);
+            animalY = Arrays.copyOf(animalY, capacity);
+        }
+        Vec2d position = animal.getPosition().toVec2d();
+        animalTypes[animalCount] = type;
+        animalX[animalCount] = (float) position.getX();
+        animalY[animalCount] = (float) position.getY();
+        ++animalCount;
+    }
+}
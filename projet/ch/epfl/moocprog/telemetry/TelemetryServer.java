@@ -0,0 +1,166 @@
+package ch.epfl.moocprog.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.stats.StatisticsSample;
+import ch.epfl.moocprog.stats.StatisticsSink;
+
+/**
+ * Serveur de télémétrie d'une simulation en cours, sans dépendance externe :
+ * le serveur HTTP du JDK ({@code com.sun.net.httpserver}) sert le dernier
+ * échantillon de statistiques en JSON ({@code /stats}) et une page de
+ * visualisation ({@code /}), qui reçoit par WebSocket les instantanés de
+ * l'environnement encodés par {@link FrameEncoder}.
+ * <p>
+ * Le serveur est une destination de statistiques à abonner à l'environnement
+ * ({@link Environment#addStatisticsSink(StatisticsSink)}), et
+ * {@link TelemetryServer#publish(Environment)} doit être appelée par le fil de
+ * la simulation, entre deux pas, pour publier un instantané. Les publications
+ * remplacent une référence atomique et ne prennent aucun verrou : les fils du
+ * serveur lisent des objets immuables.
+ */
+public final class TelemetryServer implements StatisticsSink {
+    private static final String VIEWER_PATH = "projet/ch/epfl/moocprog/telemetry/res/viewer.html";
+    private static final double GRID_CELL_SIZE = 10;
+
+    private final AtomicReference<StatisticsSample> latestSample = new AtomicReference<StatisticsSample>();
+    private final AtomicReference<TelemetrySnapshot> latestSnapshot = new AtomicReference<TelemetrySnapshot>();
+    private final TelemetryRecorder recorder = new TelemetryRecorder(GRID_CELL_SIZE);
+    private final HttpServer httpServer;
+    private final WebSocketEndpoint webSocket;
+
+    /**
+     * Démarre un serveur écoutant sur {@code address}, le flux WebSocket
+     * ayant son propre port.
+     *
+     * @param address       L'adresse d'écoute (l'interface locale pour un
+     *                      accès par tunnel seulement)
+     * @param httpPort      Le port HTTP, ou {@code 0} pour un port libre
+     * @param webSocketPort Le port WebSocket, ou {@code 0} pour un port libre
+     * @throws IllegalArgumentException si {@code address} est {@code null}
+     * @throws IOException              si un port ne peut être ouvert
+     */
+    public TelemetryServer(InetAddress address, int httpPort, int webSocketPort) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException();
+        }
+        this.webSocket = new WebSocketEndpoint(latestSnapshot, address, webSocketPort);
+        try {
+            this.httpServer = HttpServer.create(new InetSocketAddress(address, httpPort), 0);
+        } catch (IOException e) {
+            webSocket.close();
+            throw e;
+        }
+        httpServer.createContext("/stats", this::serveStatistics);
+        httpServer.createContext("/", this::serveViewer);
+        httpServer.start();
+    }
+
+    public int getHttpPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public int getWebSocketPort() {
+        return webSocket.getPort();
+    }
+
+    /**
+     * Publie un instantané de {@code environment}. À appeler depuis le fil de
+     * la simulation, entre deux pas : l'environnement est parcouru, puis
+     * l'instantané remplace le précédent sans verrou.
+     *
+     * @param environment L'environnement simulé
+     */
+    public void publish(Environment environment) {
+        latestSnapshot.set(recorder.record(environment));
+        webSocket.wakeClients();
+    }
+
+    @Override
+    public void accept(StatisticsSample sample) {
+        latestSample.set(sample);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Arrête le serveur et déconnecte les clients.
+     */
+    @Override
+    public void close() throws IOException {
+        httpServer.stop(0);
+        webSocket.close();
+    }
+
+    private void serveStatistics(HttpExchange exchange) throws IOException {
+        StatisticsSample sample = latestSample.get();
+        String body = (sample == null) ? "{}" : toJson(sample);
+        send(exchange, (sample == null) ? 503 : 200, "application/json; charset=utf-8", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void serveViewer(HttpExchange exchange) throws IOException {
+        File viewer = new File(VIEWER_PATH);
+        if (!exchange.getRequestURI().getPath().equals("/") || !viewer.isFile()) {
+            send(exchange, 404, "text/plain; charset=utf-8", "Introuvable".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String page = new String(Files.readAllBytes(viewer.toPath()), StandardCharsets.UTF_8)
+                .replace("%WEBSOCKET_PORT%", Integer.toString(getWebSocketPort()));
+        send(exchange, 200, "text/html; charset=utf-8", page.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Objet JSON d'un échantillon : {@code tick}, {@code time_ms}, les mesures
+     * scalaires sous leur nom de colonne et {@code anthill_food}, les valeurs
+     * indisponibles ({@code NaN}) valant {@code null}
+     */
+    private static String toJson(StatisticsSample sample) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"tick\":").append(sample.getTick())
+            .append(",\"time_ms\":").append(sample.getTimeMillis());
+        for (int i = 0; i < StatisticsSample.getColumnCount(); ++i) {
+            json.append(",\"").append(StatisticsSample.getColumnName(i)).append("\":");
+            appendValue(json, sample.getValue(i));
+        }
+        json.append(",\"anthill_food\":[");
+        for (int i = 0; i < sample.getAnthillCount(); ++i) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendValue(json, sample.getAnthillFood(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendValue(StringBuilder json, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            json.append("null");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            json.append((long) value);
+        } else {
+            json.append(value);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ch.epfl.moocprog.telemetry;
+
+/**
+ * Instantané immuable de l'état visible d'un environnement, publié par le fil
+ * de la simulation et lu sans verrou par les fils du serveur : position et
+ * type de chaque animal, et grille des phéromones à résolution réduite. Les
+ * tableaux ne sont pas copiés et ne doivent plus être modifiés après la
+ * construction.
+ */
+final class TelemetrySnapshot {
+
+    /**
+     * Types d'animaux de {@link TelemetrySnapshot#getAnimalType(int)}
+     */
+    static final byte ANT_WORKER = 0;
+    static final byte ANT_SOLDIER = 1;
+    static final byte TERMITE = 2;
+
+    private final long tick;
+    private final long timeMillis;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final int animalCount;
+    private final byte[] animalTypes;
+    private final float[] animalX;
+    private final float[] animalY;
+    private final int gridColumns;
+    private final int gridRows;
+    private final byte[] pheromoneGrid;
+
+    /**
+     * Construit un instantané.
+     *
+     * @param tick          Le numéro du pas de simulation
+     * @param timeMillis    Le temps simulé, en millisecondes
+     * @param worldWidth    La largeur du monde
+     * @param worldHeight   La hauteur du monde
+     * @param animalCount   Le nombre d'animaux
+     * @param animalTypes   Le type de chaque animal
+     * @param animalX       L'abscisse de chaque animal
+     * @param animalY       L'ordonnée de chaque animal
+     * @param gridColumns   Le nombre de colonnes de la grille des phéromones
+     * @param gridRows      Le nombre de lignes de la grille des phéromones
+     * @param pheromoneGrid L'intensité des phéromones de chaque cellule, de
+     *                      {@code 0} à {@code 255}, ligne après ligne
+     */
+    TelemetrySnapshot(long tick, long timeMillis, int worldWidth, int worldHeight,
+            int animalCount, byte[] animalTypes, float[] animalX, float[] animalY,
+            int gridColumns, int gridRows, byte[] pheromoneGrid) {
+        this.tick = tick;
+        this.timeMillis = timeMillis;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.animalCount = animalCount;
+        this.animalTypes = animalTypes;
+        this.animalX = animalX;
+        this.animalY = animalY;
+        this.gridColumns = gridColumns;
+        this.gridRows = gridRows;
+        this.pheromoneGrid = pheromoneGrid;
+    }
+
+    long getTick() {
+        return tick;
+    }
+
+    long getTimeMillis() {
+        return timeMillis;
+    }
+
+    int getWorldWidth() {
+        return worldWidth;
+    }
+
+    int getWorldHeight() {
+        return worldHeight;
+    }
+
+    int getAnimalCount() {
+        return animalCount;
+    }
+
+    byte getAnimalType(int animal) {
+        return animalTypes[animal];
+    }
+
+    float getAnimalX(int animal) {
+        return animalX[animal];
+    }
+
+    float getAnimalY(int animal) {
+        return animalY[animal];
+    }
+
+    int getGridColumns() {
+        return gridColumns;
+    }
+
+    int getGridRows() {
+        return gridRows;
+    }
+
+    /**
+     * Retourne l'intensité des phéromones de la cellule d'indice {@code cell}.
+     *
+     * @param cell L'indice de la cellule, ligne après ligne
+     * @return L'intensité, de {@code 0} à {@code 255}
+     */
+    int getPheromoneLevel(int cell) {
+        return pheromoneGrid[cell] & 0xFF;
+    }
+}
@@ -0,0 +1,276 @@
+package ch.epfl.moocprog.telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Point d'accès WebSocket (RFC 6455) minimal diffusant les instantanés encodés
+ * par {@link FrameEncoder}, en messages binaires, à chaque client connecté.
+ * Le serveur HTTP du JDK ne sait pas changer de protocole : le point d'accès
+ * écoute sur sa propre socket. Chaque client a un fil d'exécution qui attend,
+ * sans verrou, la publication d'un nouvel instantané et n'envoie que le plus
+ * récent ; un client lent manque des instantanés sans ralentir la simulation
+ * ni les autres clients.
+ */
+final class WebSocketEndpoint implements AutoCloseable {
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long ACCEPT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAX_HEADER_LENGTH = 8192;
+
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    private final AtomicReference<TelemetrySnapshot> latest;
+    private final ServerSocket serverSocket;
+    private final List<Thread> clients = new CopyOnWriteArrayList<Thread>();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Ouvre le point d'accès sur {@code address}:{@code port}.
+     *
+     * @param latest  La référence de l'instantané le plus récent
+     * @param address L'adresse d'écoute
+     * @param port    Le port d'écoute, ou {@code 0} pour un port libre
+     * @throws IOException si la socket ne peut être ouverte
+     */
+    WebSocketEndpoint(AtomicReference<TelemetrySnapshot> latest, InetAddress address, int port) throws IOException {
+        this.latest = latest;
+        this.serverSocket = new ServerSocket(port, 16, address);
+        this.acceptor = new Thread(this::acceptClients, "telemetry-websocket");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Réveille les clients en attente d'un nouvel instantané. Appelée depuis le
+     * fil de la simulation, cette méthode ne bloque pas.
+     */
+    void wakeClients() {
+        for (Thread client : clients) {
+            LockSupport.unpark(client);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Thread client : clients) {
+            client.interrupt();
+        }
+    }
+
+    private void acceptClients() {
+        while (!closed && !serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed || serverSocket.isClosed()) {
+                    // Socket fermée par close()
+                    return;
+                }
+                // Erreur persistante possible (descripteurs épuisés) : attente
+                // avant de réessayer, plutôt qu'une boucle active
+                LockSupport.parkNanos(this, ACCEPT_RETRY_NANOS);
+                continue;
+            }
+            Thread client = new Thread(() -> serve(socket), "telemetry-client-" + socket.getPort());
+            client.setDaemon(true);
+            clients.add(client);
+            client.start();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = new BufferedOutputStream(s.getOutputStream(), 1 << 16);
+            if (!handshake(in, out)) {
+                return;
+            }
+
+            FrameEncoder encoder = new FrameEncoder();
+            TelemetrySnapshot sent = null;
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                if (!readControlFrames(in, out)) {
+                    return;
+                }
+                TelemetrySnapshot snapshot = latest.get();
+                if (snapshot == null || snapshot == sent) {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                    continue;
+                }
+                byte[] frame = encoder.encode(snapshot);
+                writeFrame(out, OPCODE_BINARY, frame, encoder.size());
+                out.flush();
+                sent = snapshot;
+            }
+            writeFrame(out, OPCODE_CLOSE, new byte[0], 0);
+            out.flush();
+        } catch (IOException e) {
+            // Client déconnecté ou requête invalide : seul ce client est perdu
+        } finally {
+            clients.remove(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Lit la requête d'ouverture et y répond.
+     *
+     * @return {@code false} si la requête n'est pas une ouverture WebSocket
+     */
+    private static boolean handshake(InputStream in, OutputStream out) throws IOException {
+        String request = readHeader(in);
+        String key = null;
+        boolean upgrade = false;
+        for (String line : request.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("sec-websocket-key")) {
+                key = value;
+            } else if (name.equals("upgrade")) {
+                upgrade = value.equalsIgnoreCase("websocket");
+            }
+        }
+        if (!request.startsWith("GET ") || !upgrade || key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return false;
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return true;
+    }
+
+    private static String readHeader(InputStream in) throws IOException {
+        StringBuilder header = new StringBuilder(512);
+        while (header.length() < MAX_HEADER_LENGTH) {
+            int c = in.read();
+            if (c < 0) {
+                throw new IOException("Requête incomplète");
+            }
+            header.append((char) c);
+            int length = header.length();
+            if (length >= 4 && header.charAt(length - 1) == '\n' && header.charAt(length - 2) == '\r'
+                    && header.charAt(length - 3) == '\n' && header.charAt(length - 4) == '\r') {
+                return header.toString();
+            }
+        }
+        throw new IOException("En-tête trop long");
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 est fourni par toute machine virtuelle Java
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Traite les messages déjà reçus du client, sans attendre : les pings
+     * reçoivent une réponse, les autres messages sont ignorés.
+     *
+     * @return {@code false} si le client a fermé la connexion
+     */
+    private static boolean readControlFrames(InputStream in, OutputStream out) throws IOException {
+        while (in.available() >= 2) {
+            int first = in.read();
+            int second = in.read();
+            int opcode = first & 0x0F;
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = (readByte(in) << 8) | readByte(in);
+            } else if (length == 127) {
+                length = 0;
+                for (int i = 0; i < 8; ++i) {
+                    length = (length << 8) | readByte(in);
+                }
+            }
+            byte[] mask = new byte[4];
+            if ((second & 0x80) != 0) {
+                for (int i = 0; i < 4; ++i) {
+                    mask[i] = (byte) readByte(in);
+                }
+            }
+            if (opcode == OPCODE_CLOSE) {
+                return false;
+            }
+            if (opcode == OPCODE_PING && length <= 125) {
+                byte[] payload = new byte[(int) length];
+                for (int i = 0; i < payload.length; ++i) {
+                    payload[i] = (byte) (readByte(in) ^ mask[i & 3]);
+                }
+                writeFrame(out, OPCODE_PONG, payload, payload.length);
+                out.flush();
+            } else {
+                for (long i = 0; i < length; ++i) {
+                    readByte(in);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("Message incomplet");
+        }
+        return b;
+    }
+
+    private static void writeFrame(OutputStream out, int opcode, byte[] payload, int length) throws IOException {
+        out.write(0x80 | opcode);
+        if (length < 126) {
+            out.write(length);
+        } else if (length <= 0xFFFF) {
+            out.write(126);
+            out.write(length >>> 8);
+            out.write(length);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) ((long) length >>> shift));
+            }
+        }
+        out.write(payload, 0, length);
+    }
+}
@@ -0,0 +1,94 @@
+package ch.epfl.moocprog.tests;
+
+import java.io.File;
+import java.util.Random;
+
+import ch.epfl.moocprog.Anthill;
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.Environment.UpdateMode;
+import ch.epfl.moocprog.Food;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.ToricPosition;
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.random.NormalDistribution;
+import ch.epfl.moocprog.random.UniformDistribution;
+import ch.epfl.moocprog.utils.Time;
+
+/**
+ * Comparaison des modes de mise à jour des animaux (voir {@link UpdateMode})
+ * pour des mondes de 2 à 200 colonies : chaque monde, peuplé d'une même graine,
+ * est d'abord simulé le temps que les fourmilières le peuplent, puis le temps
+ * moyen d'un pas est mesuré dans chaque mode.
+ * <p>
+ * Usage : {@code ParallelUpdateBench [pas] [fils]}, par défaut 200 pas mesurés
+ * et autant de fils que de processeurs disponibles.
+ */
+public class ParallelUpdateBench {
+    private static final int[] COLONIES = {2, 5, 10, 20, 50, 100, 200};
+    private static final int TERMITES_PER_COLONY = 10;
+    private static final int FOOD_PER_COLONY = 5;
+    private static final int WARMUP_STEPS = 300;
+    private static final long SEED = 2024;
+    private static final Time DT = Time.fromMilliseconds(50);
+
+    public static void main(String[] args) {
+        int steps = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ApplicationInitializer.initializeApplication(
+            new ImmutableConfigManager(
+                new File("res/app.cfg")
+            )
+        );
+
+        System.out.printf("%d timed steps per mode, %d thread(s) for the parallel modes%n", steps, threads);
+        System.out.printf("%9s %8s %12s %12s %12s%n", "colonies", "animals", "SEQUENTIAL", "PER_COLONY", "SPATIAL");
+        for (int colonies : COLONIES) {
+            Environment env = populate(colonies);
+            for (int step = 0; step < WARMUP_STEPS; ++step) {
+                env.update(DT);
+            }
+            int animals = env.getStatistics().getWorkers() + env.getStatistics().getSoldiers()
+                    + env.getStatistics().getTermites();
+
+            StringBuilder line = new StringBuilder(String.format("%9d %8d", colonies, animals));
+            for (UpdateMode mode : UpdateMode.values()) {
+                env.setUpdateMode(mode, threads);
+                long start = System.nanoTime();
+                for (int step = 0; step < steps; ++step) {
+                    env.update(DT);
+                }
+                double millisPerStep = (System.nanoTime() - start) * 1e-6 / steps;
+                line.append(String.format(" %9.3f ms", millisPerStep));
+            }
+            env.setUpdateMode(UpdateMode.SEQUENTIAL, 1);
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Retourne un monde de {@code colonies} fourmilières, avec des termites et
+     * de la nourriture en proportion, placés d'après {@link #SEED}
+     */
+    private static Environment populate(int colonies) {
+        UniformDistribution.setSeed(SEED);
+        NormalDistribution.setSeed(SEED);
+        Random random = new Random(SEED);
+
+        Environment env = new Environment();
+        for (int i = 0; i < colonies; ++i) {
+            env.addAnthill(new Anthill(randomPosition(env, random)));
+        }
+        for (int i = 0; i < colonies * TERMITES_PER_COLONY; ++i) {
+            env.addAnimal(new Termite(randomPosition(env, random)));
+        }
+        for (int i = 0; i < colonies * FOOD_PER_COLONY; ++i) {
+            env.addFood(new Food(randomPosition(env, random), 20 + random.nextDouble() * 80));
+        }
+        return env;
+    }
+
+    private static ToricPosition randomPosition(Environment env, Random random) {
+        return new ToricPosition(random.nextDouble() * env.getWidth(), random.nextDouble() * env.getHeight());
+    }
+}
@@ -0,0 +1,111 @@
+package ch.epfl.moocprog.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.epfl.moocprog.Anthill;
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.Environment.UpdateMode;
+import ch.epfl.moocprog.EnvironmentStatistics;
+import ch.epfl.moocprog.Food;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.ToricPosition;
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.random.NormalDistribution;
+import ch.epfl.moocprog.random.UniformDistribution;
+import ch.epfl.moocprog.utils.Time;
+
+/**
+ * Vérification du déterminisme des mises à jour parallèles : pour chaque mode
+ * parallèle, un même monde est simulé deux fois avec la même graine, et les
+ * statistiques relevées à intervalles réguliers doivent être identiques d'une
+ * exécution à l'autre, quel que soit l'ordre dans lequel les fils ont mis à
+ * jour les groupes d'animaux.
+ */
+public class ParallelUpdateCheck {
+    private static final long SEED = 2024;
+    private static final int COLONIES = 6;
+    private static final int TERMITES = 150;
+    private static final int FOOD = 40;
+    private static final int STEPS = 1500;
+    private static final int SAMPLE_PERIOD = 100;
+    private static final int THREADS = 4;
+    private static final Time DT = Time.fromMilliseconds(50);
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        ApplicationInitializer.initializeApplication(
+            new ImmutableConfigManager(
+                new File("res/app.cfg")
+            )
+        );
+
+        for (UpdateMode mode : new UpdateMode[] {UpdateMode.PER_COLONY, UpdateMode.SPATIAL}) {
+            System.out.println("Two runs in " + mode + " mode with " + THREADS + " threads");
+            List<String> first = run(mode);
+            List<String> second = run(mode);
+            System.out.println("last sample : " + first.get(first.size() - 1));
+            check(mode + " : identical statistics", first.equals(second));
+            check(mode + " : some fights", !first.get(first.size() - 1).endsWith("fights 0"));
+        }
+
+        System.out.println(failures == 0 ? "All parallel update checks passed" : failures + " parallel update check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(String label, boolean ok) {
+        System.out.println(label + " : " + (ok ? "OK" : "FAILED"));
+        if (!ok) {
+            ++failures;
+        }
+    }
+
+    /**
+     * Simule le monde de graine {@link #SEED} en mode {@code mode} et retourne
+     * les statistiques relevées tous les {@link #SAMPLE_PERIOD} pas
+     */
+    private static List<String> run(UpdateMode mode) {
+        UniformDistribution.setSeed(SEED);
+        NormalDistribution.setSeed(SEED);
+        Random random = new Random(SEED);
+
+        Environment env = new Environment();
+        for (int i = 0; i < COLONIES; ++i) {
+            env.addAnthill(new Anthill(randomPosition(env, random)));
+        }
+        for (int i = 0; i < TERMITES; ++i) {
+            env.addAnimal(new Termite(randomPosition(env, random)));
+        }
+        for (int i = 0; i < FOOD; ++i) {
+            env.addFood(new Food(randomPosition(env, random), 20 + random.nextDouble() * 80));
+        }
+        env.setUpdateMode(mode, THREADS);
+
+        List<String> samples = new ArrayList<String>();
+        try {
+            for (int step = 1; step <= STEPS; ++step) {
+                env.update(DT);
+                if (step % SAMPLE_PERIOD == 0) {
+                    EnvironmentStatistics statistics = env.getStatistics();
+                    samples.add(String.format("step %d : workers %d, soldiers %d, termites %d, pheromones %d, "
+                            + "food on map %.6f, food stored %.6f, fights %d", step, statistics.getWorkers(),
+                            statistics.getSoldiers(), statistics.getTermites(), statistics.getPheromones(),
+                            statistics.getFoodOnMap(), statistics.getFoodStored(), statistics.getFights()));
+                }
+            }
+        } finally {
+            env.setUpdateMode(UpdateMode.SEQUENTIAL, 1);
+        }
+        return samples;
+    }
+
+    private static ToricPosition randomPosition(Environment env, Random random) {
+        return new ToricPosition(random.nextDouble() * env.getWidth(), random.nextDouble() * env.getHeight());
+    }
+}
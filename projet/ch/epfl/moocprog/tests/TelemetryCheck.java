@@ -0,0 +1,252 @@
+package ch.epfl.moocprog.tests;
+
+import static ch.epfl.moocprog.app.Context.getConfig;
+import static ch.epfl.moocprog.config.Config.ANT_PHEROMONE_ENERGY;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import ch.epfl.moocprog.Animal;
+import ch.epfl.moocprog.AntSoldier;
+import ch.epfl.moocprog.AntWorker;
+import ch.epfl.moocprog.Environment;
+import ch.epfl.moocprog.Termite;
+import ch.epfl.moocprog.ToricPosition;
+import ch.epfl.moocprog.Uid;
+import ch.epfl.moocprog.app.ApplicationInitializer;
+import ch.epfl.moocprog.config.ImmutableConfigManager;
+import ch.epfl.moocprog.telemetry.TelemetryServer;
+import ch.epfl.moocprog.utils.Time;
+
+/**
+ * Vérification du serveur de télémétrie, entièrement sur l'interface locale :
+ * réponses de {@code /stats} avant et après le premier échantillon, ouverture
+ * WebSocket (clé d'exemple de la RFC 6455) et décodage d'une image clé puis
+ * d'un delta, comparés à l'état connu de l'environnement.
+ */
+public class TelemetryCheck {
+    // Côté des cellules de la grille des phéromones du serveur
+    private static final double GRID_CELL_SIZE = 10;
+    // Clé et réponse d'exemple de la RFC 6455, section 1.3
+    private static final String SAMPLE_KEY = "dGhlIHNhbXBsZSBub25jZQ==";
+    private static final String SAMPLE_ACCEPT = "s3pPLMBiTxaQ9kYGzzhZRbK+xOo=";
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        ApplicationInitializer.initializeApplication(
+            new ImmutableConfigManager(
+                new File("res/app.cfg")
+            )
+        );
+
+        Environment env = new Environment();
+        TelemetryServer server = new TelemetryServer(InetAddress.getLoopbackAddress(), 0, 0);
+        try {
+            // Tests /stats
+            System.out.println("Some tests for /stats");
+            check("no sample yet : 503", httpStatus(server, "/stats") == 503);
+            env.addStatisticsSink(server, 100);
+            env.update(Time.fromMilliseconds(100));
+            check("after one sample : 200", httpStatus(server, "/stats") == 200);
+            String json = httpBody(server, "/stats");
+            check("JSON object with tick and time_ms", json.startsWith("{\"tick\":") && json.contains("\"time_ms\":100")
+                    && json.endsWith("]}"));
+
+            // Animaux et phéromones connus, sans mise à jour jusqu'aux publications
+            Uid colony = Uid.createUid();
+            Animal[] animals = {
+                new AntWorker(new ToricPosition(10.5, 20.25), colony),
+                new AntWorker(new ToricPosition(999.9, 0.0), colony),
+                new AntSoldier(new ToricPosition(500, 350), colony),
+                new Termite(new ToricPosition(0.4, 699.6)),
+            };
+            int[] types = {0, 0, 1, 2};
+            for (Animal animal : animals) {
+                env.addAnimal(animal);
+            }
+            int columns = (int) Math.ceil(env.getWidth() / GRID_CELL_SIZE);
+            int rows = (int) Math.ceil(env.getHeight() / GRID_CELL_SIZE);
+            double[] quantities = new double[columns * rows];
+            addPheromone(env, quantities, columns, 15, 15, 2.0);
+            addPheromone(env, quantities, columns, 17, 12, 1.0);
+            addPheromone(env, quantities, columns, 995, 695, 9.0);
+            server.publish(env);
+
+            // Tests WebSocket
+            System.out.println("Some tests for the WebSocket stream");
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getWebSocketPort())) {
+                socket.setSoTimeout(5000);
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET / HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Key: " + SAMPLE_KEY + "\r\nSec-WebSocket-Version: 13\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                String response = readHeader(in);
+                check("handshake : 101", response.startsWith("HTTP/1.1 101 "));
+                check("Sec-WebSocket-Accept", response.contains("Sec-WebSocket-Accept: " + SAMPLE_ACCEPT + "\r\n"));
+
+                DataInputStream key = new DataInputStream(new ByteArrayInputStream(readBinaryMessage(in)));
+                check("key frame", key.readUnsignedByte() == 0);
+                int[] grid = new int[columns * rows];
+                checkHeaderAndAnimals(key, env, columns, rows, animals, types);
+                for (int i = 0; i < grid.length; ++i) {
+                    grid[i] = key.readUnsignedByte();
+                }
+                check("key frame pheromone levels", matches(grid, quantities));
+                check("key frame fully read", key.available() == 0);
+
+                addPheromone(env, quantities, columns, 15, 15, 1.5);
+                addPheromone(env, quantities, columns, 505, 305, 4.0);
+                server.publish(env);
+
+                DataInputStream delta = new DataInputStream(new ByteArrayInputStream(readBinaryMessage(in)));
+                check("delta frame", delta.readUnsignedByte() == 1);
+                checkHeaderAndAnimals(delta, env, columns, rows, animals, types);
+                int changes = delta.readInt();
+                check("delta frame : 2 changed cells", changes == 2);
+                for (int k = 0, cell = -1; k < changes; ++k) {
+                    cell += readVarInt(delta);
+                    grid[cell] = delta.readUnsignedByte();
+                }
+                check("delta applied to key frame", matches(grid, quantities));
+                check("delta frame fully read", delta.available() == 0);
+            }
+        } finally {
+            server.close();
+        }
+
+        System.out.println(failures == 0 ? "All telemetry checks passed" : failures + " telemetry check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(String label, boolean ok) {
+        System.out.println(label + " : " + (ok ? "OK" : "FAILED"));
+        if (!ok) {
+            ++failures;
+        }
+    }
+
+    private static void addPheromone(Environment env, double[] quantities, int columns, double x, double y, double quantity) {
+        env.addPheromone(new ToricPosition(x, y), quantity);
+        quantities[(int) (y / GRID_CELL_SIZE) * columns + (int) (x / GRID_CELL_SIZE)] += quantity;
+    }
+
+    /**
+     * Compare les intensités décodées à celles attendues des quantités
+     * cumulées par cellule, rapportées à {@code ANT_PHEROMONE_ENERGY}
+     */
+    private static boolean matches(int[] grid, double[] quantities) {
+        double maxEnergy = getConfig().getDouble(ANT_PHEROMONE_ENERGY);
+        for (int i = 0; i < grid.length; ++i) {
+            if (grid[i] != Math.round(Math.min((float) quantities[i] / maxEnergy, 1d) * 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkHeaderAndAnimals(DataInputStream frame, Environment env, int columns, int rows,
+            Animal[] animals, int[] types) throws IOException {
+        frame.readLong();
+        check("simulated time", frame.readLong() == env.getClock().getTimeMillis());
+        check("world size", frame.readUnsignedShort() == env.getWidth() && frame.readUnsignedShort() == env.getHeight());
+        check("grid size", frame.readUnsignedShort() == columns && frame.readUnsignedShort() == rows);
+        int count = frame.readInt();
+        check("animal count", count == animals.length);
+        boolean same = true;
+        for (int i = 0; i < count; ++i) {
+            double x = animals[i].getPosition().toVec2d().getX();
+            double y = animals[i].getPosition().toVec2d().getY();
+            same &= frame.readUnsignedByte() == types[i];
+            same &= frame.readUnsignedShort() == Math.round(x * 0xFFFF / env.getWidth());
+            same &= frame.readUnsignedShort() == Math.round(y * 0xFFFF / env.getHeight());
+        }
+        check("animal types and quantized positions", same);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static byte[] readBinaryMessage(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int first = data.readUnsignedByte();
+        check("final binary message", first == 0x82);
+        int second = data.readUnsignedByte();
+        check("unmasked server message", (second & 0x80) == 0);
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = data.readUnsignedShort();
+        } else if (length == 127) {
+            length = data.readLong();
+        }
+        byte[] payload = new byte[(int) length];
+        data.readFully(payload);
+        return payload;
+    }
+
+    private static String readHeader(InputStream in) throws IOException {
+        StringBuilder header = new StringBuilder(256);
+        while (header.length() < 4 || !header.substring(header.length() - 4).equals("\r\n\r\n")) {
+            int c = in.read();
+            if (c < 0) {
+                throw new IOException("Incomplete response");
+            }
+            header.append((char) c);
+        }
+        return header.toString();
+    }
+
+    private static int httpStatus(TelemetryServer server, String path) throws IOException {
+        HttpURLConnection connection = open(server, path);
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String httpBody(TelemetryServer server, String path) throws IOException {
+        HttpURLConnection connection = open(server, path);
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) > 0;) {
+                body.write(buffer, 0, n);
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static HttpURLConnection open(TelemetryServer server, String path) throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getHttpPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+}
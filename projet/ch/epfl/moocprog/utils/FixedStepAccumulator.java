@@ -0,0 +1,101 @@
+package ch.epfl.moocprog.utils;
+
+/**
+ * Découpe un temps écoulé de durée quelconque en pas de simulation de durée
+ * fixe. Le temps reçu par {@link FixedStepAccumulator#advance(double)} est
+ * accumulé et consommé par pas entiers ; le reliquat, inférieur à un pas, est
+ * conservé pour l'appel suivant et fournit le facteur d'interpolation du rendu
+ * entre les deux derniers états simulés. Le nombre de pas rattrapés par appel
+ * est borné : au-delà, le retard est abandonné, la simulation ralentissant
+ * alors plutôt que de consommer un temps de calcul croissant à chaque image.
+ */
+public final class FixedStepAccumulator {
+    private long stepMillis;
+    private int maxSteps;
+    private double accumulatedMillis;
+    private double droppedMillis;
+
+    /**
+     * Construit un accumulateur vide.
+     *
+     * @param stepMillis La durée d'un pas, en millisecondes
+     * @param maxSteps   Le nombre maximal de pas par appel à
+     *                   {@link FixedStepAccumulator#advance(double)}
+     * @throws IllegalArgumentException si l'un des arguments n'est pas
+     *                                  strictement positif
+     */
+    public FixedStepAccumulator(long stepMillis, int maxSteps) {
+        configure(stepMillis, maxSteps);
+    }
+
+    /**
+     * Modifie la durée des pas et le nombre maximal de pas par appel. Le temps
+     * accumulé est conservé.
+     *
+     * @param stepMillis La durée d'un pas, en millisecondes
+     * @param maxSteps   Le nombre maximal de pas par appel
+     * @throws IllegalArgumentException si l'un des arguments n'est pas
+     *                                  strictement positif
+     */
+    public void configure(long stepMillis, int maxSteps) {
+        Utils.require("La durée d'un pas doit être strictement positive.", stepMillis > 0);
+        Utils.require("Le nombre de pas par appel doit être strictement positif.", maxSteps > 0);
+        this.stepMillis = stepMillis;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Accumule {@code elapsedMillis} et retourne le nombre de pas à simuler,
+     * au plus le nombre maximal de pas par appel. Le temps accumulé au-delà de
+     * ces pas et d'un pas supplémentaire est abandonné.
+     *
+     * @param elapsedMillis Le temps écoulé depuis l'appel précédent, en
+     *                      millisecondes
+     * @return Le nombre de pas de durée {@link FixedStepAccumulator#getStepMillis()}
+     *         à simuler
+     * @throws IllegalArgumentException si {@code elapsedMillis} est négatif
+     */
+    public int advance(double elapsedMillis) {
+        Utils.require("Le temps écoulé doit être positif.", elapsedMillis >= 0.0);
+        accumulatedMillis += elapsedMillis;
+
+        int steps = (int) Math.min(maxSteps, Math.floor(accumulatedMillis / stepMillis));
+        accumulatedMillis -= (double) steps * stepMillis;
+
+        // Retard impossible à rattraper : seul le reliquat d'un pas est conservé
+        if (accumulatedMillis >= stepMillis) {
+            double kept = accumulatedMillis % stepMillis;
+            droppedMillis += accumulatedMillis - kept;
+            accumulatedMillis = kept;
+        }
+        return steps;
+    }
+
+    /**
+     * Retourne la fraction du pas suivant déjà écoulée, à utiliser comme
+     * facteur d'interpolation entre l'avant-dernier et le dernier état simulés.
+     *
+     * @return Le facteur d'interpolation, dans {@code [0, 1[}
+     */
+    public double getInterpolation() {
+        return accumulatedMillis / stepMillis;
+    }
+
+    /**
+     * Retourne la durée d'un pas.
+     *
+     * @return La durée d'un pas, en millisecondes
+     */
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    /**
+     * Retourne le temps total abandonné faute de pouvoir être rattrapé.
+     *
+     * @return Le temps abandonné, en millisecondes
+     */
+    public double getDroppedMillis() {
+        return droppedMillis;
+    }
+}
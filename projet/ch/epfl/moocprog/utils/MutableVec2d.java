@@ -0,0 +1,141 @@
+package ch.epfl.moocprog.utils;
+
+/**
+ * Représente un vecteur modifiable sur le plan des {@code double}. Contrairement
+ * à {@link Vec2d}, les opérations modifient {@code this} au lieu de construire
+ * un nouveau vecteur : une instance peut ainsi servir de vecteur de travail
+ * réutilisé par les calculs effectués à chaque pas de simulation, sans allouer
+ * d'objet. Une instance ne doit jamais être exposée hors de son propriétaire ;
+ * {@link MutableVec2d#toVec2d()} en fournit une copie immuable.
+ */
+public final class MutableVec2d {
+    private double x;
+    private double y;
+
+    /**
+     * Construit un vecteur nul
+     */
+    public MutableVec2d() {
+        this(0.0, 0.0);
+    }
+
+    /**
+     * Construit un vecteur avec les coordonnées fournies
+     *
+     * @param x La coordonnée x du vecteur
+     * @param y La coordonnée y du vecteur
+     */
+    public MutableVec2d(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Remplace les coordonnées de ce vecteur.
+     *
+     * @param x La nouvelle coordonnée x
+     * @param y La nouvelle coordonnée y
+     * @return {@code this}
+     */
+    public MutableVec2d set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Remplace ce vecteur par le vecteur unitaire formant l'angle donné avec
+     * l'axe x.
+     *
+     * @param angle L'angle (en radians) que doit former le vecteur avec l'axe x
+     * @return {@code this}
+     */
+    public MutableVec2d setFromAngle(double angle) {
+        return set(Math.cos(angle), Math.sin(angle));
+    }
+
+    /**
+     * Ajoute {@code (dx, dy)} à ce vecteur, composante par composante.
+     *
+     * @param dx La valeur à ajouter à la coordonnée x
+     * @param dy La valeur à ajouter à la coordonnée y
+     * @return {@code this}
+     */
+    public MutableVec2d add(double dx, double dy) {
+        x += dx;
+        y += dy;
+        return this;
+    }
+
+    /**
+     * Multiplie ce vecteur par {@code scalar}.
+     *
+     * @param scalar Le scalaire avec lequel ce vecteur sera multiplié
+     * @return {@code this}
+     */
+    public MutableVec2d scale(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        return this;
+    }
+
+    /**
+     * Normalise ce vecteur (sa norme vaut 1 après l'appel).
+     *
+     * @return {@code this}
+     */
+    public MutableVec2d normalize() {
+        return scale(1/length());
+    }
+
+    /**
+     * Retourne la coordonnée x de ce vecteur.
+     *
+     * @return La coordonnée x de ce vecteur.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retourne la coordonnée y de ce vecteur.
+     *
+     * @return La coordonnée y de ce vecteur.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Calcule la norme de ce vecteur.
+     *
+     * @return La norme de ce vecteur
+     */
+    public double length() {
+        return Math.sqrt(x*x + y*y);
+    }
+
+    /**
+     * Calcule l'angle que forme ce vecteur par rapport
+     * à l'axe x
+     * @return L'angle que forme ce vecteur par rapport
+     *         à l'axe x
+     */
+    public double angle() {
+        return Math.atan2(y, x);
+    }
+
+    /**
+     * Construit une copie immuable de ce vecteur.
+     *
+     * @return Un nouveau {@link Vec2d} de mêmes coordonnées
+     */
+    public Vec2d toVec2d() {
+        return new Vec2d(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Position : %.1f, %.1f", x, y);
+    }
+}
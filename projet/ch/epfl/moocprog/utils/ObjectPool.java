@@ -0,0 +1,85 @@
+package ch.epfl.moocprog.utils;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Réserve bornée d'objets réutilisables. Les objets rendus via
+ * {@link ObjectPool#release(Object)} sont resservis par
+ * {@link ObjectPool#obtain()} avant toute nouvelle allocation, ce qui évite de
+ * solliciter le ramasse-miettes pour des objets à durée de vie courte créés en
+ * grand nombre. La réserve n'est pas synchronisée.
+ *
+ * @param <T> Le type des objets mis en réserve
+ */
+public final class ObjectPool<T> {
+    private final ArrayDeque<T> free;
+    private final Supplier<T> factory;
+    private final int capacity;
+    private long created;
+
+    /**
+     * Construit une réserve vide.
+     *
+     * @param factory  La fabrique appelée lorsque la réserve est vide
+     * @param capacity Le nombre maximal d'objets conservés en réserve ; les
+     *                 objets rendus au-delà sont abandonnés au ramasse-miettes
+     * @throws IllegalArgumentException si {@code factory} est {@code null} ou si
+     *                                  {@code capacity} est négative
+     */
+    public ObjectPool(Supplier<T> factory, int capacity) {
+        Utils.requireNonNull(factory);
+        Utils.require("La capacité doit être positive.", capacity >= 0);
+        this.factory = factory;
+        this.capacity = capacity;
+        this.free = new ArrayDeque<T>(Math.min(capacity, 1024));
+        this.created = 0L;
+    }
+
+    /**
+     * Retourne un objet de la réserve, ou un nouvel objet construit par la
+     * fabrique si la réserve est vide. L'objet retourné doit être
+     * réinitialisé par l'appelant.
+     *
+     * @return Un objet disponible
+     */
+    public T obtain() {
+        T object = free.pollFirst();
+        if (object == null) {
+            ++created;
+            object = factory.get();
+        }
+        return object;
+    }
+
+    /**
+     * Rend {@code object} à la réserve. L'appelant ne doit plus l'utiliser
+     * après cet appel.
+     *
+     * @param object L'objet à rendre
+     */
+    public void release(T object) {
+        if (object != null && free.size() < capacity) {
+            free.addFirst(object);
+        }
+    }
+
+    /**
+     * Retourne le nombre d'objets actuellement disponibles dans la réserve.
+     *
+     * @return Le nombre d'objets disponibles
+     */
+    public int available() {
+        return free.size();
+    }
+
+    /**
+     * Retourne le nombre d'objets construits par la fabrique depuis la
+     * création de la réserve.
+     *
+     * @return Le nombre d'objets construits
+     */
+    public long getCreatedCount() {
+        return created;
+    }
+}
@@ -0,0 +1,179 @@
+package ch.epfl.moocprog.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Estimation de la place occupée en mémoire par des objets, d'après la
+ * disposition des champs de leur classe. Les tailles suivent les règles de la
+ * machine virtuelle HotSpot (en-tête d'objet, taille des références selon la
+ * compression des pointeurs, alignement sur 8 octets) sans tenir compte du
+ * regroupement des champs : ce sont des estimations, destinées au
+ * dimensionnement du tas et non à une mesure exacte.
+ */
+public final class ObjectSizes {
+
+    private static final int ALIGNMENT = 8;
+
+    private static final boolean COMPRESSED_OOPS = vmOption("UseCompressedOops", true);
+    private static final boolean COMPRESSED_CLASS_POINTERS = COMPRESSED_OOPS && vmOption("UseCompressedClassPointers", true);
+
+    private static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+    private static final int OBJECT_HEADER_SIZE = COMPRESSED_CLASS_POINTERS ? 12 : 16;
+    private static final int ARRAY_HEADER_SIZE = COMPRESSED_CLASS_POINTERS ? 16 : 24;
+
+    // Taille et champs références de chaque classe, calculés une seule fois
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    // Empêche l'instanciation de cette classe
+    private ObjectSizes() {}
+
+    /**
+     * Retourne la taille estimée de {@code object} seul, sans les objets qu'il
+     * référence.
+     *
+     * @param object L'objet ou le tableau à mesurer
+     * @return La taille en octets
+     * @throws IllegalArgumentException si {@code object} est {@code null}
+     */
+    public static long shallowSize(Object object) {
+        Utils.requireNonNull(object);
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            long elementSize = type.getComponentType().isPrimitive()
+                    ? primitiveSize(type.getComponentType()) : REFERENCE_SIZE;
+            return align(ARRAY_HEADER_SIZE + elementSize * Array.getLength(object));
+        }
+        return LAYOUTS.get(type).size;
+    }
+
+    /**
+     * Retourne la taille estimée de {@code root} et des objets qu'il retient :
+     * chaque objet atteint depuis {@code root} et vérifiant {@code counted} est
+     * compté une fois, et ses propres références ne sont suivies que s'il
+     * vérifie aussi {@code expanded}. La racine est toujours comptée et suivie.
+     *
+     * @param root     L'objet à mesurer
+     * @param counted  Le prédicat des objets atteints à compter
+     * @param expanded Le prédicat des objets comptés dont les références sont
+     *                 suivies
+     * @return La taille en octets
+     * @throws IllegalArgumentException si un argument est {@code null}
+     */
+    public static long deepSize(Object root, Predicate<Object> counted, Predicate<Object> expanded) {
+        Utils.requireNonNull(root);
+        Utils.requireNonNull(counted);
+        Utils.requireNonNull(expanded);
+
+        IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<Object, Boolean>();
+        ArrayDeque<Object> pending = new ArrayDeque<Object>();
+        visited.put(root, Boolean.TRUE);
+        pending.add(root);
+        long size = 0;
+
+        while (!pending.isEmpty()) {
+            Object object = pending.poll();
+            size += shallowSize(object);
+            if (object != root && !expanded.test(object)) {
+                continue;
+            }
+
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = Array.getLength(object) - 1; i >= 0; --i) {
+                        reach(Array.get(object, i), counted, visited, pending);
+                    }
+                }
+            } else {
+                for (Field field : LAYOUTS.get(type).references) {
+                    try {
+                        reach(field.get(object), counted, visited, pending);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void reach(Object object, Predicate<Object> counted,
+            IdentityHashMap<Object, Boolean> visited, ArrayDeque<Object> pending) {
+        if (object != null && !visited.containsKey(object) && counted.test(object)) {
+            visited.put(object, Boolean.TRUE);
+            pending.add(object);
+        }
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Lit l'option booléenne {@code name} de la machine virtuelle HotSpot, ou
+     * retourne {@code fallback} si elle n'est pas disponible.
+     */
+    private static boolean vmOption(String name, boolean fallback) {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(
+                    com.sun.management.HotSpotDiagnosticMXBean.class);
+            return (bean == null) ? fallback : Boolean.parseBoolean(bean.getVMOption(name).getValue());
+        } catch (RuntimeException | LinkageError e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Taille d'une instance d'une classe et champs références d'instance, y
+     * compris ceux hérités
+     */
+    private static final class Layout {
+        private final long size;
+        private final Field[] references;
+
+        private Layout(Class<?> type) {
+            long fields = 0;
+            List<Field> references = new ArrayList<Field>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        fields += primitiveSize(field.getType());
+                    } else {
+                        fields += REFERENCE_SIZE;
+                        field.setAccessible(true);
+                        references.add(field);
+                    }
+                }
+            }
+            this.size = align(OBJECT_HEADER_SIZE + fields);
+            this.references = references.toArray(new Field[references.size()]);
+        }
+    }
+}